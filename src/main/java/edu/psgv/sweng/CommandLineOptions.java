@@ -0,0 +1,429 @@
+package edu.psgv.sweng;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.psgv.sweng.batch.ShardSelector;
+import edu.psgv.sweng.io.FetchExecutor;
+import edu.psgv.sweng.report.ReportFormat;
+import edu.psgv.sweng.validation.RuleProfile;
+
+/**
+ * CommandLineOptions holds the options the HLS Application was started with.
+ * 	Flags start with '--'; the first argument that is not a flag is the path
+ * 	to the file of URLs to process in batch mode (or, with '--merge', all such
+ * 	arguments are the reports to merge).
+ *
+ * @author Ryan McDonald
+ */
+public class CommandLineOptions {
+
+	public static final String USAGE = "Usage: java HTTPLiveStreamingValidator [options] [listOfPlaylistURLs.txt]\n"
+										+ "  --format <text|jsonl|csv|summary>   report format (default: text)\n"
+										+ "  --output <file>                     write the report to a file instead of the console\n"
+										+ "  --journal <file>                    record completed batch URLs in a checkpoint journal\n"
+										+ "  --resume                            skip URLs completed in the journal (default: <list>.journal)\n"
+										+ "  --shard <index>/<count>             only validate the batch URLs hashed to this shard, e.g. 3/16\n"
+										+ "  --shard-by <url|host>               hash each URL or each URL's host to a shard (default: url)\n"
+										+ "  --merge <report.jsonl>...           merge the JSON Lines reports of several shards into --output\n"
+										+ "  --executor <sequential|virtual>     fetch and validate playlists on a (virtual) thread each\n"
+										+ "  --max-concurrency <n>               maximum fetches in flight overall (default: 64)\n"
+										+ "  --max-per-host <n>                  maximum fetches in flight per host (default: 8)\n"
+										+ "  --master-only                       only validate masters; never fetch their Media Playlists\n"
+										+ "  --live                              monitor the listed live playlists, with LL-HLS blocking reloads\n"
+										+ "  --live-duration <seconds>           stop monitoring after this long (default: until EXT-X-ENDLIST)\n"
+										+ "  --full-reload-every <n>             reload in full after n delta updates, to check them (default: 10)\n"
+										+ "  --profile <name>                    validate with a rule profile, e.g. apple, legacy (default: default)\n"
+										+ "  --profile-file <file>               read rule profiles from a file instead of the shipped ones\n"
+										+ "  --metrics                           print latency histograms and counters at the end (and periodically when live)\n"
+										+ "  --metrics-interval <seconds>        seconds between metrics printed while live (default: 60)\n"
+										+ "  --metrics-port <port>               serve Prometheus metrics at http://<host>:<port>/metrics\n"
+										+ "  --trace <file>                      write a timeline of the fetches, rules and report of each playlist\n";
+
+	public static final int DEFAULT_FULL_RELOAD_EVERY = 10;
+	public static final int DEFAULT_METRICS_INTERVAL = 60;
+
+	private String batchFile;
+	private ReportFormat format = ReportFormat.TEXT;
+	private String outputPath;
+	private String journalPath;
+	private boolean resume;
+	private ShardSelector shard;
+	private boolean merge;
+	private List<String> mergeInputs = new ArrayList<String>();
+	private boolean concurrent;
+	private boolean masterOnly;
+	private boolean live;
+	private long liveDuration = 0;
+	private int fullReloadEvery = DEFAULT_FULL_RELOAD_EVERY;
+	private String profile = RuleProfile.DEFAULT_PROFILE;
+	private String profileFile;
+	private boolean metrics;
+	private int metricsInterval = DEFAULT_METRICS_INTERVAL;
+	private int metricsPort = 0;
+	private String tracePath;
+	private int maxConcurrency = FetchExecutor.DEFAULT_MAX_CONCURRENCY;
+	private int maxPerHost = FetchExecutor.DEFAULT_MAX_PER_HOST;
+
+	/**
+	 * parse() builds the options from the command line arguments.
+	 *
+	 * @param args the command line arguments.
+	 * @return the parsed options.
+	 * @throws IllegalArgumentException if an option is unknown or is missing its value.
+	 */
+	public static CommandLineOptions parse(String[] args) {
+		CommandLineOptions options = new CommandLineOptions();
+		String shardValue = null;
+		ShardSelector.Key shardKey = ShardSelector.Key.URL;
+
+		for(int i = 0; i < args.length; i++) {
+			String arg = args[i];
+
+			if(arg.equals("--format")) {
+				String value = valueOf(args, ++i, arg);
+
+				options.format = ReportFormat.fromString(value);
+				if(options.format == null) {
+					throw new IllegalArgumentException("Unknown report format '" + value + "'.");
+				}
+
+			} else if(arg.equals("--output")) {
+				options.outputPath = valueOf(args, ++i, arg);
+
+			} else if(arg.equals("--journal")) {
+				options.journalPath = valueOf(args, ++i, arg);
+
+			} else if(arg.equals("--resume")) {
+				options.resume = true;
+
+			} else if(arg.equals("--shard")) {
+				shardValue = valueOf(args, ++i, arg);
+
+			} else if(arg.equals("--shard-by")) {
+				String value = valueOf(args, ++i, arg);
+
+				if(value.equalsIgnoreCase("url")) {
+					shardKey = ShardSelector.Key.URL;
+				} else if(value.equalsIgnoreCase("host")) {
+					shardKey = ShardSelector.Key.HOST;
+				} else {
+					throw new IllegalArgumentException("Unknown shard key '" + value + "'.");
+				}
+
+			} else if(arg.equals("--executor")) {
+				String value = valueOf(args, ++i, arg);
+
+				if(value.equalsIgnoreCase("sequential")) {
+					options.concurrent = false;
+				} else if(value.equalsIgnoreCase("virtual")) {
+					options.concurrent = true;
+				} else {
+					throw new IllegalArgumentException("Unknown executor '" + value + "'.");
+				}
+
+			} else if(arg.equals("--max-concurrency")) {
+				options.maxConcurrency = positiveIntOf(args, ++i, arg);
+
+			} else if(arg.equals("--max-per-host")) {
+				options.maxPerHost = positiveIntOf(args, ++i, arg);
+
+			} else if(arg.equals("--master-only")) {
+				options.masterOnly = true;
+
+			} else if(arg.equals("--live")) {
+				options.live = true;
+
+			} else if(arg.equals("--live-duration")) {
+				options.liveDuration = positiveIntOf(args, ++i, arg);
+
+			} else if(arg.equals("--full-reload-every")) {
+				options.fullReloadEvery = positiveIntOf(args, ++i, arg);
+
+			} else if(arg.equals("--profile")) {
+				options.profile = valueOf(args, ++i, arg);
+
+			} else if(arg.equals("--profile-file")) {
+				options.profileFile = valueOf(args, ++i, arg);
+
+			} else if(arg.equals("--metrics")) {
+				options.metrics = true;
+
+			} else if(arg.equals("--metrics-interval")) {
+				options.metricsInterval = positiveIntOf(args, ++i, arg);
+
+			} else if(arg.equals("--metrics-port")) {
+				options.metricsPort = positiveIntOf(args, ++i, arg);
+
+			} else if(arg.equals("--trace")) {
+				options.tracePath = valueOf(args, ++i, arg);
+
+			} else if(arg.equals("--merge")) {
+				options.merge = true;
+
+			} else if(arg.startsWith("--")) {
+				throw new IllegalArgumentException("Unknown option '" + arg + "'.");
+
+			} else if(!arg.isEmpty()) {
+				options.mergeInputs.add(arg);
+
+				if(options.batchFile == null) {
+					options.batchFile = arg;
+				}
+			}
+		}
+
+		if(shardValue != null) {
+			options.shard = ShardSelector.parse(shardValue, shardKey);
+		}
+
+		if(options.merge && options.mergeInputs.isEmpty()) {
+			throw new IllegalArgumentException("Option '--merge' requires at least one report to merge.");
+		}
+
+		if(options.resume && options.outputPath != null && !options.format.isLinePerRecord()) {
+			throw new IllegalArgumentException("Option '--resume' requires a jsonl or csv report to append to.");
+		}
+
+		if(options.live && options.batchFile == null) {
+			throw new IllegalArgumentException("Option '--live' requires a list of playlist URLs.");
+		}
+
+		return options;
+	}
+
+	/**
+	 * valueOf() returns the value following a flag.
+	 */
+	private static String valueOf(String[] args, int index, String flag) {
+		if(index >= args.length || args[index].startsWith("--")) {
+			throw new IllegalArgumentException("Option '" + flag + "' requires a value.");
+		}
+
+		return args[index];
+	}
+
+	/**
+	 * positiveIntOf() returns the positive integer value following a flag.
+	 */
+	private static int positiveIntOf(String[] args, int index, String flag) {
+		String value = valueOf(args, index, flag);
+
+		try {
+			int number = Integer.parseInt(value);
+			if(number > 0) {
+				return number;
+			}
+		} catch(NumberFormatException e) {
+			//Reported below
+		}
+
+		throw new IllegalArgumentException("Option '" + flag + "' requires a positive number.");
+	}
+
+	/**
+	 * getBatchFile() returns the path to the file of URLs for batch mode.
+	 *
+	 * @return the path to the file of URLs or null for interactive mode.
+	 */
+	public String getBatchFile() {
+		return batchFile;
+	}
+
+	/**
+	 * getFormat() returns the format the report is written in.
+	 *
+	 * @return the report format.
+	 */
+	public ReportFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * getOutputPath() returns the file the report is written to.
+	 *
+	 * @return the path of the report file or null for the console.
+	 */
+	public String getOutputPath() {
+		return outputPath;
+	}
+
+	/**
+	 * getJournalPath() returns the checkpoint journal of a batch run.  A resumed run
+	 * 	without an explicit journal uses the URL list's path with '.journal' appended.
+	 *
+	 * @return the path of the journal or null if no journal should be kept.
+	 */
+	public String getJournalPath() {
+		if(journalPath == null && resume && batchFile != null) {
+			return batchFile + ".journal";
+		}
+
+		return journalPath;
+	}
+
+	/**
+	 * isResume() returns whether a batch run should skip the URLs completed in its journal.
+	 *
+	 * @return whether to resume a previous batch run.
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * getShard() returns the shard of the batch list this process validates.
+	 *
+	 * @return the shard selector or null to validate every URL.
+	 */
+	public ShardSelector getShard() {
+		return shard;
+	}
+
+	/**
+	 * isMerge() returns whether the application should merge shard reports instead of validating.
+	 *
+	 * @return whether to run the report merge.
+	 */
+	public boolean isMerge() {
+		return merge;
+	}
+
+	/**
+	 * getMergeInputs() returns the JSON Lines reports to merge.
+	 *
+	 * @return the paths of the reports to merge.
+	 */
+	public List<String> getMergeInputs() {
+		return mergeInputs;
+	}
+
+	/**
+	 * isConcurrent() returns whether playlists are fetched and validated on a thread each.
+	 *
+	 * @return whether to use the concurrent (virtual thread) executor.
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * getMaxConcurrency() returns the maximum number of fetches in flight overall.
+	 *
+	 * @return the global fetch limit.
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * getMaxPerHost() returns the maximum number of fetches in flight to a single host.
+	 *
+	 * @return the per host fetch limit.
+	 */
+	public int getMaxPerHost() {
+		return maxPerHost;
+	}
+
+	/**
+	 * isMasterOnly() returns whether only Master Playlists themselves are validated.
+	 *
+	 * @return whether the Media Playlists of a master are left unfetched.
+	 */
+	public boolean isMasterOnly() {
+		return masterOnly;
+	}
+
+	/**
+	 * isLive() returns whether the listed playlists are monitored as live playlists.
+	 *
+	 * @return whether to run the live monitor instead of a batch run.
+	 */
+	public boolean isLive() {
+		return live;
+	}
+
+	/**
+	 * getLiveDuration() returns how long live playlists are monitored for.
+	 *
+	 * @return the number of seconds to monitor for, or 0 to monitor until each playlist ends.
+	 */
+	public long getLiveDuration() {
+		return liveDuration;
+	}
+
+	/**
+	 * getFullReloadEvery() returns after how many delta updates a live playlist is
+	 * 	reloaded in full, to check the delta updates against.
+	 *
+	 * @return the number of delta updates between full reloads.
+	 */
+	public int getFullReloadEvery() {
+		return fullReloadEvery;
+	}
+
+	/**
+	 * getProfile() returns the name of the rule profile to validate with.
+	 *
+	 * @return the rule profile's name.
+	 */
+	public String getProfile() {
+		return profile;
+	}
+
+	/**
+	 * getProfileFile() returns the file the rule profiles are read from.
+	 *
+	 * @return the path of the profiles file or null for the shipped profiles.
+	 */
+	public String getProfileFile() {
+		return profileFile;
+	}
+
+	/**
+	 * isMetrics() returns whether the metrics are printed to the console.
+	 *
+	 * @return whether to print the metrics.
+	 */
+	public boolean isMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * getMetricsInterval() returns how often the metrics are printed while monitoring live playlists.
+	 *
+	 * @return the number of seconds between metrics.
+	 */
+	public int getMetricsInterval() {
+		return metricsInterval;
+	}
+
+	/**
+	 * getMetricsPort() returns the port the Prometheus metrics endpoint listens on.
+	 *
+	 * @return the port or 0 if the metrics are not served.
+	 */
+	public int getMetricsPort() {
+		return metricsPort;
+	}
+
+	/**
+	 * getTracePath() returns the file the traces of the playlists are written to, in the
+	 * 	Chrome trace-event format.
+	 *
+	 * @return the path of the trace or null if playlists are not traced.
+	 */
+	public String getTracePath() {
+		return tracePath;
+	}
+
+	/**
+	 * isMachineReportOnConsole() returns whether a machine readable report is written to
+	 * 	the console, in which case other console output must be kept out of its way.
+	 *
+	 * @return whether a machine readable report is written to standard output.
+	 */
+	public boolean isMachineReportOnConsole() {
+		return format != ReportFormat.TEXT && outputPath == null;
+	}
+}
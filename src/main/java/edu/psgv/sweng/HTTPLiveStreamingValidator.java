@@ -1,22 +1,42 @@
 package edu.psgv.sweng;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import edu.psgv.sweng.batch.CheckpointJournal;
+import edu.psgv.sweng.batch.ShardSelector;
+import edu.psgv.sweng.events.FlightEvents;
+import edu.psgv.sweng.events.ReportEvent;
+import edu.psgv.sweng.io.FetchExecutor;
 import edu.psgv.sweng.io.HLSUtilities;
+import edu.psgv.sweng.io.TransferStats;
+import edu.psgv.sweng.live.LiveMonitor;
+import edu.psgv.sweng.metrics.Metrics;
+import edu.psgv.sweng.metrics.MetricsReporter;
+import edu.psgv.sweng.metrics.MetricsServer;
 import edu.psgv.sweng.playlist.PlaylistFactory;
-import edu.psgv.sweng.validation.MediaSegmentTimeValidator;
-import edu.psgv.sweng.validation.Validator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import edu.psgv.sweng.playlist.MasterPlaylist;
-import edu.psgv.sweng.playlist.MediaPlaylist;
 import edu.psgv.sweng.playlist.Playlist;
-import edu.psgv.sweng.validation.FirstTagValidator;
-import edu.psgv.sweng.validation.TagContextValidator;
-import edu.psgv.sweng.validation.URISequenceValidator;
+import edu.psgv.sweng.report.ReportMerger;
+import edu.psgv.sweng.report.ReportSink;
+import edu.psgv.sweng.report.ReportSinkFactory;
+import edu.psgv.sweng.report.TraceWriter;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Tracer;
+import edu.psgv.sweng.validation.RuleEngine;
+import edu.psgv.sweng.validation.RuleProfile;
+import edu.psgv.sweng.validation.Validator;
 
 /**
  * HTTPLiveStreamingValidator is the main class for the HLS application.
@@ -37,6 +57,15 @@ public class HTTPLiveStreamingValidator {
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
 
+	/* Report output and console for user interactions; set up in main() */
+	private static ReportSink reportSink;
+	private static CheckpointJournal journal;
+	private static ShardSelector shard;
+	private static boolean masterOnly;
+	private static List<Validator> validators;
+	private static int interactiveCount = 0;
+	private static PrintStream console = System.out;
+
 	/**
 	 * The main method for execution of HLS1 program.  Checks whether execution
 	 * 	should occur in Interactive Mode or Batch Mode and then proceeds
@@ -47,24 +76,115 @@ public class HTTPLiveStreamingValidator {
 	public static void main(String[] args) {
 		logger.info("HLS Application has begun execution.");
 
-		System.out.println("\n======================================");
-		System.out.println("        HLS Application v. " + VERSION);
-		System.out.println("======================================\n");
+		CommandLineOptions options;
+		try {
+			options = CommandLineOptions.parse(args);
+		} catch(IllegalArgumentException e) {
+			logger.error("Invalid command line: {}", e.getMessage());
+			System.out.println("ERROR: " + e.getMessage());
+			System.out.println(CommandLineOptions.USAGE);
+			return;
+		}
+
+		if(options.isMerge()) {
+			mergeReports(options);
+			return;
+		}
+
+		//Keep console output out of the way of a machine readable report on stdout
+		console = options.isMachineReportOnConsole() ? System.err : System.out;
+		HLSUtilities.setConsole(console);
+		shard = options.getShard();
+		masterOnly = options.isMasterOnly();
+
+		try {
+			//One engine runs every discovered rule in a single scan of each playlist
+			validators = Collections.<Validator>singletonList(RuleEngine.discover(RuleProfile.load(options.getProfile(), options.getProfileFile())));
+		} catch(IllegalArgumentException e) {
+			logger.error("Invalid rule profile: {}", e.getMessage());
+			console.println("ERROR: " + e.getMessage());
+			return;
+		}
+		FetchExecutor.configure(options.isConcurrent(), options.getMaxConcurrency(), options.getMaxPerHost());
+
+		if(options.getMetricsPort() > 0 && !MetricsServer.start(options.getMetricsPort())) {
+			console.println("ERROR: Unable to serve metrics on port " + options.getMetricsPort() + ".");
+			return;
+		}
+
+		reportSink = ReportSinkFactory.create(options.getFormat(), options.getOutputPath(), options.isResume());
+		if(reportSink == null) {
+			console.println("ERROR: Unable to open report output '" + options.getOutputPath() + "'.");
+			MetricsServer.stop();
+			return;
+		}
+
+		TraceWriter traceWriter = null;
+		if(options.getTracePath() != null) {
+			try {
+				traceWriter = new TraceWriter(ReportSinkFactory.openWriter(options.getTracePath(), false));
+				Tracer.enable(traceWriter);
+			} catch(IOException e) {
+				logger.error("Unable to open trace '{}': {}", options.getTracePath(), e.getMessage());
+				console.println("ERROR: Unable to open trace output '" + options.getTracePath() + "'.");
+				reportSink.close();
+				MetricsServer.stop();
+				return;
+			}
+		}
+
+		console.println("\n======================================");
+		console.println("        HLS Application v. " + VERSION);
+		console.println("======================================\n");
 
 		//Check to enter Batch Mode or User Mode
-		if(args.length > 0 && !args[0].isEmpty()) {
+		if(options.getBatchFile() != null) {
+
+			if(options.getJournalPath() != null) {
+				journal = new CheckpointJournal(options.getJournalPath());
+
+				if(!journal.open(options.isResume())) {
+					console.println("ERROR: Unable to open checkpoint journal '" + options.getJournalPath() + "'.");
+					reportSink.close();
+					closeTrace(traceWriter);
+					MetricsServer.stop();
+					return;
+				}
+			}
 
-			ArrayList<String> urls = HLSUtilities.getContentFromFile(args[0]);
-			batchMode(urls);
+			ArrayList<String> urls = HLSUtilities.getContentFromFile(options.getBatchFile());
+			if(options.isLive()) {
+				if(options.isMetrics()) {
+					MetricsReporter.start(console, options.getMetricsInterval());
+				}
+				liveMode(urls, options.getLiveDuration(), options.getFullReloadEvery());
+				MetricsReporter.stop();
+			} else {
+				batchMode(urls);
+			}
+
+			if(journal != null) {
+				journal.close();
+			}
 
 		} else {
 
 			interactiveMode();
 		}
 
-		System.out.println("\n======================================");
-		System.out.println("     Exiting HLS Application v. " + VERSION);
-		System.out.println("======================================\n");
+		FetchExecutor.shutdown();
+		reportSink.close();
+		closeTrace(traceWriter);
+		logger.info("Playlist transfers: {}", TransferStats.summary());
+
+		if(options.isMetrics()) {
+			console.print("\nMETRICS\n" + Metrics.dump());
+		}
+		MetricsServer.stop();
+
+		console.println("\n======================================");
+		console.println("     Exiting HLS Application v. " + VERSION);
+		console.println("======================================\n");
 		logger.info("HLS Application has ended execution.");
 	}
 
@@ -82,7 +202,7 @@ public class HTTPLiveStreamingValidator {
 
 		//Continue accepting input until user explicitly quits
 		do {
-			System.out.print(MENU);
+			console.print(MENU);
 
 			//Get input from user
 			userInput = keyboard.nextLine();
@@ -91,13 +211,13 @@ public class HTTPLiveStreamingValidator {
 			if(userInput.toLowerCase().equals("quit")) {
 				logger.info("User key entered {} - TO QUIT", userInput);
 
-				System.out.print("\nThank you for using the HLS Application. Goodbye!");
+				console.print("\nThank you for using the HLS Application. Goodbye!");
 
 			} else {
 				logger.info("User key entered {} - for validation", userInput);
 
 				//Attempt to validate playlist
-				processPlaylist(userInput);
+				processPlaylist(interactiveCount++, userInput);
 			}
 
 		} while(!userInput.toLowerCase().equals("quit"));
@@ -116,64 +236,274 @@ public class HTTPLiveStreamingValidator {
 	public static void batchMode(ArrayList<String> urls) {
 		logger.debug("in>> batchMode()");
 
-		System.out.println("--------------------------------");
-		System.out.println("     HLS Batch Processing");
-		System.out.println("--------------------------------");
+		console.println("--------------------------------");
+		console.println("     HLS Batch Processing");
+		console.println("--------------------------------");
 
 		if(urls == null || urls.isEmpty()) {
 			logger.error("batchMode(): No URLs to process for BATCH MODE.");
-			System.out.println("\nThere are no URLs to process.  Please provide valid file containing URLs.");
+			console.println("\nThere are no URLs to process.  Please provide valid file containing URLs.");
 		} else {
 
 			//Print all of the playlist files that are to be processed
-			System.out.println("\nPlaylist files to be processed:");
+			console.println("\nPlaylist files to be processed:");
 			for(String file : urls) {
-				System.out.println(file);
+				console.println(file);
 			}
 
-			//Process all of the URLs and print the contents extracted from each
-			for(String url : urls) {
-				System.out.println("\n\n=======================================================================");
-				System.out.println("Processing: " + url + "\n");
+			if(journal != null && journal.getCompletedCount() > 0) {
+				console.println("\nResuming; skipping playlist files completed by a previous run.");
+			}
+
+			if(shard != null) {
+				console.println("\nOnly processing playlist files of shard " + shard + ".");
+			}
+
+			//Bound the playlists in flight so that a huge list is not held in memory at once
+			Semaphore inFlight = new Semaphore(FetchExecutor.getMaxConcurrency());
+			List<Future<?>> pending = new ArrayList<Future<?>>();
 
-				processPlaylist(url);
+			//Process all of the URLs and print the contents extracted from each
+			for(int seq = 0; seq < urls.size(); seq++) {
+				String url = urls.get(seq);
+
+				if(shard != null && !shard.accepts(url)) {
+					continue;
+				}
+
+				if(journal != null && journal.isCompleted(url)) {
+					logger.info("Skipping {}; completed by a previous run.", url);
+					continue;
+				}
+
+				if(FetchExecutor.isConcurrent()) {
+					pending.add(submitBatchEntry(seq, url, inFlight));
+				} else {
+					processBatchEntry(seq, url);
+				}
 			}
 
+			awaitBatchEntries(pending);
 		}
 
-		System.out.println("\n-----------------------------");
-		System.out.println("HLS Batch Processing Complete");
-		System.out.println("-----------------------------");
+		console.println("\n-----------------------------");
+		console.println("HLS Batch Processing Complete");
+		console.println("-----------------------------");
 
 		logger.debug("<<out batchMode()");
 	}
 
+	/**
+	 * liveMode() for monitoring live playlists.  Every Media Playlist (each variant and
+	 * 	rendition of a master) is reloaded until it ends or the duration passes, and every
+	 * 	reload that adds segments or parts is validated and reported.  Playlists are
+	 * 	monitored one after another, or all at once with the concurrent executor.
+	 *
+	 * @param urls a list of URLs to monitor.
+	 * @param durationSeconds how long to monitor each playlist for; 0 until it ends.
+	 * @param fullReloadEvery the number of delta updates after which a playlist is reloaded in full.
+	 */
+	public static void liveMode(ArrayList<String> urls, long durationSeconds, int fullReloadEvery) {
+		logger.debug("in>> liveMode()");
+
+		console.println("--------------------------------");
+		console.println("     HLS Live Monitoring");
+		console.println("--------------------------------");
+
+		if(urls == null || urls.isEmpty()) {
+			logger.error("liveMode(): No URLs to monitor for LIVE MODE.");
+			console.println("\nThere are no URLs to monitor.  Please provide valid file containing URLs.");
+		} else {
+			List<LiveMonitor> monitors = new ArrayList<LiveMonitor>();
+
+			for(int seq = 0; seq < urls.size(); seq++) {
+				final int entry = seq;
+				String url = urls.get(seq);
+
+				if(shard != null && !shard.accepts(url)) {
+					continue;
+				}
+
+				//A master is monitored through it's Media Playlists
+				List<String> mediaUrls = new ArrayList<String>();
+				ArrayList<String> content = getContent(url);
+				if(content == null || content.isEmpty()) {
+					ReportEvent event = FlightEvents.beginReport(url, reportSink.getClass().getSimpleName());
+					synchronized(reportSink) {
+						reportSink.reportUnreadable(seq, url);
+					}
+					finishReportEvent(event, null);
+					continue;
+				}
+
+				Playlist playlist = PlaylistFactory.create(url, content);
+				if(playlist instanceof MasterPlaylist) {
+					for(Playlist child : ((MasterPlaylist) playlist).getChildren()) {
+						mediaUrls.add(child.getStrURL());
+					}
+				} else {
+					mediaUrls.add(url);
+				}
+
+				for(String mediaUrl : mediaUrls) {
+					console.println("Monitoring: " + mediaUrl);
+					monitors.add(new LiveMonitor(mediaUrl, HTTPLiveStreamingValidator::readContent,
+							reload -> validateAndPrintReport(entry, reload), durationSeconds, fullReloadEvery));
+				}
+			}
+
+			//Every monitor runs until it's playlist ends, so each needs a thread of it's own
+			List<Future<?>> pending = new ArrayList<Future<?>>();
+			for(final LiveMonitor monitor : monitors) {
+				pending.add(FetchExecutor.start(() -> {
+					monitor.run();
+					return null;
+				}));
+			}
+
+			awaitBatchEntries(pending);
+
+			console.println();
+			for(LiveMonitor monitor : monitors) {
+				console.println("LIVE " + monitor.getUrl() + ": " + monitor.summary());
+			}
+		}
+
+		console.println("\n-----------------------------");
+		console.println("HLS Live Monitoring Complete");
+		console.println("-----------------------------");
+
+		logger.debug("<<out liveMode()");
+	}
+
+	/**
+	 * processBatchEntry() for processing a single URL of the batch list and checkpointing it.
+	 *
+	 * @param seq the position of the URL in the batch list
+	 * @param url the URL to the playlist to be processed
+	 */
+	private static void processBatchEntry(int seq, String url) {
+		console.println("\n\n=======================================================================");
+		console.println("Processing: " + url + "\n");
+
+		Playlist playlist = processPlaylist(seq, url);
+
+		//Only checkpoint once the report of the playlist has been written
+		if(journal != null) {
+			journal.record(url, playlist == null ? CheckpointJournal.UNREADABLE_HASH : CheckpointJournal.resultHash(playlist));
+		}
+	}
+
+	/**
+	 * submitBatchEntry() for processing a URL of the batch list on a thread of its own
+	 * 	once fewer than the maximum number of playlists are in flight.
+	 *
+	 * @param seq the position of the URL in the batch list
+	 * @param url the URL to the playlist to be processed
+	 * @param inFlight the permits for playlists in flight
+	 * @return the Future of the batch entry
+	 */
+	private static Future<?> submitBatchEntry(final int seq, final String url, final Semaphore inFlight) {
+		inFlight.acquireUninterruptibly();
+
+		return FetchExecutor.submit(() -> {
+			try {
+				processBatchEntry(seq, url);
+			} finally {
+				inFlight.release();
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * awaitBatchEntries() for waiting until all submitted batch entries have finished.
+	 *
+	 * @param pending the Futures of the submitted batch entries
+	 */
+	private static void awaitBatchEntries(List<Future<?>> pending) {
+		for(Future<?> entry : pending) {
+			try {
+				entry.get();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logger.error("Interrupted while waiting for batch processing to finish.");
+				return;
+			} catch(ExecutionException e) {
+				logger.error("Batch entry failed: {}", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * mergeReports() for combining the JSON Lines reports of several shards into one report.
+	 *
+	 * @param options the command line options naming the reports and the output.
+	 */
+	private static void mergeReports(CommandLineOptions options) {
+		logger.debug("in>> mergeReports()");
+
+		try (Writer writer = ReportSinkFactory.openWriter(options.getOutputPath(), false)) {
+			int records = ReportMerger.merge(options.getMergeInputs(), writer);
+
+			if(records < 0) {
+				System.err.println("ERROR: Unable to merge reports.");
+			} else {
+				System.err.println("Merged " + records + " records from " + options.getMergeInputs().size() + " reports.");
+			}
+		} catch(IOException e) {
+			logger.error("Unable to open merged report output: {}", e.getMessage());
+			System.err.println("ERROR: Unable to open report output '" + options.getOutputPath() + "'.");
+		}
+
+		logger.debug("<<out mergeReports()");
+	}
+
 	/**
 	 * processPlaylist() for processing playlists in order to validate then print a report.
 	 * 	Will print to console for user interactions.
 	 *
+	 * @param seq the position of the playlist in the batch list or interactive session
 	 * @param URL the URL to the playlist to be processed
+	 * @return the validated playlist, or null if it could not be processed
 	 */
-	private static void processPlaylist(String URL) {
+	private static Playlist processPlaylist(int seq, String URL) {
 		logger.debug("in>> processPlaylist()");
 
+		Playlist playlist = null;
+		Span span = Tracer.startTrace(seq, URL);
+
 		//Get content from URL
 		ArrayList<String> content = getContent(URL);
 
 		//Only validate playlist if content was found
 		if(content == null || content.isEmpty()) {
-			System.out.println("ERROR: Could not process playlist since it could not be found.");
 			logger.error("Playlist failed to be read cannot execute playlist processing.");
 
+			ReportEvent event = FlightEvents.beginReport(URL, reportSink.getClass().getSimpleName());
+			Span reportSpan = Tracer.start("report", null);
+			synchronized(reportSink) {
+				reportSink.reportUnreadable(seq, URL);
+			}
+			finishReportEvent(event, null);
+			if(reportSpan != null) {
+				reportSpan.end();
+			}
+
 		} else {
 			//Create Playlist from contents
-			Playlist playlist = PlaylistFactory.create(URL, content);
+			playlist = PlaylistFactory.create(URL, content);
 
 			//Validate and generate report
-			validateAndPrintReport(playlist);
+			validateAndPrintReport(seq, playlist);
+		}
+
+		if(span != null) {
+			span.end();
 		}
 
 		logger.debug("<<out processPlaylist()");
+		return playlist;
 	}
 	
 	/**
@@ -184,8 +514,17 @@ public class HTTPLiveStreamingValidator {
 	 */
 	private static ArrayList<String> getContent(String path) {
 
-		System.out.println(".\n.\n.\n");
+		console.println(".\n.\n.\n");
 
+		return readContent(path);
+	}
+
+	/**
+	 * readContent() will retrieve the content from a URL or file without any console output.
+	 *
+	 * @param path the URL or file path to the content
+	 */
+	private static ArrayList<String> readContent(String path) {
 		ArrayList<String> content = null;
 		if(path.toLowerCase().startsWith("file://")) {
 			logger.info("User key entered {} - validate local file", path);
@@ -204,135 +543,88 @@ public class HTTPLiveStreamingValidator {
 	}
 
 	/**
-	 * validateAndPrintReport() for invoking validation on playlist and printing of report.
-	 * 	Will print to console for user interactions.
+	 * validateAndPrintReport() for invoking validation on playlist and writing of report.
 	 *
+	 * @param seq the position of the playlist in the batch list or interactive session
 	 * @param playlist the playlist that will be validated and and have a report generated
 	 */
-	private static void validateAndPrintReport(Playlist playlist) {
+	private static void validateAndPrintReport(int seq, Playlist playlist) {
 		logger.debug("in>> validateAndPrintReport()");
-		
-		System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
-		System.out.println("       VALIDATION REPORT       ");
-		System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
 
 		runValidators(playlist);
-		printReport(playlist);
 
-		
+		//Batch entries may finish concurrently; keep each record in one piece
+		ReportEvent event = FlightEvents.beginReport(playlist.getStrURL(), reportSink.getClass().getSimpleName());
+		Span span = Tracer.start("report", null);
+		synchronized(reportSink) {
+			reportSink.reportPlaylist(seq, playlist);
+		}
+		finishReportEvent(event, playlist);
+		if(span != null) {
+			span.end();
+		}
+
 		logger.debug("<<out validateAndPrintReport()");
 	}
-	
-	/**
-	 * runValidators() for running all validators on a playlist.
-	 * 
-	 * @param playlist the playlist for the validators to run against.
-	 */
-	private static void runValidators(Playlist playlist) {
-		logger.debug("in>> runValidators()");
 
-		Validator validator;
-		
-		logger.trace("RUNNING VALIDATORS.");
-		
-		validator = new FirstTagValidator();
-		playlist.accept(validator);
-		
-		validator = new URISequenceValidator();
-		playlist.accept(validator);
-		
-		validator = new MediaSegmentTimeValidator();
-		playlist.accept(validator);
-		
-		validator = new TagContextValidator();
-		playlist.accept(validator);
-		
-		logger.debug("<<out runValidators()");
-	}
-	
 	/**
-	 * printReport() for printing playlist information to the console as 
-	 * 	well as determining which type of playlist to print.
-	 * 
-	 * @param playlist
+	 * finishReportEvent() records what was reported on the flight recorder event of a
+	 * 	report write.
+	 *
+	 * @param event the report event or null if it is not being recorded.
+	 * @param playlist the playlist reported or null if it could not be read.
 	 */
-	private static void printReport(Playlist playlist) {
-		logger.debug("in>> printReport()");
-
-		if(playlist instanceof MediaPlaylist) {
-			System.out.println("Playlist Type: MEDIA PLAYLIST");
-		} else {
-			System.out.println("Playlist Type: MASTER PLAYLIST");
+	private static void finishReportEvent(ReportEvent event, Playlist playlist) {
+		if(event == null) {
+			return;
 		}
-		
-		System.out.println("Playlist URL: " + playlist.getStrURL());
 
-		if(playlist instanceof MediaPlaylist) {
-			printMediaErrorReport((MediaPlaylist) playlist, "   ");
+		int lines = 0;
+		int findings = 0;
+		if(playlist != null) {
+			lines = (playlist.getContents() == null) ? 0 : playlist.getContents().size();
+			findings = playlist.getErrors().size();
 
-		} else if(playlist instanceof MasterPlaylist) {
-			printMasterErrorReport((MasterPlaylist) playlist, "   ");
-
-		} else {
-			System.out.println("ERROR: Could not process playlist.");
-			logger.error("Could not print validation report because playlist was not Media or Master type.");
+			if(playlist instanceof MasterPlaylist) {
+				for(Playlist child : ((MasterPlaylist) playlist).getChildren()) {
+					findings += child.getErrors().size();
+				}
+			}
 		}
-		
-		logger.debug("<<out printReport()");
+		event.finish(lines, findings);
 	}
 	
 	/**
-	 * printMediaErrorReport() is used specifically for printing the validation 
-	 * 	errors within a MediaPlaylist.
-	 * 
-	 * @param playlist the MediaPlaylist validation errors to be printed.
-	 * @param prefix any prefix text that should go before a console print statement.
+	 * closeTrace() stops tracing playlists and finishes the trace file.
+	 *
+	 * @param traceWriter the writer of the trace or null if playlists are not traced.
 	 */
-	private static void printMediaErrorReport(MediaPlaylist playlist, String prefix) {
-		logger.debug("in>> printMediaErrorReport()");
-
-		ArrayList<String> errors = (ArrayList<String>) playlist.getErrors();
-		
-		if(errors == null || errors.isEmpty()) {
-			System.out.println(prefix + "SUCCESS - Media Playlist is valid format.");
-		} else {
-			for(String err : errors) {
-				System.out.println(prefix + err);
-			}
+	private static void closeTrace(TraceWriter traceWriter) {
+		if(traceWriter != null) {
+			Tracer.disable();
+			traceWriter.close();
 		}
-		
-		logger.debug("<<out printMediaErrorReport()");
 	}
-	
+
 	/**
-	 * printMasterErrorReport() is used specifically for printing the validation
-	 * 	errors within a MasterPlaylist.
+	 * runValidators() for running all validators on a playlist.
 	 * 
-	 * @param playlist the MasterPlaylist validation errors to be printed.
-	 * @param prefix any prefix text that should go before a console print statement.
+	 * @param playlist the playlist for the validators to run against.
 	 */
-	private static void printMasterErrorReport(MasterPlaylist playlist, String prefix) {
-		logger.debug("in>> printMasterErrorReport()");
+	private static void runValidators(Playlist playlist) {
+		logger.debug("in>> runValidators()");
 
-		ArrayList<String> errors = (ArrayList<String>) playlist.getErrors();
-		
-		if(errors == null || errors.isEmpty()) {
-			System.out.println(prefix + "SUCCESS - Master Playlist is valid format.");
+		if(masterOnly && playlist instanceof MasterPlaylist) {
+			//Quick master checks; the variants and renditions are never fetched
+			((MasterPlaylist) playlist).acceptMaster(validators);
 		} else {
-			for(String err : errors) {
-				System.out.println(prefix + err);
-			}
+			//One pass over the playlist; variants of a master are validated in parallel
+			playlist.acceptAll(validators);
 		}
 		
-		List<MediaPlaylist> variants = playlist.getVariants();
-		for(MediaPlaylist variant : variants) {
-			System.out.println("\t" + "MEDIA PLAYLIST: " + variant.getStrURL());
-			printMediaErrorReport(variant, "\t" + prefix);
-		}
-		
-		logger.debug("<<out printMasterErrorReport()");
+		logger.debug("<<out runValidators()");
 	}
-
+	
 	private static String MENU = "\n--------------------------------------------------------\n"
 										  + "               HLS Menu\n"
 										  + "--------------------------------------------------------\n"
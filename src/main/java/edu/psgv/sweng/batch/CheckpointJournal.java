@@ -0,0 +1,233 @@
+package edu.psgv.sweng.batch;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+
+/**
+ * CheckpointJournal is an append-only record of the URLs a batch run has finished.
+ * 	Each line holds the hash of the validation result and the URL, separated by a tab.
+ * 	Entries are handed to the operating system as soon as they are written and
+ * 	synced to disk at most every few seconds, so a crashed or preempted run can be
+ * 	resumed without losing more than the last few seconds of work.
+ *
+ * @author Ryan McDonald
+ */
+public class CheckpointJournal {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Maximum time between syncs of the journal to disk */
+	private static final long SYNC_INTERVAL_MILLIS = 2000;
+
+	/* Result hash recorded for playlists whose content could not be retrieved */
+	public static final String UNREADABLE_HASH = "unreadable";
+
+	private final File file;
+	private final Set<String> completed = new HashSet<String>();
+
+	private FileOutputStream out;
+	private Writer writer;
+	private long lastSync;
+
+	/**
+	 * @param path the path of the journal file.
+	 */
+	public CheckpointJournal(String path) {
+		this.file = new File(path);
+	}
+
+	/**
+	 * open() loads the URLs already recorded in the journal (when resuming) and
+	 * 	opens the journal for appending.
+	 *
+	 * @param resume whether completed entries of a previous run should be kept.
+	 * @return whether the journal could be opened.
+	 */
+	public boolean open(boolean resume) {
+		logger.debug("in>> open()");
+
+		try {
+			if(resume && file.exists()) {
+				load();
+				terminateTornEntry();
+			}
+
+			out = new FileOutputStream(file, resume);
+			writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			lastSync = System.currentTimeMillis();
+
+		} catch(IOException e) {
+			logger.error("Unable to open checkpoint journal '{}': {}", file, e.getMessage());
+			return false;
+		}
+
+		logger.info("Checkpoint journal '{}' opened with {} completed entries.", file, completed.size());
+		logger.debug("<<out open()");
+		return true;
+	}
+
+	/**
+	 * isCompleted() returns whether a URL was completed by a previous run.
+	 *
+	 * @param url the URL of the playlist.
+	 * @return whether the URL is recorded in the journal.
+	 */
+	public boolean isCompleted(String url) {
+		return completed.contains(url);
+	}
+
+	/**
+	 * getCompletedCount() returns the number of URLs completed by previous runs.
+	 *
+	 * @return the number of completed URLs loaded from the journal.
+	 */
+	public int getCompletedCount() {
+		return completed.size();
+	}
+
+	/**
+	 * record() appends a completed URL to the journal.  Should only be called once
+	 * 	the report of the playlist has been written.
+	 *
+	 * @param url the URL of the playlist.
+	 * @param resultHash the hash of the validation result.
+	 */
+	public synchronized void record(String url, String resultHash) {
+		try {
+			writer.write(resultHash);
+			writer.write('\t');
+			writer.write(url);
+			writer.write('\n');
+			writer.flush();
+
+			long now = System.currentTimeMillis();
+			if(now - lastSync >= SYNC_INTERVAL_MILLIS) {
+				out.getFD().sync();
+				lastSync = now;
+			}
+
+		} catch(IOException e) {
+			logger.error("Unable to write checkpoint for '{}': {}", url, e.getMessage());
+		}
+	}
+
+	/**
+	 * close() syncs and closes the journal.
+	 */
+	public synchronized void close() {
+		if(writer == null) {
+			return;
+		}
+
+		try {
+			writer.flush();
+			out.getFD().sync();
+			writer.close();
+		} catch(IOException e) {
+			logger.error("Unable to close checkpoint journal '{}': {}", file, e.getMessage());
+		}
+
+		writer = null;
+	}
+
+	/**
+	 * resultHash() builds a hash of the validation result of a playlist, including
+	 * 	the results of any variants and renditions.
+	 *
+	 * @param playlist the validated playlist.
+	 * @return the hash as a hexadecimal string.
+	 */
+	public static String resultHash(Playlist playlist) {
+		long hash = 0xcbf29ce484222325L;
+
+		hash = hash(hash, playlist.getStrURL());
+		hash = hash(hash, playlist.getErrors());
+
+		if(playlist instanceof MasterPlaylist) {
+			for(MediaPlaylist variant : ((MasterPlaylist) playlist).getChildren()) {
+				hash = hash(hash, variant.getStrURL());
+				hash = hash(hash, variant.getErrors());
+			}
+		}
+
+		return String.format("%016x", hash);
+	}
+
+	private static long hash(long hash, List<String> values) {
+		if(values != null) {
+			for(String value : values) {
+				hash = hash(hash, value);
+			}
+		}
+		return hash;
+	}
+
+	/* FNV-1a over the characters of a string, followed by a separator */
+	private static long hash(long hash, String value) {
+		if(value != null) {
+			for(int i = 0; i < value.length(); i++) {
+				hash ^= value.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+		}
+
+		hash ^= 0xff;
+		hash *= 0x100000001b3L;
+		return hash;
+	}
+
+	/**
+	 * load() reads the completed URLs of the journal, ignoring an entry that was
+	 * 	only partially written when the previous run died.
+	 */
+	private void load() throws IOException {
+		String journal = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+		int start = 0;
+		int end;
+		while((end = journal.indexOf('\n', start)) >= 0) {
+			int tab = journal.indexOf('\t', start);
+
+			if(tab > start && tab < end - 1) {
+				completed.add(journal.substring(tab + 1, end));
+			}
+
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * terminateTornEntry() ends an entry that was cut off by a crash with a line break
+	 * 	so that the next entry does not get appended to it.  The torn entry itself has
+	 * 	no line break and is therefore not counted as completed.
+	 */
+	private void terminateTornEntry() throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			long length = raf.length();
+
+			if(length > 0) {
+				raf.seek(length - 1);
+				if(raf.read() != '\n') {
+					raf.write('\n');
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package edu.psgv.sweng.batch;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * ShardSelector decides deterministically whether a batch URL belongs to this
+ * 	process' shard.  Every node hashes the same input list the same way, so N
+ * 	nodes given shards 1/N .. N/N split the list between them without a coordinator.
+ *
+ * 	Hashing by host keeps every playlist of a host on one node, which keeps
+ * 	connection reuse and per-host rate limits local to that node.
+ *
+ * @author Ryan McDonald
+ */
+public class ShardSelector {
+
+	/**
+	 * ENUM: Key distinguishes what part of a URL is hashed to pick its shard.
+	 */
+	public enum Key {
+		URL,
+		HOST
+	}
+
+	private final int index;
+	private final int count;
+	private final Key key;
+
+	/**
+	 * @param index the 1-based shard of this process.
+	 * @param count the total number of shards.
+	 * @param key what part of a URL is hashed.
+	 */
+	public ShardSelector(int index, int count, Key key) {
+		if(count < 1 || index < 1 || index > count) {
+			throw new IllegalArgumentException("Shard must be between 1/" + count + " and " + count + "/" + count + ".");
+		}
+
+		this.index = index;
+		this.count = count;
+		this.key = key;
+	}
+
+	/**
+	 * parse() builds a ShardSelector from a command line value such as '3/16'.
+	 *
+	 * @param value the shard as '<index>/<count>'.
+	 * @param key what part of a URL is hashed.
+	 * @return the shard selector.
+	 * @throws IllegalArgumentException if the value is not a valid shard.
+	 */
+	public static ShardSelector parse(String value, Key key) {
+		int slash = value.indexOf('/');
+
+		if(slash < 0) {
+			throw new IllegalArgumentException("Shard '" + value + "' must be formatted as <index>/<count>.");
+		}
+
+		try {
+			int index = Integer.parseInt(value.substring(0, slash).trim());
+			int count = Integer.parseInt(value.substring(slash + 1).trim());
+
+			return new ShardSelector(index, count, key);
+
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Shard '" + value + "' must be formatted as <index>/<count>.");
+		}
+	}
+
+	/**
+	 * accepts() returns whether a URL belongs to this shard.
+	 *
+	 * @param url the URL of a playlist from the batch list.
+	 * @return whether this process should validate the URL.
+	 */
+	public boolean accepts(String url) {
+		return shardOf(url) == index;
+	}
+
+	/**
+	 * shardOf() returns the 1-based shard a URL belongs to.
+	 *
+	 * @param url the URL of a playlist from the batch list.
+	 * @return the shard of the URL.
+	 */
+	public int shardOf(String url) {
+		String value = (key == Key.HOST) ? hostOf(url) : url;
+
+		return (int) Long.remainderUnsigned(hash(value), count) + 1;
+	}
+
+	/**
+	 * hostOf() returns the lower-case host of a URL, or the URL itself when it
+	 * 	has no host (e.g. a local file).
+	 */
+	static String hostOf(String url) {
+		try {
+			String host = new URI(url.trim()).getHost();
+
+			if(host != null) {
+				return host.toLowerCase();
+			}
+		} catch(URISyntaxException e) {
+			//Not a parsable URI; shard on the full value instead
+		}
+
+		return url;
+	}
+
+	/* FNV-1a; unlike String.hashCode() it spreads similar URLs evenly */
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+
+		for(int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return index + "/" + count + " (by " + key.name().toLowerCase() + ")";
+	}
+}
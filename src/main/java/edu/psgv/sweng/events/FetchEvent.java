@@ -0,0 +1,67 @@
+package edu.psgv.sweng.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * FetchEvent records the fetch of a playlist over HTTP, including the wait for a
+ * 	fetch slot.  Begun by FlightEvents.beginFetch().
+ *
+ * @author Ryan McDonald
+ */
+@Name("edu.psgv.sweng.Fetch")
+@Label("Playlist Fetch")
+@Category({ "HLS Validator", "Fetch" })
+@Description("Fetch of a playlist over HTTP, including the wait for a fetch slot")
+@Enabled(false)
+@StackTrace(false)
+public class FetchEvent extends Event {
+
+	@Label("URL")
+	private final String url;
+
+	@Label("Response Code")
+	private int status;
+
+	@Label("Bytes")
+	@Description("Bytes of playlist content, after decompression")
+	@DataAmount
+	private long bytes;
+
+	@Label("Wire Bytes")
+	@Description("Bytes received, before decompression")
+	@DataAmount
+	private long wireBytes;
+
+	@Label("Lines")
+	private int lines;
+
+	FetchEvent(String url) {
+		this.url = url;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public void setBytes(long bytes, long wireBytes) {
+		this.bytes = bytes;
+		this.wireBytes = wireBytes;
+	}
+
+	/**
+	 * finish() records the lines fetched and commits the event.
+	 *
+	 * @param lines the number of lines fetched (0 if the fetch failed).
+	 */
+	public void finish(int lines) {
+		this.lines = lines;
+		commit();
+	}
+}
@@ -0,0 +1,114 @@
+package edu.psgv.sweng.events;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * FlightEvents begins the application's Java Flight Recorder events.  Every event is
+ * 	disabled by default and is only allocated once a recording has enabled it, so when
+ * 	no recording is running each begin...() is a couple of field reads returning null.
+ *
+ * 	An event class is only loaded once Flight Recorder is running: loading a JFR event
+ * 	registers it with Flight Recorder, which would otherwise be started (at a cost of
+ * 	a few hundred milliseconds) by every run.  Callers keep the returned event in a
+ * 	local and check it for null before ending it.
+ *
+ * 	Enable the events with a recording settings file, e.g.
+ * 	'-XX:StartFlightRecording=settings=conf/hls-events.jfc,filename=run.jfr'.
+ *
+ * @author Ryan McDonald
+ */
+public class FlightEvents {
+
+	private FlightEvents() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * isRecording() returns whether Flight Recorder is running, for callers that would
+	 * 	need to do some work before beginning events.
+	 *
+	 * @return whether Flight Recorder has been started.
+	 */
+	public static boolean isRecording() {
+		return FlightRecorder.isInitialized();
+	}
+
+	/**
+	 * beginFetch() begins the event of fetching a playlist over HTTP.
+	 *
+	 * @param url the URL of the playlist.
+	 * @return the event or null if it is not being recorded.
+	 */
+	public static FetchEvent beginFetch(String url) {
+		if(!FlightRecorder.isInitialized() || !Types.FETCH.isEnabled()) {
+			return null;
+		}
+
+		FetchEvent event = new FetchEvent(url);
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * beginParse() begins the event of building a playlist from it's content.
+	 *
+	 * @param url the URL of the playlist.
+	 * @return the event or null if it is not being recorded.
+	 */
+	public static ParseEvent beginParse(String url) {
+		if(!FlightRecorder.isInitialized() || !Types.PARSE.isEnabled()) {
+			return null;
+		}
+
+		ParseEvent event = new ParseEvent(url);
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * beginRule() begins the event of running a validation rule on a playlist.
+	 *
+	 * @param url the URL of the playlist.
+	 * @param rule the name of the rule.
+	 * @param lineScan whether the rule runs as part of the shared line scan.
+	 * @return the event or null if it is not being recorded.
+	 */
+	public static RuleEvent beginRule(String url, String rule, boolean lineScan) {
+		if(!FlightRecorder.isInitialized() || !Types.RULE.isEnabled()) {
+			return null;
+		}
+
+		RuleEvent event = new RuleEvent(url, rule, lineScan);
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * beginReport() begins the event of writing the report record of a playlist.
+	 *
+	 * @param url the URL of the playlist.
+	 * @param sink the name of the report sink.
+	 * @return the event or null if it is not being recorded.
+	 */
+	public static ReportEvent beginReport(String url, String sink) {
+		if(!FlightRecorder.isInitialized() || !Types.REPORT.isEnabled()) {
+			return null;
+		}
+
+		ReportEvent event = new ReportEvent(url, sink);
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Types holds the event types, registering the events on first use (once Flight
+	 * 	Recorder is running).
+	 */
+	private static class Types {
+		static final EventType FETCH = EventType.getEventType(FetchEvent.class);
+		static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+		static final EventType RULE = EventType.getEventType(RuleEvent.class);
+		static final EventType REPORT = EventType.getEventType(ReportEvent.class);
+	}
+}
@@ -0,0 +1,63 @@
+package edu.psgv.sweng.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * ParseEvent records building a playlist from it's content.  Begun by
+ * 	FlightEvents.beginParse().
+ *
+ * @author Ryan McDonald
+ */
+@Name("edu.psgv.sweng.Parse")
+@Label("Playlist Parse")
+@Category({ "HLS Validator", "Parse" })
+@Description("Building of a playlist from it's content")
+@Enabled(false)
+@StackTrace(false)
+public class ParseEvent extends Event {
+
+	@Label("URL")
+	private final String url;
+
+	@Label("Playlist Type")
+	private String type;
+
+	@Label("Lines")
+	private int lines;
+
+	@Label("Bytes")
+	@Description("Characters of playlist content, excluding line breaks")
+	@DataAmount
+	private long bytes;
+
+	@Label("Children")
+	@Description("Media Playlists referenced by a Master Playlist")
+	private int children;
+
+	ParseEvent(String url) {
+		this.url = url;
+	}
+
+	/**
+	 * finish() records what was parsed and commits the event.
+	 *
+	 * @param type the type of the playlist.
+	 * @param lines the number of lines parsed.
+	 * @param bytes the number of characters parsed.
+	 * @param children the number of Media Playlists referenced.
+	 */
+	public void finish(String type, int lines, long bytes, int children) {
+		this.type = type;
+		this.lines = lines;
+		this.bytes = bytes;
+		this.children = children;
+		commit();
+	}
+}
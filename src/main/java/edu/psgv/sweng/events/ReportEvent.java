@@ -0,0 +1,54 @@
+package edu.psgv.sweng.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * ReportEvent records writing the report record of a playlist, including the wait
+ * 	for the report sink.  Begun by FlightEvents.beginReport().
+ *
+ * @author Ryan McDonald
+ */
+@Name("edu.psgv.sweng.Report")
+@Label("Report Write")
+@Category({ "HLS Validator", "Report" })
+@Description("Writing of the report record of a playlist, including the wait for the report sink")
+@Enabled(false)
+@StackTrace(false)
+public class ReportEvent extends Event {
+
+	@Label("URL")
+	private final String url;
+
+	@Label("Sink")
+	private final String sink;
+
+	@Label("Lines")
+	private int lines;
+
+	@Label("Findings")
+	@Description("Findings of the playlist and it's Media Playlists")
+	private int findings;
+
+	ReportEvent(String url, String sink) {
+		this.url = url;
+		this.sink = sink;
+	}
+
+	/**
+	 * finish() records what was reported and commits the event.
+	 *
+	 * @param lines the number of lines of the playlist (0 if it could not be read).
+	 * @param findings the number of findings reported.
+	 */
+	public void finish(int lines, int findings) {
+		this.lines = lines;
+		this.findings = findings;
+		commit();
+	}
+}
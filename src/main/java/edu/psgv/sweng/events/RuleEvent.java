@@ -0,0 +1,59 @@
+package edu.psgv.sweng.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * RuleEvent records a validation rule run on a playlist.  Rules that look at each line
+ * 	share a single scan of the playlist, so their events all span that scan.  Begun by
+ * 	FlightEvents.beginRule().
+ *
+ * @author Ryan McDonald
+ */
+@Name("edu.psgv.sweng.Rule")
+@Label("Validation Rule")
+@Category({ "HLS Validator", "Validation" })
+@Description("Run of a validation rule on a playlist")
+@Enabled(false)
+@StackTrace(false)
+public class RuleEvent extends Event {
+
+	@Label("URL")
+	private final String url;
+
+	@Label("Rule")
+	private final String rule;
+
+	@Label("Line Scan")
+	@Description("Whether the rule ran in the scan shared by the line rules")
+	private final boolean lineScan;
+
+	@Label("Lines")
+	private int lines;
+
+	@Label("Findings")
+	private int findings;
+
+	RuleEvent(String url, String rule, boolean lineScan) {
+		this.url = url;
+		this.rule = rule;
+		this.lineScan = lineScan;
+	}
+
+	/**
+	 * finish() records what the rule found and commits the event.
+	 *
+	 * @param lines the number of lines of the playlist.
+	 * @param findings the number of findings reported by the rule.
+	 */
+	public void finish(int lines, int findings) {
+		this.lines = lines;
+		this.findings = findings;
+		commit();
+	}
+}
@@ -0,0 +1,556 @@
+package edu.psgv.sweng.generator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * PlaylistGenerator generates synthetic Master and Media Playlists for load and scale
+ * 	testing: long DVR windows, large variant ladders, alternate audio renditions, byte
+ * 	ranges, key rotation, discontinuities and date ranges, with errors injected at a
+ * 	configurable rate.
+ *
+ * 	Everything is derived from the seed and the segment's media sequence number, so the
+ * 	same configuration always generates the same playlists, the variants of a master
+ * 	are aligned (same durations, discontinuities and keys), and the window of a live
+ * 	playlist slides consistently as the media sequence advances.  Without injected
+ * 	errors the playlists pass every validation rule.
+ *
+ * 	Playlists are generated line by line into a Consumer, so they can be validated
+ * 	directly (media() returns the lines), written to disk (writeTo(), writeBatch()) or
+ * 	served by a test origin, without holding more than a line at a time.
+ *
+ * 	Layout of a master written to disk: 'master.m3u8', 'v<n>/prog.m3u8' for the variants
+ * 	and 'a<n>/audio.m3u8' for the audio renditions.  The segments ('seg<sequence>.ts',
+ * 	or 'media<n>.ts' with byte ranges) and keys ('key<n>.bin') are only referenced.
+ *
+ * @author Ryan McDonald
+ */
+public class PlaylistGenerator {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final String USAGE = "Usage: java edu.psgv.sweng.generator.PlaylistGenerator --out <dir> [options]\n"
+										+ "  --seed <n>                          seed of the generated playlists (default: 1)\n"
+										+ "  --masters <n>                       write n masters and a batch list of them (default: 1)\n"
+										+ "  --segments <n>                      segments per Media Playlist (default: 100)\n"
+										+ "  --target-duration <seconds>         target duration of the segments (default: 6)\n"
+										+ "  --variants <n>                      variants per master (default: 4)\n"
+										+ "  --renditions <n>                    alternate audio renditions per master (default: 0)\n"
+										+ "  --byteranges                        address segments as byte ranges of larger files\n"
+										+ "  --key-rotation <n>                  encrypt segments, with a new key every n segments\n"
+										+ "  --discontinuity-every <n>           add a discontinuity every n segments\n"
+										+ "  --daterange-every <n>               add a date range every n segments\n"
+										+ "  --error-rate <0..1>                 chance of an injected error per segment and variant\n"
+										+ "  --live                              generate live playlists (no EXT-X-ENDLIST)\n"
+										+ "  --media-sequence <n>                media sequence number of the first segment (default: 0)\n";
+
+	public static final int VERSION = 4;
+
+	/* Segments stored in each file when segments are addressed as byte ranges */
+	private static final int SEGMENTS_PER_FILE = 10;
+
+	/* Date and time of the segment with media sequence number 0: 2020-01-01T00:00:00Z */
+	private static final long EPOCH_MILLIS = 1577836800000L;
+
+	private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+	/* Kinds of injected errors */
+	private static final int LONG_SEGMENT = 0;
+	private static final int MISSING_URI = 1;
+	private static final int BOGUS_TAG = 2;
+	private static final int WHITESPACE = 3;
+	private static final int ERROR_KINDS = 4;
+
+	/* Playlist index of the master, for it's injected errors */
+	private static final int MASTER = -1;
+
+	private long seed = 1;
+	private int segments = 100;
+	private int targetDuration = 6;
+	private int variants = 4;
+	private int renditions = 0;
+	private boolean byteRanges = false;
+	private int keyRotation = 0;
+	private int discontinuityEvery = 0;
+	private int dateRangeEvery = 0;
+	private double errorRate = 0;
+	private boolean live = false;
+	private long mediaSequence = 0;
+
+	public PlaylistGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	public PlaylistGenerator setSegments(int segments) {
+		this.segments = segments;
+		return this;
+	}
+
+	public PlaylistGenerator setTargetDuration(int targetDuration) {
+		this.targetDuration = targetDuration;
+		return this;
+	}
+
+	public PlaylistGenerator setVariants(int variants) {
+		this.variants = variants;
+		return this;
+	}
+
+	public PlaylistGenerator setRenditions(int renditions) {
+		this.renditions = renditions;
+		return this;
+	}
+
+	public PlaylistGenerator setByteRanges(boolean byteRanges) {
+		this.byteRanges = byteRanges;
+		return this;
+	}
+
+	/**
+	 * @param keyRotation the number of segments encrypted with each key, or 0 for none.
+	 */
+	public PlaylistGenerator setKeyRotation(int keyRotation) {
+		this.keyRotation = keyRotation;
+		return this;
+	}
+
+	/**
+	 * @param discontinuityEvery the number of segments between discontinuities, or 0 for none.
+	 */
+	public PlaylistGenerator setDiscontinuityEvery(int discontinuityEvery) {
+		this.discontinuityEvery = discontinuityEvery;
+		return this;
+	}
+
+	/**
+	 * @param dateRangeEvery the number of segments between date ranges, or 0 for none.
+	 */
+	public PlaylistGenerator setDateRangeEvery(int dateRangeEvery) {
+		this.dateRangeEvery = dateRangeEvery;
+		return this;
+	}
+
+	/**
+	 * @param errorRate the chance of an error being injected at a segment of a Media
+	 * 	Playlist, or at a variant of the master.
+	 */
+	public PlaylistGenerator setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+		return this;
+	}
+
+	public PlaylistGenerator setLive(boolean live) {
+		this.live = live;
+		return this;
+	}
+
+	/**
+	 * @param mediaSequence the media sequence number of the first segment; advancing it
+	 * 	slides the window of a live playlist.
+	 */
+	public PlaylistGenerator setMediaSequence(long mediaSequence) {
+		this.mediaSequence = mediaSequence;
+		return this;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public long getMediaSequence() {
+		return mediaSequence;
+	}
+
+	/**
+	 * getMediaPlaylistCount() returns the number of Media Playlists of the master: the
+	 * 	variants followed by the renditions.
+	 *
+	 * @return the number of Media Playlists.
+	 */
+	public int getMediaPlaylistCount() {
+		return variants + renditions;
+	}
+
+	/**
+	 * getMediaUri() returns the URI of a Media Playlist, relative to the master.
+	 *
+	 * @param index the index of the Media Playlist (variants first, then renditions).
+	 * @return the relative URI.
+	 */
+	public String getMediaUri(int index) {
+		return (index < variants) ? "v" + index + "/prog.m3u8" : "a" + (index - variants) + "/audio.m3u8";
+	}
+
+	/**
+	 * master() generates the Master Playlist.
+	 *
+	 * @return the lines of the playlist.
+	 */
+	public List<String> master() {
+		List<String> lines = new ArrayList<String>(4 + renditions + 2 * variants);
+		master(lines::add);
+		return lines;
+	}
+
+	/**
+	 * master() generates the Master Playlist line by line.
+	 *
+	 * @param out receives each line.
+	 */
+	public void master(Consumer<String> out) {
+		out.accept("#EXTM3U");
+		out.accept("#EXT-X-VERSION:" + VERSION);
+		out.accept("#EXT-X-INDEPENDENT-SEGMENTS");
+
+		for(int r = 0; r < renditions; r++) {
+			out.accept("#EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID=\"aud\",NAME=\"audio" + r + "\",LANGUAGE=\"" + language(r) + "\","
+					+ "DEFAULT=" + (r == 0 ? "YES" : "NO") + ",AUTOSELECT=YES,URI=\"" + getMediaUri(variants + r) + "\"");
+		}
+
+		for(int v = 0; v < variants; v++) {
+			int height = 144 + (int) ((1080 - 144) * (long) v / Math.max(1, variants - 1)) / 2 * 2;
+			int width = (height * 16 / 9 + 1) / 2 * 2;
+
+			StringBuilder tag = new StringBuilder("#EXT-X-STREAM-INF:");
+			if(!isError(MASTER, v)) {
+				tag.append("BANDWIDTH=").append(200000L + 8000L * height * (v + 1) / Math.max(1, variants)).append(',');
+			}
+			tag.append("RESOLUTION=").append(width).append('x').append(height);
+			tag.append(",CODECS=\"avc1.4d401f,mp4a.40.2\"");
+			if(renditions > 0) {
+				tag.append(",AUDIO=\"aud\"");
+			}
+
+			out.accept(tag.toString());
+			out.accept(getMediaUri(v));
+		}
+	}
+
+	/**
+	 * media() generates a Media Playlist.
+	 *
+	 * @param index the index of the Media Playlist (variants first, then renditions).
+	 * @return the lines of the playlist.
+	 */
+	public List<String> media(int index) {
+		List<String> lines = new ArrayList<String>(8 + 3 * segments);
+		media(index, lines::add);
+		return lines;
+	}
+
+	/**
+	 * media() generates a Media Playlist line by line.
+	 *
+	 * @param index the index of the Media Playlist (variants first, then renditions).
+	 * @param out receives each line.
+	 */
+	public void media(int index, Consumer<String> out) {
+		boolean dated = live || dateRangeEvery > 0;
+
+		out.accept("#EXTM3U");
+		out.accept("#EXT-X-VERSION:" + VERSION);
+		out.accept("#EXT-X-TARGETDURATION:" + targetDuration);
+		out.accept("#EXT-X-MEDIA-SEQUENCE:" + mediaSequence);
+		if(discontinuityEvery > 0 && mediaSequence > 1) {
+			//Discontinuities of the segments that have left the window
+			out.accept("#EXT-X-DISCONTINUITY-SEQUENCE:" + (mediaSequence - 1) / discontinuityEvery);
+		}
+		if(!live) {
+			out.accept("#EXT-X-PLAYLIST-TYPE:VOD");
+		}
+
+		long time = dated ? EPOCH_MILLIS + millisBefore(mediaSequence) : 0;
+
+		for(int n = 0; n < segments; n++) {
+			long sequence = mediaSequence + n;
+			boolean discontinuity = discontinuityEvery > 0 && sequence > 0 && sequence % discontinuityEvery == 0;
+			int error = isError(index, sequence) ? (int) (mix(seed, index, sequence, 2) % ERROR_KINDS) : -1;
+
+			if(discontinuity) {
+				out.accept("#EXT-X-DISCONTINUITY");
+			}
+			if(keyRotation > 0 && (n == 0 || sequence % keyRotation == 0)) {
+				long key = sequence / keyRotation;
+				out.accept("#EXT-X-KEY:METHOD=AES-128,URI=\"key" + key + ".bin\",IV=0x" + String.format("%016x%016x", seed, key));
+			}
+			if(dated && (n == 0 || discontinuity)) {
+				out.accept("#EXT-X-PROGRAM-DATE-TIME:" + DATE_TIME.format(Instant.ofEpochMilli(time)));
+			}
+			if(dateRangeEvery > 0 && sequence % dateRangeEvery == 0) {
+				out.accept("#EXT-X-DATERANGE:ID=\"break-" + sequence + "\",CLASS=\"com.example.ad\",START-DATE=\""
+						+ DATE_TIME.format(Instant.ofEpochMilli(time)) + "\",DURATION=" + targetDuration + ".0");
+			}
+			if(error == BOGUS_TAG) {
+				out.accept("#EXT-X-GENERATED-BOGUS:" + sequence);
+			} else if(error == WHITESPACE) {
+				out.accept("   ");
+			}
+
+			//The URI has to follow 'EXTINF', so the byte range is given before it
+			long file = sequence / SEGMENTS_PER_FILE;
+			if(byteRanges) {
+				long offset = 0;
+				for(long s = file * SEGMENTS_PER_FILE; s < sequence; s++) {
+					offset += segmentBytes(index, s);
+				}
+				out.accept("#EXT-X-BYTERANGE:" + segmentBytes(index, sequence) + "@" + offset);
+			}
+
+			long duration = durationMillis(sequence);
+			long shown = (error == LONG_SEGMENT) ? targetDuration * 1000L + 2500 : duration;
+			out.accept(String.format(Locale.ROOT, "#EXTINF:%d.%03d,", shown / 1000, shown % 1000));
+
+			if(error != MISSING_URI) {
+				out.accept(byteRanges ? "media" + file + ".ts" : "seg" + sequence + ".ts");
+			}
+
+			time += duration;
+		}
+
+		if(!live) {
+			out.accept("#EXT-X-ENDLIST");
+		}
+	}
+
+	/**
+	 * getInjectedErrors() counts the errors injected in a Media Playlist.  Each may be
+	 * 	reported by more than one rule (e.g. a missing URI also misaligns the variant).
+	 *
+	 * @param index the index of the Media Playlist (variants first, then renditions).
+	 * @return the number of segments with an injected error.
+	 */
+	public int getInjectedErrors(int index) {
+		int count = 0;
+		for(int n = 0; n < segments; n++) {
+			if(isError(index, mediaSequence + n)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * getInjectedMasterErrors() counts the variants of the master missing their BANDWIDTH.
+	 *
+	 * @return the number of errors injected in the master.
+	 */
+	public int getInjectedMasterErrors() {
+		int count = 0;
+		for(int v = 0; v < variants; v++) {
+			if(isError(MASTER, v)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * writeTo() writes the master and it's Media Playlists to a directory.
+	 *
+	 * @param dir the directory, created if it does not exist.
+	 * @return the Master Playlist file.
+	 * @throws IOException if a playlist could not be written.
+	 */
+	public File writeTo(File dir) throws IOException {
+		File master = new File(dir, "master.m3u8");
+		write(master, out -> master(out));
+
+		for(int index = 0; index < getMediaPlaylistCount(); index++) {
+			final int media = index;
+			write(new File(dir, getMediaUri(index)), out -> media(media, out));
+		}
+
+		return master;
+	}
+
+	/**
+	 * writeBatch() writes masters generated with consecutive seeds, each to a directory
+	 * 	of it's own, and a batch list of their 'file://' URLs.
+	 *
+	 * @param dir the directory, created if it does not exist.
+	 * @param masters the number of masters.
+	 * @return the batch list file.
+	 * @throws IOException if a playlist could not be written.
+	 */
+	public File writeBatch(File dir, int masters) throws IOException {
+		List<String> urls = new ArrayList<String>(masters);
+
+		for(int m = 0; m < masters; m++) {
+			File master = copy(seed + m).writeTo(new File(dir, "master" + m));
+			urls.add("file://" + master.getAbsolutePath());
+		}
+
+		File list = new File(dir, "list.txt");
+		write(list, out -> urls.forEach(out));
+		return list;
+	}
+
+	/**
+	 * copy() returns a generator with the same configuration and another seed.
+	 *
+	 * @param otherSeed the seed of the copy.
+	 * @return the copy.
+	 */
+	public PlaylistGenerator copy(long otherSeed) {
+		return new PlaylistGenerator(otherSeed).setSegments(segments).setTargetDuration(targetDuration)
+				.setVariants(variants).setRenditions(renditions).setByteRanges(byteRanges)
+				.setKeyRotation(keyRotation).setDiscontinuityEvery(discontinuityEvery)
+				.setDateRangeEvery(dateRangeEvery).setErrorRate(errorRate).setLive(live)
+				.setMediaSequence(mediaSequence);
+	}
+
+	/**
+	 * write() writes the lines generated by a generator method to a file.
+	 */
+	private static void write(File file, Consumer<Consumer<String>> generate) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if(parent != null) {
+			Files.createDirectories(parent.toPath());
+		}
+
+		try(Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+			generate.accept(line -> {
+				try {
+					writer.write(line);
+					writer.write('\n');
+				} catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch(UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * durationMillis() returns the duration of a segment, between 1 second less than the
+	 * 	target duration and the target duration.  It only depends on the media sequence
+	 * 	number, so that the variants are aligned.
+	 */
+	private long durationMillis(long sequence) {
+		return targetDuration * 1000L - mix(seed, 0, sequence, 0) % 1000;
+	}
+
+	/**
+	 * millisBefore() returns the duration of all segments before a media sequence number.
+	 */
+	private long millisBefore(long sequence) {
+		long millis = 0;
+		for(long s = 0; s < sequence; s++) {
+			millis += durationMillis(s);
+		}
+		return millis;
+	}
+
+	private long segmentBytes(int index, long sequence) {
+		return 100000 + mix(seed, index, sequence, 1) % 400000;
+	}
+
+	private boolean isError(int index, long sequence) {
+		return errorRate > 0 && (mix(seed, index, sequence, 3) >>> 11) * 0x1.0p-53 < errorRate;
+	}
+
+	private static String language(int rendition) {
+		String[] languages = { "en", "es", "fr", "de", "ja", "pt", "it", "ko" };
+		return (rendition < languages.length) ? languages[rendition] : "x" + rendition;
+	}
+
+	/**
+	 * mix() hashes it's arguments into a well distributed, non-negative number (the
+	 * 	SplitMix64 finalizer), so any segment's values can be worked out on their own.
+	 */
+	private static long mix(long seed, long index, long sequence, long salt) {
+		long z = seed * 0x9E3779B97F4A7C15L + index * 0xBF58476D1CE4E5B9L + sequence * 0x94D049BB133111EBL + salt;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+	}
+
+	/**
+	 * main() writes generated playlists to a directory, e.g. for a batch run of the validator.
+	 *
+	 * @param args the command line arguments (see USAGE).
+	 */
+	public static void main(String[] args) {
+		File out = null;
+		int masters = 1;
+		PlaylistGenerator generator = new PlaylistGenerator(1);
+
+		try {
+			for(int i = 0; i < args.length; i++) {
+				String arg = args[i];
+
+				if(arg.equals("--out")) {
+					out = new File(valueOf(args, ++i, arg));
+				} else if(arg.equals("--seed")) {
+					generator.seed = Long.parseLong(valueOf(args, ++i, arg));
+				} else if(arg.equals("--masters")) {
+					masters = Integer.parseInt(valueOf(args, ++i, arg));
+				} else if(arg.equals("--segments")) {
+					generator.setSegments(Integer.parseInt(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--target-duration")) {
+					generator.setTargetDuration(Integer.parseInt(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--variants")) {
+					generator.setVariants(Integer.parseInt(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--renditions")) {
+					generator.setRenditions(Integer.parseInt(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--byteranges")) {
+					generator.setByteRanges(true);
+				} else if(arg.equals("--key-rotation")) {
+					generator.setKeyRotation(Integer.parseInt(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--discontinuity-every")) {
+					generator.setDiscontinuityEvery(Integer.parseInt(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--daterange-every")) {
+					generator.setDateRangeEvery(Integer.parseInt(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--error-rate")) {
+					generator.setErrorRate(Double.parseDouble(valueOf(args, ++i, arg)));
+				} else if(arg.equals("--live")) {
+					generator.setLive(true);
+				} else if(arg.equals("--media-sequence")) {
+					generator.setMediaSequence(Long.parseLong(valueOf(args, ++i, arg)));
+				} else {
+					throw new IllegalArgumentException("Unknown option '" + arg + "'.");
+				}
+			}
+
+			if(out == null) {
+				throw new IllegalArgumentException("Missing --out <dir>.");
+			}
+		} catch(IllegalArgumentException e) {
+			System.out.println("ERROR: " + e.getMessage());
+			System.out.println(USAGE);
+			return;
+		}
+
+		try {
+			File written = (masters == 1) ? generator.writeTo(out) : generator.writeBatch(out, masters);
+			System.out.println("Generated: " + written.getAbsolutePath());
+		} catch(IOException e) {
+			logger.error("Unable to write generated playlists: {}", e.getMessage());
+			System.out.println("ERROR: Unable to write generated playlists to '" + out + "': " + e.getMessage());
+		}
+	}
+
+	private static String valueOf(String[] args, int i, String option) {
+		if(i >= args.length) {
+			throw new IllegalArgumentException("Option '" + option + "' requires a value.");
+		}
+		return args[i];
+	}
+}
@@ -0,0 +1,82 @@
+package edu.psgv.sweng.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * ContentEncoding negotiates compressed transfers of playlists.  gzip is always
+ * 	offered; brotli ('br') is only offered when a brotli decoder
+ * 	(org.brotli.dec.BrotliInputStream) is on the classpath.  Responses are
+ * 	decompressed as a stream, so a playlist is never held compressed in memory.
+ *
+ * @author Ryan McDonald
+ */
+public class ContentEncoding {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final String BROTLI_DECODER = "org.brotli.dec.BrotliInputStream";
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final Constructor<?> brotliDecoder = findBrotliDecoder();
+	private static final String acceptEncoding = (brotliDecoder != null) ? "br, gzip" : "gzip";
+
+	private ContentEncoding() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * getAcceptEncoding() returns the value of the 'Accept-Encoding' request header.
+	 *
+	 * @return the encodings that can be decoded, in order of preference.
+	 */
+	public static String getAcceptEncoding() {
+		return acceptEncoding;
+	}
+
+	/**
+	 * decode() wraps a response body in a decoder for it's 'Content-Encoding'.
+	 *
+	 * @param body the response body as received over the wire.
+	 * @param encoding the 'Content-Encoding' of the response; may be null.
+	 * @return a stream of the decoded response body.
+	 * @throws IOException if the encoding is not supported or the body cannot be decoded.
+	 */
+	public static InputStream decode(InputStream body, String encoding) throws IOException {
+		if(encoding == null || encoding.isEmpty() || encoding.equalsIgnoreCase("identity")) {
+			return body;
+		} else if(encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("x-gzip")) {
+			return new GZIPInputStream(body, BUFFER_SIZE);
+		} else if(encoding.equalsIgnoreCase("deflate")) {
+			return new InflaterInputStream(body);
+		} else if(encoding.equalsIgnoreCase("br") && brotliDecoder != null) {
+			try {
+				return (InputStream) brotliDecoder.newInstance(body);
+			} catch(ReflectiveOperationException e) {
+				throw new IOException("Unable to create brotli decoder: " + e.getMessage(), e);
+			}
+		}
+
+		throw new IOException("Unsupported Content-Encoding: " + encoding);
+	}
+
+	/**
+	 * findBrotliDecoder() looks up the brotli decoder, if one is available.
+	 */
+	private static Constructor<?> findBrotliDecoder() {
+		try {
+			Constructor<?> constructor = Class.forName(BROTLI_DECODER).getConstructor(InputStream.class);
+			logger.info("Brotli decoder found; offering 'br' encoding.");
+			return constructor;
+		} catch(ReflectiveOperationException | LinkageError e) {
+			logger.debug("No brotli decoder on the classpath; offering gzip only.");
+			return null;
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package edu.psgv.sweng.io;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.metrics.LatencyHistogram;
+import edu.psgv.sweng.metrics.Metrics;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Tracer;
+
+/**
+ * FetchExecutor runs the fetch-and-validate work of the HLS Application.  In the
+ * 	default sequential mode every task runs inline on the calling thread, exactly as
+ * 	before.  In concurrent mode every task (a batch URL, a master's variant, ...) gets
+ * 	a thread of its own: a virtual thread on JDK 21+, or a pooled platform thread on
+ * 	older runtimes.
+ *
+ * 	Fetching stays blocking.  How many fetches run at once is capped by semaphores,
+ * 	globally and per host, instead of by the number of threads.  The semaphore of a
+ * 	host is only kept while fetches to the host are in flight or waiting, so a long
+ * 	batch over many hosts does not accumulate them.
+ *
+ * @author Ryan McDonald
+ */
+public class FetchExecutor {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final int DEFAULT_MAX_CONCURRENCY = 64;
+	public static final int DEFAULT_MAX_PER_HOST = 8;
+
+	private static ExecutorService executor = null;
+	private static boolean virtualThreads = false;
+	private static int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+	private static int maxPerHost = DEFAULT_MAX_PER_HOST;
+	private static final AtomicInteger inFlight = new AtomicInteger();
+	private static final AtomicInteger waiting = new AtomicInteger();
+	private static final LatencyHistogram waitTime = Metrics.histogram("hls_fetch_wait_seconds");
+	private static Semaphore globalPermits = new Semaphore(DEFAULT_MAX_CONCURRENCY);
+	private static final ConcurrentHashMap<String, HostPermits> hostPermits = new ConcurrentHashMap<String, HostPermits>();
+	private static final ThreadFactory taskThreads = new DaemonThreadFactory("hls-task-");
+
+	private FetchExecutor() {
+		//Prevent instantiation/subclassing
+	}
+
+	static {
+		Metrics.gauge("hls_fetches_in_flight", FetchExecutor::getInFlight);
+		Metrics.gauge("hls_fetches_waiting", FetchExecutor::getWaiting);
+	}
+
+	/**
+	 * configure() sets the execution mode and the concurrency limits.  Must be called
+	 * 	before any work is submitted.
+	 *
+	 * @param concurrent whether tasks should run concurrently instead of inline.
+	 * @param maxFetches the maximum number of fetches in flight overall.
+	 * @param maxFetchesPerHost the maximum number of fetches in flight to a single host.
+	 */
+	public static synchronized void configure(boolean concurrent, int maxFetches, int maxFetchesPerHost) {
+		logger.debug("in>> configure()");
+
+		shutdown();
+
+		globalPermits = new Semaphore(maxFetches, true);
+		maxConcurrency = maxFetches;
+		maxPerHost = maxFetchesPerHost;
+		hostPermits.clear();
+
+		if(concurrent) {
+			executor = newVirtualThreadExecutor();
+			virtualThreads = (executor != null);
+
+			if(executor == null) {
+				logger.warn("Virtual threads are not available on this runtime; falling back to platform threads.");
+				executor = Executors.newCachedThreadPool(new DaemonThreadFactory("hls-fetch-"));
+			}
+
+			logger.info("Concurrent execution on {} threads; {} fetches max, {} per host.",
+					virtualThreads ? "virtual" : "platform", maxFetches, maxFetchesPerHost);
+		}
+
+		logger.debug("<<out configure()");
+	}
+
+	/**
+	 * isConcurrent() returns whether tasks run on threads of their own.
+	 *
+	 * @return whether the executor is in concurrent mode.
+	 */
+	public static boolean isConcurrent() {
+		return executor != null;
+	}
+
+	/**
+	 * getMaxConcurrency() returns the maximum number of fetches in flight overall.  Callers
+	 * 	that submit many tasks may use it to bound how many tasks they keep in flight.
+	 *
+	 * @return the global fetch limit.
+	 */
+	public static int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * getInFlight() returns the number of fetches currently holding a permit.
+	 *
+	 * @return the number of fetches in flight.
+	 */
+	public static int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * getWaiting() returns the number of fetches waiting for a permit.
+	 *
+	 * @return the number of fetches queued.
+	 */
+	public static int getWaiting() {
+		return waiting.get();
+	}
+
+	/**
+	 * submit() runs a task on a thread of its own, or inline when not in concurrent mode.
+	 * 	The task runs under the trace span current on the calling thread.
+	 *
+	 * @param task the task to run.
+	 * @return the Future of the task; already completed when run inline.
+	 */
+	public static <T> Future<T> submit(Callable<T> task) {
+		ExecutorService current = executor;
+		task = Tracer.wrap(task);
+
+		if(current == null) {
+			FutureTask<T> future = new FutureTask<T>(task);
+			future.run();
+			return future;
+		}
+
+		return current.submit(task);
+	}
+
+	/**
+	 * start() runs a task on a thread of its own in either mode, for tasks that run for
+	 * 	as long as they are left to (such as monitoring a live playlist) and so must not
+	 * 	run inline.  The task runs under the trace span current on the calling thread;
+	 * 	it's fetches are capped as any other.
+	 *
+	 * @param task the task to run.
+	 * @return the Future of the task.
+	 */
+	public static <T> Future<T> start(Callable<T> task) {
+		ExecutorService current = executor;
+		task = Tracer.wrap(task);
+
+		if(current == null) {
+			FutureTask<T> future = new FutureTask<T>(task);
+			taskThreads.newThread(future).start();
+			return future;
+		}
+
+		return current.submit(task);
+	}
+
+	/**
+	 * fetch() runs a blocking fetch once a global permit and a permit for the
+	 * 	URL's host are available.
+	 *
+	 * @param url the URL that will be fetched.
+	 * @param fetch the blocking fetch.
+	 * @return the result of the fetch.
+	 * @throws Exception if the fetch fails or the thread is interrupted while waiting.
+	 */
+	public static <T> T fetch(String url, Callable<T> fetch) throws Exception {
+		Semaphore global = globalPermits;
+		String hostName = hostOf(url);
+		HostPermits host = hostPermits.compute(hostName, FetchExecutor::join);
+
+		try {
+			//Waiting counts from asking for the host permit until the global permit is held
+			Span span = Tracer.start("wait", null);
+			long start = System.nanoTime();
+			waiting.incrementAndGet();
+			try {
+				host.acquire();
+			} catch(InterruptedException e) {
+				waiting.decrementAndGet();
+				if(span != null) {
+					span.end();
+				}
+				throw e;
+			}
+			try {
+				try {
+					global.acquire();
+				} finally {
+					waiting.decrementAndGet();
+					if(span != null) {
+						span.end();
+					}
+				}
+				waitTime.recordSince(start);
+				inFlight.incrementAndGet();
+				try {
+					return fetch.call();
+				} finally {
+					inFlight.decrementAndGet();
+					global.release();
+				}
+			} finally {
+				host.release();
+			}
+		} finally {
+			hostPermits.compute(hostName, FetchExecutor::leave);
+		}
+	}
+
+	/**
+	 * getHostCount() returns the number of hosts with fetches in flight or waiting.
+	 *
+	 * @return the number of hosts whose permits are kept.
+	 */
+	public static int getHostCount() {
+		return hostPermits.size();
+	}
+
+	/* Counts a fetch in to the permits of a host, creating them for the first one */
+	private static HostPermits join(String host, HostPermits permits) {
+		if(permits == null) {
+			permits = new HostPermits(maxPerHost);
+		}
+		permits.fetches++;
+		return permits;
+	}
+
+	/* Counts a fetch out of the permits of a host, dropping them after the last one */
+	private static HostPermits leave(String host, HostPermits permits) {
+		return (--permits.fetches == 0) ? null : permits;
+	}
+
+	/**
+	 * shutdown() stops the threads of concurrent mode once submitted work is finished.
+	 */
+	public static synchronized void shutdown() {
+		if(executor != null) {
+			executor.shutdown();
+
+			try {
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			executor = null;
+		}
+	}
+
+	/**
+	 * hostOf() returns the lower-case host of a URL, or an empty string if it has none.
+	 *
+	 * @param url the URL.
+	 * @return the host of the URL.
+	 */
+	static String hostOf(String url) {
+		try {
+			String host = new URI(url).getHost();
+			return (host == null) ? "" : host.toLowerCase();
+		} catch(URISyntaxException e) {
+			return "";
+		}
+	}
+
+	/**
+	 * newVirtualThreadExecutor() looks up Executors.newVirtualThreadPerTaskExecutor() so
+	 * 	that the application still compiles and runs on runtimes older than JDK 21.
+	 *
+	 * @return a virtual thread per task executor, or null if not available.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch(ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * HostPermits are the permits of a host, with the number of fetches that are in
+	 * 	flight to it or waiting for it.  The count is only changed within the map's
+	 * 	compute(), so the permits are never dropped while a fetch still uses them.
+	 */
+	@SuppressWarnings("serial")
+	private static final class HostPermits extends Semaphore {
+		int fetches;
+
+		HostPermits(int permits) {
+			super(permits, true);
+		}
+	}
+
+	/**
+	 * DaemonThreadFactory names the platform threads of the fallback pool (and of tasks
+	 * 	started on their own thread) and keeps them from holding the JVM open.
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final String prefix;
+		private final AtomicInteger count = new AtomicInteger();
+
+		DaemonThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -1,13 +1,25 @@
 package edu.psgv.sweng.io;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
 
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import edu.psgv.sweng.events.FetchEvent;
+import edu.psgv.sweng.events.FlightEvents;
+import edu.psgv.sweng.metrics.Metrics;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Tracer;
+import edu.psgv.sweng.validation.ClassifiedLines;
+import edu.psgv.sweng.validation.LineClassifier;
+import edu.psgv.sweng.validation.LineType;
+
 /**
  * HLSUtilities provides utility methods for HLS purposes.  These methods
  * 	provide the main working logic for content extraction (from files
@@ -21,10 +33,25 @@ public class HLSUtilities {
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
 
+	/* Size of the chunks responses are split into lines from */
+	private static final int LINE_CHUNK_SIZE = 8192;
+
+	/* Console for user facing messages; stderr when a report is written to stdout */
+	private static PrintStream console = System.out;
+
 	private HLSUtilities() {
 		//Prevent instantiation/subclassing
 	}
 
+	/**
+	 * setConsole() sets the stream that user facing messages are printed to.
+	 *
+	 * @param stream the stream for user facing messages.
+	 */
+	public static void setConsole(PrintStream stream) {
+		console = stream;
+	}
+
 	/**
 	 * getContentFromFile() is used to read content line by line from a provided file.
 	 *
@@ -36,6 +63,7 @@ public class HLSUtilities {
 		logger.info("Looking for file {}", filepath);
 
 		ArrayList<String> content = new ArrayList<>();
+		Span span = Tracer.start("read", filepath);
 
 		//Read through the file and extract lines into a list
 		try (BufferedReader bufferedReader = new BufferedReader(new FileReader(filepath))) {
@@ -51,19 +79,23 @@ public class HLSUtilities {
 		} catch(Exception e) {
 
 			if(e instanceof FileNotFoundException) {
-				System.out.println("\nUnable to locate and open file '" + filepath + "' ...\n");
+				console.println("\nUnable to locate and open file '" + filepath + "' ...\n");
 				logger.error("Unable to open file: '{}'", filepath);
 			} else if(e instanceof IOException) {
-				System.out.println("\nError reading file contents from '" + filepath + "' ...\n");
+				console.println("\nError reading file contents from '" + filepath + "' ...\n");
 				logger.error("Unable to read file: '{}'", filepath);
 			} else {
-				System.out.println("\nError reading file '" + filepath + "' ...\n");
+				console.println("\nError reading file '" + filepath + "' ...\n");
 				logger.error("getContentFromFile(): '{}'",e.getMessage());
 			}
 
 			content = null;
 		}
 
+		if(span != null) {
+			span.setArg("lines", (content == null) ? 0 : content.size()).end();
+		}
+
 		//DEBUGGER: Show content in list only if Trace debugging is enabled.
 		if(logger.isTraceEnabled()) {
 			StringBuilder sb = new StringBuilder();
@@ -73,7 +105,7 @@ public class HLSUtilities {
 					sb.append("\t").append("URL").append(i+1).append(": ").append(content.get(i));
 				}
 
-				logger.trace("getContentFromFile(): Extracted content:\n", sb.toString());
+				logger.trace("getContentFromFile(): Extracted content:\n{}", sb.toString());
 			} else {
 				logger.trace("getContentFromFile(): List of content is null.");
 			}
@@ -85,7 +117,8 @@ public class HLSUtilities {
 
 	/**
 	 * getURLConnection() establishes a URL connection to the string version of
-	 * 	the URL that is passed in as a parameter.
+	 * 	the URL that is passed in as a parameter.  Compressed transfers are requested
+	 * 	through 'Accept-Encoding'.
 	 *
 	 * @param urlString the string representation of a URL.
 	 * @return an HTTP GET connection to the provided URL.
@@ -99,13 +132,14 @@ public class HLSUtilities {
 			URL url = new URL(urlString);
 			urlConnection = (HttpURLConnection) url.openConnection();
 			urlConnection.setRequestMethod("GET");
+			urlConnection.setRequestProperty("Accept-Encoding", ContentEncoding.getAcceptEncoding());
 
 		} catch(Exception e) {
 
 			urlConnection = null;	//reset urlConnection
 
 			if(e instanceof MalformedURLException) {
-				//System.out.println("\nMalformed URL: '" + urlString + "'\nPlease verify that provided URL is correct.\n");
+				//console.println("\nMalformed URL: '" + urlString + "'\nPlease verify that provided URL is correct.\n");
 				logger.error("Malformed URL; failed to open: '{}'", urlString);
 			} else {
 				logger.error("getUrlContents(): '{}'", e.getMessage());
@@ -124,34 +158,51 @@ public class HLSUtilities {
 	 * @return a list of all lines of content present at the connection.
 	 */
 	public static ArrayList<String> readURLContents(HttpURLConnection urlConnection) {
+		return readURLContents(urlConnection, null);
+	}
+
+	/**
+	 * readURLContents() extracts content from a file through an HTTP Connection,
+	 * 	recording the bytes read on the fetch's flight recorder event.
+	 *
+	 * @param urlConnection the HTTP Get connection to the content that will be read.
+	 * @param event the fetch event or null if it is not being recorded.
+	 * @return a list of all lines of content present at the connection.
+	 */
+	private static ArrayList<String> readURLContents(HttpURLConnection urlConnection, FetchEvent event) {
 		logger.debug("in>> readURLContents()");
 
-		ArrayList<String> content = new ArrayList<>();
+		ClassifiedLines content = new ClassifiedLines();
 
 		//Read web contents into a list through HTTP
 		try {
-			//Wrap HTTP connection in buffered reader for content extraction
-			BufferedReader urlContentReader = new BufferedReader(new InputStreamReader(urlConnection.getInputStream()));
+			String encoding = urlConnection.getContentEncoding();
+
+			//Decompress the response as it is read; count bytes before and after decoding
+			TransferStats.CountingInputStream wire = new TransferStats.CountingInputStream(urlConnection.getInputStream());
+			TransferStats.CountingInputStream decoded = new TransferStats.CountingInputStream(ContentEncoding.decode(wire, encoding));
 
 			logger.info("Reading content from URL: {}", urlConnection.getURL().toString());
 
-			//Read web content line by line
-			String line = "";
-			while((line = urlContentReader.readLine()) != null) {
-				content.add(line);
+			//Split the lines from chunks of the decoded response as it is read
+			try (InputStream in = decoded) {
+				readLines(in, content);
 			}
 
-			urlContentReader.close();
-			logger.info("Finished reading content from URL: {}", urlConnection.getURL().toString());
+			TransferStats.record(wire.getCount(), decoded.getCount(), encoding != null && !encoding.equalsIgnoreCase("identity"));
+			if(event != null) {
+				event.setBytes(decoded.getCount(), wire.getCount());
+			}
+			logger.info("Finished reading content from URL: {} ({} bytes, {} on the wire)", urlConnection.getURL().toString(), decoded.getCount(), wire.getCount());
 
 		} catch(Exception e) {
 			content = null;
 
 			if(e instanceof IOException) {
-				//System.out.println("\nError reading URL contents from '" + urlString + "'\nPlease verify that URL exists.\n");
+				//console.println("\nError reading URL contents from '" + urlString + "'\nPlease verify that URL exists.\n");
 				logger.error("Unable to read content from URL: '{}'", urlConnection.getURL().toString());
 			} else {
-				//System.out.println("\nError extracting content from URL '" + urlString + "' ...\n");
+				//console.println("\nError extracting content from URL '" + urlString + "' ...\n");
 				logger.error("readURLContents(): '{}'", e.getMessage());
 			}
 		}
@@ -176,55 +227,227 @@ public class HLSUtilities {
 	}
 
 
+	/**
+	 * readLines() reads the lines of a stream of UTF-8 bytes, split at '\n', '\r' or '\r\n'
+	 * 	(as BufferedReader does).  The stream is read in fixed size chunks and the part of
+	 * 	a line at the end of a chunk is carried over to the start of the next, so only
+	 * 	lines longer than a chunk need more memory.  Each line is classified on it's
+	 * 	bytes before a string is made of it: lines of plain ASCII are made strings
+	 * 	without decoding UTF-8 and keep their classification for the RuleEngine.
+	 *
+	 * @param in the stream.
+	 * @param lines the list the lines are added to.
+	 * @throws IOException if the stream cannot be read.
+	 */
+	public static void readLines(InputStream in, ClassifiedLines lines) throws IOException {
+		LineClassifier classifier = new LineClassifier();
+		byte[] chunk = new byte[LINE_CHUNK_SIZE];
+		int carried = 0;
+		boolean afterReturn = false;
+
+		int read;
+		while((read = in.read(chunk, carried, chunk.length - carried)) >= 0) {
+			int end = carried + read;
+			int start = 0;
+			int from = carried;
+
+			//A '\r' ended the last chunk; a '\n' starting this one belongs to it
+			if(afterReturn && read > 0) {
+				afterReturn = false;
+				if(chunk[0] == '\n') {
+					start = 1;
+					from = 1;
+				}
+			}
+
+			for(int i = from; i < end; i++) {
+				byte b = chunk[i];
+
+				if(b == '\n' || b == '\r') {
+					addLine(lines, classifier, chunk, start, i);
+
+					if(b == '\r') {
+						if(i + 1 == end) {
+							afterReturn = true;
+						} else if(chunk[i + 1] == '\n') {
+							i++;
+						}
+					}
+					start = i + 1;
+				}
+			}
+
+			carried = end - start;
+			if(start > 0) {
+				System.arraycopy(chunk, start, chunk, 0, carried);
+			} else if(carried == chunk.length) {
+				//A line longer than the chunk
+				chunk = Arrays.copyOf(chunk, chunk.length * 2);
+			}
+		}
+
+		if(carried > 0) {
+			addLine(lines, classifier, chunk, 0, carried);
+		}
+	}
+
+	/**
+	 * addLine() classifies a line of bytes and adds it to the lines.  The offsets of a
+	 * 	tag that is not plain ASCII are not those of it's string, so it is added without
+	 * 	them.
+	 */
+	private static void addLine(ClassifiedLines lines, LineClassifier classifier, byte[] bytes, int start, int end) {
+		LineType type = classifier.classify(bytes, start, end);
+
+		if(classifier.isAscii()) {
+			String line = new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+			int nameEnd = classifier.getNameEnd();
+			lines.add(line, type, (nameEnd < 0) ? -1 : nameEnd - start);
+		} else {
+			String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+			if(type == LineType.TAG_TYPE) {
+				lines.add(line);
+			} else {
+				lines.add(line, type, -1);
+			}
+		}
+	}
+
 	/**
 	 * getUrlContents() extracts content from a given URL.  An HTTP connection is opened
 	 * 	to the URL then content from the URL is read line by line to build a list to store
-	 * 	the content.
+	 * 	the content.  The fetch waits until FetchExecutor has a free slot for the URL's host.
 	 *
 	 * @param url the url to be opened via HTTP GET for content to be read from.
 	 * @return a list of all lines of content present at the URL.
 	 */
-	public static ArrayList<String> getUrlContents(String urlString) {
+	public static ArrayList<String> getUrlContents(final String urlString) {
 		logger.debug("in>> getUrlContents()");
+
+		ArrayList<String> contents = null;
+		FetchEvent event = FlightEvents.beginFetch(urlString);
+		Span span = Tracer.start("fetch", urlString);
+
+		//Wait for a free fetch slot (overall and for the URL's host) before connecting
+		try {
+			//Not a lambda: linking a lambda that captures the event would load it's class when nothing is recording
+			contents = FetchExecutor.fetch(urlString, new Callable<ArrayList<String>>() {
+				@Override
+				public ArrayList<String> call() {
+					return fetchUrlContents(urlString, event);
+				}
+			});
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted while waiting to fetch URL: {}", urlString);
+		} catch(Exception e) {
+			logger.error("getUrlContents(): '{}'", e.getMessage());
+		}
+
+		if(event != null) {
+			event.finish((contents == null) ? 0 : contents.size());
+		}
+		if(span != null) {
+			span.setArg("lines", (contents == null) ? 0 : contents.size()).end();
+		}
+
+		logger.debug("<<out getUrlContents()");
+		return contents;
+	}
+
+	/**
+	 * fetchUrlContents() opens the HTTP connection to a URL and reads its content.
+	 *
+	 * @param urlString the url to be opened via HTTP GET for content to be read from.
+	 * @param event the fetch's flight recorder event or null if it is not being recorded.
+	 * @return a list of all lines of content present at the URL.
+	 */
+	private static ArrayList<String> fetchUrlContents(String urlString, FetchEvent event) {
+		logger.debug("in>> fetchUrlContents()");
 		logger.info("Extracting content from URL: {}", urlString);
 
 		ArrayList<String> contents = null;
 
 		HttpURLConnection urlConnection = HLSUtilities.getURLConnection(urlString);
+		String host = (urlConnection != null) ? urlConnection.getURL().getHost() : "";
+		long start = System.nanoTime();
 		try {
 			if(urlConnection != null) {
-				logger.info("Response from URL Connection: {} - {}.", urlConnection.getResponseCode(), urlConnection.getResponseMessage());
+				//Time each stage of the fetch: DNS, connect, time to first byte, download
+				resolveHost(host);
+
+				long stage = System.nanoTime();
+				urlConnection.connect();
+				Metrics.histogram("hls_fetch_connect_seconds", "host", host).recordSince(stage);
+
+				stage = System.nanoTime();
+				int responseCode = urlConnection.getResponseCode();
+				Metrics.histogram("hls_fetch_ttfb_seconds", "host", host).recordSince(stage);
+				if(event != null) {
+					event.setStatus(responseCode);
+				}
+				logger.info("Response from URL Connection: {} - {}.", responseCode, urlConnection.getResponseMessage());
 
-				if(urlConnection.getResponseCode() == 200) {
-					contents = HLSUtilities.readURLContents(urlConnection);
-				} else if(urlConnection.getResponseCode() == 404) {
+				if(responseCode == 200) {
+					stage = System.nanoTime();
+					contents = HLSUtilities.readURLContents(urlConnection, event);
+					Metrics.histogram("hls_fetch_download_seconds", "host", host).recordSince(stage);
+				} else if(responseCode == 404) {
 					logger.warn("Encountered a 404 error when trying to connect to URL!");
-					System.out.println("404 ERROR: URL not found.  Please check that the following URL exists:\n\t" + urlString +"\n");
+					console.println("404 ERROR: URL not found.  Please check that the following URL exists:\n\t" + urlString +"\n");
 				} else {
 					logger.error("Encountered invalid response from URL; Could not retrieve content!");
-					System.out.println("ERROR: Failed to establish connection to URL:\n\t" + urlString);
+					console.println("ERROR: Failed to establish connection to URL:\n\t" + urlString);
 				}
 
 			} else {
 				logger.warn("Encountered a Malformed URL; Could not retrieve content!");
-				System.out.println("\nMalformed URL: '" + urlString + "'\nPlease verify that provided URL is formatted correctly.\n");
+				console.println("\nMalformed URL: '" + urlString + "'\nPlease verify that provided URL is formatted correctly.\n");
 			}
 		} catch(Exception e) {
-			logger.error("FAILED TO CONNECT TO URL!\n\t" + e.getMessage());
-			System.out.println("ERROR: Unable to connect to URL.");
+			logger.error("FAILED TO CONNECT TO URL!\n\t{}", e.getMessage());
+			console.println("ERROR: Unable to connect to URL.");
 		} finally {
 			if(urlConnection != null) {
 				urlConnection.disconnect();
 			}
 		}
 
-		logger.debug("<<out getUrlContents()");
+		Metrics.histogram("hls_fetch_seconds", "host", host).recordSince(start);
+		if(contents == null) {
+			Metrics.counter("hls_fetch_failures_total", "host", host).increment();
+		}
+
+		logger.debug("<<out fetchUrlContents()");
 		return contents;
 	}
 
+	/**
+	 * resolveHost() looks up the address of a host ahead of connecting to it, to time
+	 * 	the DNS lookup on it's own.  The JVM caches the address for the connection.
+	 * 	A host that cannot be resolved is left for the connection to report.
+	 *
+	 * @param host the host name.
+	 */
+	private static void resolveHost(String host) {
+		if(host.isEmpty()) {
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			InetAddress.getAllByName(host);
+		} catch(UnknownHostException e) {
+			logger.debug("Unable to resolve host {}", host);
+			return;
+		}
+		Metrics.histogram("hls_fetch_dns_seconds", "host", host).recordSince(start);
+	}
+
 	/**
 	 * absolutizeURL() takes a Master URL and a URI found within it's Playlist contents
-	 *  to create an absolute URL to the media playlist.
+	 *  to create an absolute URL to the media playlist, as specified by RFC 3986.
+	 *  Resolving many URIs against the same playlist should use a UrlResolver instead.
 	 *
 	 * @param masterURL the url of the Master Playlist
 	 * @param URI the URI of the variant playlist
@@ -233,8 +456,7 @@ public class HLSUtilities {
 	public static String absolutizeURL(String masterURL, String URI) {
 		logger.debug("in>> absolutizeURL()");
 
-		String url = masterURL.substring(0, masterURL.lastIndexOf("/") + 1);
-		url += URI;
+		String url = new UrlResolver(masterURL).resolve(URI);
 
 		logger.debug("<<out absolutizeURL()");
 
@@ -0,0 +1,124 @@
+package edu.psgv.sweng.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import edu.psgv.sweng.metrics.Counter;
+import edu.psgv.sweng.metrics.Metrics;
+
+/**
+ * TransferStats counts the bytes of playlist responses as received over the wire
+ * 	and after decoding, so that the savings of compressed transfers can be reported.
+ * 	The counts are kept in the metrics registry (hls_transfer_*).
+ *
+ * @author Ryan McDonald
+ */
+public class TransferStats {
+
+	private static final Counter responses = Metrics.counter("hls_transfer_responses_total");
+	private static final Counter compressedResponses = Metrics.counter("hls_transfer_compressed_responses_total");
+	private static final Counter wireBytes = Metrics.counter("hls_transfer_wire_bytes_total");
+	private static final Counter decodedBytes = Metrics.counter("hls_transfer_decoded_bytes_total");
+
+	private TransferStats() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * record() adds a completed response to the counters.
+	 *
+	 * @param wire the number of bytes received over the wire.
+	 * @param decoded the number of bytes after decoding.
+	 * @param compressed whether the response had a 'Content-Encoding'.
+	 */
+	public static void record(long wire, long decoded, boolean compressed) {
+		responses.increment();
+		wireBytes.add(wire);
+		decodedBytes.add(decoded);
+
+		if(compressed) {
+			compressedResponses.increment();
+		}
+	}
+
+	public static long getResponses() {
+		return responses.get();
+	}
+
+	public static long getCompressedResponses() {
+		return compressedResponses.get();
+	}
+
+	public static long getWireBytes() {
+		return wireBytes.get();
+	}
+
+	public static long getDecodedBytes() {
+		return decodedBytes.get();
+	}
+
+	/**
+	 * getBytesSaved() returns how many fewer bytes were transferred than were read.
+	 *
+	 * @return the bytes saved by compressed transfers.
+	 */
+	public static long getBytesSaved() {
+		return getDecodedBytes() - getWireBytes();
+	}
+
+	/**
+	 * summary() returns a one line summary of the counters.
+	 *
+	 * @return the summary of transfers so far.
+	 */
+	public static String summary() {
+		long decoded = getDecodedBytes();
+		long saved = getBytesSaved();
+		long percent = (decoded > 0) ? (saved * 100 / decoded) : 0;
+
+		return "responses=" + getResponses() + " compressed=" + getCompressedResponses()
+				+ " wire_bytes=" + getWireBytes() + " decoded_bytes=" + decoded
+				+ " saved_bytes=" + saved + " (" + percent + "%)";
+	}
+
+	/**
+	 * CountingInputStream counts the bytes read through it.
+	 */
+	static class CountingInputStream extends FilterInputStream {
+		private long count = 0;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if(b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if(n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+}
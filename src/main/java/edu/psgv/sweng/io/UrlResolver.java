@@ -0,0 +1,193 @@
+package edu.psgv.sweng.io;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.metrics.Counter;
+import edu.psgv.sweng.metrics.Metrics;
+
+/**
+ * UrlResolver resolves the URIs found in a playlist (variants, renditions, keys, maps
+ * 	and segments) against the playlist's URL as specified by RFC 3986.  Absolute URIs,
+ * 	'../' paths, query strings and 'file://' playlists are all handled.
+ *
+ * 	The base URL is parsed once per playlist.  The common case of a plain relative
+ * 	path (e.g. 'segment123.ts') is resolved by prefixing the base's directory; any
+ * 	other URI is resolved through java.net.URI and the result cached, so resolving
+ * 	the URIs of a playlist with 100k segments stays cheap.
+ *
+ * @author Ryan McDonald
+ */
+public class UrlResolver {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Upper bound on cached resolutions per playlist */
+	private static final int MAX_CACHE_SIZE = 4096;
+
+	/* Lookups in the caches of every resolver */
+	private static final Counter cacheHits = Metrics.counter("hls_url_cache_hits_total");
+	private static final Counter cacheMisses = Metrics.counter("hls_url_cache_misses_total");
+
+	static {
+		Metrics.gauge("hls_url_cache_hit_ratio", () -> {
+			long hits = cacheHits.get();
+			long lookups = hits + cacheMisses.get();
+			return (lookups == 0) ? 0 : (double) hits / lookups;
+		});
+	}
+
+	private final String baseURL;
+	private final URI base;
+	private final String directoryPrefix;
+	private final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * @param baseURL the URL of the playlist that URIs are resolved against.
+	 */
+	public UrlResolver(String baseURL) {
+		this.baseURL = baseURL;
+		this.base = parse(baseURL);
+		this.directoryPrefix = directoryOf(baseURL, base);
+	}
+
+	/**
+	 * resolve() resolves a URI from the playlist to an absolute URL.
+	 *
+	 * @param uri the URI as found in the playlist.
+	 * @return the absolute URL.
+	 */
+	public String resolve(String uri) {
+		if(isPlainRelativePath(uri)) {
+			return directoryPrefix + uri;
+		}
+
+		String url = cache.get(uri);
+		if(url != null) {
+			cacheHits.increment();
+		} else {
+			cacheMisses.increment();
+			url = resolveReference(uri);
+
+			if(cache.size() < MAX_CACHE_SIZE) {
+				cache.put(uri, url);
+			}
+		}
+
+		return url;
+	}
+
+	/**
+	 * getBaseURL() returns the URL URIs are resolved against.
+	 *
+	 * @return the base URL.
+	 */
+	public String getBaseURL() {
+		return baseURL;
+	}
+
+	/**
+	 * resolveReference() resolves any URI that is not a plain relative path.
+	 */
+	private String resolveReference(String uri) {
+		if(base == null) {
+			//The base URL itself is not a valid URI; fall back to joining strings
+			return directoryPrefix + uri;
+		}
+
+		String withoutFragment = stripFragment(baseURL);
+
+		if(uri.isEmpty()) {
+			return withoutFragment;
+		} else if(uri.startsWith("#")) {
+			return withoutFragment + uri;
+		} else if(uri.startsWith("?")) {
+			//java.net.URI drops the last path segment here, unlike RFC 3986
+			return stripQuery(withoutFragment) + uri;
+		}
+
+		try {
+			URI reference = new URI(uri);
+			if(reference.isAbsolute()) {
+				return uri;
+			}
+
+			String url = base.resolve(reference).toString();
+
+			//java.net.URI drops an empty authority ('file:///a' resolves to 'file:/b')
+			String scheme = base.getScheme();
+			if(scheme != null && base.getRawAuthority() == null && baseURL.startsWith(scheme + "://")
+					&& url.startsWith(scheme + ":/") && !url.startsWith(scheme + "://")) {
+				url = scheme + "://" + url.substring(scheme.length() + 1);
+			}
+
+			return url;
+
+		} catch(URISyntaxException | IllegalArgumentException e) {
+			logger.warn("Unable to resolve URI '{}' against '{}'; joining paths instead.", uri, baseURL);
+			return directoryPrefix + uri;
+		}
+	}
+
+	/**
+	 * isPlainRelativePath() returns whether a URI is a relative path without scheme,
+	 * 	leading '/' or dot segments, which resolves to the base's directory followed by
+	 * 	the URI itself.
+	 */
+	private boolean isPlainRelativePath(String uri) {
+		if(base == null || uri.isEmpty()) {
+			return false;
+		}
+
+		char first = uri.charAt(0);
+		if(first == '/' || first == '.' || first == '?' || first == '#') {
+			return false;
+		}
+
+		//A ':' before the first '/' (or in a single segment) means a scheme
+		int colon = uri.indexOf(':');
+		int slash = uri.indexOf('/');
+		if(colon >= 0 && (slash < 0 || colon < slash)) {
+			return false;
+		}
+
+		return uri.indexOf("/.") < 0;
+	}
+
+	/**
+	 * directoryOf() returns the base URL up to and including the last '/' of it's path.
+	 */
+	private static String directoryOf(String baseURL, URI base) {
+		String url = stripQuery(stripFragment(baseURL));
+
+		if(base != null && base.getRawAuthority() != null && (base.getRawPath() == null || base.getRawPath().isEmpty())) {
+			return url + "/";
+		}
+
+		return url.substring(0, url.lastIndexOf('/') + 1);
+	}
+
+	private static String stripFragment(String url) {
+		int hash = url.indexOf('#');
+		return (hash < 0) ? url : url.substring(0, hash);
+	}
+
+	private static String stripQuery(String url) {
+		int query = url.indexOf('?');
+		return (query < 0) ? url : url.substring(0, query);
+	}
+
+	private static URI parse(String url) {
+		try {
+			URI uri = new URI(url);
+			return uri.isOpaque() ? null : uri;
+		} catch(URISyntaxException e) {
+			logger.warn("Playlist URL '{}' is not a valid URI; URIs will be joined to it as paths.", url);
+			return null;
+		}
+	}
+}
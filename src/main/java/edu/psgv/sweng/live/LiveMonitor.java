@@ -0,0 +1,338 @@
+package edu.psgv.sweng.live;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.metrics.Metrics;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.validation.Validator;
+
+/**
+ * LiveMonitor follows a live Media Playlist by reloading it until it ends (or a
+ * 	deadline passes), passing every reload that adds segments or parts on for
+ * 	validation.
+ *
+ * 	When the server advertises 'CAN-BLOCK-RELOAD=YES' the playlist is reloaded with
+ * 	blocking requests ('_HLS_msn'/'_HLS_part') for the next segment or part, which the
+ * 	server answers as soon as it is available; how long each of these requests
+ * 	blocked is measured.  Other playlists are polled once per target duration (half
+ * 	of that after a reload that did not change), as the HLS specification requires.
+ *
+ * 	When the server advertises 'CAN-SKIP-UNTIL', delta updates ('_HLS_skip=YES') are
+ * 	asked for and merged into the snapshot held from earlier reloads; only the segments
+ * 	that are new are validated.  Every so many delta updates the playlist is reloaded in
+ * 	full and compared with the merged snapshot; a full reload that differs from it is
+ * 	validated whole, with the first segment that differs reported.
+ *
+ * 	How long the playlist has gone without new segments or parts is exposed as the
+ * 	gauge hls_live_staleness_seconds{url}.
+ *
+ * @author Ryan McDonald
+ */
+public class LiveMonitor {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Consecutive failed reloads after which a playlist is given up on */
+	private static final int MAX_FAILURES = 5;
+	private static final long DEFAULT_RELOAD_MILLIS = 1000;
+
+	private final String url;
+	private final Function<String, List<String>> fetcher;
+	private final Consumer<MediaPlaylist> onReload;
+	private final long deadline;
+	private final int fullReloadEvery;
+
+	private int reloads = 0;
+	private int blockingReloads = 0;
+	private int failures = 0;
+	private long totalBlockNanos = 0;
+	private long maxBlockNanos = 0;
+	private int deltaReloads = 0;
+	private long skippedSegments = 0;
+	private int fullReloadChecks = 0;
+	private int mergeMismatches = 0;
+
+	/* System.nanoTime() of the last reload that added segments or parts, and of the end of monitoring */
+	private volatile long lastAdvanceNanos;
+	private volatile long stoppedNanos = 0;
+
+	/**
+	 * @param url the URL of the live Media Playlist.
+	 * @param fetcher fetches the contents of a URL; returns null if it cannot be read.
+	 * @param onReload receives every reload that adds segments or parts.
+	 * @param durationSeconds how long to monitor the playlist for; 0 to monitor until it ends.
+	 * @param fullReloadEvery the number of delta updates after which the playlist is reloaded in full.
+	 */
+	public LiveMonitor(String url, Function<String, List<String>> fetcher, Consumer<MediaPlaylist> onReload, long durationSeconds, int fullReloadEvery) {
+		this.url = url;
+		this.fetcher = fetcher;
+		this.onReload = onReload;
+		this.deadline = (durationSeconds > 0) ? System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds) : 0;
+		this.fullReloadEvery = fullReloadEvery;
+	}
+
+	/**
+	 * run() reloads the playlist until it ends, the deadline passes, it fails to load
+	 * 	too many times in a row or the thread is interrupted.
+	 */
+	public void run() {
+		logger.debug("in>> run()");
+
+		PlaylistSnapshot snapshot = null;
+		PlaylistWindow previous = null;
+		String request = url;
+		boolean blocking = false;
+		boolean deltasSinceFullReload = false;
+		int deltaRequests = 0;
+		int consecutiveFailures = 0;
+
+		lastAdvanceNanos = System.nanoTime();
+		Metrics.gauge("hls_live_staleness_seconds", this::getStalenessSeconds, "url", url);
+
+		while(!isExpired() && !Thread.currentThread().isInterrupted()) {
+			long start = System.nanoTime();
+			List<String> contents = fetcher.apply(request);
+			long elapsed = System.nanoTime() - start;
+
+			if(contents == null || contents.isEmpty()) {
+				failures++;
+				consecutiveFailures++;
+				logger.warn("Reload of live playlist {} failed ({} in a row).", request, consecutiveFailures);
+
+				if(consecutiveFailures >= MAX_FAILURES) {
+					logger.error("Giving up on live playlist {} after {} failed reloads.", url, consecutiveFailures);
+					break;
+				}
+
+				request = url;
+				blocking = false;
+				sleep(reloadMillis(previous, false));
+				continue;
+			}
+
+			consecutiveFailures = 0;
+			reloads++;
+
+			if(blocking) {
+				blockingReloads++;
+				totalBlockNanos += elapsed;
+				maxBlockNanos = Math.max(maxBlockNanos, elapsed);
+				logger.info("Blocking reload of {} returned after {} ms.", request, TimeUnit.NANOSECONDS.toMillis(elapsed));
+			}
+
+			//Fill the segments a delta update skipped back in from the snapshot held
+			PlaylistSnapshot reload = PlaylistSnapshot.parse(contents);
+			PlaylistSnapshot merged = reload;
+			long mismatch = -1;
+
+			if(reload.getSkippedSegments() > 0) {
+				deltaReloads++;
+				skippedSegments += reload.getSkippedSegments();
+				merged = (snapshot == null) ? null : snapshot.applyDelta(reload);
+
+				if(merged == null) {
+					logger.warn("Delta update of {} skipped segments that are not held; reloading in full.", url);
+					request = url;
+					blocking = false;
+					deltaRequests = 0;
+					continue;
+				}
+
+				deltasSinceFullReload = true;
+
+			} else if(snapshot != null && deltasSinceFullReload) {
+				//A full reload must agree with what the delta updates were merged into
+				fullReloadChecks++;
+				deltasSinceFullReload = false;
+
+				mismatch = snapshot.findMismatch(reload);
+				if(mismatch >= 0) {
+					mergeMismatches++;
+					logger.error("Full reload of {} differs from the playlist merged from delta updates at segment {}.", url, mismatch);
+				}
+			}
+
+			List<String> merge = merged.toContents();
+			PlaylistWindow window = PlaylistWindow.parse(merge);
+			boolean advanced = window.isAdvancedFrom(previous);
+			if(advanced) {
+				lastAdvanceNanos = System.nanoTime();
+			}
+
+			List<String> validated = null;
+			if(mismatch >= 0) {
+				//The whole full reload is validated, the segments new in it included, so the finding's line refers to it
+				validated = merge;
+			} else if(advanced) {
+				//Only the segments that are new since the previous reload are validated
+				validated = (previous == null) ? merge : merged.regionFrom(previous.getNextMediaSequence());
+			}
+
+			if(advanced) {
+				logger.debug("Live playlist {} advanced to {}.", url, window);
+			}
+			if(validated != null) {
+				MediaPlaylist playlist = new MediaPlaylist(url, validated);
+				if(mismatch >= 0) {
+					playlist.getErrors().add(Validator.buildErrorMessage(merged.getLineNumber(mismatch), "SEVERE",
+							"Media segment " + mismatch + " differs from the playlist merged from delta updates."));
+				}
+				onReload.accept(playlist);
+			}
+
+			previous = window;
+			snapshot = merged;
+
+			if(window.isEndList()) {
+				logger.info("Live playlist {} has ended.", url);
+				break;
+			}
+
+			//Ask for a delta update unless a full reload is due
+			boolean skip = window.getCanSkipUntil() > 0 && isHttp(url) && deltaRequests < fullReloadEvery;
+			deltaRequests = skip ? deltaRequests + 1 : 0;
+
+			if(window.canBlockReload() && isHttp(url)) {
+				request = reloadRequest(url, window, true, skip);
+				blocking = true;
+			} else {
+				//A delta update may only be asked for within half the skip boundary of the last reload
+				long wait = reloadMillis(window, advanced);
+				skip = skip && wait < window.getCanSkipUntil() * 500;
+				request = reloadRequest(url, window, false, skip);
+				blocking = false;
+				sleep(wait);
+			}
+		}
+
+		stoppedNanos = System.nanoTime();
+		logger.info("Stopped monitoring {}: {}", url, summary());
+		logger.debug("<<out run()");
+	}
+
+	/**
+	 * blockingRequest() builds the URL of a blocking reload for the segment (and part)
+	 * 	following the given reload.
+	 *
+	 * @param url the URL of the playlist.
+	 * @param window the latest reload of the playlist.
+	 * @return the URL with '_HLS_msn' (and '_HLS_part') delivery directives.
+	 */
+	public static String blockingRequest(String url, PlaylistWindow window) {
+		return reloadRequest(url, window, true, false);
+	}
+
+	/**
+	 * reloadRequest() builds the URL of the next reload, with the delivery directives
+	 * 	for a blocking reload ('_HLS_msn', '_HLS_part') and a delta update ('_HLS_skip').
+	 *
+	 * @param url the URL of the playlist.
+	 * @param window the latest reload of the playlist; may be null if blocking is false.
+	 * @param blocking whether to block until the segment (and part) after the window.
+	 * @param skip whether to ask for a delta update.
+	 * @return the URL of the reload.
+	 */
+	public static String reloadRequest(String url, PlaylistWindow window, boolean blocking, boolean skip) {
+		if(!blocking && !skip) {
+			return url;
+		}
+
+		StringBuilder request = new StringBuilder(url);
+		char separator = (url.indexOf('?') < 0) ? '?' : '&';
+
+		if(blocking) {
+			request.append(separator).append("_HLS_msn=").append(window.getNextMediaSequence());
+			separator = '&';
+
+			if(window.hasParts()) {
+				request.append("&_HLS_part=").append(window.getTrailingParts());
+			}
+		}
+
+		if(skip) {
+			request.append(separator).append("_HLS_skip=YES");
+		}
+
+		return request.toString();
+	}
+
+	/**
+	 * summary() returns a one line summary of the reloads so far.
+	 *
+	 * @return the reload statistics.
+	 */
+	public String summary() {
+		long averageMillis = (blockingReloads > 0) ? TimeUnit.NANOSECONDS.toMillis(totalBlockNanos / blockingReloads) : 0;
+
+		return "reloads=" + reloads + " failures=" + failures + " blocking_reloads=" + blockingReloads
+				+ " avg_block_ms=" + averageMillis + " max_block_ms=" + TimeUnit.NANOSECONDS.toMillis(maxBlockNanos)
+				+ " delta_reloads=" + deltaReloads + " skipped_segments=" + skippedSegments
+				+ " full_reload_checks=" + fullReloadChecks + " merge_mismatches=" + mergeMismatches;
+	}
+
+	/**
+	 * getStalenessSeconds() returns how long the playlist has gone without new segments
+	 * 	or parts, up to when monitoring stopped.
+	 *
+	 * @return the seconds since the playlist last advanced.
+	 */
+	public double getStalenessSeconds() {
+		long now = (stoppedNanos != 0) ? stoppedNanos : System.nanoTime();
+		return (now - lastAdvanceNanos) / 1e9;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public int getReloads() {
+		return reloads;
+	}
+
+	public int getBlockingReloads() {
+		return blockingReloads;
+	}
+
+	public long getMaxBlockNanos() {
+		return maxBlockNanos;
+	}
+
+	private boolean isExpired() {
+		return deadline != 0 && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * reloadMillis() returns how long to wait before polling the playlist again.
+	 */
+	private static long reloadMillis(PlaylistWindow window, boolean advanced) {
+		if(window == null || window.getTargetDuration() <= 0) {
+			return DEFAULT_RELOAD_MILLIS;
+		}
+
+		long millis = (long) (window.getTargetDuration() * 1000);
+		return advanced ? millis : millis / 2;
+	}
+
+	private void sleep(long millis) {
+		if(deadline != 0) {
+			millis = Math.min(millis, Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+		}
+
+		try {
+			Thread.sleep(millis);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static boolean isHttp(String url) {
+		String lower = url.toLowerCase();
+		return lower.startsWith("http://") || lower.startsWith("https://");
+	}
+}
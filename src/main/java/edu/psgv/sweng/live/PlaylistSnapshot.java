@@ -0,0 +1,241 @@
+package edu.psgv.sweng.live;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.psgv.sweng.validation.LineType;
+import edu.psgv.sweng.validation.ValidationUtils;
+
+/**
+ * PlaylistSnapshot holds the contents of a live Media Playlist split into it's header,
+ * 	one block of lines per media segment (keyed by media sequence number) and the
+ * 	lines that follow the last complete segment (parts, hints, 'EXT-X-ENDLIST').
+ *
+ * 	Playlist delta updates ('_HLS_skip=YES') replace the oldest segments with an
+ * 	'EXT-X-SKIP' tag; applyDelta() fills these back in from the previous snapshot.
+ *
+ * @author Ryan McDonald
+ */
+public class PlaylistSnapshot {
+
+	/* Tags that belong to the media segment that follows them */
+	private static final Set<String> segmentTags = new HashSet<String>();
+
+	private final List<String> header;
+	private final List<List<String>> segments;
+	private final List<String> trailer;
+	private final long mediaSequence;
+	private final int skippedSegments;
+
+	private PlaylistSnapshot(List<String> header, List<List<String>> segments, List<String> trailer, long mediaSequence, int skippedSegments) {
+		this.header = header;
+		this.segments = segments;
+		this.trailer = trailer;
+		this.mediaSequence = mediaSequence;
+		this.skippedSegments = skippedSegments;
+	}
+
+	/**
+	 * parse() splits the contents of a Media Playlist (or of a delta update) into segments.
+	 *
+	 * @param contents the contents of the playlist.
+	 * @return the snapshot of the playlist.
+	 */
+	public static PlaylistSnapshot parse(List<String> contents) {
+		List<String> header = new ArrayList<String>();
+		List<List<String>> segments = new ArrayList<List<String>>();
+		List<String> current = new ArrayList<String>();
+		long mediaSequence = 0;
+		int skipped = 0;
+		boolean inHeader = true;
+
+		for(String line : contents) {
+			LineType type = ValidationUtils.getLineType(line);
+			String tag = (type == LineType.TAG_TYPE) ? ValidationUtils.getTagValue(line) : null;
+
+			if(tag != null && tag.equals("EXT-X-MEDIA-SEQUENCE")) {
+				mediaSequence = (long) Math.max(0, ValidationUtils.getDuration(line));
+			}
+
+			if(tag != null && tag.equals("EXT-X-SKIP")) {
+				skipped = parseCount(ValidationUtils.getAttributeValue(line, "SKIPPED-SEGMENTS"));
+				inHeader = false;
+				continue;
+			}
+
+			if(inHeader && (type == LineType.URI_TYPE || (tag != null && segmentTags.contains(tag)))) {
+				inHeader = false;
+			}
+
+			if(inHeader) {
+				header.add(line);
+			} else {
+				current.add(line);
+
+				if(type == LineType.URI_TYPE) {
+					segments.add(current);
+					current = new ArrayList<String>();
+				}
+			}
+		}
+
+		return new PlaylistSnapshot(header, segments, current, mediaSequence, skipped);
+	}
+
+	/**
+	 * applyDelta() merges a delta update into this snapshot: the segments the delta
+	 * 	skipped are taken from this snapshot.
+	 *
+	 * @param delta the reload of the playlist, with or without 'EXT-X-SKIP'.
+	 * @return the merged snapshot, or null if this snapshot does not hold every skipped segment.
+	 */
+	public PlaylistSnapshot applyDelta(PlaylistSnapshot delta) {
+		if(delta.skippedSegments == 0) {
+			return delta;
+		}
+
+		long from = delta.mediaSequence;
+		long to = from + delta.skippedSegments;
+		if(from < getFirstHeldSequence() || to > getNextMediaSequence()) {
+			return null;
+		}
+
+		List<List<String>> merged = new ArrayList<List<String>>(delta.skippedSegments + delta.segments.size());
+		merged.addAll(segments.subList((int) (from - getFirstHeldSequence()), (int) (to - getFirstHeldSequence())));
+		merged.addAll(delta.segments);
+
+		return new PlaylistSnapshot(delta.header, merged, delta.trailer, from, 0);
+	}
+
+	/**
+	 * findMismatch() compares the segments two snapshots both hold.  Media segments never
+	 * 	change once published, so any difference means a delta update was merged wrongly
+	 * 	(or the server published inconsistent playlists).
+	 *
+	 * @param other the other snapshot of the playlist.
+	 * @return the media sequence number of the first segment that differs, or -1.
+	 */
+	public long findMismatch(PlaylistSnapshot other) {
+		long from = Math.max(getFirstHeldSequence(), other.getFirstHeldSequence());
+		long to = Math.min(getNextMediaSequence(), other.getNextMediaSequence());
+
+		for(long msn = from; msn < to; msn++) {
+			if(!getSegment(msn).equals(other.getSegment(msn))) {
+				return msn;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * toContents() returns the lines of the playlist this snapshot holds.
+	 *
+	 * @return the contents of the playlist.
+	 */
+	public List<String> toContents() {
+		return regionFrom(mediaSequence);
+	}
+
+	/**
+	 * regionFrom() returns a playlist of the header, the segments from a media sequence
+	 * 	number on and the trailing lines, with 'EXT-X-MEDIA-SEQUENCE' set accordingly.
+	 * 	This is used to validate only the part of a reload that is new.
+	 *
+	 * @param msn the media sequence number of the first segment to include.
+	 * @return the contents of the region as a playlist.
+	 */
+	public List<String> regionFrom(long msn) {
+		long first = Math.min(Math.max(msn, getFirstHeldSequence()), getNextMediaSequence());
+		List<String> contents = new ArrayList<String>(header.size() + trailer.size() + 2 * segments.size());
+		boolean hasSequence = false;
+
+		for(String line : header) {
+			if(ValidationUtils.getLineType(line) == LineType.TAG_TYPE && ValidationUtils.getTagValue(line).equals("EXT-X-MEDIA-SEQUENCE")) {
+				line = "#EXT-X-MEDIA-SEQUENCE:" + first;
+				hasSequence = true;
+			}
+			contents.add(line);
+		}
+
+		if(!hasSequence && first != mediaSequence) {
+			contents.add("#EXT-X-MEDIA-SEQUENCE:" + first);
+		}
+
+		for(List<String> segment : segments.subList((int) (first - getFirstHeldSequence()), segments.size())) {
+			contents.addAll(segment);
+		}
+		contents.addAll(trailer);
+
+		return contents;
+	}
+
+	/**
+	 * getLineNumber() returns the line of the first line of a segment in toContents().
+	 *
+	 * @param msn the media sequence number of a segment this snapshot holds.
+	 * @return the 1-based line number.
+	 */
+	public int getLineNumber(long msn) {
+		int line = header.size() + 1;
+
+		for(List<String> segment : segments.subList(0, (int) (msn - getFirstHeldSequence()))) {
+			line += segment.size();
+		}
+
+		return line;
+	}
+
+	public long getMediaSequence() {
+		return mediaSequence;
+	}
+
+	/**
+	 * getFirstHeldSequence() returns the media sequence number of the first segment whose
+	 * 	lines this snapshot holds (after any segments skipped by a delta update).
+	 *
+	 * @return the first media sequence number held.
+	 */
+	public long getFirstHeldSequence() {
+		return mediaSequence + skippedSegments;
+	}
+
+	public long getNextMediaSequence() {
+		return mediaSequence + skippedSegments + segments.size();
+	}
+
+	public int getSkippedSegments() {
+		return skippedSegments;
+	}
+
+	public List<String> getSegment(long msn) {
+		return Collections.unmodifiableList(segments.get((int) (msn - getFirstHeldSequence())));
+	}
+
+	private static int parseCount(String value) {
+		try {
+			return (value == null) ? 0 : Math.max(0, Integer.parseInt(value));
+		} catch(NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	static {
+		segmentTags.add("EXTINF");
+		segmentTags.add("EXT-X-BYTERANGE");
+		segmentTags.add("EXT-X-DISCONTINUITY");
+		segmentTags.add("EXT-X-KEY");
+		segmentTags.add("EXT-X-MAP");
+		segmentTags.add("EXT-X-PROGRAM-DATE-TIME");
+		segmentTags.add("EXT-X-DATERANGE");
+		segmentTags.add("EXT-X-GAP");
+		segmentTags.add("EXT-X-BITRATE");
+		segmentTags.add("EXT-X-PART");
+		segmentTags.add("EXT-X-PRELOAD-HINT");
+		segmentTags.add("EXT-X-RENDITION-REPORT");
+		segmentTags.add("EXT-X-ENDLIST");
+	}
+}
@@ -0,0 +1,162 @@
+package edu.psgv.sweng.live;
+
+import java.util.List;
+
+import edu.psgv.sweng.validation.LineType;
+import edu.psgv.sweng.validation.ValidationUtils;
+
+/**
+ * PlaylistWindow is a summary of one reload of a live Media Playlist: the media
+ * 	sequence numbers it covers, it's partial segments and what it's server allows
+ * 	for reloading it ('EXT-X-SERVER-CONTROL').
+ *
+ * @author Ryan McDonald
+ */
+public class PlaylistWindow {
+
+	private long mediaSequence = 0;
+	private int segmentCount = 0;
+	private int trailingParts = 0;
+	private double targetDuration = -1.0;
+	private double partTarget = -1.0;
+	private boolean canBlockReload = false;
+	private double canSkipUntil = -1.0;
+	private boolean endList = false;
+
+	private PlaylistWindow() {
+		//Built through parse()
+	}
+
+	/**
+	 * parse() summarizes the contents of a Media Playlist.
+	 *
+	 * @param contents the contents of the playlist.
+	 * @return the summary of the playlist's window.
+	 */
+	public static PlaylistWindow parse(List<String> contents) {
+		PlaylistWindow window = new PlaylistWindow();
+
+		for(String line : contents) {
+			LineType type = ValidationUtils.getLineType(line);
+
+			if(type == LineType.URI_TYPE) {
+				window.segmentCount++;
+				window.trailingParts = 0;
+
+			} else if(type == LineType.TAG_TYPE) {
+				String tag = ValidationUtils.getTagValue(line);
+
+				if(tag.equals("EXT-X-PART")) {
+					window.trailingParts++;
+				} else if(tag.equals("EXT-X-MEDIA-SEQUENCE")) {
+					window.mediaSequence = (long) Math.max(0, ValidationUtils.getDuration(line));
+				} else if(tag.equals("EXT-X-TARGETDURATION")) {
+					window.targetDuration = ValidationUtils.getDuration(line);
+				} else if(tag.equals("EXT-X-PART-INF")) {
+					window.partTarget = decimalOf(ValidationUtils.getAttributeValue(line, "PART-TARGET"));
+				} else if(tag.equals("EXT-X-SERVER-CONTROL")) {
+					window.canBlockReload = "YES".equals(ValidationUtils.getAttributeValue(line, "CAN-BLOCK-RELOAD"));
+					window.canSkipUntil = decimalOf(ValidationUtils.getAttributeValue(line, "CAN-SKIP-UNTIL"));
+				} else if(tag.equals("EXT-X-ENDLIST")) {
+					window.endList = true;
+				}
+			}
+		}
+
+		return window;
+	}
+
+	/**
+	 * getMediaSequence() returns the media sequence number of the first segment.
+	 *
+	 * @return the value of 'EXT-X-MEDIA-SEQUENCE' (0 if absent).
+	 */
+	public long getMediaSequence() {
+		return mediaSequence;
+	}
+
+	/**
+	 * getSegmentCount() returns the number of complete segments in the playlist.
+	 *
+	 * @return the number of segments.
+	 */
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+
+	/**
+	 * getNextMediaSequence() returns the media sequence number of the first segment
+	 * 	that is not yet complete in this playlist.
+	 *
+	 * @return the next media sequence number.
+	 */
+	public long getNextMediaSequence() {
+		return mediaSequence + segmentCount;
+	}
+
+	/**
+	 * getTrailingParts() returns the number of partial segments of the segment that is
+	 * 	not yet complete.
+	 *
+	 * @return the number of 'EXT-X-PART' tags after the last segment.
+	 */
+	public int getTrailingParts() {
+		return trailingParts;
+	}
+
+	public double getTargetDuration() {
+		return targetDuration;
+	}
+
+	public double getPartTarget() {
+		return partTarget;
+	}
+
+	public boolean hasParts() {
+		return partTarget > 0;
+	}
+
+	public boolean canBlockReload() {
+		return canBlockReload;
+	}
+
+	public double getCanSkipUntil() {
+		return canSkipUntil;
+	}
+
+	public boolean isEndList() {
+		return endList;
+	}
+
+	/**
+	 * isAdvancedFrom() returns whether this reload contains segments or parts that an
+	 * 	earlier reload did not.
+	 *
+	 * @param previous the earlier reload, may be null.
+	 * @return whether the playlist has changed.
+	 */
+	public boolean isAdvancedFrom(PlaylistWindow previous) {
+		return previous == null
+				|| getNextMediaSequence() != previous.getNextMediaSequence()
+				|| trailingParts != previous.trailingParts
+				|| endList != previous.endList;
+	}
+
+	@Override
+	public String toString() {
+		return "msn " + mediaSequence + "-" + (getNextMediaSequence() - 1)
+				+ (trailingParts > 0 ? " +" + trailingParts + " parts" : "");
+	}
+
+	private static double decimalOf(String value) {
+		if(value != null) {
+			try {
+				return Double.parseDouble(value);
+			} catch(NumberFormatException e) {
+				//Treated as absent
+			}
+		}
+
+		return -1.0;
+	}
+}
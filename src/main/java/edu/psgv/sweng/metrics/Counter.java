@@ -0,0 +1,38 @@
+package edu.psgv.sweng.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter is a metric that only goes up.  Increments from many threads do not contend.
+ *
+ * @author Ryan McDonald
+ */
+public class Counter extends Metric {
+
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * @param name the name of the metric.
+	 * @param labels the labels of the metric as name, value pairs.
+	 */
+	Counter(String name, String[] labels) {
+		super(name, labels);
+	}
+
+	public void increment() {
+		count.increment();
+	}
+
+	public void add(long n) {
+		count.add(n);
+	}
+
+	public long get() {
+		return count.sum();
+	}
+
+	@Override
+	public String describe() {
+		return Long.toString(get());
+	}
+}
@@ -0,0 +1,34 @@
+package edu.psgv.sweng.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gauge is a metric whose value is read from it's source whenever it is reported,
+ * 	e.g. the number of fetches in flight.
+ *
+ * @author Ryan McDonald
+ */
+public class Gauge extends Metric {
+
+	private final DoubleSupplier source;
+
+	/**
+	 * @param name the name of the metric.
+	 * @param source the source of the gauge's value.
+	 * @param labels the labels of the metric as name, value pairs.
+	 */
+	Gauge(String name, DoubleSupplier source, String[] labels) {
+		super(name, labels);
+		this.source = source;
+	}
+
+	public double get() {
+		return source.getAsDouble();
+	}
+
+	@Override
+	public String describe() {
+		double value = get();
+		return (value == Math.rint(value) && !Double.isInfinite(value)) ? Long.toString((long) value) : Double.toString(value);
+	}
+}
@@ -0,0 +1,177 @@
+package edu.psgv.sweng.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram records durations in nanoseconds into log-linear buckets, in the
+ * 	manner of an HDR histogram: every power of two is split into 16 buckets, so any
+ * 	recorded value is reported within 1/32 (about 3%) of itself, from nanoseconds to
+ * 	centuries, in a fixed 960 buckets.  Recording is lock-free (one atomic increment
+ * 	per value) and never allocates, so it is safe on every fetch and rule.
+ *
+ * 	Quantiles are read from the buckets while values are still being recorded, so they
+ * 	are approximate in that respect too.
+ *
+ * @author Ryan McDonald
+ */
+public class LatencyHistogram extends Metric {
+
+	/* 2^SUB_BUCKET_BITS buckets per power of two */
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/* Values below this have a bucket each */
+	private static final long LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param name the name of the metric.
+	 * @param labels the labels of the metric as name, value pairs.
+	 */
+	LatencyHistogram(String name, String[] labels) {
+		super(name, labels);
+	}
+
+	/**
+	 * record() adds a duration to the histogram.
+	 *
+	 * @param nanos the duration in nanoseconds; negative durations count as 0.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+
+		buckets.incrementAndGet(indexOf(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * recordSince() adds the time since a System.nanoTime() reading to the histogram.
+	 *
+	 * @param startNanos the System.nanoTime() at the start of what is measured.
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * getMean() returns the mean of the recorded durations.
+	 *
+	 * @return the mean in nanoseconds or 0 if nothing was recorded.
+	 */
+	public double getMean() {
+		long n = getCount();
+		return (n == 0) ? 0 : (double) getSum() / n;
+	}
+
+	/**
+	 * getValueAtQuantile() returns the duration below or at which a fraction of the
+	 * 	recorded durations fall (nearest rank), to the precision of the buckets.
+	 *
+	 * @param quantile the fraction, from 0 to 1.
+	 * @return the duration in nanoseconds or 0 if nothing was recorded.
+	 */
+	public long getValueAtQuantile(double quantile) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if(total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total));
+		if(rank >= total) {
+			return getMax();
+		}
+
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if(seen >= rank) {
+				return Math.min(middleOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * indexOf() finds the bucket of a value: values below LINEAR_LIMIT have their own
+	 * 	bucket, larger values share one with the values that agree in their highest
+	 * 	SUB_BUCKET_BITS + 1 bits.
+	 */
+	static int indexOf(long value) {
+		if(value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * lowestOf() returns the lowest value of a bucket.
+	 */
+	static long lowestOf(int index) {
+		if(index < LINEAR_LIMIT) {
+			return index;
+		}
+
+		int shift = (index >> SUB_BUCKET_BITS) - 1;
+		return (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+	}
+
+	/**
+	 * middleOf() returns the value in the middle of a bucket, which is reported for
+	 * 	every value in the bucket.
+	 */
+	static long middleOf(int index) {
+		if(index < LINEAR_LIMIT) {
+			return index;
+		}
+
+		int shift = (index >> SUB_BUCKET_BITS) - 1;
+		return lowestOf(index) + ((1L << shift) >> 1);
+	}
+
+	@Override
+	public String describe() {
+		return "count=" + getCount()
+				+ " mean=" + millis(getMean())
+				+ " p50=" + millis(getValueAtQuantile(0.5))
+				+ " p90=" + millis(getValueAtQuantile(0.9))
+				+ " p99=" + millis(getValueAtQuantile(0.99))
+				+ " max=" + millis(getMax());
+	}
+
+	/**
+	 * millis() formats nanoseconds as milliseconds with up to three decimals.
+	 */
+	private static String millis(double nanos) {
+		return String.format(Locale.ROOT, "%.3fms", nanos / 1e6);
+	}
+}
@@ -0,0 +1,114 @@
+package edu.psgv.sweng.metrics;
+
+/**
+ * Metric is the base of every metric in the registry: a name and a set of labels,
+ * 	e.g. hls_fetch_seconds{host="example.com"}.
+ *
+ * @author Ryan McDonald
+ */
+public abstract class Metric {
+
+	private final String name;
+	private final String[] labels;
+	private final String key;
+
+	/**
+	 * @param name the name of the metric.
+	 * @param labels the labels of the metric as name, value pairs.
+	 */
+	protected Metric(String name, String[] labels) {
+		this.name = name;
+		this.labels = labels.clone();
+		this.key = keyOf(name, labels);
+	}
+
+	/**
+	 * getName() returns the name of the metric without it's labels.
+	 *
+	 * @return the metric's name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * getLabels() returns the labels of the metric as name, value pairs.
+	 *
+	 * @return a copy of the labels.
+	 */
+	public String[] getLabels() {
+		return labels.clone();
+	}
+
+	/**
+	 * getLabel() returns the value of a label.
+	 *
+	 * @param label the name of the label.
+	 * @return the value or null if the metric does not have the label.
+	 */
+	public String getLabel(String label) {
+		for(int i = 0; i + 1 < labels.length; i += 2) {
+			if(labels[i].equals(label)) {
+				return labels[i + 1];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * getKey() returns the name and labels of the metric, as written in the
+	 * 	Prometheus text format.
+	 *
+	 * @return the metric's key.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * keyOf() builds the key of a metric: it's name followed by it's labels in braces,
+	 * 	with label values escaped as in the Prometheus text format.
+	 *
+	 * @param name the name of the metric.
+	 * @param labels the labels of the metric as name, value pairs.
+	 * @return the key.
+	 * @throws IllegalArgumentException if a label has no value.
+	 */
+	static String keyOf(String name, String[] labels) {
+		if(labels.length % 2 != 0) {
+			throw new IllegalArgumentException("Labels of metric '" + name + "' must be name, value pairs.");
+		}
+		if(labels.length == 0) {
+			return name;
+		}
+
+		StringBuilder key = new StringBuilder(name).append('{');
+		for(int i = 0; i < labels.length; i += 2) {
+			if(i > 0) {
+				key.append(',');
+			}
+			key.append(labels[i]).append("=\"");
+
+			String value = (labels[i + 1] == null) ? "" : labels[i + 1];
+			for(int c = 0; c < value.length(); c++) {
+				char ch = value.charAt(c);
+				if(ch == '\\' || ch == '"') {
+					key.append('\\').append(ch);
+				} else if(ch == '\n') {
+					key.append("\\n");
+				} else {
+					key.append(ch);
+				}
+			}
+			key.append('"');
+		}
+		return key.append('}').toString();
+	}
+
+	/**
+	 * describe() returns the current value of the metric for the metrics dump.
+	 *
+	 * @return a short description of the value.
+	 */
+	public abstract String describe();
+}
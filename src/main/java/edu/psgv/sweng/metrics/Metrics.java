@@ -0,0 +1,105 @@
+package edu.psgv.sweng.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Metrics is the registry of the application's metrics: counters, gauges and latency
+ * 	histograms, each identified by a name and labels.  Looking a metric up by name
+ * 	and labels creates it on first use; metrics recorded often should be looked up
+ * 	once and kept.
+ *
+ * 	Names follow the Prometheus conventions: 'hls_' prefix, '_total' for counters and
+ * 	'_seconds' for histograms of durations (which are recorded in nanoseconds).
+ *
+ * @author Ryan McDonald
+ */
+public class Metrics {
+
+	private static final ConcurrentHashMap<String, Metric> registry = new ConcurrentHashMap<String, Metric>();
+
+	private Metrics() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * counter() returns the counter with a name and labels, creating it on first use.
+	 *
+	 * @param name the name of the counter.
+	 * @param labels the labels as name, value pairs.
+	 * @return the counter.
+	 */
+	public static Counter counter(String name, String... labels) {
+		return lookup(Counter.class, Metric.keyOf(name, labels), () -> new Counter(name, labels));
+	}
+
+	/**
+	 * histogram() returns the latency histogram with a name and labels, creating it on
+	 * 	first use.
+	 *
+	 * @param name the name of the histogram.
+	 * @param labels the labels as name, value pairs.
+	 * @return the histogram.
+	 */
+	public static LatencyHistogram histogram(String name, String... labels) {
+		return lookup(LatencyHistogram.class, Metric.keyOf(name, labels), () -> new LatencyHistogram(name, labels));
+	}
+
+	/**
+	 * gauge() registers a gauge with a name and labels that reads it's value from a source.
+	 * 	A gauge registered again keeps it's first source.
+	 *
+	 * @param name the name of the gauge.
+	 * @param source the source of the gauge's value.
+	 * @param labels the labels as name, value pairs.
+	 * @return the gauge.
+	 */
+	public static Gauge gauge(String name, DoubleSupplier source, String... labels) {
+		return lookup(Gauge.class, Metric.keyOf(name, labels), () -> new Gauge(name, source, labels));
+	}
+
+	/**
+	 * getMetrics() returns every registered metric, sorted by key.
+	 *
+	 * @return the metrics.
+	 */
+	public static List<Metric> getMetrics() {
+		return new ArrayList<Metric>(new TreeMap<String, Metric>(registry).values());
+	}
+
+	/**
+	 * dump() returns every registered metric and it's current value, one per line,
+	 * 	sorted by key.
+	 *
+	 * @return the dump of the metrics.
+	 */
+	public static String dump() {
+		StringBuilder dump = new StringBuilder();
+		for(Metric metric : getMetrics()) {
+			dump.append(metric.getKey()).append(' ').append(metric.describe()).append('\n');
+		}
+		return dump.toString();
+	}
+
+	/**
+	 * lookup() returns the metric with a key, creating it on first use.
+	 *
+	 * @throws IllegalArgumentException if the key is registered as another type of metric.
+	 */
+	private static <T extends Metric> T lookup(Class<T> type, String key, Supplier<T> create) {
+		Metric metric = registry.get(key);
+		if(metric == null) {
+			metric = registry.computeIfAbsent(key, k -> create.get());
+		}
+
+		if(!type.isInstance(metric)) {
+			throw new IllegalArgumentException("Metric '" + key + "' is a " + metric.getClass().getSimpleName() + ".");
+		}
+		return type.cast(metric);
+	}
+
+}
@@ -0,0 +1,61 @@
+package edu.psgv.sweng.metrics;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * MetricsReporter prints the metrics dump periodically while a long running mode
+ * 	(e.g. live monitoring) runs, from a daemon thread of it's own.
+ *
+ * @author Ryan McDonald
+ */
+public class MetricsReporter {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	private static ScheduledExecutorService scheduler = null;
+
+	private MetricsReporter() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * start() starts printing the metrics every interval.  A reporter already started
+	 * 	is stopped first.
+	 *
+	 * @param out the stream to print the metrics to.
+	 * @param intervalSeconds the number of seconds between dumps.
+	 */
+	public static synchronized void start(final PrintStream out, long intervalSeconds) {
+		stop();
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-reporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		scheduler.scheduleAtFixedRate(() -> {
+			try {
+				out.print("\nMETRICS\n" + Metrics.dump());
+			} catch(RuntimeException e) {
+				logger.error("Unable to report metrics: {}", e.getMessage());
+			}
+		}, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * stop() stops printing the metrics.
+	 */
+	public static synchronized void stop() {
+		if(scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package edu.psgv.sweng.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * MetricsServer serves the metrics registry at '/metrics' in the Prometheus text
+ * 	format, using the JDK's HTTP server.  Scrapes are handled on a daemon thread of
+ * 	the server's own and only read the registry's lock-free counters and histograms,
+ * 	so they never wait on (or hold up) the threads fetching and validating playlists.
+ *
+ * @author Ryan McDonald
+ */
+public class MetricsServer {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final String PATH = "/metrics";
+
+	private static HttpServer server = null;
+	private static ExecutorService executor = null;
+
+	private MetricsServer() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * start() starts serving the metrics on a port of every interface.  A server
+	 * 	already started is stopped first.
+	 *
+	 * @param port the port to listen on.
+	 * @return whether the server could be started.
+	 */
+	public static synchronized boolean start(int port) {
+		logger.debug("in>> start()");
+		stop();
+
+		try {
+			server = HttpServer.create(new InetSocketAddress(port), 0);
+		} catch(IOException e) {
+			logger.error("Unable to serve metrics on port {}: {}", port, e.getMessage());
+			return false;
+		}
+
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		server.createContext(PATH, MetricsServer::handle);
+		server.setExecutor(executor);
+		server.start();
+		logger.info("Serving metrics at http://localhost:{}{}", server.getAddress().getPort(), PATH);
+
+		logger.debug("<<out start()");
+		return true;
+	}
+
+	/**
+	 * getPort() returns the port the server listens on.
+	 *
+	 * @return the port or -1 if the server is not running.
+	 */
+	public static synchronized int getPort() {
+		return (server == null) ? -1 : server.getAddress().getPort();
+	}
+
+	/**
+	 * stop() stops serving the metrics.
+	 */
+	public static synchronized void stop() {
+		if(server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+			executor = null;
+		}
+	}
+
+	/**
+	 * handle() answers a scrape.
+	 */
+	private static void handle(HttpExchange exchange) throws IOException {
+		try {
+			if(!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			byte[] body = PrometheusFormat.format().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", PrometheusFormat.CONTENT_TYPE);
+
+			if(exchange.getRequestMethod().equals("HEAD")) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+
+			exchange.sendResponseHeaders(200, body.length);
+			try(OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package edu.psgv.sweng.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PrometheusFormat writes metrics in the Prometheus text exposition format (0.0.4).
+ * 	Counters and gauges are written as they are; latency histograms are written as
+ * 	summaries in seconds, with their 0.5, 0.9, 0.99 and 0.999 quantiles, sum and count.
+ *
+ * @author Ryan McDonald
+ */
+public class PrometheusFormat {
+
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private PrometheusFormat() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * format() writes every registered metric.
+	 *
+	 * @return the metrics in the Prometheus text format.
+	 */
+	public static String format() {
+		return format(Metrics.getMetrics());
+	}
+
+	/**
+	 * format() writes metrics, grouped by name with one TYPE line per name.
+	 *
+	 * @param metrics the metrics to write.
+	 * @return the metrics in the Prometheus text format.
+	 */
+	public static String format(List<Metric> metrics) {
+		Map<String, List<Metric>> byName = new LinkedHashMap<String, List<Metric>>();
+		for(Metric metric : metrics) {
+			List<Metric> group = byName.get(metric.getName());
+			if(group == null) {
+				group = new ArrayList<Metric>();
+				byName.put(metric.getName(), group);
+			}
+			group.add(metric);
+		}
+
+		StringBuilder out = new StringBuilder();
+		for(Map.Entry<String, List<Metric>> entry : byName.entrySet()) {
+			String name = entry.getKey();
+			List<Metric> group = entry.getValue();
+
+			out.append("# TYPE ").append(name).append(' ').append(typeOf(group.get(0))).append('\n');
+			for(Metric metric : group) {
+				if(metric instanceof LatencyHistogram) {
+					appendSummary(out, (LatencyHistogram) metric);
+				} else if(metric instanceof Counter) {
+					out.append(metric.getKey()).append(' ').append(((Counter) metric).get()).append('\n');
+				} else if(metric instanceof Gauge) {
+					out.append(metric.getKey()).append(' ').append(number(((Gauge) metric).get())).append('\n');
+				}
+			}
+		}
+		return out.toString();
+	}
+
+	private static String typeOf(Metric metric) {
+		if(metric instanceof LatencyHistogram) {
+			return "summary";
+		}
+		return (metric instanceof Counter) ? "counter" : "gauge";
+	}
+
+	private static void appendSummary(StringBuilder out, LatencyHistogram histogram) {
+		String name = histogram.getName();
+		String[] labels = histogram.getLabels();
+
+		//Labels of the quantile lines: the histogram's labels and 'quantile'
+		String[] quantileLabels = Arrays.copyOf(labels, labels.length + 2);
+		quantileLabels[labels.length] = "quantile";
+
+		for(double quantile : QUANTILES) {
+			quantileLabels[labels.length + 1] = number(quantile);
+			out.append(Metric.keyOf(name, quantileLabels)).append(' ')
+				.append(number(histogram.getValueAtQuantile(quantile) / NANOS_PER_SECOND)).append('\n');
+		}
+
+		out.append(Metric.keyOf(name + "_sum", labels)).append(' ').append(number(histogram.getSum() / NANOS_PER_SECOND)).append('\n');
+		out.append(Metric.keyOf(name + "_count", labels)).append(' ').append(histogram.getCount()).append('\n');
+	}
+
+	/**
+	 * number() writes a sample value: NaN and infinities as Prometheus spells them.
+	 */
+	private static String number(double value) {
+		if(Double.isNaN(value)) {
+			return "NaN";
+		}
+		if(Double.isInfinite(value)) {
+			return (value > 0) ? "+Inf" : "-Inf";
+		}
+		return (value == Math.rint(value) && Math.abs(value) < 1e15) ? Long.toString((long) value) : Double.toString(value);
+	}
+}
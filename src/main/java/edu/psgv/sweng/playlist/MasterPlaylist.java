@@ -1,8 +1,14 @@
 package edu.psgv.sweng.playlist;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import edu.psgv.sweng.io.FetchExecutor;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Tracer;
 import edu.psgv.sweng.validation.Validator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,7 +16,8 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * MasterPlaylist provides a container for Master Playlists.  It also
- *  supports containing any Media Playlists (variants) that it links to.
+ *  supports containing any Media Playlists (variants) that it links to, as
+ *  well as it's alternate renditions and I-frame playlists.
  *  Through the use of the Validator library, it can also find errors in
  *  it's playlists that it contains.
  *
@@ -21,11 +28,17 @@ public class MasterPlaylist extends Playlist{
 	private static final Logger logger = LogManager.getLogger();
 
 	protected List<MediaPlaylist> variants;
+	protected List<MediaPlaylist> renditions;
 	
 	public MasterPlaylist(String strURL, List<String> contents, List<MediaPlaylist> variants) {
+		this(strURL, contents, variants, new ArrayList<MediaPlaylist>());
+	}
+
+	public MasterPlaylist(String strURL, List<String> contents, List<MediaPlaylist> variants, List<MediaPlaylist> renditions) {
 		this.strURL = strURL;
 		this.contents = contents;
 		this.variants = variants;
+		this.renditions = renditions;
 
 		errors = new ArrayList<String>();
 		
@@ -41,29 +54,124 @@ public class MasterPlaylist extends Playlist{
 	public List<MediaPlaylist> getVariants() {
 		return this.variants;
 	}
+
+	/**
+	 * getRenditions() returns the alternate renditions ('EXT-X-MEDIA') and I-frame
+	 * 	playlists ('EXT-X-I-FRAME-STREAM-INF') of this MasterPlaylist
+	 *
+	 * @return a list of renditions for this MasterPlaylist
+	 */
+	public List<MediaPlaylist> getRenditions() {
+		return this.renditions;
+	}
+
+	/**
+	 * getChildren() returns every Media Playlist of this MasterPlaylist; the variants
+	 * 	followed by the renditions.
+	 *
+	 * @return a list of all Media Playlists of this MasterPlaylist
+	 */
+	public List<MediaPlaylist> getChildren() {
+		List<MediaPlaylist> children = new ArrayList<MediaPlaylist>(this.variants.size() + this.renditions.size());
+		children.addAll(this.variants);
+		children.addAll(this.renditions);
+		return children;
+	}
 	
 	
 	/**
 	 * accept() gathers any validation errors found in the playlist for any Validator passed in.
-	 * 	It also runs the Validator on it's variant MediaPlaylists.
+	 * 	It also runs the Validator on it's variant and rendition MediaPlaylists (in parallel).
 	 *
 	 * @param v is the Validator that will be run on this playlist
 	 */
 	public void accept(Validator v){
 		logger.debug("in>> accept()");
 
-		List<String> errs = v.validateMasterPlaylist(this);
-		
-		if(errs != null && !errs.isEmpty()) {
-			this.errors.addAll(errs);
+		acceptAll(Collections.singletonList(v));
+
+		logger.debug("<<out accept()");
+	}
+
+	/**
+	 * acceptAll() fetches all of it's variant and rendition MediaPlaylists that have not
+	 * 	been yet, runs the Validators on this playlist and then on all of them.
+	 * 	The MediaPlaylists share no state, so they are validated in parallel on the
+	 * 	common fork-join pool; every variant runs the Validators in order and only adds to
+	 * 	it's own errors, so the errors of each playlist are the same as when run one by one.
+	 *
+	 * @param validators the Validators that will be run on this playlist
+	 */
+	@Override
+	public void acceptAll(List<Validator> validators) {
+		logger.debug("in>> acceptAll()");
+
+		//Every Media Playlist rule needs the content, so fetch all children up front (concurrently);
+		//master rules that compare the variants (e.g. alignment) then see them all
+		List<MediaPlaylist> children = getChildren();
+		prefetch(children);
+
+		acceptMaster(validators);
+
+		//Accept the validators in all Media variants and renditions
+		if(children.size() > 1) {
+			children.parallelStream().forEach(Tracer.wrap((MediaPlaylist child) -> child.acceptAll(validators)));
+		} else {
+			for(MediaPlaylist child : children) {
+				child.acceptAll(validators);
+			}
 		}
-		
-		//Accept the validator in all Media variants
-		for(MediaPlaylist variant : this.variants) {
-			variant.accept(v);
+
+		logger.debug("<<out acceptAll()");
+	}
+
+	/**
+	 * acceptMaster() runs the Validators on this playlist only.  None of it's variants
+	 * 	or renditions are fetched.
+	 *
+	 * @param validators the Validators that will be run on this playlist
+	 */
+	public void acceptMaster(List<Validator> validators) {
+		logger.debug("in>> acceptMaster()");
+
+		for(Validator v : validators) {
+			v.validateMasterPlaylist(this, this.errors);
+		}
+
+		logger.debug("<<out acceptMaster()");
+	}
+
+	/**
+	 * prefetch() starts resolving every playlist that has not been fetched yet and waits
+	 * 	for all of them.  Fetches run concurrently when FetchExecutor is in concurrent mode.
+	 *
+	 * @param children the playlists to resolve
+	 */
+	private static void prefetch(List<MediaPlaylist> children) {
+		List<Future<List<String>>> fetches = new ArrayList<Future<List<String>>>();
+		Span span = Tracer.start("prefetch", null);
+
+		for(final MediaPlaylist child : children) {
+			if(!child.isLoaded()) {
+				fetches.add(FetchExecutor.submit(child::getContents));
+			}
+		}
+
+		for(Future<List<String>> fetch : fetches) {
+			try {
+				fetch.get();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logger.warn("Interrupted while fetching Media Playlists.");
+				break;
+			} catch(ExecutionException e) {
+				logger.error("Failed to fetch Media Playlist: {}", e.getCause());
+			}
+		}
+
+		if(span != null) {
+			span.setArg("fetches", fetches.size()).end();
 		}
-		
-		logger.debug("<<out accept()");
 	}
 
 }
@@ -2,7 +2,10 @@ package edu.psgv.sweng.playlist;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
+import edu.psgv.sweng.validation.SegmentTimeline;
+import edu.psgv.sweng.validation.TimingSummary;
 import edu.psgv.sweng.validation.Validator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,35 +16,148 @@ import org.apache.logging.log4j.Logger;
  *  Through the use of the Validator library, it can also find errors in
  *  it's playlists that it contains.
  *
+ *  The Media Playlists of a Master Playlist are lazily-resolved handles: their
+ *  content is only fetched the first time it is needed.
+ *
  * @author Ryan McDonald
  */
 public class MediaPlaylist extends Playlist {
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
+
+	protected RenditionType renditionType;
+
+	/* Fetches the contents of a lazily-resolved playlist; null once the contents are known */
+	private Function<String, List<String>> loader;
+	private volatile boolean loaded;
+
+	/* Segments of the playlist, built on first use and shared by every rule that compares them */
+	private volatile SegmentTimeline timeline;
+
+	/* Timing analysis of the segments; set when the segment times are validated */
+	private volatile TimingSummary timingSummary;
 	
 	public MediaPlaylist(String strURL, List<String> contents) {
+		this(strURL, contents, RenditionType.VARIANT);
+	}
+
+	public MediaPlaylist(String strURL, RenditionType renditionType, Function<String, List<String>> loader) {
+		this(strURL, null, renditionType);
+
+		this.loader = loader;
+		this.loaded = false;
+	}
+
+	public MediaPlaylist(String strURL, List<String> contents, RenditionType renditionType) {
 		this.strURL = strURL;
 		this.contents = contents;
+		this.renditionType = renditionType;
+		this.loaded = true;
 		
 		this.errors = new ArrayList<String>();
 		
 		logger.info("MEDIA PLAYLIST created.");
 	}
+
+	/**
+	 * getContents() returns the contents of this playlist, fetching them first if this
+	 * 	is a lazily-resolved playlist that has not been fetched yet.
+	 *
+	 * @return the list of content contained within this playlist.
+	 */
+	@Override
+	public List<String> getContents() {
+		if(!loaded) {
+			load();
+		}
+
+		return contents;
+	}
+
+	/**
+	 * isLoaded() returns whether the contents of this playlist are known.
+	 *
+	 * @return whether the contents have been fetched (always true for eager playlists).
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * load() fetches the contents of a lazily-resolved playlist exactly once.
+	 */
+	private synchronized void load() {
+		if(!loaded) {
+			logger.debug("Resolving contents of lazily-loaded playlist: {}", strURL);
+
+			contents = loader.apply(strURL);
+			loader = null;
+			loaded = true;
+		}
+	}
+
+	/**
+	 * getRenditionType() returns the role of this playlist within it's Master Playlist.
+	 *
+	 * @return the rendition type (VARIANT for stand-alone Media Playlists).
+	 */
+	public RenditionType getRenditionType() {
+		return renditionType;
+	}
 	
 	
+	/**
+	 * getTimeline() returns the timeline of this playlist's segments, scanning the
+	 * 	contents (fetching them first if need be) only the first time it is called.
+	 *
+	 * @return the timeline, or null if the playlist has no contents.
+	 */
+	public SegmentTimeline getTimeline() {
+		SegmentTimeline scanned = timeline;
+
+		if(scanned == null) {
+			synchronized(this) {
+				scanned = timeline;
+				List<String> lines = getContents();
+
+				if(scanned == null && lines != null) {
+					scanned = SegmentTimeline.scan(lines);
+					timeline = scanned;
+				}
+			}
+		}
+
+		return scanned;
+	}
+
+	/**
+	 * getTimingSummary() returns the timing analysis of this playlist's segments.
+	 *
+	 * @return the timing summary, or null if the segment times have not been validated.
+	 */
+	public TimingSummary getTimingSummary() {
+		return timingSummary;
+	}
+
+	/**
+	 * setTimingSummary() stores the timing analysis of this playlist's segments.
+	 *
+	 * @param timingSummary the timing summary.
+	 */
+	public void setTimingSummary(TimingSummary timingSummary) {
+		this.timingSummary = timingSummary;
+	}
+
 	/**
 	 * accept() gathers any validation errors found in the playlist for any validator passed in.
+	 * 	The Validator adds them straight to the errors of this playlist.
 	 *
 	 * @param v is the Validator that will be run on this playlist
 	 */
 	public void accept(Validator v){
 		logger.debug("in>> accept()");
 
-		List<String> errs = v.validateMediaPlaylist(this);
-		
-		if(errs != null && !errs.isEmpty()) {
-			this.errors.addAll(errs);
-		}
+		v.validateMediaPlaylist(this, this.errors);
 		
 		logger.debug("<<out accept()");
 	}
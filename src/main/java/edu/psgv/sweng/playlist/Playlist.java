@@ -2,6 +2,7 @@ package edu.psgv.sweng.playlist;
 
 import java.util.List;
 
+import edu.psgv.sweng.io.UrlResolver;
 import edu.psgv.sweng.validation.Validator;
 
 /**
@@ -18,6 +19,8 @@ public abstract class Playlist {
 	protected List<String> contents;
 	protected List<String> errors;
 
+	private volatile UrlResolver urlResolver;
+
 	/**
 	 * getStrURL() returns the string representation of the Playlists URL.
 	 *
@@ -27,6 +30,37 @@ public abstract class Playlist {
 		return strURL;
 	}
 
+	/**
+	 * getUrlResolver() returns the resolver for URIs found in this playlist (variants,
+	 * 	renditions, keys, maps and segments).  It is created on first use and caches
+	 * 	it's resolutions for the life of the playlist.
+	 *
+	 * @return the resolver for URIs relative to this playlist.
+	 */
+	public UrlResolver getUrlResolver() {
+		UrlResolver resolver = urlResolver;
+		if(resolver == null) {
+			synchronized(this) {
+				resolver = urlResolver;
+				if(resolver == null) {
+					resolver = new UrlResolver(strURL);
+					urlResolver = resolver;
+				}
+			}
+		}
+		return resolver;
+	}
+
+	/**
+	 * resolveURL() resolves a URI found in this playlist to an absolute URL.
+	 *
+	 * @param uri the URI as found in the playlist.
+	 * @return the absolute URL.
+	 */
+	public String resolveURL(String uri) {
+		return getUrlResolver().resolve(uri);
+	}
+
 	/**
 	 * getContents() returns a list of content that this playlist contains.
 	 *
@@ -54,5 +88,17 @@ public abstract class Playlist {
 	 * @param v the Validator to run on the contents of the playlist
 	 */
 	public abstract void accept(Validator v);
+
+	/**
+	 * acceptAll() runs a list of validators on the playlist, in order.  Playlists that
+	 * 	contain other playlists may validate those in parallel.
+	 *
+	 * @param validators the Validators to run on the contents of the playlist
+	 */
+	public void acceptAll(List<Validator> validators) {
+		for(Validator v : validators) {
+			accept(v);
+		}
+	}
 	
 }
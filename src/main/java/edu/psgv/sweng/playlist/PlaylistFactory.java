@@ -1,9 +1,18 @@
 package edu.psgv.sweng.playlist;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import edu.psgv.sweng.events.FlightEvents;
+import edu.psgv.sweng.events.ParseEvent;
 import edu.psgv.sweng.io.HLSUtilities;
+import edu.psgv.sweng.io.UrlResolver;
+import edu.psgv.sweng.metrics.LatencyHistogram;
+import edu.psgv.sweng.metrics.Metrics;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Tracer;
 import edu.psgv.sweng.validation.ValidationUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,6 +31,9 @@ public class PlaylistFactory {
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
 
+	/* Time taken to build a playlist from it's content */
+	private static final LatencyHistogram parseTime = Metrics.histogram("hls_parse_seconds");
+
 	/**
 	 * create() is a factory method for creating a playlist object of the
 	 *  correct type based on the content that is passed to the method.
@@ -32,6 +44,9 @@ public class PlaylistFactory {
 	 */
 	public static Playlist create(String strURL, List<String> contents) {
 		logger.debug("in>> create()");
+		ParseEvent event = FlightEvents.beginParse(strURL);
+		Span span = Tracer.start("parse", strURL);
+		long start = System.nanoTime();
 
 		Playlist playlist = null;
 		PlaylistType type = getType(contents);
@@ -43,7 +58,11 @@ public class PlaylistFactory {
 				break;
 
 			case MASTER:
-				playlist = new MasterPlaylist(strURL, contents, extractVariants(strURL, contents));
+				List<MediaPlaylist> variants = new ArrayList<MediaPlaylist>();
+				List<MediaPlaylist> renditions = new ArrayList<MediaPlaylist>();
+
+				playlist = new MasterPlaylist(strURL, contents, variants, renditions);
+				extractChildren(playlist.getUrlResolver(), contents, variants, renditions);
 				logger.trace("Playlist factory method created a MasterPlaylist.");
 				break;
 
@@ -60,43 +79,99 @@ public class PlaylistFactory {
 				break;
 		}
 
+		parseTime.recordSince(start);
+		if(event != null) {
+			finishParseEvent(event, type, contents, playlist);
+		}
+		if(span != null) {
+			span.setArg("type", type.name()).setArg("lines", contents.size()).end();
+		}
 		logger.debug("<<out create()");
 		return playlist;
 	}
 
 	/**
-	 * extractVariants() is used by the factory method when creating a MasterPlaylist
-	 *  since a MasterPlaylist requires it's Variants to be extracted as MediaPlaylists.
+	 * finishParseEvent() records what was parsed on the flight recorder event of create().
 	 *
-	 * @param strURL the string URL containing the URL
-	 * @param contents the contents of the playlist
-	 * @return a list of MediaPlaylists which are the MasterPlaylist's variants
+	 * @param event the parse event.
+	 * @param type the type of the playlist.
+	 * @param contents the contents of the playlist.
+	 * @param playlist the playlist created, or null.
+	 */
+	private static void finishParseEvent(ParseEvent event, PlaylistType type, List<String> contents, Playlist playlist) {
+		long chars = 0;
+		for(String line : contents) {
+			chars += line.length();
+		}
+
+		int children = (playlist instanceof MasterPlaylist) ? ((MasterPlaylist) playlist).getChildren().size() : 0;
+		event.finish(type.name(), contents.size(), chars, children);
+	}
+
+	/**
+	 * extractChildren() is used by the factory method when creating a MasterPlaylist
+	 *  since a MasterPlaylist requires it's Variants, alternate renditions ('EXT-X-MEDIA')
+	 *  and I-frame playlists ('EXT-X-I-FRAME-STREAM-INF') to be extracted as MediaPlaylists.
+	 *  Children are created as lazily-resolved handles so that master-only checks cost a
+	 *  single request, and a playlist referenced more than once is only kept once.
+	 *
+	 * @param resolver the MasterPlaylist's resolver for URIs found in it's contents
+	 * @param content the contents of the playlist
+	 * @param variants the list the MasterPlaylist's variants are added to
+	 * @param renditions the list the MasterPlaylist's renditions are added to
 	 */
-	private static List<MediaPlaylist> extractVariants(String strURL, List<String> content) {
-		logger.debug("in>> extractVariants()");
+	private static void extractChildren(UrlResolver resolver, List<String> content, List<MediaPlaylist> variants, List<MediaPlaylist> renditions) {
+		logger.debug("in>> extractChildren()");
 
-		List<MediaPlaylist> variants = new ArrayList<MediaPlaylist>();
+		//Absolute URL of every child, in order of appearance, with the role of it's first reference
+		Map<String, RenditionType> children = new LinkedHashMap<String, RenditionType>();
 
 		for(int i = 0; i < content.size(); i++) {
-			if(ValidationUtils.isVariantTag(content.get(i))) {
-				String uri = content.get(i + 1);
+			String line = content.get(i);
+
+			if(ValidationUtils.getLineType(line) != LineType.TAG_TYPE) {
+				continue;
+			}
+
+			String uri = null;
+			RenditionType type = null;
 
-				if(ValidationUtils.isURIType(uri)) {
-					String url = HLSUtilities.absolutizeURL(strURL, uri);
-					logger.trace("Absolutized URL for Variant: {}", url);
+			if(ValidationUtils.isVariantTag(line)) {
+				if(i + 1 < content.size() && ValidationUtils.isURIType(content.get(i + 1))) {
+					uri = content.get(i + 1);
+					type = RenditionType.VARIANT;
+				}
+			} else if(ValidationUtils.isMediaTag(line)) {
+				uri = ValidationUtils.getAttributeValue(line, "URI");
+				type = RenditionType.fromMediaType(ValidationUtils.getAttributeValue(line, "TYPE"));
+			} else if(ValidationUtils.isIFrameStreamTag(line)) {
+				uri = ValidationUtils.getAttributeValue(line, "URI");
+				type = RenditionType.I_FRAME;
+			}
 
-					ArrayList<String> variantContent = getVariant(url);
+			if(uri != null && !uri.isEmpty() && type != null) {
+				String url = resolver.resolve(uri);
+				logger.trace("Absolutized URL for {}: {}", type, url);
 
-					//TODO: Perform null check?  Or allow MediaPlaylists with null content
-					variants.add( new MediaPlaylist(url, variantContent) );
+				if(!children.containsKey(url)) {
+					children.put(url, type);
 				}
 			}
 		}
 
-		logger.debug("<<out extractVariants()");
-		return variants;
-	}
+		//Children are lazily-resolved; nothing is fetched until their content is needed
+		for(Map.Entry<String, RenditionType> child : children.entrySet()) {
+			MediaPlaylist playlist = new MediaPlaylist(child.getKey(), child.getValue(), PlaylistFactory::getVariant);
+
+			if(child.getValue() == RenditionType.VARIANT) {
+				variants.add(playlist);
+			} else {
+				renditions.add(playlist);
+			}
+		}
 
+		logger.debug("<<out extractChildren()");
+	}
 
 	/**
 	 * getVariant() retrieves the content from the variant playlist.
@@ -104,7 +179,7 @@ public class PlaylistFactory {
 	 * @param strURL the string URL containing the URL
 	 * @return a list containing the content extracted from the variant at the given URL
 	 */
-	private static ArrayList<String> getVariant(String url) {
+	private static List<String> getVariant(String url) {
 		logger.debug("in>> getVariant()");
 
 		ArrayList<String> variantContent = null;
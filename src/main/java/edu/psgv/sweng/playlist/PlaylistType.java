@@ -10,4 +10,4 @@ public enum PlaylistType {
 	MASTER,
 	ERROR,
 	NULL
-}
\ No newline at end of file
+}
\ No newline at end of file
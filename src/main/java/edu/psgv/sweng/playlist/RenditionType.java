@@ -0,0 +1,37 @@
+package edu.psgv.sweng.playlist;
+
+/**
+ * ENUM: RenditionType distinguishes the roles a Media Playlist can have within a Master Playlist.
+ *
+ * @author Ryan McDonald
+ */
+public enum RenditionType {
+	VARIANT,
+	AUDIO,
+	VIDEO,
+	SUBTITLES,
+	I_FRAME;
+
+	/**
+	 * fromMediaType() finds the rendition type of an 'EXT-X-MEDIA' TYPE attribute.
+	 *
+	 * @param type the value of the TYPE attribute, e.g. 'AUDIO'.
+	 * @return the rendition type, or null for types without a playlist (CLOSED-CAPTIONS).
+	 */
+	public static RenditionType fromMediaType(String type) {
+		if(type == null) {
+			return null;
+		}
+
+		switch(type) {
+			case "AUDIO":
+				return AUDIO;
+			case "VIDEO":
+				return VIDEO;
+			case "SUBTITLES":
+				return SUBTITLES;
+			default:
+				return null;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package edu.psgv.sweng.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * AbstractReportSink provides the buffered writing and error message parsing
+ * 	shared by all report sinks.  Output is only flushed once a full record
+ * 	has been written, and the writers of ReportSinkFactory hold all of a record
+ * 	until then however big it is, so that records are never split across writes.
+ *
+ * @author Ryan McDonald
+ */
+public abstract class AbstractReportSink implements ReportSink {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Severities in the order they are reported */
+	protected static final String[] SEVERITIES = { "FATAL", "SEVERE", "MINOR", "WARNING" };
+
+	private final Writer writer;
+	private final boolean closeWriter;
+
+	/**
+	 * @param writer the buffered writer that records are written to.
+	 * @param closeWriter whether the writer should be closed with the sink (false for stdout).
+	 */
+	protected AbstractReportSink(Writer writer, boolean closeWriter) {
+		this.writer = writer;
+		this.closeWriter = closeWriter;
+	}
+
+	/**
+	 * write() appends text to the buffered writer without flushing.
+	 *
+	 * @param text the text to write.
+	 */
+	protected void write(String text) {
+		try {
+			writer.write(text);
+		} catch(IOException e) {
+			logger.error("Unable to write validation report: '{}'", e.getMessage());
+		}
+	}
+
+	/**
+	 * writeLine() appends text followed by a line separator without flushing.
+	 *
+	 * @param text the text to write.
+	 */
+	protected void writeLine(String text) {
+		write(text);
+		write(System.lineSeparator());
+	}
+
+	/**
+	 * flush() pushes a completed record through to the underlying output.
+	 */
+	protected void flush() {
+		try {
+			writer.flush();
+		} catch(IOException e) {
+			logger.error("Unable to flush validation report: '{}'", e.getMessage());
+		}
+	}
+
+	/**
+	 * close() flushes the writer and closes it if the sink owns it.
+	 */
+	@Override
+	public void close() {
+		flush();
+
+		if(closeWriter) {
+			try {
+				writer.close();
+			} catch(IOException e) {
+				logger.error("Unable to close validation report: '{}'", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * severityOf() extracts the severity from an error built by Validator.buildErrorMessage().
+	 *
+	 * @param error the error message, e.g. '[FATAL | line 3: ...'.
+	 * @return the severity of the error or 'UNKNOWN'.
+	 */
+	protected static String severityOf(String error) {
+		int end = error.indexOf(" |");
+		return (error.startsWith("[") && end > 1) ? error.substring(1, end) : "UNKNOWN";
+	}
+
+	/**
+	 * lineOf() extracts the line number from an error built by Validator.buildErrorMessage().
+	 *
+	 * @param error the error message, e.g. '[FATAL | line 3: ...'.
+	 * @return the line number of the error or -1 if there is none.
+	 */
+	protected static int lineOf(String error) {
+		int start = error.indexOf("| line ");
+		int end = error.indexOf(':', start + 1);
+
+		if(start < 0 || end < 0) {
+			return -1;
+		}
+
+		try {
+			return Integer.parseInt(error.substring(start + 7, end).trim());
+		} catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * messageOf() extracts the message from an error built by Validator.buildErrorMessage().
+	 *
+	 * @param error the error message, e.g. '[FATAL | line 3: ...'.
+	 * @return the message part of the error.
+	 */
+	protected static String messageOf(String error) {
+		int start = error.indexOf("| line ");
+		int end = (start < 0) ? -1 : error.indexOf(": ", start);
+
+		return (end < 0) ? error : error.substring(end + 2);
+	}
+
+	/**
+	 * countSeverity() counts the errors of a given severity.
+	 *
+	 * @param errors the list of errors.
+	 * @param severity the severity to count.
+	 * @return the number of errors with the given severity.
+	 */
+	protected static int countSeverity(Iterable<String> errors, String severity) {
+		int count = 0;
+
+		if(errors != null) {
+			for(String err : errors) {
+				if(severityOf(err).equals(severity)) {
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,117 @@
+package edu.psgv.sweng.report;
+
+import java.io.Writer;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+
+/**
+ * CsvReportSink writes one CSV row per playlist.  Variants and renditions of a Master
+ * 	Playlist are written as rows of their own with the master in the 'parent_url' column.
+ *
+ * @author Ryan McDonald
+ */
+public class CsvReportSink extends AbstractReportSink {
+
+	private static final String HEADER = "url,parent_url,type,role,valid,error_count,fatal,severe,minor,warning,errors";
+
+	/**
+	 * @param writer the buffered writer that rows are written to.
+	 * @param closeWriter whether the writer should be closed with the sink.
+	 * @param writeHeader whether to start with the header row (false when appending).
+	 */
+	public CsvReportSink(Writer writer, boolean closeWriter, boolean writeHeader) {
+		super(writer, closeWriter);
+
+		if(writeHeader) {
+			writeLine(HEADER);
+			flush();
+		}
+	}
+
+	/**
+	 * reportPlaylist() writes the row of the playlist followed by the rows of any variants.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param playlist the validated playlist.
+	 */
+	@Override
+	public void reportPlaylist(int seq, Playlist playlist) {
+		boolean isMaster = playlist instanceof MasterPlaylist;
+
+		writeRow(playlist, null, isMaster ? "MASTER" : "MEDIA");
+
+		if(isMaster) {
+			for(MediaPlaylist child : ((MasterPlaylist) playlist).getChildren()) {
+				writeRow(child, playlist.getStrURL(), "MEDIA");
+			}
+		}
+
+		flush();
+	}
+
+	/**
+	 * reportUnreadable() writes a row for a playlist that could not be retrieved.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param url the URL or file path of the playlist.
+	 */
+	@Override
+	public void reportUnreadable(int seq, String url) {
+		writeLine(escape(url) + ",,UNREADABLE,,false,0,0,0,0,0,");
+		flush();
+	}
+
+	/**
+	 * writeRow() writes a single CSV row for a playlist.
+	 */
+	private void writeRow(Playlist playlist, String parentURL, String type) {
+		List<String> errors = playlist.getErrors();
+		int errorCount = (errors == null) ? 0 : errors.size();
+
+		StringBuilder row = new StringBuilder(128);
+		row.append(escape(playlist.getStrURL())).append(',');
+		row.append(parentURL == null ? "" : escape(parentURL)).append(',');
+		row.append(type).append(',');
+		if(playlist instanceof MediaPlaylist) {
+			row.append(((MediaPlaylist) playlist).getRenditionType());
+		}
+		row.append(',');
+		if(!(playlist instanceof MediaPlaylist) || ((MediaPlaylist) playlist).isLoaded()) {
+			row.append(errorCount == 0);
+		}
+		row.append(',');
+		row.append(errorCount);
+
+		for(String severity : SEVERITIES) {
+			row.append(',').append(countSeverity(errors, severity));
+		}
+
+		row.append(',');
+		if(errors != null && !errors.isEmpty()) {
+			row.append(escape(String.join("; ", errors)));
+		}
+
+		writeLine(row.toString());
+	}
+
+	/**
+	 * escape() quotes a CSV field if it contains a delimiter, quote or line break.
+	 *
+	 * @param value the raw field value.
+	 * @return the value safe for use as a CSV field.
+	 */
+	static String escape(String value) {
+		if(value == null) {
+			return "";
+		}
+
+		if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+}
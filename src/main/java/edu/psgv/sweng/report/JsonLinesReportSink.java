@@ -0,0 +1,200 @@
+package edu.psgv.sweng.report;
+
+import java.io.Writer;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.validation.TimingSummary;
+
+/**
+ * JsonLinesReportSink writes one JSON object per processed playlist, one object per line.
+ * 	Variants and renditions of a Master Playlist are nested within the record of their
+ * 	master, each with it's 'role'.  Media Playlists carry the 'timing' analysis of their
+ * 	segments once these have been validated.  Every
+ * 	record starts with its 'seq' so that ReportMerger can put shards back in list order.
+ *
+ * @author Ryan McDonald
+ */
+public class JsonLinesReportSink extends AbstractReportSink {
+
+	public JsonLinesReportSink(Writer writer, boolean closeWriter) {
+		super(writer, closeWriter);
+	}
+
+	/**
+	 * reportPlaylist() writes a single JSON line describing the playlist and its errors.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param playlist the validated playlist.
+	 */
+	@Override
+	public void reportPlaylist(int seq, Playlist playlist) {
+		StringBuilder record = new StringBuilder(256);
+
+		record.append("{\"seq\":").append(seq).append(',');
+		appendPlaylist(record, playlist);
+
+		if(playlist instanceof MasterPlaylist) {
+			record.append(",\"variants\":[");
+
+			List<MediaPlaylist> variants = ((MasterPlaylist) playlist).getChildren();
+			for(int i = 0; i < variants.size(); i++) {
+				if(i > 0) {
+					record.append(',');
+				}
+
+				record.append('{');
+				appendPlaylist(record, variants.get(i));
+				record.append('}');
+			}
+
+			record.append(']');
+		}
+
+		record.append('}');
+
+		writeLine(record.toString());
+		flush();
+	}
+
+	/**
+	 * reportUnreadable() writes a JSON line for a playlist that could not be retrieved.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param url the URL or file path of the playlist.
+	 */
+	@Override
+	public void reportUnreadable(int seq, String url) {
+		StringBuilder record = new StringBuilder(128);
+
+		record.append("{\"seq\":").append(seq).append(",\"url\":");
+		appendString(record, url);
+		record.append(",\"type\":\"UNREADABLE\",\"valid\":false}");
+
+		writeLine(record.toString());
+		flush();
+	}
+
+	/**
+	 * appendPlaylist() appends the fields shared by masters and variants.
+	 */
+	private static void appendPlaylist(StringBuilder record, Playlist playlist) {
+		List<String> errors = playlist.getErrors();
+		int errorCount = (errors == null) ? 0 : errors.size();
+
+		record.append("\"url\":");
+		appendString(record, playlist.getStrURL());
+		record.append(",\"type\":\"").append(playlist instanceof MasterPlaylist ? "MASTER" : "MEDIA").append('"');
+		if(playlist instanceof MediaPlaylist) {
+			record.append(",\"role\":\"").append(((MediaPlaylist) playlist).getRenditionType()).append('"');
+			record.append(",\"validated\":").append(((MediaPlaylist) playlist).isLoaded());
+		}
+		boolean validated = !(playlist instanceof MediaPlaylist) || ((MediaPlaylist) playlist).isLoaded();
+		record.append(",\"valid\":").append(validated ? String.valueOf(errorCount == 0) : "null");
+		record.append(",\"errorCount\":").append(errorCount);
+
+		record.append(",\"severity\":{");
+		for(int i = 0; i < SEVERITIES.length; i++) {
+			if(i > 0) {
+				record.append(',');
+			}
+			record.append('"').append(SEVERITIES[i]).append("\":").append(countSeverity(errors, SEVERITIES[i]));
+		}
+		record.append('}');
+
+		record.append(",\"errors\":[");
+		if(errors != null) {
+			for(int i = 0; i < errors.size(); i++) {
+				String err = errors.get(i);
+
+				if(i > 0) {
+					record.append(',');
+				}
+
+				record.append("{\"severity\":");
+				appendString(record, severityOf(err));
+				record.append(",\"line\":").append(lineOf(err));
+				record.append(",\"message\":");
+				appendString(record, messageOf(err));
+				record.append('}');
+			}
+		}
+		record.append(']');
+
+		TimingSummary timing = (playlist instanceof MediaPlaylist) ? ((MediaPlaylist) playlist).getTimingSummary() : null;
+		if(timing != null) {
+			record.append(",\"timing\":{\"segments\":").append(timing.getSegmentCount());
+			record.append(",\"total\":");
+			appendNumber(record, timing.getTotalDuration());
+			record.append(",\"min\":");
+			appendNumber(record, timing.getMinDuration());
+			record.append(",\"p50\":");
+			appendNumber(record, timing.getP50Duration());
+			record.append(",\"p90\":");
+			appendNumber(record, timing.getP90Duration());
+			record.append(",\"p99\":");
+			appendNumber(record, timing.getP99Duration());
+			record.append(",\"max\":");
+			appendNumber(record, timing.getMaxDuration());
+			record.append(",\"pdtDriftMs\":").append(timing.getMaxDriftMillis());
+			record.append(",\"discontinuityGaps\":").append(timing.getDiscontinuityGaps());
+			record.append(",\"maxGapMs\":").append(timing.getMaxGapMillis()).append('}');
+		}
+	}
+
+	/**
+	 * appendNumber() appends a decimal value, or null if it is not a number.
+	 */
+	private static void appendNumber(StringBuilder record, double value) {
+		if(Double.isNaN(value) || Double.isInfinite(value)) {
+			record.append("null");
+		} else {
+			record.append(Math.round(value * 1000) / 1000.0);
+		}
+	}
+
+	/**
+	 * appendString() appends a value as a quoted and escaped JSON string.
+	 *
+	 * @param record the record being built.
+	 * @param value the raw string value.
+	 */
+	static void appendString(StringBuilder record, String value) {
+		if(value == null) {
+			record.append("null");
+			return;
+		}
+
+		record.append('"');
+		for(int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+
+			switch(c) {
+				case '"':
+					record.append("\\\"");
+					break;
+				case '\\':
+					record.append("\\\\");
+					break;
+				case '\n':
+					record.append("\\n");
+					break;
+				case '\r':
+					record.append("\\r");
+					break;
+				case '\t':
+					record.append("\\t");
+					break;
+				default:
+					if(c < 0x20) {
+						record.append(String.format("\\u%04x", (int) c));
+					} else {
+						record.append(c);
+					}
+			}
+		}
+		record.append('"');
+	}
+}
@@ -0,0 +1,44 @@
+package edu.psgv.sweng.report;
+
+/**
+ * ENUM: ReportFormat distinguishes the output formats a validation report can be written in.
+ *
+ * @author Ryan McDonald
+ */
+public enum ReportFormat {
+	TEXT,
+	JSONL,
+	CSV,
+	SUMMARY;
+
+	/**
+	 * isLinePerRecord() returns whether each record of the format is written on a line
+	 * 	of it's own, so that a report can be appended to after cutting a torn record.
+	 * 	Text records span several lines and a summary ends with it's totals.
+	 *
+	 * @return true for JSONL and CSV.
+	 */
+	public boolean isLinePerRecord() {
+		return this == JSONL || this == CSV;
+	}
+
+	/**
+	 * fromString() finds the report format matching a command line value (case insensitive).
+	 *
+	 * @param value the name of the format, e.g. 'jsonl'.
+	 * @return the matching report format, or null if no format matches.
+	 */
+	public static ReportFormat fromString(String value) {
+		if(value == null) {
+			return null;
+		}
+
+		for(ReportFormat format : values()) {
+			if(format.name().equalsIgnoreCase(value.trim())) {
+				return format;
+			}
+		}
+
+		return null;
+	}
+}
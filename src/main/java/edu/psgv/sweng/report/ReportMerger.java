@@ -0,0 +1,110 @@
+package edu.psgv.sweng.report;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * ReportMerger combines the JSON Lines reports of several shards (or resumed runs)
+ * 	into one report.  Records are ordered by their 'seq' field, which is the
+ * 	position of the playlist in the batch list, so the merged report is in list
+ * 	order no matter how the list was split.  If a playlist was reported more than
+ * 	once (e.g. a run died between writing a record and checkpointing it), the
+ * 	last record read is kept.
+ *
+ * @author Ryan McDonald
+ */
+public class ReportMerger {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final String SEQ_PREFIX = "{\"seq\":";
+
+	private ReportMerger() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * merge() reads all of the input reports and writes the merged records.
+	 *
+	 * @param inputPaths the JSON Lines reports to merge.
+	 * @param writer the writer the merged report is written to.
+	 * @return the number of records written, or -1 if an input could not be read.
+	 */
+	public static int merge(List<String> inputPaths, Writer writer) {
+		logger.debug("in>> merge()");
+
+		Map<Long, String> records = new TreeMap<Long, String>();
+		List<String> unsequenced = new ArrayList<String>();
+
+		for(String path : inputPaths) {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+				String line;
+				while((line = reader.readLine()) != null) {
+					if(line.isEmpty()) {
+						continue;
+					}
+
+					long seq = seqOf(line);
+					if(seq < 0) {
+						unsequenced.add(line);
+					} else {
+						records.put(seq, line);
+					}
+				}
+			} catch(IOException e) {
+				logger.error("Unable to read report '{}': {}", path, e.getMessage());
+				return -1;
+			}
+		}
+
+		try {
+			for(String record : records.values()) {
+				writer.write(record);
+				writer.write(System.lineSeparator());
+			}
+			for(String record : unsequenced) {
+				writer.write(record);
+				writer.write(System.lineSeparator());
+			}
+			writer.flush();
+		} catch(IOException e) {
+			logger.error("Unable to write merged report: {}", e.getMessage());
+			return -1;
+		}
+
+		logger.debug("<<out merge()");
+		return records.size() + unsequenced.size();
+	}
+
+	/**
+	 * seqOf() returns the sequence number a JSON Lines record starts with.
+	 *
+	 * @param record the JSON Lines record.
+	 * @return the sequence number or -1 if the record has none.
+	 */
+	static long seqOf(String record) {
+		if(!record.startsWith(SEQ_PREFIX)) {
+			return -1;
+		}
+
+		long seq = 0;
+		int i = SEQ_PREFIX.length();
+
+		for(; i < record.length() && Character.isDigit(record.charAt(i)); i++) {
+			seq = seq * 10 + (record.charAt(i) - '0');
+		}
+
+		return (i == SEQ_PREFIX.length()) ? -1 : seq;
+	}
+}
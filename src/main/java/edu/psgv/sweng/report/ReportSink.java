@@ -0,0 +1,37 @@
+package edu.psgv.sweng.report;
+
+import java.io.Closeable;
+
+import edu.psgv.sweng.playlist.Playlist;
+
+/**
+ * ReportSink is implemented by every output format of the validation report.
+ * 	A sink receives one call per processed playlist and is expected to write
+ * 	(and flush) one record for it before returning.
+ *
+ * @author Ryan McDonald
+ */
+public interface ReportSink extends Closeable {
+
+	/**
+	 * reportPlaylist() writes the validation results of a playlist (and any variants it contains).
+	 *
+	 * @param seq the position of the playlist in the batch list (or in an interactive session).
+	 * @param playlist the playlist that has already been validated.
+	 */
+	void reportPlaylist(int seq, Playlist playlist);
+
+	/**
+	 * reportUnreadable() writes a record for a playlist whose content could not be retrieved.
+	 *
+	 * @param seq the position of the playlist in the batch list (or in an interactive session).
+	 * @param url the URL or file path of the playlist.
+	 */
+	void reportUnreadable(int seq, String url);
+
+	/**
+	 * close() writes any trailing output (e.g. totals) and releases the underlying writer.
+	 */
+	@Override
+	void close();
+}
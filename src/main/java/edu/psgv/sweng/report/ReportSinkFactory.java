@@ -0,0 +1,178 @@
+package edu.psgv.sweng.report;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * ReportSinkFactory is used to build the ReportSink for a report format.
+ *
+ * @author Ryan McDonald
+ */
+public class ReportSinkFactory {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Size of the write buffer; large enough to hold the record of a big master */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private ReportSinkFactory() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * create() is a factory method for creating a report sink of the requested format.
+	 * 	When appending, a record that a crashed run left half written is cut from the end
+	 * 	of the report first.  Records of playlists that were reported but not yet
+	 * 	journaled when the run died are written again by the resumed run, so the report
+	 * 	may hold duplicates of those.  Only formats with a record per line can be
+	 * 	appended to; a report of any other format is started over.
+	 *
+	 * @param format the format of the report.
+	 * @param outputPath the file to write the report to, or null for standard output.
+	 * @param append whether to append to an existing report file (when resuming a batch run).
+	 * @return the ReportSink, or null if the output file could not be opened.
+	 */
+	public static ReportSink create(ReportFormat format, String outputPath, boolean append) {
+		logger.debug("in>> create()");
+
+		Writer writer;
+		boolean closeWriter = (outputPath != null);
+		boolean isNewOutput;
+
+		if(append && outputPath != null && !format.isLinePerRecord()) {
+			logger.warn("A {} report cannot be appended to; starting '{}' over.", format, outputPath);
+			append = false;
+		}
+
+		try {
+			if(append && outputPath != null) {
+				truncateTornRecord(new File(outputPath));
+			}
+			isNewOutput = !append || outputPath == null || new File(outputPath).length() == 0;
+
+			//Records are held until the sink flushes them, then written in one piece
+			writer = new BufferedWriter(new OutputStreamWriter(new RecordOutputStream(openStream(outputPath, append)), StandardCharsets.UTF_8), BUFFER_SIZE);
+		} catch(IOException e) {
+			logger.error("Unable to open report output '{}': {}", outputPath, e.getMessage());
+			return null;
+		}
+
+		ReportSink sink = null;
+
+		switch(format) {
+			case TEXT:
+				sink = new TextReportSink(writer, closeWriter);
+				break;
+			case JSONL:
+				sink = new JsonLinesReportSink(writer, closeWriter);
+				break;
+			case CSV:
+				sink = new CsvReportSink(writer, closeWriter, isNewOutput);
+				break;
+			case SUMMARY:
+				sink = new SummaryReportSink(writer, closeWriter);
+				break;
+		}
+
+		logger.debug("<<out create()");
+		return sink;
+	}
+
+	/**
+	 * openWriter() opens a buffered UTF-8 writer to a report file, or to the standard
+	 * 	output file descriptor (bypassing System.out) when no file is given.
+	 *
+	 * @param outputPath the file to write to, or null for standard output.
+	 * @param append whether to append to an existing file.
+	 * @return the buffered writer.
+	 * @throws IOException if the file could not be opened.
+	 */
+	public static Writer openWriter(String outputPath, boolean append) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(openStream(outputPath, append), StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	private static OutputStream openStream(String outputPath, boolean append) throws IOException {
+		return (outputPath == null) ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(outputPath, append);
+	}
+
+	/**
+	 * truncateTornRecord() cuts a report back to the end of it's last complete line, so
+	 * 	that a record cut off by a crash is not glued to the first appended record.
+	 *
+	 * @param report the report file.
+	 * @throws IOException if the report could not be read or truncated.
+	 */
+	static void truncateTornRecord(File report) throws IOException {
+		if(!report.exists()) {
+			return;
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(report, "rw")) {
+			byte[] block = new byte[8192];
+			long end = raf.length();
+
+			//Search backwards, a block at a time, for the last line break
+			while(end > 0) {
+				int length = (int) Math.min(block.length, end);
+				raf.seek(end - length);
+				raf.readFully(block, 0, length);
+
+				for(int i = length - 1; i >= 0; i--) {
+					if(block[i] == '\n') {
+						long complete = end - length + i + 1;
+						if(complete < raf.length()) {
+							logger.warn("Cutting torn record from the end of report '{}'.", report);
+							raf.setLength(complete);
+						}
+						return;
+					}
+				}
+				end -= length;
+			}
+
+			if(raf.length() > 0) {
+				logger.warn("Report '{}' holds no complete record; starting it over.", report);
+				raf.setLength(0);
+			}
+		}
+	}
+
+	/**
+	 * RecordOutputStream holds everything written to it until it is flushed and then
+	 * 	hands it to the output in a single write, so a record is never written in pieces
+	 * 	however big it is.
+	 */
+	private static final class RecordOutputStream extends ByteArrayOutputStream {
+		private final OutputStream out;
+
+		RecordOutputStream(OutputStream out) {
+			super(BUFFER_SIZE);
+			this.out = out;
+		}
+
+		@Override
+		public synchronized void flush() throws IOException {
+			writeTo(out);
+			reset();
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+			out.close();
+		}
+	}
+}
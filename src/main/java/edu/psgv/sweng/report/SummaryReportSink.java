@@ -0,0 +1,112 @@
+package edu.psgv.sweng.report;
+
+import java.io.Writer;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+
+/**
+ * SummaryReportSink writes a single line per playlist with its error counts
+ * 	(instead of every error) and a line of totals once the sink is closed.
+ *
+ * @author Ryan McDonald
+ */
+public class SummaryReportSink extends AbstractReportSink {
+
+	private int playlists;
+	private int validPlaylists;
+	private int unreadable;
+	private final int[] totals = new int[SEVERITIES.length];
+
+	public SummaryReportSink(Writer writer, boolean closeWriter) {
+		super(writer, closeWriter);
+	}
+
+	/**
+	 * reportPlaylist() writes the summary line of the playlist.  The errors of
+	 * 	a master's variants and renditions are counted towards the master.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param playlist the validated playlist.
+	 */
+	@Override
+	public void reportPlaylist(int seq, Playlist playlist) {
+		int[] counts = new int[SEVERITIES.length];
+		int variants = 0;
+
+		addCounts(counts, playlist.getErrors());
+		if(playlist instanceof MasterPlaylist) {
+			for(MediaPlaylist variant : ((MasterPlaylist) playlist).getChildren()) {
+				addCounts(counts, variant.getErrors());
+				variants++;
+			}
+		}
+
+		int errorCount = 0;
+		for(int i = 0; i < counts.length; i++) {
+			errorCount += counts[i];
+			totals[i] += counts[i];
+		}
+
+		playlists++;
+		if(errorCount == 0) {
+			validPlaylists++;
+		}
+
+		StringBuilder line = new StringBuilder(128);
+		line.append(errorCount == 0 ? "VALID   " : "INVALID ");
+		line.append(playlist instanceof MasterPlaylist ? "MASTER" : "MEDIA ");
+		line.append(" variants=").append(variants);
+		line.append(" errors=").append(errorCount);
+		appendCounts(line, counts);
+		line.append("  ").append(playlist.getStrURL());
+
+		writeLine(line.toString());
+		flush();
+	}
+
+	/**
+	 * reportUnreadable() writes the summary line of a playlist that could not be retrieved.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param url the URL or file path of the playlist.
+	 */
+	@Override
+	public void reportUnreadable(int seq, String url) {
+		playlists++;
+		unreadable++;
+
+		writeLine("UNREADABLE " + url);
+		flush();
+	}
+
+	/**
+	 * close() writes the totals of all playlists reported to this sink.
+	 */
+	@Override
+	public void close() {
+		StringBuilder line = new StringBuilder(128);
+		line.append("TOTAL playlists=").append(playlists);
+		line.append(" valid=").append(validPlaylists);
+		line.append(" invalid=").append(playlists - validPlaylists - unreadable);
+		line.append(" unreadable=").append(unreadable);
+		appendCounts(line, totals);
+
+		writeLine(line.toString());
+		super.close();
+	}
+
+	private static void addCounts(int[] counts, List<String> errors) {
+		for(int i = 0; i < SEVERITIES.length; i++) {
+			counts[i] += countSeverity(errors, SEVERITIES[i]);
+		}
+	}
+
+	private static void appendCounts(StringBuilder line, int[] counts) {
+		for(int i = 0; i < SEVERITIES.length; i++) {
+			line.append(' ').append(SEVERITIES[i].toLowerCase()).append('=').append(counts[i]);
+		}
+	}
+}
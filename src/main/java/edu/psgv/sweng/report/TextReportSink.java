@@ -0,0 +1,126 @@
+package edu.psgv.sweng.report;
+
+import java.io.Writer;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+
+/**
+ * TextReportSink writes the human readable validation report that has always
+ * 	been printed to the console by the HLS Application.
+ *
+ * @author Ryan McDonald
+ */
+public class TextReportSink extends AbstractReportSink {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	public TextReportSink(Writer writer, boolean closeWriter) {
+		super(writer, closeWriter);
+	}
+
+	/**
+	 * reportPlaylist() prints the report header, the playlist type and URL and
+	 * 	then any validation errors of the playlist.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param playlist the validated playlist.
+	 */
+	@Override
+	public void reportPlaylist(int seq, Playlist playlist) {
+		logger.debug("in>> reportPlaylist()");
+
+		writeLine("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+		writeLine("       VALIDATION REPORT       ");
+		writeLine("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+
+		if(playlist instanceof MediaPlaylist) {
+			writeLine("Playlist Type: MEDIA PLAYLIST");
+		} else {
+			writeLine("Playlist Type: MASTER PLAYLIST");
+		}
+
+		writeLine("Playlist URL: " + playlist.getStrURL());
+
+		if(playlist instanceof MediaPlaylist) {
+			writeMediaErrorReport((MediaPlaylist) playlist, "   ");
+
+		} else if(playlist instanceof MasterPlaylist) {
+			writeMasterErrorReport((MasterPlaylist) playlist, "   ");
+
+		} else {
+			writeLine("ERROR: Could not process playlist.");
+			logger.error("Could not print validation report because playlist was not Media or Master type.");
+		}
+
+		flush();
+		logger.debug("<<out reportPlaylist()");
+	}
+
+	/**
+	 * reportUnreadable() prints that the playlist could not be processed.
+	 *
+	 * @param seq the position of the playlist in the batch list.
+	 * @param url the URL or file path of the playlist.
+	 */
+	@Override
+	public void reportUnreadable(int seq, String url) {
+		writeLine("ERROR: Could not process playlist since it could not be found.");
+		flush();
+	}
+
+	/**
+	 * writeMediaErrorReport() is used specifically for printing the validation
+	 * 	errors within a MediaPlaylist.
+	 *
+	 * @param playlist the MediaPlaylist validation errors to be printed.
+	 * @param prefix any prefix text that should go before a printed line.
+	 */
+	private void writeMediaErrorReport(MediaPlaylist playlist, String prefix) {
+		List<String> errors = playlist.getErrors();
+
+		if(!playlist.isLoaded()) {
+			writeLine(prefix + "SKIPPED - Media Playlist was not fetched (master-only).");
+		} else if(errors == null || errors.isEmpty()) {
+			writeLine(prefix + "SUCCESS - Media Playlist is valid format.");
+		} else {
+			for(String err : errors) {
+				writeLine(prefix + err);
+			}
+		}
+	}
+
+	/**
+	 * writeMasterErrorReport() is used specifically for printing the validation
+	 * 	errors within a MasterPlaylist.
+	 *
+	 * @param playlist the MasterPlaylist validation errors to be printed.
+	 * @param prefix any prefix text that should go before a printed line.
+	 */
+	private void writeMasterErrorReport(MasterPlaylist playlist, String prefix) {
+		List<String> errors = playlist.getErrors();
+
+		if(errors == null || errors.isEmpty()) {
+			writeLine(prefix + "SUCCESS - Master Playlist is valid format.");
+		} else {
+			for(String err : errors) {
+				writeLine(prefix + err);
+			}
+		}
+
+		for(MediaPlaylist variant : playlist.getVariants()) {
+			writeLine("\t" + "MEDIA PLAYLIST: " + variant.getStrURL());
+			writeMediaErrorReport(variant, "\t" + prefix);
+		}
+
+		for(MediaPlaylist rendition : playlist.getRenditions()) {
+			writeLine("\t" + "MEDIA PLAYLIST (" + rendition.getRenditionType() + "): " + rendition.getStrURL());
+			writeMediaErrorReport(rendition, "\t" + prefix);
+		}
+	}
+}
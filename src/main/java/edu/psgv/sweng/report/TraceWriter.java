@@ -0,0 +1,165 @@
+package edu.psgv.sweng.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Trace;
+import edu.psgv.sweng.trace.Tracer;
+
+/**
+ * TraceWriter writes the traces of the processed playlists ('--trace <file>') in the
+ * 	Chrome trace-event format, which chrome://tracing and ui.perfetto.dev open as a
+ * 	timeline.  Every playlist is shown as a process named after it's URL, with a row
+ * 	per thread its spans ran on, so concurrent variant fetches and the longest of them
+ * 	are easy to spot.  Each span also carries it's 'id' and the 'parent' id of the
+ * 	span tree.  Times are in microseconds since tracing was enabled.
+ *
+ * 	Traces are written as each playlist completes; the file is only valid JSON once
+ * 	the writer has been closed (the viewers also open an unterminated file).
+ *
+ * @author Ryan McDonald
+ */
+public class TraceWriter implements Consumer<Trace>, Closeable {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	private final Writer writer;
+	private boolean first = true;
+
+	/**
+	 * @param writer the buffered writer that the trace events are written to.
+	 */
+	public TraceWriter(Writer writer) {
+		this.writer = writer;
+		write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+	}
+
+	/**
+	 * accept() writes the trace of a playlist.  Traces may complete concurrently.
+	 *
+	 * @param trace the trace of a playlist.
+	 */
+	@Override
+	public synchronized void accept(Trace trace) {
+		StringBuilder events = new StringBuilder(1024);
+		int pid = trace.getSeq();
+		Set<Long> threads = new HashSet<Long>();
+
+		for(Span span : trace.getSpans()) {
+			if(span.getParent() == null) {
+				appendMetadata(events, "process_name", pid, -1, span.getUrl());
+				appendMetadata(events, "process_sort_index", pid, -1, pid);
+			}
+			if(threads.add(span.getThreadId())) {
+				appendMetadata(events, "thread_name", pid, span.getThreadId(), span.getThreadName());
+			}
+
+			appendSpan(events, pid, span);
+		}
+
+		write(events.toString());
+		flush();
+	}
+
+	/**
+	 * close() terminates the list of events and closes the writer.
+	 */
+	@Override
+	public synchronized void close() {
+		write("\n]}\n");
+
+		try {
+			writer.close();
+		} catch(IOException e) {
+			logger.error("Unable to close trace: '{}'", e.getMessage());
+		}
+	}
+
+	/**
+	 * appendSpan() appends a span as a complete ('X') event.
+	 */
+	private void appendSpan(StringBuilder events, int pid, Span span) {
+		nextEvent(events);
+		events.append("{\"name\":");
+		JsonLinesReportSink.appendString(events, span.getName());
+		events.append(",\"cat\":\"hls\",\"ph\":\"X\",\"ts\":");
+		appendMicros(events, span.getStart() - Tracer.getOrigin());
+		events.append(",\"dur\":");
+		appendMicros(events, span.getEnd() - span.getStart());
+		events.append(",\"pid\":").append(pid).append(",\"tid\":").append(span.getThreadId());
+
+		events.append(",\"args\":{\"id\":").append(span.getId());
+		if(span.getParent() != null) {
+			events.append(",\"parent\":").append(span.getParent().getId());
+		}
+		if(span.getUrl() != null) {
+			events.append(",\"url\":");
+			JsonLinesReportSink.appendString(events, span.getUrl());
+		}
+		for(Map.Entry<String, Object> arg : span.getArgs().entrySet()) {
+			events.append(',');
+			JsonLinesReportSink.appendString(events, arg.getKey());
+			events.append(':');
+			appendValue(events, arg.getValue());
+		}
+		events.append("}}");
+	}
+
+	/**
+	 * appendMetadata() appends a metadata ('M') event naming a process or thread.
+	 */
+	private void appendMetadata(StringBuilder events, String name, int pid, long tid, Object value) {
+		nextEvent(events);
+		events.append("{\"name\":\"").append(name).append("\",\"ph\":\"M\",\"pid\":").append(pid);
+		if(tid >= 0) {
+			events.append(",\"tid\":").append(tid);
+		}
+		events.append(",\"args\":{").append(name.equals("process_sort_index") ? "\"sort_index\":" : "\"name\":");
+		appendValue(events, value);
+		events.append("}}");
+	}
+
+	private void nextEvent(StringBuilder events) {
+		events.append(first ? "\n" : ",\n");
+		first = false;
+	}
+
+	private static void appendMicros(StringBuilder events, long nanos) {
+		events.append(nanos / 1000).append('.');
+		long fraction = Math.abs(nanos % 1000);
+		events.append(fraction < 100 ? (fraction < 10 ? "00" : "0") : "").append(fraction);
+	}
+
+	private static void appendValue(StringBuilder events, Object value) {
+		if(value instanceof Number || value instanceof Boolean) {
+			events.append(value);
+		} else {
+			JsonLinesReportSink.appendString(events, (value == null) ? null : value.toString());
+		}
+	}
+
+	private void write(String text) {
+		try {
+			writer.write(text);
+		} catch(IOException e) {
+			logger.error("Unable to write trace: '{}'", e.getMessage());
+		}
+	}
+
+	private void flush() {
+		try {
+			writer.flush();
+		} catch(IOException e) {
+			logger.error("Unable to flush trace: '{}'", e.getMessage());
+		}
+	}
+}
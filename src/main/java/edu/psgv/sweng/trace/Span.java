@@ -0,0 +1,127 @@
+package edu.psgv.sweng.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Span is a timed step of the processing of a traced playlist: a fetch, the parse,
+ * 	a rule, the report, ...  Spans form a tree under the span of the playlist; a span
+ * 	begun by Tracer.start() is a child of the span current on the thread, and becomes
+ * 	the current span until it is ended.  Times are System.nanoTime() readings.
+ *
+ * 	A span is begun and ended on the same thread.
+ *
+ * @author Ryan McDonald
+ */
+public class Span {
+
+	private final Trace trace;
+	private final int id;
+	private final Span parent;
+	private final String name;
+	private final String url;
+	private final long threadId;
+	private final String threadName;
+	private final long start;
+	private volatile long end = -1;
+	private Map<String, Object> args = null;
+
+	/* The span current on the thread before this one began */
+	private final Span previous;
+
+	Span(Trace trace, Span parent, String name, String url) {
+		this.trace = trace;
+		this.id = trace.nextId();
+		this.parent = parent;
+		this.name = name;
+		this.url = url;
+
+		Thread thread = Thread.currentThread();
+		this.threadId = thread.getId();
+		this.threadName = thread.getName().isEmpty() ? "thread-" + threadId : thread.getName();
+
+		this.previous = Tracer.swapCurrent(this);
+		this.start = System.nanoTime();
+	}
+
+	/**
+	 * setArg() attaches a value to the span, shown with it in the trace.
+	 *
+	 * @param key the name of the value.
+	 * @param value a string, number or boolean.
+	 * @return this span.
+	 */
+	public Span setArg(String key, Object value) {
+		if(args == null) {
+			args = new LinkedHashMap<String, Object>();
+		}
+		args.put(key, value);
+		return this;
+	}
+
+	/**
+	 * end() ends the span and makes the span it began under current again.  Ending the
+	 * 	span of a playlist completes it's trace.
+	 */
+	public void end() {
+		end = System.nanoTime();
+		Tracer.swapCurrent(previous);
+		trace.add(this);
+
+		if(parent == null) {
+			Tracer.complete(trace);
+		}
+	}
+
+	public Trace getTrace() {
+		return trace;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return the parent span or null for the span of the playlist.
+	 */
+	public Span getParent() {
+		return parent;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the URL the span is about or null.
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	public long getThreadId() {
+		return threadId;
+	}
+
+	public String getThreadName() {
+		return threadName;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the end of the span or -1 if it has not ended.
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return the values attached to the span; empty if there are none.
+	 */
+	public Map<String, Object> getArgs() {
+		return (args == null) ? new LinkedHashMap<String, Object>() : args;
+	}
+}
@@ -0,0 +1,51 @@
+package edu.psgv.sweng.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trace is the tree of spans recorded while processing a playlist (a master and all of
+ * 	it's variants).  Spans are added as they end, from whichever thread they ran on.
+ *
+ * @author Ryan McDonald
+ */
+public class Trace {
+
+	private final int seq;
+	private final AtomicInteger ids = new AtomicInteger();
+	private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<Span>();
+
+	/**
+	 * @param seq the position of the playlist in the batch list or interactive session.
+	 */
+	Trace(int seq) {
+		this.seq = seq;
+	}
+
+	public int getSeq() {
+		return seq;
+	}
+
+	/**
+	 * getSpans() returns the ended spans of the trace in the order they began.
+	 *
+	 * @return the spans.
+	 */
+	public List<Span> getSpans() {
+		List<Span> sorted = new ArrayList<Span>(spans);
+		Collections.sort(sorted, Comparator.comparingLong(Span::getStart));
+		return sorted;
+	}
+
+	int nextId() {
+		return ids.incrementAndGet();
+	}
+
+	void add(Span span) {
+		spans.add(span);
+	}
+}
@@ -0,0 +1,163 @@
+package edu.psgv.sweng.trace;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Tracer records a span tree per playlist when tracing is enabled ('--trace').  The
+ * 	span current on each thread is kept in a thread local; work handed to another thread
+ * 	(FetchExecutor.submit(), parallel validation of the variants) carries it along with
+ * 	wrap(), so the fetch and rules of every variant end up in the tree of their master.
+ *
+ * 	When tracing is disabled, or a thread is not working on a traced playlist, start()
+ * 	returns null and callers skip ending the span.
+ *
+ * @author Ryan McDonald
+ */
+public class Tracer {
+
+	private static final ThreadLocal<Span> current = new ThreadLocal<Span>();
+
+	private static volatile Consumer<Trace> completed = null;
+	private static volatile long origin = System.nanoTime();
+
+	private Tracer() {
+		//Prevent instantiation/subclassing
+	}
+
+	/**
+	 * enable() starts tracing playlists.
+	 *
+	 * @param onCompleted receives the trace of each playlist once it's span has ended.
+	 */
+	public static void enable(Consumer<Trace> onCompleted) {
+		origin = System.nanoTime();
+		completed = onCompleted;
+	}
+
+	/**
+	 * disable() stops tracing playlists; spans already begun still end normally.
+	 */
+	public static void disable() {
+		completed = null;
+	}
+
+	public static boolean isEnabled() {
+		return completed != null;
+	}
+
+	/**
+	 * getOrigin() returns when tracing was enabled, which span times are relative to.
+	 *
+	 * @return the System.nanoTime() tracing was enabled at.
+	 */
+	public static long getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * startTrace() begins the trace of a playlist with it's span, which becomes the
+	 * 	current span of the thread.
+	 *
+	 * @param seq the position of the playlist in the batch list or interactive session.
+	 * @param url the URL of the playlist.
+	 * @return the span of the playlist or null if tracing is disabled.
+	 */
+	public static Span startTrace(int seq, String url) {
+		if(completed == null) {
+			return null;
+		}
+
+		return new Span(new Trace(seq), null, "playlist", url);
+	}
+
+	/**
+	 * start() begins a span under the current span of the thread.
+	 *
+	 * @param name the name of the step.
+	 * @param url the URL the step is about or null.
+	 * @return the span or null if the thread is not working on a traced playlist.
+	 */
+	public static Span start(String name, String url) {
+		if(completed == null) {
+			return null;
+		}
+
+		Span parent = current.get();
+		return (parent == null) ? null : new Span(parent.getTrace(), parent, name, url);
+	}
+
+	/**
+	 * wrap() makes a task run under the span current on the calling thread, whichever
+	 * 	thread it ends up running on.
+	 *
+	 * @param task the task.
+	 * @return the task, wrapped if there is a current span.
+	 */
+	public static <T> Callable<T> wrap(final Callable<T> task) {
+		final Span parent = (completed == null) ? null : current.get();
+		if(parent == null) {
+			return task;
+		}
+
+		return () -> {
+			Span previous = swapCurrent(parent);
+			try {
+				return task.call();
+			} finally {
+				swapCurrent(previous);
+			}
+		};
+	}
+
+	/**
+	 * wrap() makes an action run under the span current on the calling thread, whichever
+	 * 	thread it ends up running on.
+	 *
+	 * @param action the action.
+	 * @return the action, wrapped if there is a current span.
+	 */
+	public static <T> Consumer<T> wrap(final Consumer<T> action) {
+		final Span parent = (completed == null) ? null : current.get();
+		if(parent == null) {
+			return action;
+		}
+
+		return item -> {
+			Span previous = swapCurrent(parent);
+			try {
+				action.accept(item);
+			} finally {
+				swapCurrent(previous);
+			}
+		};
+	}
+
+	/**
+	 * swapCurrent() makes a span the current span of the thread.
+	 *
+	 * @param span the span or null for none.
+	 * @return the span that was current.
+	 */
+	static Span swapCurrent(Span span) {
+		Span previous = current.get();
+		if(span == null) {
+			current.remove();
+		} else {
+			current.set(span);
+		}
+		return previous;
+	}
+
+	/**
+	 * complete() hands the trace of a playlist on once it's span has ended.
+	 *
+	 * @param trace the trace.
+	 */
+	static void complete(Trace trace) {
+		Consumer<Trace> onCompleted = completed;
+		if(onCompleted != null) {
+			onCompleted.accept(trace);
+		}
+	}
+}
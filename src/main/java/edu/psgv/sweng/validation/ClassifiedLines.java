@@ -0,0 +1,112 @@
+package edu.psgv.sweng.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * ClassifiedLines is the content of a playlist along with the LineType of each line
+ * 	and, for tags, where the tag's name ends, as a LineClassifier found them when the
+ * 	lines were read.  The RuleEngine dispatches these lines without classifying them
+ * 	again.
+ *
+ * 	A line added or set without a classification is classified by the engine as any
+ * 	other line.  Once lines are inserted or removed none of the classifications are
+ * 	used, since they no longer line up with the lines.
+ *
+ * @author Ryan McDonald
+ */
+public class ClassifiedLines extends ArrayList<String> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final LineType[] TYPES = LineType.values();
+
+	/* A line that was not classified */
+	private static final int UNCLASSIFIED = -1;
+
+	/* For each line: the name end (plus one) above the ordinal of it's type */
+	private int[] shapes = new int[64];
+
+	/* The modCount the classifications were last kept up with */
+	private int classifiedModCount = modCount;
+
+	/**
+	 * add() adds a line that was classified when it was read.
+	 *
+	 * @param line the line of content.
+	 * @param type the type of the line.
+	 * @param nameEnd where the name of the tag ends in the line or -1 if it is not a tag.
+	 * @return true.
+	 */
+	public boolean add(String line, LineType type, int nameEnd) {
+		append(line, ((nameEnd + 1) << 3) | type.ordinal());
+		return true;
+	}
+
+	/**
+	 * add() adds a line without a classification.
+	 *
+	 * @param line the line of content.
+	 * @return true.
+	 */
+	@Override
+	public boolean add(String line) {
+		append(line, UNCLASSIFIED);
+		return true;
+	}
+
+	/**
+	 * set() replaces a line, dropping it's classification.
+	 */
+	@Override
+	public String set(int index, String line) {
+		String replaced = super.set(index, line);
+		shapes[index] = UNCLASSIFIED;
+		return replaced;
+	}
+
+	/**
+	 * isClassified() returns whether the classifications still line up with the lines.
+	 *
+	 * @return false once lines were inserted or removed.
+	 */
+	public boolean isClassified() {
+		return classifiedModCount == modCount;
+	}
+
+	/**
+	 * getType() returns the type a line was classified as.
+	 *
+	 * @param index the position of the line.
+	 * @return the type of the line, or null if it was not classified.
+	 */
+	public LineType getType(int index) {
+		int shape = shapes[index];
+		return (shape == UNCLASSIFIED) ? null : TYPES[shape & 7];
+	}
+
+	/**
+	 * getNameEnd() returns where the name of a classified tag line ends.
+	 *
+	 * @param index the position of the line.
+	 * @return the end of the tag's name, or -1 for lines that are not tags.
+	 */
+	public int getNameEnd(int index) {
+		return (shapes[index] >> 3) - 1;
+	}
+
+	private void append(String line, int shape) {
+		boolean classified = isClassified();
+		super.add(line);
+
+		int index = size() - 1;
+		if(index == shapes.length) {
+			shapes = Arrays.copyOf(shapes, 2 * shapes.length);
+		}
+		shapes[index] = shape;
+
+		if(classified) {
+			classifiedModCount = modCount;
+		}
+	}
+}
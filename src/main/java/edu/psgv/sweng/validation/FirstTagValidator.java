@@ -1,6 +1,5 @@
 package edu.psgv.sweng.validation;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import edu.psgv.sweng.playlist.MasterPlaylist;
@@ -13,15 +12,15 @@ import org.apache.logging.log4j.Logger;
  * 	contain a 'EXTM3U' tag in it's first line.  This is done so using the
  *  Visitor pattern.
  * 
- * 	Errors are returned in a list.
+ * 	Errors are reported to the RuleContext of the playlist.
  *
  */
 public class FirstTagValidator extends Validator{
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
 	
-	private String errMsg = "Playlist file does not contain required M3U tag on line 1.  Caution processing playlist.";
-	private String errMsgFatal = "Playlist is empty.  Cannot validate.";
+	private static final String errMsg = "Playlist file does not contain required M3U tag on line 1.  Caution processing playlist.";
+	private static final String errMsgFatal = "Playlist is empty.  Cannot validate.";
 
 	/**
 	 * validateMediaPlaylist() will validate a Media Playlist for any errors
@@ -31,9 +30,9 @@ public class FirstTagValidator extends Validator{
 	 * @return a list of errors.
 	 */
 	public List<String> validateMediaPlaylist(MediaPlaylist playlist) {
-		logger.debug("validateMediaPlaylist() deferring responsibilty to validatePlaylist()");
+		logger.debug("validateMediaPlaylist() deferring responsibilty to validateDocument()");
 
-		return this.validatePlaylist(playlist.getContents());
+		return validateAlone(playlist);
 	}
 	
 	/**
@@ -44,33 +43,31 @@ public class FirstTagValidator extends Validator{
 	 * @return a list of errors.
 	 */
 	public List<String> validateMasterPlaylist(MasterPlaylist playlist) {
-		logger.debug("validateMediaPlaylist() deferring responsibilty to validatePlaylist()");
+		logger.debug("validateMasterPlaylist() deferring responsibilty to validateDocument()");
 
-		return this.validatePlaylist(playlist.getContents());
+		return validateAlone(playlist);
 	}
 	
 	/**
-	 * validatePlaylist() will validate Playlist's contents for any errors
+	 * validateDocument() will validate Playlist's contents for any errors
 	 * 	related to the first tag of the playlist.
 	 * 
-	 * @param contents the contents of a Playlist.
-	 * @return a list of errors.
+	 * @param context the context of the playlist being validated.
 	 */
-	private List<String> validatePlaylist(List<String> contents) {
-		logger.debug("in>> validatePlaylist()");
+	@Override
+	public void validateDocument(RuleContext context) {
+		logger.debug("in>> validateDocument()");
 
-		ArrayList<String> errors = new ArrayList<String>();
+		List<String> contents = context.getContents();
 		
 		if(contents == null || contents.size() == 0) {
-			errors.add(Validator.buildErrorMessage(1, "FATAL", errMsgFatal));
+			context.report(1, "FATAL", errMsgFatal);
 			logger.error("The playlist being validated does not contain any content!");
 		} else if(!FirstTagValidator.isValidPlaylist(contents.get(0))) {
-			errors.add(Validator.buildErrorMessage(1, "MINOR", errMsg));
+			context.report(1, "MINOR", errMsg);
 		}
 		
-		logger.debug("<<out validatePlaylist()");
-
-		return errors;
+		logger.debug("<<out validateDocument()");
 	}
 	
 	/**
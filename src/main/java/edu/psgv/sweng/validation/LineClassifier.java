@@ -0,0 +1,272 @@
+package edu.psgv.sweng.validation;
+
+/**
+ * LineClassifier sorts a line of a playlist into it's LineType and, for tags, finds
+ * 	where the tag's name ends, where it's value starts and where each attribute of the
+ * 	value starts and ends (split at commas outside of quoted strings), all in a single
+ * 	forward pass that does not allocate.  Lines can be classified as decoded strings,
+ * 	or as the raw UTF-8 bytes of a response before any string is made of them; the
+ * 	bytes a line terminator or whitespace is made of never occur within a multi-byte
+ * 	UTF-8 sequence, so both give the same result.
+ *
+ * 	Offsets are into the string, or into the byte array, that was classified.  A
+ * 	classifier holds the results of the last line it classified and is reused line
+ * 	after line, so it must not be shared between threads.
+ *
+ * @author Ryan McDonald
+ */
+public final class LineClassifier {
+
+	private LineType type;
+	private int nameStart;
+	private int nameEnd;
+	private int valueStart;
+	private boolean ascii;
+	private boolean balancedQuotes;
+
+	/* Start and end of each attribute, in pairs; only grows */
+	private int attributeCount;
+	private int[] attributes = new int[32];
+
+	/**
+	 * typeOf() finds the type of a line without classifying it any further.  Empty lines
+	 * 	are blank, lines made of nothing but whitespace are errors.
+	 *
+	 * @param line the line of content.
+	 * @return the type of line.
+	 */
+	public static LineType typeOf(String line) {
+		int length = line.length();
+
+		if(length == 0) {
+			return LineType.BLANK_TYPE;
+		}
+
+		if(line.charAt(0) == '#') {
+			boolean tag = length >= 4 && line.charAt(1) == 'E' && line.charAt(2) == 'X' && line.charAt(3) == 'T';
+			return tag ? LineType.TAG_TYPE : LineType.COMMENT_TYPE;
+		}
+
+		//Whitespace as String.trim() sees it
+		for(int i = 0; i < length; i++) {
+			if(line.charAt(i) > ' ') {
+				return LineType.URI_TYPE;
+			}
+		}
+
+		return LineType.ERROR_TYPE;
+	}
+
+	/**
+	 * classify() classifies a decoded line.
+	 *
+	 * @param line the line of content.
+	 * @return the type of line.
+	 */
+	public LineType classify(String line) {
+		int end = line.length();
+
+		reset(0);
+		type = typeOf(line);
+
+		if(type == LineType.TAG_TYPE) {
+			int i = 1;
+			while(i < end && line.charAt(i) != ':') {
+				i++;
+			}
+			nameEnd = i;
+
+			if(i < end) {
+				valueStart = i + 1;
+
+				boolean quoted = false;
+				int start = valueStart;
+				for(i = valueStart; i < end; i++) {
+					char c = line.charAt(i);
+
+					if(c == '"') {
+						quoted = !quoted;
+					} else if(c == ',' && !quoted) {
+						addAttribute(start, i);
+						start = i + 1;
+					}
+				}
+				lastAttribute(start, end);
+				balancedQuotes = !quoted;
+			}
+		}
+
+		return type;
+	}
+
+	/**
+	 * classify() classifies a line of UTF-8 bytes, noting whether it is plain ASCII.
+	 *
+	 * @param bytes the bytes holding the line.
+	 * @param start the start of the line.
+	 * @param end the end of the line, without it's terminator.
+	 * @return the type of line.
+	 */
+	public LineType classify(byte[] bytes, int start, int end) {
+		reset(start);
+		int high = 0;
+
+		if(start == end) {
+			type = LineType.BLANK_TYPE;
+
+		} else if(bytes[start] == '#') {
+			boolean tag = end - start >= 4 && bytes[start + 1] == 'E' && bytes[start + 2] == 'X' && bytes[start + 3] == 'T';
+			int i = start + 1;
+
+			if(tag) {
+				type = LineType.TAG_TYPE;
+
+				while(i < end && bytes[i] != ':') {
+					high |= bytes[i];
+					i++;
+				}
+				nameEnd = i;
+
+				if(i < end) {
+					valueStart = i + 1;
+
+					boolean quoted = false;
+					int attributeStart = valueStart;
+					for(i = valueStart; i < end; i++) {
+						byte b = bytes[i];
+						high |= b;
+
+						if(b == '"') {
+							quoted = !quoted;
+						} else if(b == ',' && !quoted) {
+							addAttribute(attributeStart, i);
+							attributeStart = i + 1;
+						}
+					}
+					lastAttribute(attributeStart, end);
+					balancedQuotes = !quoted;
+				}
+			} else {
+				type = LineType.COMMENT_TYPE;
+
+				for(; i < end; i++) {
+					high |= bytes[i];
+				}
+			}
+
+		} else {
+			//Bytes of multi-byte sequences are negative, so never whitespace
+			boolean blank = true;
+			for(int i = start; i < end; i++) {
+				byte b = bytes[i];
+				high |= b;
+				blank &= (b >= 0 && b <= ' ');
+			}
+
+			type = blank ? LineType.ERROR_TYPE : LineType.URI_TYPE;
+		}
+
+		ascii = high >= 0;
+		return type;
+	}
+
+	public LineType getType() {
+		return type;
+	}
+
+	/**
+	 * getNameStart() returns where the name of a tag starts, after it's '#'.
+	 */
+	public int getNameStart() {
+		return nameStart;
+	}
+
+	/**
+	 * getNameEnd() returns where the name of a tag ends; at it's ':' or the end of the
+	 * 	line.  It is -1 for lines that are not tags.
+	 */
+	public int getNameEnd() {
+		return nameEnd;
+	}
+
+	/**
+	 * getValueStart() returns where the value of a tag starts, after it's ':'.  It is -1
+	 * 	for tags without a value and lines that are not tags.
+	 */
+	public int getValueStart() {
+		return valueStart;
+	}
+
+	public int getAttributeCount() {
+		return attributeCount;
+	}
+
+	public int getAttributeStart(int index) {
+		return attributes[2 * index];
+	}
+
+	public int getAttributeEnd(int index) {
+		return attributes[2 * index + 1];
+	}
+
+	/**
+	 * isAscii() returns whether a line classified as bytes is plain ASCII, so that it
+	 * 	can be made a string without decoding UTF-8 and it's offsets are those of the
+	 * 	string.
+	 */
+	public boolean isAscii() {
+		return ascii;
+	}
+
+	/**
+	 * hasBalancedQuotes() returns whether the value of a tag closes every quoted string
+	 * 	it opens.  Attributes of a value that does not are split as if the last quoted
+	 * 	string ran to the end of the line.
+	 */
+	public boolean hasBalancedQuotes() {
+		return balancedQuotes;
+	}
+
+	private void reset(int start) {
+		nameStart = start + 1;
+		nameEnd = -1;
+		valueStart = -1;
+		attributeCount = 0;
+		ascii = true;
+		balancedQuotes = true;
+	}
+
+	/**
+	 * addAttribute() adds an attribute found before a comma; empty attributes are dropped.
+	 */
+	private void addAttribute(int start, int end) {
+		if(start == end) {
+			return;
+		}
+
+		if(2 * attributeCount + 2 > attributes.length) {
+			int[] grown = new int[attributes.length * 2];
+			System.arraycopy(attributes, 0, grown, 0, attributes.length);
+			attributes = grown;
+		}
+
+		attributes[2 * attributeCount] = start;
+		attributes[2 * attributeCount + 1] = end;
+		attributeCount++;
+	}
+
+	/**
+	 * lastAttribute() adds the attribute running to the end of the value.  A value
+	 * 	without commas is a single attribute, even when empty.
+	 */
+	private void lastAttribute(int start, int end) {
+		if(attributeCount == 0 && start == valueStart && start == end) {
+			attributes[0] = start;
+			attributes[1] = end;
+			attributeCount = 1;
+			return;
+		}
+
+		addAttribute(start, end);
+	}
+}
@@ -1,11 +1,13 @@
 package edu.psgv.sweng.validation;
 
 /**
- * ENUM: LineType distinguishes a type of line from Playlist content
+ * ENUM: LineType distinguishes a type of line from Playlist content.  Empty lines
+ * 	are BLANK_TYPE; lines of nothing but whitespace are ERROR_TYPE.
  */
 public enum LineType {
 	COMMENT_TYPE,
 	TAG_TYPE,
 	URI_TYPE,
-	ERROR_TYPE
+	ERROR_TYPE,
+	BLANK_TYPE
 }
@@ -0,0 +1,322 @@
+package edu.psgv.sweng.validation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.PlaylistType;
+
+/**
+ * LowLatencyValidator validates the Low-Latency HLS tags of a Media Playlist:
+ * 	'EXT-X-PART', 'EXT-X-PART-INF', 'EXT-X-SERVER-CONTROL' and 'EXT-X-PRELOAD-HINT'.
+ * 	The tags are validated as the RuleEngine scans the playlist; playlists without
+ * 	any of them have nothing to validate and keep no state.
+ *
+ * @author Ryan McDonald
+ */
+public class LowLatencyValidator extends Validator {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Container for error messages */
+	private static HashMap<String, String> errMap = new HashMap<>();
+
+	/* The tags validated, and the target duration hold backs are checked against */
+	private static final Set<String> TAGS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+			"EXT-X-TARGETDURATION", "EXT-X-PART-INF", "EXT-X-SERVER-CONTROL", "EXT-X-PART", "EXT-X-PRELOAD-HINT")));
+
+	/**
+	 * validateMediaPlaylist() will validate a Media Playlist for any errors
+	 * 	related to Low-Latency HLS.  Part durations are checked against the
+	 * 	'PART-TARGET' of 'EXT-X-PART-INF' and the hold back attributes of
+	 * 	'EXT-X-SERVER-CONTROL' against the target durations.
+	 *
+	 * @param playlist the Media Playlist.
+	 * @return a list of errors.
+	 */
+	public List<String> validateMediaPlaylist(MediaPlaylist playlist) {
+		return validateAlone(playlist);
+	}
+
+	/**
+	 * getTags() subscribes to the Low-Latency tags and 'EXT-X-TARGETDURATION'.
+	 *
+	 * @return the subscribed tags.
+	 */
+	@Override
+	public Set<String> getTags() {
+		return TAGS;
+	}
+
+	/**
+	 * needsDocument() returns false: Low-Latency tags are validated as the RuleEngine
+	 * 	scans the playlist.
+	 *
+	 * @return false.
+	 */
+	@Override
+	public boolean needsDocument() {
+		return false;
+	}
+
+	/**
+	 * onLine() validates a Low-Latency tag.  Nothing is kept for a playlist until it's
+	 * 	first Low-Latency tag, but the line of it's target duration: parts are checked
+	 * 	as they come once 'EXT-X-PART-INF' is known (it is part of the header), and
+	 * 	those before it when it is found or when the scan ends.
+	 *
+	 * @param context the context of the playlist being validated.
+	 * @param lineNum the 1-based number of the line.
+	 * @param line the tag line.
+	 * @param type the type of the line.
+	 * @param tag the name of the tag.
+	 */
+	@Override
+	public void onLine(RuleContext context, int lineNum, String line, LineType type, String tag) {
+		Object state = context.getState();
+
+		if(tag.equals("EXT-X-TARGETDURATION")) {
+			if(state == null) {
+				//The line itself, so that playlists without Low-Latency tags cost nothing
+				if(targetDurationOf(line) >= 0) {
+					context.setState(line);
+				}
+			} else if(state instanceof Parts && ((Parts) state).targetDuration < 0) {
+				((Parts) state).targetDuration = targetDurationOf(line);
+			}
+			return;
+		}
+
+		Parts parts;
+		if(state instanceof Parts) {
+			parts = (Parts) state;
+		} else {
+			parts = new Parts((state == null) ? -1.0 : targetDurationOf((String) state));
+			context.setState(parts);
+		}
+
+		if(tag.equals("EXT-X-PART-INF")) {
+			if(parts.partInfLine > 0) {
+				context.report(lineNum, "FATAL", errMap.get("manyPartInf"));
+			} else {
+				parts.partInfLine = lineNum;
+				parts.partTarget = getDecimalAttribute(line, "PART-TARGET");
+
+				if(parts.partTarget <= 0) {
+					context.report(lineNum, "FATAL", errMap.get("partTarget"));
+				}
+				parts.validatePending(context);
+			}
+		} else if(tag.equals("EXT-X-SERVER-CONTROL")) {
+			if(parts.serverControlLine > 0) {
+				context.report(lineNum, "FATAL", errMap.get("manyServerControl"));
+			} else {
+				parts.serverControlLine = lineNum;
+				parts.serverControl = line;
+			}
+		} else if(tag.equals("EXT-X-PART")) {
+			double duration = validatePart(line, lineNum, context);
+
+			if(parts.partInfLine > 0) {
+				validatePartDuration(duration, lineNum, parts.partTarget, context);
+			} else {
+				parts.addPending(duration, lineNum);
+			}
+		} else if(tag.equals("EXT-X-PRELOAD-HINT")) {
+			validatePreloadHint(line, lineNum, context);
+		}
+	}
+
+	/**
+	 * end() validates what depends on tags that may come later in the playlist: parts
+	 * 	without an 'EXT-X-PART-INF' and the hold backs of 'EXT-X-SERVER-CONTROL'.
+	 *
+	 * @param context the context of the playlist being validated.
+	 */
+	@Override
+	public void end(RuleContext context) {
+		if(!(context.getState() instanceof Parts)) {
+			return;
+		}
+
+		Parts parts = (Parts) context.getState();
+		if(parts.pendingCount > 0) {
+			context.report(parts.pendingLines[0], "FATAL", errMap.get("noPartInf"));
+		}
+
+		if(parts.serverControlLine > 0) {
+			validateServerControl(parts.serverControl, parts.serverControlLine, parts.targetDuration, parts.partTarget, context);
+		}
+	}
+
+	/**
+	 * getPlaylistTypes() returns MEDIA: Low-Latency tags only apply to Media playlists.
+	 *
+	 * @return the types of playlists the rule applies to.
+	 */
+	@Override
+	public Set<PlaylistType> getPlaylistTypes() {
+		return EnumSet.of(PlaylistType.MEDIA);
+	}
+
+	/**
+	 * validatePart() validates the attributes of an 'EXT-X-PART' tag.
+	 *
+	 * @return the duration of the part, or -1 if it has none.
+	 */
+	private static double validatePart(String line, int lineNum, RuleContext context) {
+		String uri = ValidationUtils.getAttributeValue(line, "URI");
+		if(uri == null || uri.isEmpty()) {
+			context.report(lineNum, "FATAL", errMap.get("partUri"));
+		}
+
+		double duration = getDecimalAttribute(line, "DURATION");
+		if(duration < 0) {
+			context.report(lineNum, "FATAL", errMap.get("partDuration"));
+		}
+		return duration;
+	}
+
+	/**
+	 * validatePartDuration() validates the duration of a part against the part target.
+	 */
+	private static void validatePartDuration(double duration, int lineNum, double partTarget, RuleContext context) {
+		if(partTarget > 0 && duration > partTarget) {
+			context.report(lineNum, "SEVERE", errMap.get("partExceeds") + partTarget + ".");
+		}
+	}
+
+	/**
+	 * validatePreloadHint() validates an 'EXT-X-PRELOAD-HINT' tag.
+	 */
+	private static void validatePreloadHint(String line, int lineNum, RuleContext context) {
+		String type = ValidationUtils.getAttributeValue(line, "TYPE");
+		if(type == null || !(type.equals("PART") || type.equals("MAP"))) {
+			context.report(lineNum, "FATAL", errMap.get("hintType"));
+		}
+
+		String uri = ValidationUtils.getAttributeValue(line, "URI");
+		if(uri == null || uri.isEmpty()) {
+			context.report(lineNum, "FATAL", errMap.get("hintUri"));
+		}
+	}
+
+	/**
+	 * validateServerControl() validates the hold back attributes of 'EXT-X-SERVER-CONTROL'.
+	 */
+	private static void validateServerControl(String line, int lineNum, double targetDuration, double partTarget, RuleContext context) {
+		double holdBack = getDecimalAttribute(line, "HOLD-BACK");
+		if(holdBack >= 0 && targetDuration > 0 && holdBack < 3 * targetDuration) {
+			context.report(lineNum, "SEVERE", errMap.get("holdBack"));
+		}
+
+		double partHoldBack = getDecimalAttribute(line, "PART-HOLD-BACK");
+		if(partTarget > 0) {
+			if(partHoldBack < 0) {
+				context.report(lineNum, "SEVERE", errMap.get("noPartHoldBack"));
+			} else if(partHoldBack < 2 * partTarget) {
+				context.report(lineNum, "SEVERE", errMap.get("partHoldBack"));
+			}
+		}
+
+		double canSkipUntil = getDecimalAttribute(line, "CAN-SKIP-UNTIL");
+		if(canSkipUntil >= 0 && targetDuration > 0 && canSkipUntil < 6 * targetDuration) {
+			context.report(lineNum, "SEVERE", errMap.get("canSkipUntil"));
+		}
+	}
+
+	/**
+	 * targetDurationOf() returns the value of an 'EXT-X-TARGETDURATION' line, or -1 when
+	 * 	it is not a number.
+	 */
+	private static double targetDurationOf(String line) {
+		int comma = line.indexOf(',', 22);
+		double duration = ValidationUtils.parseDecimal(line, 22, comma < 0 ? line.length() : comma);
+
+		return Double.isNaN(duration) ? -1.0 : duration;
+	}
+
+	/**
+	 * getDecimalAttribute() returns the decimal value of an attribute, or -1 when the
+	 * 	attribute is missing or not a number.
+	 */
+	private static double getDecimalAttribute(String line, String name) {
+		String value = ValidationUtils.getAttributeValue(line, name);
+
+		if(value != null) {
+			try {
+				return Double.parseDouble(value);
+			} catch(NumberFormatException e) {
+				logger.debug("Attribute {} is not a decimal value: {}", name, value);
+			}
+		}
+
+		return -1.0;
+	}
+
+	/**
+	 * Parts holds what is known of the Low-Latency tags of a playlist during a scan, and
+	 * 	the durations of the parts found before 'EXT-X-PART-INF'.
+	 */
+	private static final class Parts {
+		double targetDuration;
+		double partTarget = -1.0;
+		int partInfLine;
+		int serverControlLine;
+		String serverControl;
+
+		int pendingCount;
+		double[] pendingDurations = new double[4];
+		int[] pendingLines = new int[4];
+
+		Parts(double targetDuration) {
+			this.targetDuration = targetDuration;
+		}
+
+		void addPending(double duration, int lineNum) {
+			if(pendingCount == pendingLines.length) {
+				pendingDurations = Arrays.copyOf(pendingDurations, 2 * pendingCount);
+				pendingLines = Arrays.copyOf(pendingLines, 2 * pendingCount);
+			}
+
+			pendingDurations[pendingCount] = duration;
+			pendingLines[pendingCount] = lineNum;
+			pendingCount++;
+		}
+
+		/**
+		 * validatePending() checks the parts found before 'EXT-X-PART-INF' against it.
+		 */
+		void validatePending(RuleContext context) {
+			for(int i = 0; i < pendingCount; i++) {
+				validatePartDuration(pendingDurations[i], pendingLines[i], partTarget, context);
+			}
+			pendingCount = 0;
+		}
+	}
+
+	//Static block for populating error message map with respective error messages
+	static {
+		errMap.put("noPartInf", "Media Playlist containing 'EXT-X-PART' tags must contain an 'EXT-X-PART-INF' tag.");
+		errMap.put("manyPartInf", "Media Playlist must not contain more than one 'EXT-X-PART-INF' tag.");
+		errMap.put("partTarget", "'EXT-X-PART-INF' must contain a positive 'PART-TARGET' attribute.");
+		errMap.put("manyServerControl", "Media Playlist must not contain more than one 'EXT-X-SERVER-CONTROL' tag.");
+		errMap.put("partUri", "'EXT-X-PART' must contain a 'URI' attribute.");
+		errMap.put("partDuration", "'EXT-X-PART' must contain a numeric 'DURATION' attribute.");
+		errMap.put("partExceeds", "Partial segment duration must not exceed the part target duration of: ");
+		errMap.put("hintType", "'EXT-X-PRELOAD-HINT' must contain a 'TYPE' attribute of PART or MAP.");
+		errMap.put("hintUri", "'EXT-X-PRELOAD-HINT' must contain a 'URI' attribute.");
+		errMap.put("holdBack", "'HOLD-BACK' must be at least three times the target duration.");
+		errMap.put("noPartHoldBack", "'EXT-X-SERVER-CONTROL' must contain 'PART-HOLD-BACK' when the playlist contains 'EXT-X-PART-INF'.");
+		errMap.put("partHoldBack", "'PART-HOLD-BACK' must be at least twice the part target duration.");
+		errMap.put("canSkipUntil", "'CAN-SKIP-UNTIL' must be at least six times the target duration.");
+	}
+}
@@ -1,14 +1,15 @@
 package edu.psgv.sweng.validation;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import edu.psgv.sweng.playlist.MasterPlaylist;
 import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.PlaylistType;
 
 public class MediaSegmentTimeValidator extends Validator{
 	/* LOGGER */
@@ -25,17 +26,28 @@ public class MediaSegmentTimeValidator extends Validator{
 	 * @return a list of errors.
 	 */
 	public List<String> validateMediaPlaylist(MediaPlaylist playlist) {
-		logger.debug("in>> validateMediaPlaylist()");
+		return validateAlone(playlist);
+	}
+
+	/**
+	 * validateDocument() will validate the Media Playlist of a context for any errors
+	 * 	related Media Segment time.
+	 * 
+	 * @param context the context of the playlist being validated.
+	 */
+	@Override
+	public void validateDocument(RuleContext context) {
+		logger.debug("in>> validateDocument()");
 
-		ArrayList<String> errors = new ArrayList<>();
+		MediaPlaylist playlist = (MediaPlaylist) context.getPlaylist();
 		
 		//Get contents and check if that they exist
 		List<String> contents = playlist.getContents();
 		if(contents == null || contents.isEmpty()) {
 			logger.error("The playlist being validated does not contain any content!");
-			logger.debug("<<out validateMediaPlaylist()");
+			logger.debug("<<out validateDocument()");
 
-			return errors;
+			return;
 		}
 		
 		//Get Target duration and check whether or not media segments can be checked
@@ -46,71 +58,65 @@ public class MediaSegmentTimeValidator extends Validator{
 			int lineNum = ValidationUtils.hasTargetDuration(contents);
 			
 			if(lineNum < 0) {
-				errors.add(Validator.buildErrorMessage(lineNum + 1, "FATAL", errMap.get("errMsgNoTarget")));
+				context.report(lineNum + 1, "FATAL", errMap.get("errMsgNoTarget"));
 				logger.trace(errMap.get("errMsgNoTarget"));
 
 			} else {
-				errors.add(Validator.buildErrorMessage(lineNum + 1, "FATAL", errMap.get("errMsgTargetWithoutTime")));
+				context.report(lineNum + 1, "FATAL", errMap.get("errMsgTargetWithoutTime"));
 				logger.trace(errMap.get("errMsgTargetWithoutTime"));
 			}
 			
 		} else {
-			//Target duration was found; Perform validation on media segments
-			
-			int lineNum = 0;
-
-			for(String line : contents) {
-				LineType type = ValidationUtils.getLineType(line);
+			//Target duration was found; Perform validation on media segments, from the playlist's single scan
+			SegmentTimeline timeline = playlist.getTimeline();
 
-				switch(type) {
-					case COMMENT_TYPE:
-						break;
-					case URI_TYPE:
-						break;
-					case ERROR_TYPE:
-						break;
-						
-					case TAG_TYPE:
-						
-						if(ValidationUtils.isMediaSegmentTag(line)) {
-							double time = ValidationUtils.getDuration(line);
+			//Every 'EXTINF' in line order: those of segments merged with those without a segment
+			int orphan = 0;
+			for(int i = 0; i < timeline.getCount(); i++) {
+				for(; orphan < timeline.getOrphanCount() && timeline.getOrphanLine(orphan) < timeline.getDurationLine(i); orphan++) {
+					validateDuration(timeline.getOrphanDuration(orphan), timeline.getOrphanLine(orphan), targetDuration, context);
+				}
 
-							if(time == -1.0) {
-								errors.add(Validator.buildErrorMessage(lineNum + 1, "FATAL", errMap.get("errMsgTime")));
-								logger.trace(errMap.get("errMsgTime"));
-							} else if (time > targetDuration) {
-								errors.add(Validator.buildErrorMessage(lineNum + 1, "SEVERE", errMap.get("errMsgTimeExceed") + targetDuration + "."));
-								logger.trace(errMap.get("errMsgTimeExceed") + targetDuration + ".");
-							}
-						}
-						
-						break;
+				//Segments without an 'EXTINF' tag are reported by the URISequenceValidator
+				if(timeline.getDurationLine(i) > 0) {
+					validateDuration(timeline.getDuration(i), timeline.getDurationLine(i), targetDuration, context);
 				}
+			}
 
-				lineNum++;
+			for(; orphan < timeline.getOrphanCount(); orphan++) {
+				validateDuration(timeline.getOrphanDuration(orphan), timeline.getOrphanLine(orphan), targetDuration, context);
 			}
+
+			playlist.setTimingSummary(TimingSummary.of(timeline));
+			logger.debug("Timing of {}: {}", playlist.getStrURL(), playlist.getTimingSummary());
 		}
 		
-		logger.debug("<<out validateMediaPlaylist()");
-		return errors;
+		logger.debug("<<out validateDocument()");
 	}
 	
 	/**
-	 * validateMasterPlaylist() will validate a Master Playlist for any errors
-	 * 	related to Media Segment time.
-	 * 
-	 * 	There is no need to validate Master playlists for this.  Returning empty list.
-	 * 
-	 * @param playlist the Master Playlist.
-	 * @return a list of errors.
+	 * validateDuration() validates the duration of an 'EXTINF' tag against the target duration.
+	 * 	As specified by RFC 8216, the duration rounded to the nearest integer must not
+	 * 	exceed the target duration.
 	 */
-	public List<String> validateMasterPlaylist(MasterPlaylist playlist) {
-		logger.debug("in>> validateMasterPlaylist()");
+	private static void validateDuration(double time, int lineNum, double targetDuration, RuleContext context) {
+		if(Double.isNaN(time) || time < 0) {
+			context.report(lineNum, "FATAL", errMap.get("errMsgTime"));
+			logger.trace(errMap.get("errMsgTime"));
+		} else if(Math.round(time) > targetDuration) {
+			context.report(lineNum, "SEVERE", errMap.get("errMsgTimeExceed") + targetDuration + ".");
+			logger.trace("{}{}.", errMap.get("errMsgTimeExceed"), targetDuration);
+		}
+	}
 
-		logger.warn("MediaSegmentValidator has no validation to perform on Master playlists.");
-		
-		logger.debug("<<out validateMasterPlaylist()");
-		return new ArrayList<String>();
+	/**
+	 * getPlaylistTypes() returns MEDIA: there is nothing to validate in Master playlists.
+	 *
+	 * @return the types of playlists the rule applies to.
+	 */
+	@Override
+	public Set<PlaylistType> getPlaylistTypes() {
+		return EnumSet.of(PlaylistType.MEDIA);
 	}
 	
 	//Static block for populating error message map with respective error messages
@@ -0,0 +1,274 @@
+package edu.psgv.sweng.validation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.playlist.PlaylistType;
+
+/**
+ * RuleContext holds everything about the validation of one playlist that the rules
+ * 	share with the RuleEngine: the playlist, the findings of each rule and the state
+ * 	each rule keeps during a scan.  A context is confined to the thread validating
+ * 	it's playlist.
+ *
+ * 	Findings are added straight to the list of errors the playlist is validated into,
+ * 	noting the rule of each, and are put in the order of the rules when the validation
+ * 	ends.  The engine pools it's contexts, so a context is opened for a playlist,
+ * 	closed when it's validation ends and then reused; every array it keeps only grows.
+ *
+ * @author Ryan McDonald
+ */
+public final class RuleContext {
+
+	private Playlist playlist;
+	private PlaylistType type;
+	private String[] severities;
+	private Object[] state = new Object[8];
+	private int[] counts = new int[8];
+	private int[] offsets = new int[8];
+	private boolean[] failed = new boolean[8];
+	private int current;
+
+	/* The findings are those of the sink from 'base' on; the rule of each, in order */
+	private List<String> sink;
+	private int base;
+	private int size;
+	private int[] rules = new int[32];
+	private String[] grouped = new String[32];
+
+	RuleContext() {
+	}
+
+	/**
+	 * open() starts the validation of a playlist.
+	 *
+	 * @param playlist the playlist being validated.
+	 * @param type the type of the playlist.
+	 * @param severities for each rule, the level all it's findings are reported at or
+	 * 		null to keep the rule's own levels.
+	 * @param sink the list of errors the findings are added to.
+	 */
+	void open(Playlist playlist, PlaylistType type, String[] severities, List<String> sink) {
+		this.playlist = playlist;
+		this.type = type;
+		this.severities = severities;
+		this.sink = sink;
+		this.base = sink.size();
+		this.size = 0;
+		this.current = 0;
+
+		if(state.length < severities.length) {
+			state = new Object[severities.length];
+			counts = new int[severities.length];
+			offsets = new int[severities.length];
+			failed = new boolean[severities.length];
+		} else {
+			Arrays.fill(counts, 0, severities.length, 0);
+			Arrays.fill(failed, 0, severities.length, false);
+		}
+	}
+
+	/**
+	 * close() ends the validation of a playlist and lets go of it, it's findings and the
+	 * 	state of every rule.
+	 */
+	void close() {
+		Arrays.fill(state, 0, severities.length, null);
+		playlist = null;
+		severities = null;
+		sink = null;
+	}
+
+	/**
+	 * getPlaylist() returns the playlist being validated.
+	 *
+	 * @return the playlist.
+	 */
+	public Playlist getPlaylist() {
+		return playlist;
+	}
+
+	/**
+	 * getPlaylistType() returns the type of the playlist being validated.
+	 *
+	 * @return MEDIA or MASTER.
+	 */
+	public PlaylistType getPlaylistType() {
+		return type;
+	}
+
+	/**
+	 * getContents() returns the content of the playlist being validated.
+	 *
+	 * @return the lines of the playlist.
+	 */
+	public List<String> getContents() {
+		return playlist.getContents();
+	}
+
+	/**
+	 * report() adds a finding of the current rule.
+	 *
+	 * @param lineNum the 1-based number of the line the finding is about.
+	 * @param errLvl the level of the finding (FATAL, SEVERE, MINOR or WARNING).
+	 * @param errMessage the message of the finding.
+	 */
+	public void report(int lineNum, String errLvl, String errMessage) {
+		String severity = severities[current];
+		add(Validator.buildErrorMessage(lineNum, (severity == null) ? errLvl : severity, errMessage));
+	}
+
+	/**
+	 * reportAll() adds findings of the current rule that are already built.
+	 *
+	 * @param errs the findings.
+	 */
+	public void reportAll(List<String> errs) {
+		if(errs == null || errs.isEmpty()) {
+			return;
+		}
+
+		String severity = severities[current];
+		for(String err : errs) {
+			if(severity == null) {
+				add(err);
+			} else {
+				//Built as '[LEVEL | line N: message'
+				int end = err.indexOf(" | ");
+				add((end < 0) ? err : "[" + severity + err.substring(end));
+			}
+		}
+	}
+
+	/**
+	 * getState() returns the state the current rule keeps for this playlist.
+	 *
+	 * @return the state or null if none was set.
+	 */
+	public Object getState() {
+		return state[current];
+	}
+
+	/**
+	 * setState() sets the state the current rule keeps for this playlist.
+	 *
+	 * @param value the state.
+	 */
+	public void setState(Object value) {
+		state[current] = value;
+	}
+
+	/**
+	 * select() makes a rule the current rule.
+	 *
+	 * @param rule the position of the rule.
+	 */
+	void select(int rule) {
+		current = rule;
+	}
+
+	/**
+	 * fail() notes that the current rule failed on this playlist.
+	 */
+	void fail() {
+		failed[current] = true;
+	}
+
+	/**
+	 * hasFailed() returns whether a rule failed on this playlist.
+	 *
+	 * @param rule the position of the rule.
+	 * @return whether the rule failed.
+	 */
+	boolean hasFailed(int rule) {
+		return failed[rule];
+	}
+
+	/**
+	 * getFindingCount() returns the number of findings of a rule.
+	 *
+	 * @param rule the position of the rule.
+	 * @return the number of findings.
+	 */
+	int getFindingCount(int rule) {
+		return counts[rule];
+	}
+
+	/**
+	 * getFindingCount() returns the number of findings of every rule.
+	 *
+	 * @return the number of findings.
+	 */
+	int getFindingCount() {
+		return size;
+	}
+
+	/**
+	 * getFinding() returns a finding, by it's position among the findings.
+	 *
+	 * @param index the position of the finding.
+	 * @return the finding.
+	 */
+	String getFinding(int index) {
+		return sink.get(base + index);
+	}
+
+	/**
+	 * getRule() returns the rule of a finding, by it's position among the findings.
+	 *
+	 * @param index the position of the finding.
+	 * @return the position of the rule.
+	 */
+	int getRule(int index) {
+		return rules[index];
+	}
+
+	/**
+	 * group() puts the findings in the order of the rules, keeping the order each rule
+	 * 	found them in.  The line rules of a scan report as they go, so their findings
+	 * 	are interleaved until then.
+	 */
+	void group() {
+		boolean ordered = true;
+		for(int i = 1; i < size && ordered; i++) {
+			ordered = rules[i - 1] <= rules[i];
+		}
+		if(ordered) {
+			return;
+		}
+
+		if(grouped.length < size) {
+			grouped = new String[Math.max(size, 2 * grouped.length)];
+		}
+
+		//Counting sort: each rule's findings start after those of the rules before it
+		int rulesRun = severities.length;
+		offsets[0] = 0;
+		for(int r = 1; r < rulesRun; r++) {
+			offsets[r] = offsets[r - 1] + counts[r - 1];
+		}
+		for(int i = 0; i < size; i++) {
+			grouped[offsets[rules[i]]++] = sink.get(base + i);
+		}
+
+		int i = 0;
+		for(int r = 0; r < rulesRun; r++) {
+			for(int n = 0; n < counts[r]; n++, i++) {
+				sink.set(base + i, grouped[i]);
+				grouped[i] = null;
+				rules[i] = r;
+			}
+		}
+	}
+
+	private void add(String finding) {
+		if(size == rules.length) {
+			rules = Arrays.copyOf(rules, 2 * size);
+		}
+
+		sink.add(finding);
+		rules[size++] = current;
+		counts[current]++;
+	}
+}
@@ -0,0 +1,700 @@
+package edu.psgv.sweng.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.events.FlightEvents;
+import edu.psgv.sweng.events.RuleEvent;
+import edu.psgv.sweng.metrics.Counter;
+import edu.psgv.sweng.metrics.LatencyHistogram;
+import edu.psgv.sweng.metrics.Metrics;
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.playlist.PlaylistType;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Tracer;
+
+/**
+ * RuleEngine runs a set of ValidationRules on playlists.  For each type of playlist
+ * 	it works out once which rules apply and which of them want which lines, then
+ * 	validates a playlist in a single scan of it's content that hands each line only
+ * 	to the rules subscribed to it.  Rules that need the whole document are run after
+ * 	the scan.  Lines and tags no rule subscribes to are skipped, and a playlist type
+ * 	no line rule applies to is never scanned at all.
+ *
+ * 	Findings are returned grouped by rule, in the order of the rules, the same as
+ * 	running each rule as a Validator one after another.
+ *
+ * 	A RuleProfile selects the rules: disabled rules are left out of every plan, so they
+ * 	are never dispatched to.  When a rule only applies to some 'EXT-X-VERSION's the
+ * 	plans are also worked out per version, and only then is the version of a playlist
+ * 	looked up.
+ *
+ * 	The engine keeps no state of a validation, so one engine serves every playlist
+ * 	and thread: the state of each validation is kept in a RuleContext taken from a
+ * 	pool for the length of it, and findings are added straight to the list of errors
+ * 	the playlist is validated into.  It records the time of each validation, of the scan and of each
+ * 	whole-document rule, and counts playlists and findings, in the metrics registry.
+ * 	While Flight Recorder is recording them, each rule run on a playlist is also
+ * 	recorded as a RuleEvent, and when tracing, the validation, the scan and each
+ * 	whole-document rule are spans of the playlist's trace.
+ *
+ * 	Rules may come from anywhere the ServiceLoader finds them, so a rule that throws
+ * 	is logged and dropped for the rest of that playlist; the other rules' findings
+ * 	are still reported.
+ *
+ * @author Ryan McDonald
+ */
+public class RuleEngine extends Validator {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Versions above this share a plan; protocol versions are single digits so far */
+	private static final int MAX_PLANNED_VERSION = 99;
+
+	/* Contexts kept for reuse; more are only in use at once with that many threads validating */
+	private static final int MAX_POOLED_CONTEXTS = 64;
+
+	private final List<ValidationRule> rules;
+	private final String[] severities;
+	private final int[] minVersions;
+	private final int[] maxVersions;
+	private final boolean versionAware;
+	private final Map<PlaylistType, Plan> plans = new EnumMap<PlaylistType, Plan>(PlaylistType.class);
+	private final Map<Integer, Plan> versionPlans = new ConcurrentHashMap<Integer, Plan>();
+	private final ArrayDeque<RuleContext> contexts = new ArrayDeque<RuleContext>();
+
+	/**
+	 * Constructor for an engine running the rules in order.
+	 *
+	 * @param rules the rules to run.
+	 */
+	public RuleEngine(List<? extends ValidationRule> rules) {
+		this(rules, new RuleProfile(RuleProfile.DEFAULT_PROFILE));
+	}
+
+	/**
+	 * Constructor for an engine running the rules enabled in a profile, in order.
+	 *
+	 * @param rules the rules available.
+	 * @param profile the profile selecting and adjusting the rules.
+	 */
+	public RuleEngine(List<? extends ValidationRule> rules, RuleProfile profile) {
+		List<ValidationRule> selected = new ArrayList<ValidationRule>();
+		for(ValidationRule rule : rules) {
+			if(profile.isEnabled(rule)) {
+				selected.add(rule);
+			} else {
+				logger.info("Rule {} is disabled by profile {}", rule.getName(), profile.getName());
+			}
+		}
+		this.rules = Collections.unmodifiableList(selected);
+
+		severities = new String[selected.size()];
+		minVersions = new int[selected.size()];
+		maxVersions = new int[selected.size()];
+		boolean anyVersioned = false;
+		for(int r = 0; r < severities.length; r++) {
+			ValidationRule rule = selected.get(r);
+			severities[r] = profile.getSeverity(rule);
+			minVersions[r] = profile.getMinVersion(rule);
+			maxVersions[r] = profile.getMaxVersion(rule);
+			anyVersioned |= minVersions[r] > 1 || maxVersions[r] < Integer.MAX_VALUE;
+		}
+		versionAware = anyVersioned;
+
+		Set<String> known = new HashSet<String>();
+		for(ValidationRule rule : rules) {
+			known.add(rule.getName());
+		}
+		for(String configured : profile.getConfiguredRules()) {
+			if(!known.contains(configured)) {
+				logger.warn("Profile {} configures unknown rule {}", profile.getName(), configured);
+			}
+		}
+
+		if(!versionAware) {
+			plans.put(PlaylistType.MEDIA, new Plan(this, PlaylistType.MEDIA, 0));
+			plans.put(PlaylistType.MASTER, new Plan(this, PlaylistType.MASTER, 0));
+		}
+	}
+
+	/**
+	 * discover() creates an engine running every rule found by the ServiceLoader, in
+	 * 	the order they are listed.
+	 *
+	 * @return the engine.
+	 */
+	public static RuleEngine discover() {
+		return discover(new RuleProfile(RuleProfile.DEFAULT_PROFILE));
+	}
+
+	/**
+	 * discover() creates an engine running the rules found by the ServiceLoader that are
+	 * 	enabled in a profile, in the order they are listed.
+	 *
+	 * @param profile the profile selecting and adjusting the rules.
+	 * @return the engine.
+	 */
+	public static RuleEngine discover(RuleProfile profile) {
+		logger.debug("in>> discover()");
+
+		List<ValidationRule> found = new ArrayList<ValidationRule>();
+		for(ValidationRule rule : ServiceLoader.load(ValidationRule.class)) {
+			logger.debug("Discovered validation rule {}", rule.getName());
+			found.add(rule);
+		}
+
+		logger.debug("<<out discover()");
+		return new RuleEngine(found, profile);
+	}
+
+	/**
+	 * getRules() returns the rules the engine runs.
+	 *
+	 * @return the rules, in order.
+	 */
+	public List<ValidationRule> getRules() {
+		return rules;
+	}
+
+	/**
+	 * validateMediaPlaylist() runs the rules that apply to Media Playlists.
+	 *
+	 * @param playlist the Media Playlist.
+	 * @return a list of errors.
+	 */
+	@Override
+	public List<String> validateMediaPlaylist(MediaPlaylist playlist) {
+		List<String> errors = new ArrayList<String>();
+		validate(playlist, PlaylistType.MEDIA, errors);
+		return errors;
+	}
+
+	/**
+	 * validateMasterPlaylist() runs the rules that apply to Master Playlists.
+	 *
+	 * @param playlist the Master Playlist.
+	 * @return a list of errors.
+	 */
+	@Override
+	public List<String> validateMasterPlaylist(MasterPlaylist playlist) {
+		List<String> errors = new ArrayList<String>();
+		validate(playlist, PlaylistType.MASTER, errors);
+		return errors;
+	}
+
+	/**
+	 * validateMediaPlaylist() runs the rules that apply to Media Playlists, adding their
+	 * 	findings straight to a list of errors.
+	 *
+	 * @param playlist the Media Playlist.
+	 * @param errors the list the errors are added to.
+	 */
+	@Override
+	public void validateMediaPlaylist(MediaPlaylist playlist, List<String> errors) {
+		validate(playlist, PlaylistType.MEDIA, errors);
+	}
+
+	/**
+	 * validateMasterPlaylist() runs the rules that apply to Master Playlists, adding their
+	 * 	findings straight to a list of errors.
+	 *
+	 * @param playlist the Master Playlist.
+	 * @param errors the list the errors are added to.
+	 */
+	@Override
+	public void validateMasterPlaylist(MasterPlaylist playlist, List<String> errors) {
+		validate(playlist, PlaylistType.MASTER, errors);
+	}
+
+	/**
+	 * validate() runs the plan of a type of playlist on a playlist.
+	 *
+	 * @param playlist the playlist.
+	 * @param type the type of the playlist.
+	 * @param errors the list the errors are added to.
+	 */
+	private void validate(Playlist playlist, PlaylistType type, List<String> errors) {
+		logger.debug("in>> validate()");
+		long start = System.nanoTime();
+
+		List<String> contents = playlist.getContents();
+		Plan plan = versionAware ? planFor(type, versionOf(contents)) : plans.get(type);
+
+		if(plan.rules.length == 0) {
+			return;
+		}
+
+		RuleContext context = acquireContext();
+		context.open(playlist, type, plan.severities, errors);
+
+		int lines = (contents == null) ? 0 : contents.size();
+		int findings = 0;
+		Span span = Tracer.start("validate", playlist.getStrURL());
+
+		//Whatever a rule throws, the context goes back to the pool and the spans end
+		try {
+			if(plan.streaming.length > 0 && contents != null && !contents.isEmpty()) {
+				RuleEvent[] events = FlightEvents.isRecording() ? beginScanEvents(plan, playlist.getStrURL()) : null;
+				Span scanSpan = Tracer.start("scan", null);
+
+				long scanStart = System.nanoTime();
+				try {
+					scan(plan, context, contents);
+				} finally {
+					plan.scanTime.recordSince(scanStart);
+
+					if(scanSpan != null) {
+						scanSpan.setArg("rules", plan.streaming.length).setArg("lines", lines).end();
+					}
+				}
+				if(events != null) {
+					for(int r : plan.streaming) {
+						if(events[r] != null) {
+							events[r].finish(lines, context.getFindingCount(r));
+						}
+					}
+				}
+			}
+
+			for(int r : plan.document) {
+				RuleEvent event = FlightEvents.beginRule(playlist.getStrURL(), plan.rules[r].getName(), false);
+				Span ruleSpan = Tracer.start(plan.rules[r].getName(), null);
+
+				long ruleStart = System.nanoTime();
+				context.select(r);
+				try {
+					plan.rules[r].validateDocument(context);
+				} catch(RuntimeException e) {
+					failed(plan.rules[r], context, e);
+				} finally {
+					plan.ruleTimes[r].recordSince(ruleStart);
+
+					if(ruleSpan != null) {
+						ruleSpan.setArg("findings", context.getFindingCount(r)).end();
+					}
+				}
+
+				if(event != null) {
+					event.finish(lines, context.getFindingCount(r));
+				}
+			}
+
+			context.group();
+			plan.count(context);
+			findings = context.getFindingCount();
+
+		} finally {
+			releaseContext(context);
+
+			plan.validationTime.recordSince(start);
+			if(span != null) {
+				span.setArg("type", type.name()).setArg("findings", findings).end();
+			}
+		}
+
+		logger.debug("<<out validate()");
+	}
+
+	/**
+	 * acquireContext() takes a context from the pool, or creates one when every pooled
+	 * 	context is in use.
+	 *
+	 * @return the context, confined to the calling thread until it is released.
+	 */
+	private RuleContext acquireContext() {
+		synchronized(contexts) {
+			RuleContext context = contexts.pollFirst();
+			if(context != null) {
+				return context;
+			}
+		}
+		return new RuleContext();
+	}
+
+	/**
+	 * releaseContext() closes a context and returns it to the pool, unless the pool is full.
+	 *
+	 * @param context the context.
+	 */
+	private void releaseContext(RuleContext context) {
+		context.close();
+
+		synchronized(contexts) {
+			if(contexts.size() < MAX_POOLED_CONTEXTS) {
+				contexts.addFirst(context);
+			}
+		}
+	}
+
+	/**
+	 * beginScanEvents() begins the flight recorder events of the rules run in the scan.
+	 *
+	 * @param plan the plan for the type of playlist.
+	 * @param url the URL of the playlist.
+	 * @return the events by position of the rule; null where a rule is not being recorded.
+	 */
+	private static RuleEvent[] beginScanEvents(Plan plan, String url) {
+		RuleEvent[] events = new RuleEvent[plan.rules.length];
+		for(int r : plan.streaming) {
+			events[r] = FlightEvents.beginRule(url, plan.rules[r].getName(), true);
+		}
+		return events;
+	}
+
+	/**
+	 * planFor() returns the plan for a type and version of playlist, working it out on
+	 * 	first use.
+	 *
+	 * @param type the type of the playlist.
+	 * @param version the 'EXT-X-VERSION' of the playlist.
+	 * @return the plan.
+	 */
+	private Plan planFor(PlaylistType type, int version) {
+		int planned = Math.min(version, MAX_PLANNED_VERSION);
+		Integer key = (type == PlaylistType.MEDIA) ? planned : -planned;
+
+		Plan plan = versionPlans.get(key);
+		if(plan == null) {
+			plan = new Plan(this, type, planned);
+			versionPlans.put(key, plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * versionOf() finds the 'EXT-X-VERSION' of a playlist in it's header.  A playlist
+	 * 	without one is version 1.
+	 *
+	 * @param contents the content of the playlist.
+	 * @return the protocol version.
+	 */
+	static int versionOf(List<String> contents) {
+		if(contents == null) {
+			return 1;
+		}
+
+		for(String line : contents) {
+			if(line.startsWith("#EXT-X-VERSION:")) {
+				int version = (int) ValidationUtils.parseDecimal(line, 15, line.length());
+				return (version > 0) ? version : 1;
+			}
+			if(!line.isEmpty() && line.charAt(0) != '#') {
+				//The version applies to the whole playlist, so it is given before the first URI
+				break;
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * scan() hands every line of the content to the rules subscribed to it.  Lines
+	 * 	classified when they were read are not classified again.
+	 *
+	 * @param plan the plan for the type of playlist.
+	 * @param context the context of the playlist.
+	 * @param contents the content of the playlist.
+	 */
+	private static void scan(Plan plan, RuleContext context, List<String> contents) {
+		ValidationRule[] rules = plan.rules;
+
+		for(int r : plan.streaming) {
+			context.select(r);
+			try {
+				rules[r].begin(context);
+			} catch(RuntimeException e) {
+				failed(rules[r], context, e);
+			}
+		}
+
+		ClassifiedLines classified = (contents instanceof ClassifiedLines && ((ClassifiedLines) contents).isClassified())
+				? (ClassifiedLines) contents : null;
+		LineClassifier classifier = new LineClassifier();
+		int lineNum = 0;
+		for(String line : contents) {
+			LineType type = (classified == null) ? null : classified.getType(lineNum);
+			int nameEnd;
+			if(type != null) {
+				nameEnd = classified.getNameEnd(lineNum);
+			} else {
+				type = classifier.classify(line);
+				nameEnd = classifier.getNameEnd();
+			}
+			lineNum++;
+
+			if(type == LineType.TAG_TYPE) {
+				if(!plan.tagged) {
+					continue;
+				}
+
+				String tag = plan.tagNames.find(line, nameEnd);
+				dispatch(rules, plan.allTags, context, lineNum, line, type, tag);
+
+				int[] subscribers = plan.byTag.get(tag);
+				if(subscribers != null) {
+					dispatch(rules, subscribers, context, lineNum, line, type, tag);
+				}
+			} else {
+				dispatch(rules, plan.byLineType[type.ordinal()], context, lineNum, line, type, null);
+			}
+		}
+
+		for(int r : plan.streaming) {
+			if(context.hasFailed(r)) {
+				continue;
+			}
+
+			context.select(r);
+			try {
+				rules[r].end(context);
+			} catch(RuntimeException e) {
+				failed(rules[r], context, e);
+			}
+		}
+	}
+
+	private static void dispatch(ValidationRule[] rules, int[] subscribers, RuleContext context,
+			int lineNum, String line, LineType type, String tag) {
+		for(int r : subscribers) {
+			if(context.hasFailed(r)) {
+				continue;
+			}
+
+			context.select(r);
+			try {
+				rules[r].onLine(context, lineNum, line, type, tag);
+			} catch(RuntimeException e) {
+				failed(rules[r], context, e);
+			}
+		}
+	}
+
+	/**
+	 * failed() logs the failure of a rule on a playlist.  The rule is not run on the rest
+	 * 	of the playlist; the findings of every other rule are still reported.
+	 *
+	 * @param rule the rule that failed.
+	 * @param context the context of the playlist, with the rule current.
+	 * @param e what the rule threw.
+	 */
+	private static void failed(ValidationRule rule, RuleContext context, RuntimeException e) {
+		context.fail();
+		logger.error("Rule {} failed on {}", rule.getName(), context.getPlaylist().getStrURL(), e);
+	}
+
+	/**
+	 * TagNames finds the name of a tag line among the known tag names without making a
+	 * 	string of it, in an open addressing table probed with the hash of the name's
+	 * 	characters.  Only names that are not known are made into strings.
+	 */
+	private static final class TagNames {
+		private final String[] table;
+		private final int mask;
+
+		TagNames(Set<String> names) {
+			int size = Integer.highestOneBit(Math.max(4, names.size() * 4));
+			table = new String[size];
+			mask = size - 1;
+
+			for(String name : names) {
+				int slot = spread(name.hashCode()) & mask;
+				while(table[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = name;
+			}
+		}
+
+		/**
+		 * find() returns the name of a tag line, after it's '#' and up to nameEnd.
+		 */
+		String find(String line, int nameEnd) {
+			int length = nameEnd - 1;
+			int hash = 0;
+			for(int i = 1; i < nameEnd; i++) {
+				hash = 31 * hash + line.charAt(i);
+			}
+
+			for(int slot = spread(hash) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+				String name = table[slot];
+				if(name.length() == length && line.startsWith(name, 1)) {
+					return name;
+				}
+			}
+
+			return line.substring(1, nameEnd);
+		}
+
+		private static int spread(int hash) {
+			return hash ^ (hash >>> 16);
+		}
+	}
+
+	/**
+	 * Plan holds which rules apply to a type of playlist and which lines each wants.
+	 * 	Rules are referred to by their position in 'rules', which is also the order
+	 * 	their findings are reported in.
+	 */
+	private static final class Plan {
+		private static final int[] NONE = new int[0];
+		private static final String[] SEVERITIES = { "FATAL", "SEVERE", "MINOR", "WARNING" };
+
+		final ValidationRule[] rules;
+		final String[] severities;
+		final int[] streaming;
+		final int[] document;
+		final int[] allTags;
+		final Map<String, int[]> byTag = new HashMap<String, int[]>();
+		final int[][] byLineType = new int[LineType.values().length][];
+		final boolean tagged;
+		final TagNames tagNames;
+
+		final LatencyHistogram validationTime;
+		final LatencyHistogram scanTime;
+		final LatencyHistogram[] ruleTimes;
+		final Counter validated;
+		final Counter[][] findings;
+
+		/**
+		 * @param engine the engine with the rules and their settings.
+		 * @param type the type of playlist.
+		 * @param version the 'EXT-X-VERSION' of the playlist or 0 if no rule depends on it.
+		 */
+		Plan(RuleEngine engine, PlaylistType type, int version) {
+			List<ValidationRule> applicable = new ArrayList<ValidationRule>();
+			List<String> applicableSeverities = new ArrayList<String>();
+			for(int r = 0; r < engine.rules.size(); r++) {
+				ValidationRule rule = engine.rules.get(r);
+				boolean inVersion = version == 0 || (version >= engine.minVersions[r] && version <= engine.maxVersions[r]);
+
+				if(inVersion && rule.getPlaylistTypes().contains(type)) {
+					applicable.add(rule);
+					applicableSeverities.add(engine.severities[r]);
+				}
+			}
+			rules = applicable.toArray(new ValidationRule[applicable.size()]);
+			severities = applicableSeverities.toArray(new String[applicableSeverities.size()]);
+
+			List<Integer> streamingRules = new ArrayList<Integer>();
+			List<Integer> documentRules = new ArrayList<Integer>();
+			List<Integer> allTagRules = new ArrayList<Integer>();
+			Map<String, List<Integer>> tagRules = new HashMap<String, List<Integer>>();
+			Map<LineType, List<Integer>> lineTypeRules = new EnumMap<LineType, List<Integer>>(LineType.class);
+
+			for(int r = 0; r < rules.length; r++) {
+				ValidationRule rule = rules[r];
+				boolean allTagsWanted = rule.getTags().containsAll(ValidationRule.ALL_TAGS)
+						|| rule.getLineTypes().contains(LineType.TAG_TYPE);
+
+				if(allTagsWanted) {
+					allTagRules.add(r);
+				} else {
+					for(String tag : rule.getTags()) {
+						List<Integer> subscribers = tagRules.get(tag);
+						if(subscribers == null) {
+							subscribers = new ArrayList<Integer>();
+							tagRules.put(tag, subscribers);
+						}
+						subscribers.add(r);
+					}
+				}
+
+				for(LineType lineType : rule.getLineTypes()) {
+					if(lineType != LineType.TAG_TYPE) {
+						List<Integer> subscribers = lineTypeRules.get(lineType);
+						if(subscribers == null) {
+							subscribers = new ArrayList<Integer>();
+							lineTypeRules.put(lineType, subscribers);
+						}
+						subscribers.add(r);
+					}
+				}
+
+				if(allTagsWanted || !rule.getTags().isEmpty() || !rule.getLineTypes().isEmpty()) {
+					streamingRules.add(r);
+				}
+				if(rule.needsDocument()) {
+					documentRules.add(r);
+				}
+			}
+
+			streaming = toArray(streamingRules);
+			document = toArray(documentRules);
+			allTags = toArray(allTagRules);
+			for(Map.Entry<String, List<Integer>> entry : tagRules.entrySet()) {
+				byTag.put(entry.getKey(), toArray(entry.getValue()));
+			}
+			for(LineType lineType : LineType.values()) {
+				byLineType[lineType.ordinal()] = lineTypeRules.containsKey(lineType) ? toArray(lineTypeRules.get(lineType)) : NONE;
+			}
+			tagged = allTags.length > 0 || !byTag.isEmpty();
+
+			Set<String> names = ValidationUtils.getKnownTags();
+			names.addAll(byTag.keySet());
+			tagNames = new TagNames(names);
+
+			String typeLabel = type.name().toLowerCase();
+			validationTime = Metrics.histogram("hls_validation_seconds", "type", typeLabel);
+			scanTime = Metrics.histogram("hls_scan_seconds", "type", typeLabel);
+			validated = Metrics.counter("hls_playlists_validated_total", "type", typeLabel);
+			ruleTimes = new LatencyHistogram[rules.length];
+			findings = new Counter[rules.length][SEVERITIES.length];
+			for(int r = 0; r < rules.length; r++) {
+				//Line rules share the scan; they are not timed one by one
+				if(rules[r].needsDocument()) {
+					ruleTimes[r] = Metrics.histogram("hls_rule_seconds", "rule", rules[r].getName());
+				}
+				for(int level = 0; level < SEVERITIES.length; level++) {
+					findings[r][level] = Metrics.counter("hls_findings_total", "rule", rules[r].getName(), "severity", SEVERITIES[level]);
+				}
+			}
+		}
+
+		/**
+		 * count() counts a validated playlist and it's findings by rule and severity.
+		 *
+		 * @param context the context of the validated playlist.
+		 */
+		void count(RuleContext context) {
+			validated.increment();
+
+			for(int i = 0; i < context.getFindingCount(); i++) {
+				String err = context.getFinding(i);
+
+				//Built as '[LEVEL | line N: message'
+				for(int level = 0; level < SEVERITIES.length; level++) {
+					if(err.startsWith(SEVERITIES[level], 1)) {
+						findings[context.getRule(i)][level].increment();
+						break;
+					}
+				}
+			}
+		}
+
+		private static int[] toArray(List<Integer> list) {
+			if(list.isEmpty()) {
+				return NONE;
+			}
+
+			int[] array = new int[list.size()];
+			for(int i = 0; i < array.length; i++) {
+				array[i] = list.get(i);
+			}
+			return array;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package edu.psgv.sweng.validation;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * RuleProfile is a named selection of the validation rules with their settings, for
+ * 	validating against a particular target (an authoring spec, older devices, house
+ * 	rules).  Profiles are read from a properties file; for a profile named 'p':
+ *
+ * 		p.extends=<profile>             start from the settings of another profile
+ * 		p.<Rule>=on|off                 enable or disable a rule (rules are on by default)
+ * 		p.<Rule>.severity=<level>       report every finding of the rule at FATAL, SEVERE, MINOR or WARNING
+ * 		p.<Rule>.versions=<min>-<max>   only run the rule on playlists of these 'EXT-X-VERSION's
+ * 		                                (either end may be left out)
+ *
+ * 	Rules are named as in ValidationRule.getName().  The profiles shipped with the
+ * 	application are in 'rule-profiles.properties' on the classpath.
+ *
+ * @author Ryan McDonald
+ */
+public class RuleProfile {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final String DEFAULT_PROFILE = "default";
+	public static final String DEFAULT_RESOURCE = "rule-profiles.properties";
+
+	private static final Set<String> SEVERITIES = new HashSet<String>(Arrays.asList("FATAL", "SEVERE", "MINOR", "WARNING"));
+
+	private final String name;
+	private final Map<String, Boolean> enabled = new HashMap<String, Boolean>();
+	private final Map<String, String> severities = new HashMap<String, String>();
+	private final Map<String, int[]> versions = new HashMap<String, int[]>();
+
+	/**
+	 * Constructor for a profile with every rule enabled as declared.
+	 *
+	 * @param name the name of the profile.
+	 */
+	public RuleProfile(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * load() reads a profile from a profiles file, or from the profiles shipped on the
+	 * 	classpath.  The default profile is always available, even when not in the file.
+	 *
+	 * @param name the name of the profile.
+	 * @param path the path of the profiles file or null for the shipped profiles.
+	 * @return the profile.
+	 * @throws IllegalArgumentException if the file cannot be read, the profile is
+	 * 		unknown or one of it's settings is invalid.
+	 */
+	public static RuleProfile load(String name, String path) {
+		logger.debug("in>> load()");
+
+		Properties properties = new Properties();
+		try(InputStream in = (path == null) ? RuleProfile.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)
+				: new FileInputStream(path)) {
+			if(in != null) {
+				properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+			} else {
+				logger.warn("No rule profiles found on the classpath ({}).", DEFAULT_RESOURCE);
+			}
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to read rule profiles '" + path + "': " + e.getMessage());
+		}
+
+		RuleProfile profile = fromProperties(name, properties);
+
+		logger.debug("<<out load()");
+		return profile;
+	}
+
+	/**
+	 * fromProperties() builds a profile from loaded profile properties.
+	 *
+	 * @param name the name of the profile.
+	 * @param properties the profile properties.
+	 * @return the profile.
+	 * @throws IllegalArgumentException if the profile is unknown or one of it's settings is invalid.
+	 */
+	public static RuleProfile fromProperties(String name, Properties properties) {
+		//The chain of profiles, most general first
+		List<String> chain = new ArrayList<String>();
+		for(String current = name; current != null && !current.isEmpty(); current = properties.getProperty(current + ".extends")) {
+			if(chain.contains(current)) {
+				throw new IllegalArgumentException("Rule profile '" + current + "' extends itself.");
+			}
+			if(!current.equals(DEFAULT_PROFILE) && !isDefined(current, properties)) {
+				throw new IllegalArgumentException("Unknown rule profile '" + current + "'.");
+			}
+			chain.add(0, current);
+		}
+
+		RuleProfile profile = new RuleProfile(name);
+		for(String current : chain) {
+			String prefix = current + ".";
+
+			for(String key : properties.stringPropertyNames()) {
+				if(key.startsWith(prefix) && !key.equals(prefix + "extends")) {
+					profile.apply(key.substring(prefix.length()), properties.getProperty(key).trim());
+				}
+			}
+		}
+
+		return profile;
+	}
+
+	/**
+	 * isDefined() returns whether the properties contain any setting of a profile.
+	 */
+	private static boolean isDefined(String name, Properties properties) {
+		for(String key : properties.stringPropertyNames()) {
+			if(key.startsWith(name + ".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * apply() applies one setting of the profile: '<Rule>', '<Rule>.severity' or '<Rule>.versions'.
+	 */
+	private void apply(String setting, String value) {
+		int dot = setting.indexOf('.');
+		String rule = (dot < 0) ? setting : setting.substring(0, dot);
+		String attribute = (dot < 0) ? "" : setting.substring(dot + 1);
+
+		if(attribute.isEmpty()) {
+			if(value.equalsIgnoreCase("on")) {
+				enabled.put(rule, Boolean.TRUE);
+			} else if(value.equalsIgnoreCase("off")) {
+				enabled.put(rule, Boolean.FALSE);
+			} else {
+				throw new IllegalArgumentException("Rule '" + rule + "' of profile '" + name + "' must be 'on' or 'off'.");
+			}
+
+		} else if(attribute.equals("severity")) {
+			String severity = value.toUpperCase();
+			if(!SEVERITIES.contains(severity)) {
+				throw new IllegalArgumentException("Unknown severity '" + value + "' for rule '" + rule + "' of profile '" + name + "'.");
+			}
+			severities.put(rule, severity);
+
+		} else if(attribute.equals("versions")) {
+			versions.put(rule, parseVersions(rule, value));
+
+		} else {
+			throw new IllegalArgumentException("Unknown setting '" + attribute + "' for rule '" + rule + "' of profile '" + name + "'.");
+		}
+	}
+
+	/**
+	 * parseVersions() parses a range of protocol versions such as '1-6', '7-' or '4'.
+	 */
+	private int[] parseVersions(String rule, String value) {
+		int dash = value.indexOf('-');
+		String min = (dash < 0) ? value : value.substring(0, dash).trim();
+		String max = (dash < 0) ? value : value.substring(dash + 1).trim();
+
+		try {
+			int[] range = { min.isEmpty() ? 1 : Integer.parseInt(min), max.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(max) };
+			if(range[0] <= range[1]) {
+				return range;
+			}
+		} catch(NumberFormatException e) {
+			//Reported below
+		}
+
+		throw new IllegalArgumentException("Invalid versions '" + value + "' for rule '" + rule + "' of profile '" + name + "'.");
+	}
+
+	/**
+	 * getName() returns the name of the profile.
+	 *
+	 * @return the profile's name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * getConfiguredRules() returns the names of every rule the profile has a setting for.
+	 *
+	 * @return the rule names.
+	 */
+	public Set<String> getConfiguredRules() {
+		Set<String> rules = new HashSet<String>(enabled.keySet());
+		rules.addAll(severities.keySet());
+		rules.addAll(versions.keySet());
+		return rules;
+	}
+
+	/**
+	 * isEnabled() returns whether a rule runs in this profile.
+	 *
+	 * @param rule the rule.
+	 * @return whether the rule is enabled.
+	 */
+	public boolean isEnabled(ValidationRule rule) {
+		Boolean on = enabled.get(rule.getName());
+		return on == null || on.booleanValue();
+	}
+
+	/**
+	 * getSeverity() returns the level every finding of a rule is reported at.
+	 *
+	 * @param rule the rule.
+	 * @return the level or null to keep the rule's own levels.
+	 */
+	public String getSeverity(ValidationRule rule) {
+		return severities.get(rule.getName());
+	}
+
+	/**
+	 * getMinVersion() returns the lowest 'EXT-X-VERSION' a rule runs on in this profile.
+	 *
+	 * @param rule the rule.
+	 * @return the lowest protocol version.
+	 */
+	public int getMinVersion(ValidationRule rule) {
+		int[] range = versions.get(rule.getName());
+		return (range == null) ? rule.getMinVersion() : range[0];
+	}
+
+	/**
+	 * getMaxVersion() returns the highest 'EXT-X-VERSION' a rule runs on in this profile.
+	 *
+	 * @param rule the rule.
+	 * @return the highest protocol version.
+	 */
+	public int getMaxVersion(ValidationRule rule) {
+		int[] range = versions.get(rule.getName());
+		return (range == null) ? rule.getMaxVersion() : range[1];
+	}
+}
@@ -0,0 +1,220 @@
+package edu.psgv.sweng.validation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SegmentTimeline holds the media segments of a Media Playlist as primitive arrays,
+ * 	indexed by position: each segment's 'EXTINF' duration (and the line of that tag),
+ * 	it's 'EXT-X-PROGRAM-DATE-TIME' and whether a discontinuity precedes it.  Segment i
+ * 	has media sequence number getMediaSequence() + i.
+ *
+ * 	A timeline is built in a single scan of the playlist so that rules comparing
+ * 	segments (across variants, over time) do not have to re-read any strings; a
+ * 	MediaPlaylist builds it's timeline once and shares it between those rules.  The
+ * 	scan does not allocate per segment, so it is suitable for playlists of millions of
+ * 	segments.
+ *
+ * @author Ryan McDonald
+ */
+public class SegmentTimeline {
+
+	/* Date and time of segments without an 'EXT-X-PROGRAM-DATE-TIME' tag */
+	public static final long NO_DATE_TIME = Long.MIN_VALUE;
+
+	private long mediaSequence = 0;
+	private long discontinuitySequence = 0;
+	private double targetDuration = -1.0;
+	private int count = 0;
+	private double[] durations;
+	private int[] durationLines;
+	private long[] programDateTimes;
+	private boolean[] discontinuities;
+
+	/* 'EXTINF' tags that are not followed by a segment URI before the next 'EXTINF' */
+	private int orphanCount = 0;
+	private double[] orphanDurations = new double[0];
+	private int[] orphanLines = new int[0];
+
+	private SegmentTimeline(int capacity) {
+		durations = new double[capacity];
+		durationLines = new int[capacity];
+		programDateTimes = new long[capacity];
+		discontinuities = new boolean[capacity];
+	}
+
+	/**
+	 * scan() builds the timeline of a Media Playlist.  Segments without a (valid)
+	 * 	'EXTINF' duration have a duration of NaN; segments without their own
+	 * 	'EXT-X-PROGRAM-DATE-TIME' have a date and time of NO_DATE_TIME.
+	 *
+	 * @param contents the contents of the Media Playlist.
+	 * @return the timeline of the playlist's segments.
+	 */
+	public static SegmentTimeline scan(List<String> contents) {
+		SegmentTimeline timeline = new SegmentTimeline(contents.size() / 2 + 1);
+
+		double duration = Double.NaN;
+		int durationLine = 0;
+		long programDateTime = NO_DATE_TIME;
+		boolean discontinuity = false;
+		int lineNum = 0;
+
+		for(String line : contents) {
+			lineNum++;
+			LineType type = ValidationUtils.getLineType(line);
+
+			if(type == LineType.URI_TYPE) {
+				timeline.add(duration, durationLine, programDateTime, discontinuity);
+				duration = Double.NaN;
+				durationLine = 0;
+				programDateTime = NO_DATE_TIME;
+				discontinuity = false;
+
+			} else if(type == LineType.TAG_TYPE) {
+				if(line.startsWith("#EXTINF") && (line.length() == 7 || line.charAt(7) == ':')) {
+					if(durationLine != 0) {
+						timeline.addOrphan(duration, durationLine);
+					}
+
+					//A bare 'EXTINF' tag has no duration
+					if(line.length() == 7) {
+						duration = Double.NaN;
+					} else {
+						int comma = line.indexOf(',', 8);
+						duration = ValidationUtils.parseDecimal(line, 8, comma < 0 ? line.length() : comma);
+					}
+					durationLine = lineNum;
+				} else if(line.startsWith("#EXT-X-PROGRAM-DATE-TIME:")) {
+					programDateTime = ValidationUtils.parseDateTime(line, 25);
+				} else if(line.equals("#EXT-X-DISCONTINUITY")) {
+					discontinuity = true;
+				} else if(line.startsWith("#EXT-X-MEDIA-SEQUENCE:")) {
+					timeline.mediaSequence = (long) Math.max(0, ValidationUtils.getDuration(line));
+				} else if(line.startsWith("#EXT-X-DISCONTINUITY-SEQUENCE:")) {
+					timeline.discontinuitySequence = (long) Math.max(0, ValidationUtils.getDuration(line));
+				} else if(line.startsWith("#EXT-X-TARGETDURATION:")) {
+					timeline.targetDuration = ValidationUtils.getDuration(line);
+				}
+			}
+		}
+
+		if(durationLine != 0) {
+			timeline.addOrphan(duration, durationLine);
+		}
+
+		return timeline;
+	}
+
+	public long getMediaSequence() {
+		return mediaSequence;
+	}
+
+	/**
+	 * getEndMediaSequence() returns the media sequence number following the last segment.
+	 *
+	 * @return the media sequence number after the timeline.
+	 */
+	public long getEndMediaSequence() {
+		return mediaSequence + count;
+	}
+
+	public long getDiscontinuitySequence() {
+		return discontinuitySequence;
+	}
+
+	public double getTargetDuration() {
+		return targetDuration;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public double getDuration(int index) {
+		return durations[index];
+	}
+
+	/**
+	 * getDurationLine() returns the line of the segment's 'EXTINF' tag.
+	 *
+	 * @param index the position of the segment.
+	 * @return the 1-based line number, or 0 if the segment has no 'EXTINF' tag.
+	 */
+	public int getDurationLine(int index) {
+		return durationLines[index];
+	}
+
+	/**
+	 * getProgramDateTime() returns the segment's 'EXT-X-PROGRAM-DATE-TIME'.
+	 *
+	 * @param index the position of the segment.
+	 * @return milliseconds since the epoch, or NO_DATE_TIME.
+	 */
+	public long getProgramDateTime(int index) {
+		return programDateTimes[index];
+	}
+
+	/**
+	 * getOrphanCount() returns the number of 'EXTINF' tags that do not belong to a segment
+	 * 	(they are followed by another 'EXTINF' or the end of the playlist, not a URI).
+	 *
+	 * @return the number of orphaned 'EXTINF' tags.
+	 */
+	public int getOrphanCount() {
+		return orphanCount;
+	}
+
+	public double getOrphanDuration(int index) {
+		return orphanDurations[index];
+	}
+
+	public int getOrphanLine(int index) {
+		return orphanLines[index];
+	}
+
+	public boolean isDiscontinuity(int index) {
+		return discontinuities[index];
+	}
+
+	/**
+	 * getTotalDuration() returns the sum of all segment durations.
+	 *
+	 * @return the duration of the playlist in seconds, or NaN if a segment has no (valid) duration.
+	 */
+	public double getTotalDuration() {
+		double total = 0;
+
+		for(int i = 0; i < count; i++) {
+			total += durations[i];
+		}
+
+		return total;
+	}
+
+	private void add(double duration, int durationLine, long programDateTime, boolean discontinuity) {
+		if(count == durations.length) {
+			durations = Arrays.copyOf(durations, count * 2);
+			durationLines = Arrays.copyOf(durationLines, count * 2);
+			programDateTimes = Arrays.copyOf(programDateTimes, count * 2);
+			discontinuities = Arrays.copyOf(discontinuities, count * 2);
+		}
+
+		durations[count] = duration;
+		durationLines[count] = durationLine;
+		programDateTimes[count] = programDateTime;
+		discontinuities[count] = discontinuity;
+		count++;
+	}
+
+	private void addOrphan(double duration, int line) {
+		if(orphanCount == orphanDurations.length) {
+			orphanDurations = Arrays.copyOf(orphanDurations, orphanCount * 2 + 4);
+			orphanLines = Arrays.copyOf(orphanLines, orphanCount * 2 + 4);
+		}
+
+		orphanDurations[orphanCount] = duration;
+		orphanLines[orphanCount] = line;
+		orphanCount++;
+	}
+}
@@ -1,158 +1,147 @@
 package edu.psgv.sweng.validation;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Set;
 
-import edu.psgv.sweng.playlist.MasterPlaylist;
-import edu.psgv.sweng.playlist.MediaPlaylist;
 import edu.psgv.sweng.playlist.PlaylistType;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
+/**
+ * TagContextValidator validates the context of every tag in a playlist as the
+ * 	RuleEngine scans it.
+ */
 public class TagContextValidator extends Validator{
-	/* LOGGER */
-	private static final Logger logger = LogManager.getLogger();
-	
 	private static HashMap<String, String> errMap = new HashMap<>();
 
+	/* Every tag and lines of whitespace */
+	private static final Set<LineType> LINE_TYPES = Collections.unmodifiableSet(EnumSet.of(LineType.TAG_TYPE, LineType.ERROR_TYPE));
+
 	/**
-	 * validateMediaPlaylist() will validate a MEDIA Playlist for any errors
-	 * 	related to tag context.  This includes tag mismatch errors, unknown tags, 
-	 * 	deprecated tags, duplicate tags that should not be duplicated, unnecessary 
-	 * 	whitespace, etc.
-	 * 
-	 * @param playlist the Media Playlist.
-	 * @return a list of errors.
+	 * getLineTypes() subscribes to every tag and to lines of whitespace.
+	 *
+	 * @return the subscribed line types.
 	 */
-	public List<String> validateMediaPlaylist(MediaPlaylist playlist) {
-		ArrayList<String> errors = new ArrayList<String>();
-		
-		List<String> contents = playlist.getContents();
-		if(contents == null || contents.isEmpty()) {
-			logger.error("The playlist being validated does not contain any content!");
-			logger.debug("<<out validateMediaPlaylist()");
-			return errors;
+	@Override
+	public Set<LineType> getLineTypes() {
+		return LINE_TYPES;
+	}
+
+	/**
+	 * needsDocument() returns false: tag context is validated line by line.
+	 *
+	 * @return false.
+	 */
+	@Override
+	public boolean needsDocument() {
+		return false;
+	}
+
+	/**
+	 * begin() starts the counts of tags that must not be duplicated.
+	 *
+	 * @param context the context of the playlist being validated.
+	 */
+	@Override
+	public void begin(RuleContext context) {
+		context.setState(new TagCounts());
+	}
+
+	/**
+	 * onLine() will validate a line of a playlist for any errors related to tag
+	 * 	context.  This includes tag mismatch errors, unknown tags, deprecated tags,
+	 * 	duplicate tags that should not be duplicated, unnecessary whitespace, etc.
+	 *
+	 * @param context the context of the playlist being validated.
+	 * @param lineNum the 1-based number of the line.
+	 * @param line the line of content.
+	 * @param type the type of the line.
+	 * @param tag the name of the tag or null.
+	 */
+	@Override
+	public void onLine(RuleContext context, int lineNum, String line, LineType type, String tag) {
+		if(type == LineType.ERROR_TYPE) {
+			context.report(lineNum, "MINOR", errMap.get("whitespace"));
+		} else if(context.getPlaylistType() == PlaylistType.MEDIA) {
+			validateMediaTag(context, (TagCounts) context.getState(), lineNum, line);
+		} else {
+			validateMasterTag(context, (TagCounts) context.getState(), lineNum, line);
 		}
-		
-		int lineNum = 0;
-		int numOfDurations = 0;
-		int numOfVersions = 0;
-
-		for(String line : contents) {
-			LineType type = ValidationUtils.getLineType(line);
-
-			switch(type) {
-				case TAG_TYPE:
-
-					if(ValidationUtils.isTargetDuration(line)) {
-						numOfDurations++;
-
-						if(numOfDurations > 1) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "FATAL", errMap.get("manyTargetDurations")));
-						}
-						
-					} else if (ValidationUtils.isVersionTag(line)) {
-						numOfVersions++;
-						
-						if(numOfVersions > 1) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "FATAL", errMap.get("manyVersions")));
-						}
-						
-					} else if(lineNum > 0 && !ValidationUtils.isCorrectPlaylistTag(PlaylistType.MEDIA, line)) {
-						if(ValidationUtils.isDeprecatedTag(line)) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "WARNING", errMap.get("deprecated")));
-						} else if(ValidationUtils.isBogusTag(PlaylistType.MEDIA, line)) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "WARNING", errMap.get("bogusTag") + "'" + ValidationUtils.getTagValue(line) +"'."));
-						} else {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "SEVERE", "Media Playlist must not contain Master Playlist tag: '" + ValidationUtils.getTagValue(line) + "'."));
-						}
-					}
-
-					break;
-				case ERROR_TYPE:
-					errors.add(Validator.buildErrorMessage(lineNum + 1, "MINOR", errMap.get("whitespace")));
-					
-					break;
-				case URI_TYPE:
-					//No need at this time.
-					break;
-				case COMMENT_TYPE:
-					//No need at this time.
-					break;
+	}
+
+	/**
+	 * validateMediaTag() validates a tag of a MEDIA Playlist.
+	 *
+	 * @param context the context of the playlist being validated.
+	 * @param counts the counts of tags so far.
+	 * @param lineNum the 1-based number of the line.
+	 * @param line the tag line.
+	 */
+	private static void validateMediaTag(RuleContext context, TagCounts counts, int lineNum, String line) {
+		if(ValidationUtils.isTargetDuration(line)) {
+			counts.durations++;
+
+			if(counts.durations > 1) {
+				context.report(lineNum, "FATAL", errMap.get("manyTargetDurations"));
 			}
 
-			lineNum++;
+		} else if (ValidationUtils.isVersionTag(line)) {
+			counts.versions++;
+
+			if(counts.versions > 1) {
+				context.report(lineNum, "FATAL", errMap.get("manyVersions"));
+			}
+
+		} else if(lineNum > 1 && !ValidationUtils.isCorrectPlaylistTag(PlaylistType.MEDIA, line)) {
+			if(ValidationUtils.isDeprecatedTag(line)) {
+				context.report(lineNum, "WARNING", errMap.get("deprecated"));
+			} else if(ValidationUtils.isBogusTag(PlaylistType.MEDIA, line)) {
+				context.report(lineNum, "WARNING", errMap.get("bogusTag") + "'" + ValidationUtils.getTagValue(line) +"'.");
+			} else {
+				context.report(lineNum, "SEVERE", "Media Playlist must not contain Master Playlist tag: '" + ValidationUtils.getTagValue(line) + "'.");
+			}
 		}
-		
-		return errors;
 	}
-	
+
 	/**
-	 * validateMediaPlaylist() will validate a MASTER Playlist for any errors
-	 * 	related to tag context.  This includes tag mismatch errors, unknown tags, 
-	 * 	deprecated tags, duplicate tags that should not be duplicated, unnecessary 
-	 * 	whitespace, etc.
-	 * 
-	 * @param playlist the Master Playlist.
-	 * @return a list of errors.
+	 * validateMasterTag() validates a tag of a MASTER Playlist.
+	 *
+	 * @param context the context of the playlist being validated.
+	 * @param counts the counts of tags so far.
+	 * @param lineNum the 1-based number of the line.
+	 * @param line the tag line.
 	 */
-	public List<String> validateMasterPlaylist(MasterPlaylist playlist) {
-		ArrayList<String> errors = new ArrayList<String>();
+	private static void validateMasterTag(RuleContext context, TagCounts counts, int lineNum, String line) {
+		if(ValidationUtils.isVersionTag(line)) {
+			counts.versions++;
 
-		List<String> contents = playlist.getContents();
-		if(contents == null || contents.isEmpty()) {
-			return errors;
-		}
-		
-		int lineNum = 0;
-		int numOfVersions = 0;
-
-		for(String line : contents) {
-			LineType type = ValidationUtils.getLineType(line);
-
-			switch(type) {
-				case TAG_TYPE:
-					if(ValidationUtils.isVersionTag(line)) {
-						numOfVersions++;
-						
-						if(numOfVersions > 1) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "SEVERE", errMap.get("manyVersions")));
-						}
-					} else if (ValidationUtils.isVariantTag(line)) {
-						if(!ValidationUtils.hasBandwidthAttribute(line)) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "SEVERE", errMap.get("bandwidthMissing")));
-						}
-
-					} else if(lineNum > 0 && !ValidationUtils.isCorrectPlaylistTag(PlaylistType.MASTER, line)) {
-						if(ValidationUtils.isDeprecatedTag(line)) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "WARNING", errMap.get("deprecated")));
-						} else if(ValidationUtils.isBogusTag(PlaylistType.MASTER, line)) {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "WARNING", errMap.get("bogusTag") + "'" + ValidationUtils.getTagValue(line) +"'."));
-						} else {
-							errors.add(Validator.buildErrorMessage(lineNum + 1, "SEVERE", "Master Playlist must not contain Media Playlist tag: '" + ValidationUtils.getTagValue(line) + "'."));
-						}
-					}
-
-					break;
-				case ERROR_TYPE:
-					errors.add(Validator.buildErrorMessage(lineNum + 1, "MINOR", errMap.get("whitespace")));
-					
-					break;
-
-				case URI_TYPE:
-					//No need to process at this time.
-					break;
-				case COMMENT_TYPE:
-					//No need to process at this time.
-					break;
+			if(counts.versions > 1) {
+				context.report(lineNum, "SEVERE", errMap.get("manyVersions"));
+			}
+		} else if (ValidationUtils.isVariantTag(line)) {
+			if(!ValidationUtils.hasBandwidthAttribute(line)) {
+				context.report(lineNum, "SEVERE", errMap.get("bandwidthMissing"));
+			}
+
+		} else if(lineNum > 1 && !ValidationUtils.isCorrectPlaylistTag(PlaylistType.MASTER, line)) {
+			if(ValidationUtils.isDeprecatedTag(line)) {
+				context.report(lineNum, "WARNING", errMap.get("deprecated"));
+			} else if(ValidationUtils.isBogusTag(PlaylistType.MASTER, line)) {
+				context.report(lineNum, "WARNING", errMap.get("bogusTag") + "'" + ValidationUtils.getTagValue(line) +"'.");
+			} else {
+				context.report(lineNum, "SEVERE", "Master Playlist must not contain Media Playlist tag: '" + ValidationUtils.getTagValue(line) + "'.");
 			}
-			lineNum++;
 		}
-		
-		return errors;
 	}
-	
+
+	/**
+	 * TagCounts counts the tags of a playlist that must appear only once.
+	 */
+	private static final class TagCounts {
+		int durations;
+		int versions;
+	}
+
 	//Static block for populating error message map with respective error messages
 	static {
 		errMap.put("manyTargetDurations", "Media Playlist should not contain more than one 'EXT-X-TARGETDURATION' tag.");
@@ -0,0 +1,176 @@
+package edu.psgv.sweng.validation;
+
+import java.util.Arrays;
+
+/**
+ * TimingSummary is the timing analysis of a Media Playlist: it's total duration, the
+ * 	distribution of it's segment durations, how far 'EXT-X-PROGRAM-DATE-TIME' drifts
+ * 	from the segment durations and the gaps at discontinuities.
+ *
+ * @author Ryan McDonald
+ */
+public class TimingSummary {
+
+	private final int segmentCount;
+	private final double targetDuration;
+	private final double totalDuration;
+	private final double minDuration;
+	private final double p50Duration;
+	private final double p90Duration;
+	private final double p99Duration;
+	private final double maxDuration;
+	private final long maxDriftMillis;
+	private final int discontinuityGaps;
+	private final long maxGapMillis;
+
+	private TimingSummary(int segmentCount, double targetDuration, double totalDuration, double[] sorted,
+			long maxDriftMillis, int discontinuityGaps, long maxGapMillis) {
+		this.segmentCount = segmentCount;
+		this.targetDuration = targetDuration;
+		this.totalDuration = totalDuration;
+		this.minDuration = percentile(sorted, 0);
+		this.p50Duration = percentile(sorted, 50);
+		this.p90Duration = percentile(sorted, 90);
+		this.p99Duration = percentile(sorted, 99);
+		this.maxDuration = percentile(sorted, 100);
+		this.maxDriftMillis = maxDriftMillis;
+		this.discontinuityGaps = discontinuityGaps;
+		this.maxGapMillis = maxGapMillis;
+	}
+
+	/**
+	 * of() analyses the timing of a playlist's segments.
+	 *
+	 * 	Drift is measured between consecutive 'EXT-X-PROGRAM-DATE-TIME' tags of a
+	 * 	continuous run of segments: the later one should equal the earlier one plus the
+	 * 	durations of the segments in between.  Across a discontinuity the same difference
+	 * 	is a gap (or, when negative, an overlap) instead.
+	 *
+	 * @param timeline the segments of the playlist.
+	 * @return the timing summary.
+	 */
+	public static TimingSummary of(SegmentTimeline timeline) {
+		int count = timeline.getCount();
+		double[] sorted = new double[count];
+		int known = 0;
+		double total = 0;
+
+		long anchor = SegmentTimeline.NO_DATE_TIME;
+		double sinceAnchor = 0;
+		long maxDrift = 0;
+		int gaps = 0;
+		long maxGap = 0;
+
+		for(int i = 0; i < count; i++) {
+			double duration = timeline.getDuration(i);
+			long dateTime = timeline.getProgramDateTime(i);
+
+			if(dateTime != SegmentTimeline.NO_DATE_TIME) {
+				if(anchor != SegmentTimeline.NO_DATE_TIME) {
+					long difference = dateTime - (anchor + Math.round(sinceAnchor * 1000));
+
+					if(timeline.isDiscontinuity(i)) {
+						if(difference != 0) {
+							gaps++;
+							maxGap = Math.max(maxGap, Math.abs(difference));
+						}
+					} else {
+						maxDrift = Math.max(maxDrift, Math.abs(difference));
+					}
+				}
+
+				anchor = dateTime;
+				sinceAnchor = 0;
+			} else if(timeline.isDiscontinuity(i)) {
+				//The date and time after a discontinuity cannot be derived from the one before
+				anchor = SegmentTimeline.NO_DATE_TIME;
+			}
+
+			if(!Double.isNaN(duration)) {
+				sorted[known++] = duration;
+				total += duration;
+				sinceAnchor += duration;
+			}
+		}
+
+		sorted = Arrays.copyOf(sorted, known);
+		Arrays.sort(sorted);
+
+		return new TimingSummary(count, timeline.getTargetDuration(), total, sorted, maxDrift, gaps, maxGap);
+	}
+
+	/**
+	 * percentile() returns the nearest-rank percentile of sorted values, or NaN if there are none.
+	 */
+	private static double percentile(double[] sorted, int percent) {
+		if(sorted.length == 0) {
+			return Double.NaN;
+		}
+
+		int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+
+	public double getTargetDuration() {
+		return targetDuration;
+	}
+
+	public double getTotalDuration() {
+		return totalDuration;
+	}
+
+	public double getMinDuration() {
+		return minDuration;
+	}
+
+	public double getP50Duration() {
+		return p50Duration;
+	}
+
+	public double getP90Duration() {
+		return p90Duration;
+	}
+
+	public double getP99Duration() {
+		return p99Duration;
+	}
+
+	public double getMaxDuration() {
+		return maxDuration;
+	}
+
+	/**
+	 * getMaxDriftMillis() returns the largest difference between an 'EXT-X-PROGRAM-DATE-TIME'
+	 * 	and the one derived from the previous tag and the segment durations.
+	 *
+	 * @return the largest drift in milliseconds.
+	 */
+	public long getMaxDriftMillis() {
+		return maxDriftMillis;
+	}
+
+	/**
+	 * getDiscontinuityGaps() returns the number of discontinuities across which the date
+	 * 	and time does not continue from the segments before.
+	 *
+	 * @return the number of gaps (or overlaps).
+	 */
+	public int getDiscontinuityGaps() {
+		return discontinuityGaps;
+	}
+
+	public long getMaxGapMillis() {
+		return maxGapMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "segments=" + segmentCount + " total=" + totalDuration + "s p50=" + p50Duration + "s p90=" + p90Duration
+				+ "s p99=" + p99Duration + "s max=" + maxDuration + "s drift=" + maxDriftMillis + "ms gaps="
+				+ discontinuityGaps + " max_gap=" + maxGapMillis + "ms";
+	}
+}
@@ -1,16 +1,18 @@
 package edu.psgv.sweng.validation;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Set;
 
-import edu.psgv.sweng.playlist.MasterPlaylist;
-import edu.psgv.sweng.playlist.MediaPlaylist;
-import edu.psgv.sweng.playlist.Playlist;
 import edu.psgv.sweng.playlist.PlaylistType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * URISequenceValidator validates that every URI tag of a playlist is directly
+ * 	followed by it's URI as the RuleEngine scans it.
+ */
 public class URISequenceValidator extends Validator{
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
@@ -18,103 +20,64 @@ public class URISequenceValidator extends Validator{
 	/* Container for error messages */
 	private static HashMap<String, String> errMap = new HashMap<>();
 
+	/* Every line is needed to know whether the one after a URI tag is a URI */
+	private static final Set<LineType> LINE_TYPES = Collections.unmodifiableSet(EnumSet.allOf(LineType.class));
+
 	/**
-	 * validateMediaPlaylist() will validate a MEDIA Playlist for any errors
-	 * 	related to improper sequencing of URI tags and URIs that should directly
-	 * 	follow.
-	 * 
-	 * @param playlist the Media Playlist.
-	 * @return a list of errors.
+	 * getLineTypes() subscribes to every line.
+	 *
+	 * @return the subscribed line types.
 	 */
-	public List<String> validateMediaPlaylist(MediaPlaylist playlist) {
-		logger.debug("validateMediaPlaylist() deferring responsibilty to validatePlaylist()");
-
-		return validatePlaylist(playlist, PlaylistType.MEDIA);
+	@Override
+	public Set<LineType> getLineTypes() {
+		return LINE_TYPES;
 	}
-	
+
 	/**
-	 * validateMasterPlaylist() will validate a MASTER Playlist for any errors
-	 * 	related to improper sequencing of URI tags and URIs that should directly
-	 * 	follow.
-	 * 
-	 * @param playlist the Master Playlist.
-	 * @return a list of errors.
+	 * needsDocument() returns false: URI sequencing is validated line by line.
+	 *
+	 * @return false.
 	 */
-	public List<String> validateMasterPlaylist(MasterPlaylist playlist) {
-		logger.debug("validateMasterPlaylist() deferring responsibilty to validatePlaylist()");
-
-		return validatePlaylist(playlist, PlaylistType.MASTER);
+	@Override
+	public boolean needsDocument() {
+		return false;
 	}
-	
-	
+
 	/**
-	 * Performs the actual validation of the playlists.
-	 * 
-	 * @param playlist the playlist to be validated.
-	 * @param plType the type of playlist.
-	 * 
-	 * @return a list of errors.
+	 * onLine() will validate a line of a playlist for any errors related to improper
+	 * 	sequencing of URI tags and URIs that should directly follow.  The state of the
+	 * 	rule is whether the line should be a URI.
+	 *
+	 * @param context the context of the playlist being validated.
+	 * @param lineNum the 1-based number of the line.
+	 * @param line the line of content.
+	 * @param type the type of the line.
+	 * @param tag the name of the tag or null.
 	 */
-	private List<String> validatePlaylist(Playlist playlist, PlaylistType plType) {
-		logger.debug("in>> validatePlaylist()");
+	@Override
+	public void onLine(RuleContext context, int lineNum, String line, LineType type, String tag) {
+		PlaylistType plType = context.getPlaylistType();
+
+		if(context.getState() != null) {
+			if(type != LineType.URI_TYPE) {
+				String err = (plType == PlaylistType.MEDIA) ? errMap.get("errMsgMedia") : errMap.get("errMsgMaster");
 
-		ArrayList<String> errors = new ArrayList<String>();
+				context.report(lineNum, "FATAL", err);
+				logger.trace("Media segment file or Media Playlist file should have been found.");
+			}
 
-		List<String> contents = playlist.getContents();
-		if(contents == null || contents.isEmpty()) {
-			logger.error("The playlist being validated does not contain any content!");
-			logger.debug("<<out validatePlaylist()");
-			return errors;
+			context.setState(null);
 		}
-		
-		int lineNum = 0;
-		boolean shouldBeURI = false;
 
-		for(String line : contents) {
-			LineType type = ValidationUtils.getLineType(line);
+		if(type == LineType.TAG_TYPE) {
+			boolean shouldBeURI = (plType == PlaylistType.MEDIA) ? ValidationUtils.isMediaSegmentTag(line) : ValidationUtils.isVariantTag(line);
 
 			if(shouldBeURI) {
-				if(type != LineType.URI_TYPE) {
-					String err = (plType == PlaylistType.MEDIA) ? errMap.get("errMsgMedia") : errMap.get("errMsgMaster");
-					
-					errors.add(Validator.buildErrorMessage(lineNum + 1, "FATAL", err));
-					logger.trace("Media segment file or Media Playlist file should have been found.");
-				}
-
-				shouldBeURI = false;
-			}
-
-			switch(type) {
-				case COMMENT_TYPE:
-					break;
-				case URI_TYPE:
-					break;
-				case ERROR_TYPE:
-					break;
-					
-				case TAG_TYPE:
-					
-					if(plType == PlaylistType.MEDIA) {
-						if(ValidationUtils.isMediaSegmentTag(line)) {
-							shouldBeURI = true;
-						}
-						
-					} else {
-						if(ValidationUtils.isVariantTag(line)) {
-							shouldBeURI = true;
-						}
-					}
-
-					break;
+				context.setState(Boolean.TRUE);
 			}
-
-			lineNum++;
 		}
-		
-		logger.debug("<<out validatePlaylist()");
-		return errors;
 	}
-	
+
 	//Static block for populating error message map with respective error messages
 	static {
 		errMap.put("errMsgMedia", "Media Playlist must have media segment file on line after 'EXTINF' tag.");
@@ -0,0 +1,129 @@
+package edu.psgv.sweng.validation;
+
+import java.util.Collections;
+import java.util.Set;
+
+import edu.psgv.sweng.playlist.PlaylistType;
+
+/**
+ * ValidationRule is the service provider interface for validation rules.  Rules are
+ * 	discovered with java.util.ServiceLoader (listed in
+ * 	'META-INF/services/edu.psgv.sweng.validation.ValidationRule') and run by the
+ * 	RuleEngine.
+ *
+ * 	A rule declares what it needs up front: the playlist types it applies to, the
+ * 	tags and other line types it wants to receive while the engine scans a playlist,
+ * 	and whether it needs the whole document instead.  The engine fuses all line
+ * 	rules into a single scan of each playlist and never hands a rule a line it did
+ * 	not subscribe to.
+ *
+ * 	Rules are shared by every playlist (and thread); any state of a scan belongs in
+ * 	the RuleContext.
+ *
+ * @author Ryan McDonald
+ */
+public interface ValidationRule {
+
+	/* Subscribes to every tag */
+	Set<String> ALL_TAGS = Collections.singleton("*");
+
+	/**
+	 * getName() returns the name the rule is known by in profiles and reports.
+	 *
+	 * @return the rule's name.
+	 */
+	String getName();
+
+	/**
+	 * getPlaylistTypes() returns the types of playlists the rule applies to.
+	 *
+	 * @return MEDIA and/or MASTER.
+	 */
+	Set<PlaylistType> getPlaylistTypes();
+
+	/**
+	 * getTags() returns the names of the tags (without '#') the rule receives in
+	 * 	onLine(), or ALL_TAGS.
+	 *
+	 * @return the subscribed tags.
+	 */
+	default Set<String> getTags() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * getLineTypes() returns the types of lines other than tags the rule receives in
+	 * 	onLine() (URI_TYPE, COMMENT_TYPE, BLANK_TYPE, ERROR_TYPE).  TAG_TYPE subscribes to every tag.
+	 *
+	 * @return the subscribed line types.
+	 */
+	default Set<LineType> getLineTypes() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * needsDocument() returns whether the rule validates the whole document at once
+	 * 	in validateDocument() instead of (or as well as) line by line.
+	 *
+	 * @return whether validateDocument() should be called.
+	 */
+	default boolean needsDocument() {
+		return false;
+	}
+
+	/**
+	 * getMinVersion() returns the lowest 'EXT-X-VERSION' the rule applies to.  Profiles
+	 * 	may narrow or widen the range.
+	 *
+	 * @return the lowest protocol version (1 applies to every playlist).
+	 */
+	default int getMinVersion() {
+		return 1;
+	}
+
+	/**
+	 * getMaxVersion() returns the highest 'EXT-X-VERSION' the rule applies to.  Profiles
+	 * 	may narrow or widen the range.
+	 *
+	 * @return the highest protocol version.
+	 */
+	default int getMaxVersion() {
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * begin() is called before the scan of a playlist.
+	 *
+	 * @param context the context of the playlist being validated.
+	 */
+	default void begin(RuleContext context) {
+	}
+
+	/**
+	 * onLine() is called for every subscribed line of the playlist, in order.
+	 *
+	 * @param context the context of the playlist being validated.
+	 * @param lineNum the 1-based number of the line.
+	 * @param line the line of content.
+	 * @param type the type of the line.
+	 * @param tag the name of the tag (without '#') or null if the line is not a tag.
+	 */
+	default void onLine(RuleContext context, int lineNum, String line, LineType type, String tag) {
+	}
+
+	/**
+	 * end() is called after the scan of a playlist.
+	 *
+	 * @param context the context of the playlist being validated.
+	 */
+	default void end(RuleContext context) {
+	}
+
+	/**
+	 * validateDocument() is called once per playlist for rules that need the whole document.
+	 *
+	 * @param context the context of the playlist being validated.
+	 */
+	default void validateDocument(RuleContext context) {
+	}
+}
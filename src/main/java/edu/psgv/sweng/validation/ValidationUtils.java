@@ -3,6 +3,7 @@ package edu.psgv.sweng.validation;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,6 +15,9 @@ import edu.psgv.sweng.playlist.PlaylistType;
  * Validator provides a library of static methods for retrieving information from
  *  lines of a Playlist as well as validating content of a Playlist.
  *
+ *  The methods on single lines run for every line of every playlist, so they do not
+ *  log their entry and exit and only log with parameters (never concatenation).
+ *
  * @author Ryan McDonald
  */
 public class ValidationUtils {
@@ -21,6 +25,14 @@ public class ValidationUtils {
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
 	
+	/* Powers of ten that are exact as doubles, for parseDecimal() */
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+	};
+
+	/* Classifier splitting the tags attribute values are looked up in; one per thread */
+	private static final ThreadLocal<LineClassifier> classifiers = ThreadLocal.withInitial(LineClassifier::new);
+
 	/* Containers for known tag types */
 	private static HashSet<String> mediaPlaylistTags = new HashSet<String>();
 	private static HashSet<String> masterPlaylistTags = new HashSet<String>();
@@ -33,29 +45,7 @@ public class ValidationUtils {
 	 * @return the type of line
 	 */
 	public static LineType getLineType(String line) {
-		logger.debug("in>> getLineType()");
-
-		LineType type = null;
-
-		if(line.length() == 0) {
-			type = LineType.COMMENT_TYPE;
-
-		} else if(line.startsWith("#")) {
-			if(line.startsWith("#EXT")) {
-				type = LineType.TAG_TYPE;
-			} else {
-				type = LineType.COMMENT_TYPE;
-			}
-
-		} else if (line.trim().length() == 0) {
-			type = LineType.ERROR_TYPE;
-
-		} else {
-			type = LineType.URI_TYPE;
-		}
-
-		logger.debug("<<out getLineType()");
-		return type;
+		return LineClassifier.typeOf(line);
 	}
 
 	/**
@@ -65,8 +55,6 @@ public class ValidationUtils {
 	 * @return the value that the tag contains
 	 */
 	public static String getTagValue(String line) {
-		logger.debug("in>> getTagValue()");
-
 		int startPos = 0;
 		int endPos = line.length();
 
@@ -78,7 +66,6 @@ public class ValidationUtils {
 			endPos = (line.substring(startPos).indexOf(":") - (startPos == 0 ? 0 : -1));
 		}
 
-		logger.debug("<<out getTagValue()");
 		return line.substring(startPos, endPos);
 	}
 
@@ -90,8 +77,6 @@ public class ValidationUtils {
 	 * @return a list of attributes where each attribute contains it's key-value pair
 	 */
 	public static ArrayList<String> getAttributeList(String line) {
-		logger.debug("in>> getAttributeList()");
-
 		ArrayList<String> attList = new ArrayList<>();
 
 		int startPos = line.indexOf(":") >= 0 ? line.indexOf(":") + 1 : 0;
@@ -112,7 +97,6 @@ public class ValidationUtils {
 			}
 		}
 
-		logger.debug("<<out getAttributeList()");
 		return attList;
 	}
 
@@ -135,16 +119,118 @@ public class ValidationUtils {
 	 * @return whether or not a line of content is a Variant Tag
 	 */
 	public static boolean isVariantTag(String line) {
-		logger.debug("in>> isVariantTag()");
-
 		if(ValidationUtils.getTagValue(line).equals("EXT-X-STREAM-INF")) {
 			return true;
 		}
 
-		logger.debug("<<out isVariantTag()");
 		return false;
 	}
 
+	/**
+	 * isMediaTag() Checks if a line of content is a Media (alternate rendition) Tag
+	 *
+	 * @param line the line of content
+	 * @return whether or not a line of content is an 'EXT-X-MEDIA' Tag
+	 */
+	public static boolean isMediaTag(String line) {
+		return getTagValue(line).equals("EXT-X-MEDIA");
+	}
+
+	/**
+	 * isIFrameStreamTag() Checks if a line of content is an I-frame Stream Tag
+	 *
+	 * @param line the line of content
+	 * @return whether or not a line of content is an 'EXT-X-I-FRAME-STREAM-INF' Tag
+	 */
+	public static boolean isIFrameStreamTag(String line) {
+		return getTagValue(line).equals("EXT-X-I-FRAME-STREAM-INF");
+	}
+
+	/**
+	 * getAttributeValue() finds the value of a named attribute of a tag, without any
+	 *  surrounding quotes.
+	 *
+	 * @param line the line of content
+	 * @param name the name of the attribute, e.g. 'URI'
+	 * @return the value of the attribute or null if the tag does not have it
+	 */
+	public static String getAttributeValue(String line, String name) {
+		LineClassifier classifier = classifiers.get();
+
+		//Anything but a tag value with balanced quotes is split as it always was
+		if(classifier.classify(line) != LineType.TAG_TYPE || classifier.getValueStart() < 0 || !classifier.hasBalancedQuotes()) {
+			return findAttributeValue(getAttributeList(line), name);
+		}
+
+		for(int i = 0; i < classifier.getAttributeCount(); i++) {
+			int start = classifier.getAttributeStart(i);
+			int end = classifier.getAttributeEnd(i);
+			int equals = line.indexOf('=', start);
+
+			if(equals <= start || equals >= end) {
+				continue;
+			}
+
+			int nameStart = skipWhitespace(line, start, equals);
+			int nameEnd = trimWhitespace(line, nameStart, equals);
+			if(nameEnd - nameStart == name.length() && line.startsWith(name, nameStart)) {
+				int valueStart = skipWhitespace(line, equals + 1, end);
+				int valueEnd = trimWhitespace(line, valueStart, end);
+
+				if(valueEnd - valueStart >= 2 && line.charAt(valueStart) == '"' && line.charAt(valueEnd - 1) == '"') {
+					valueStart++;
+					valueEnd--;
+				}
+
+				return line.substring(valueStart, valueEnd);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * findAttributeValue() finds the value of a named attribute in a list of attributes.
+	 */
+	private static String findAttributeValue(List<String> attributes, String name) {
+		for(String att : attributes) {
+			int equals = att.indexOf('=');
+
+			if(equals > 0 && att.substring(0, equals).trim().equals(name)) {
+				String value = att.substring(equals + 1).trim();
+
+				if(value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+					value = value.substring(1, value.length() - 1);
+				}
+
+				return value;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * skipWhitespace() returns the first position of a range that is not whitespace, as
+	 * 	String.trim() sees it, or the end of the range.
+	 */
+	private static int skipWhitespace(String line, int start, int end) {
+		while(start < end && line.charAt(start) <= ' ') {
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * trimWhitespace() returns the end of a range without any trailing whitespace.
+	 */
+	private static int trimWhitespace(String line, int start, int end) {
+		while(end > start && line.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return end;
+	}
+
 	/**
 	 * isMediaSegmentTag() Checks if a line of content is Media Segment Tag
 	 *
@@ -152,8 +238,6 @@ public class ValidationUtils {
 	 * @return whether or not a line of content is a Media Segment Tag
 	 */
 	public static boolean isMediaSegmentTag(String line) {
-		logger.debug("in>> isMediaSegmentTag()");
-
 		boolean toReturn = false;
 
 		//Determine if proper file extension
@@ -163,7 +247,6 @@ public class ValidationUtils {
 			toReturn = true;
 		}
 
-		logger.debug("<<out isMediaSegmentTag()");
 		return toReturn;
 	}
 	
@@ -174,8 +257,6 @@ public class ValidationUtils {
 	 * @return whether or not a line of content is a Version Tag.
 	 */
 	public static boolean isVersionTag(String line) {
-		logger.debug("in>> isVersionTag()");
-
 		boolean toReturn = false;
 
 		//Determine if proper file extension
@@ -185,10 +266,20 @@ public class ValidationUtils {
 			toReturn = true;
 		}
 
-		logger.debug("<<out isVersionTag()");
 		return toReturn;
 	}
 	
+	/**
+	 * getKnownTags() returns the names of every tag known to Media and Master Playlists.
+	 *
+	 * @return the names of the known tags.
+	 */
+	static Set<String> getKnownTags() {
+		Set<String> known = new HashSet<String>(mediaPlaylistTags);
+		known.addAll(masterPlaylistTags);
+		return known;
+	}
+
 	/**
 	 * isBogusTag() Checks if a line of content is a bogus Tag.
 	 *
@@ -196,18 +287,15 @@ public class ValidationUtils {
 	 * @return whether or not a line of content is a bogus Tag.
 	 */
 	public static boolean isBogusTag(PlaylistType type, String line) {
-		logger.debug("in>> isBogusTag()");
-
 		boolean toReturn = false;
 		String tagValue = getTagValue(line);
 	
 		if(!mediaPlaylistTags.contains(tagValue) && !masterPlaylistTags.contains(tagValue)) {
-			logger.warn("An unknown (or bogus) tag with value of '" + tagValue + "' was found!");
+			logger.warn("An unknown (or bogus) tag with value of '{}' was found!", tagValue);
 
 			toReturn = true;
 		}
 
-		logger.debug("<<out isBogusTag()");
 		return toReturn;
 	}
 	
@@ -218,17 +306,14 @@ public class ValidationUtils {
 	 * @return whether or not a line of content contains a deprecated tag.
 	 */
 	public static boolean isDeprecatedTag(String line) {
-		logger.debug("in>> isDeprecatedTag()");
-
 		boolean toReturn = false;
 		String tagValue = getTagValue(line);
 		
 		if(deprecatedTags.contains(tagValue)) {
-			logger.warn("The deprecated tag with value of '" + tagValue + "' was found!");
+			logger.warn("The deprecated tag with value of '{}' was found!", tagValue);
 			toReturn = true;
 		}
 
-		logger.debug("<<out isDeprecatedTag()");
 		return toReturn;
 	}
 	
@@ -239,8 +324,6 @@ public class ValidationUtils {
 	 * @return whether or not a line of content is of the correct playlist.
 	 */
 	public static boolean isCorrectPlaylistTag(PlaylistType type, String line) {
-		logger.debug("in>> isCorrectPlaylistTag()");
-
 		boolean toReturn = false;
 		String tagValue = getTagValue(line);
 		
@@ -254,7 +337,6 @@ public class ValidationUtils {
 			}
 		}
 
-		logger.debug("<<out isCorrectPlaylistTag()");
 		return toReturn;
 	}
 
@@ -265,8 +347,6 @@ public class ValidationUtils {
 	 * @return whether or not a line of content is a Target Duration Tag.
 	 */
 	public static boolean isTargetDuration(String line) {
-		logger.debug("in>> isTargetDuration()");
-
 		boolean toReturn = false;
 
 		if(getTagValue(line).equals("EXT-X-TARGETDURATION")) {
@@ -275,7 +355,6 @@ public class ValidationUtils {
 			toReturn = true;
 		} 
 
-		logger.debug("<<out isTargetDuration()");
 		return toReturn;
 	}
 
@@ -287,25 +366,181 @@ public class ValidationUtils {
 	 * @return the decimal value of the duration
 	 */
 	public static double getDuration(String line) {
-		logger.debug("in>> getDuration()");
-
 		double duration = - 1.0;
 
 		ArrayList<String> list = getAttributeList(line);
 		if(list.size() > 0) {
 			try {
 				duration = Double.parseDouble(list.get(0));
-				logger.trace("Duration sucessfully found with value of " + duration + "!");
+				if(logger.isTraceEnabled()) {
+					logger.trace("Duration sucessfully found with value of {}!", duration);
+				}
 
 			} catch(NumberFormatException e) {
 				logger.warn("Duration should contain an integer or decimal value.");
 			}
 		}
 
-		logger.debug("<<out getDuration()");
 		return duration;
 	}
 
+	/**
+	 * parseDecimal() parses a decimal number ('decimal-floating-point') from part of a line
+	 * 	without creating any objects.  Numbers with more than 15 digits or an exponent are
+	 * 	handed to Double.parseDouble().
+	 *
+	 * @param line the line of content
+	 * @param start the index of the first character of the number
+	 * @param end the index after the last character of the number
+	 * @return the value of the number or NaN if it is not a number
+	 */
+	public static double parseDecimal(String line, int start, int end) {
+		while(start < end && line.charAt(start) == ' ') start++;
+		while(end > start && line.charAt(end - 1) == ' ') end--;
+
+		int i = start;
+		boolean negative = false;
+		if(i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+			negative = line.charAt(i) == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int scale = -1;
+
+		for(; i < end; i++) {
+			char c = line.charAt(i);
+
+			if(c >= '0' && c <= '9') {
+				if(digits == POWERS_OF_TEN.length) {
+					return parseDecimalSlowly(line, start, end);
+				}
+
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+
+				if(scale >= 0) {
+					scale++;
+				}
+			} else if(c == '.' && scale < 0) {
+				scale = 0;
+			} else {
+				return parseDecimalSlowly(line, start, end);
+			}
+		}
+
+		if(digits == 0) {
+			return Double.NaN;
+		}
+
+		//Both operands are exact, so the quotient is correctly rounded
+		double value = (scale > 0) ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+		return negative ? -value : value;
+	}
+
+	private static double parseDecimalSlowly(String line, int start, int end) {
+		try {
+			return Double.parseDouble(line.substring(start, end));
+		} catch(NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * parseDateTime() parses an ISO 8601 date and time ('YYYY-MM-DDThh:mm:ss[.SSS][Z|+hh:mm]'),
+	 * 	as used by 'EXT-X-PROGRAM-DATE-TIME', without creating any objects.
+	 *
+	 * @param line the line of content
+	 * @param start the index of the first character of the date
+	 * @return milliseconds since the epoch, or Long.MIN_VALUE if it is not a valid date and time
+	 */
+	public static long parseDateTime(String line, int start) {
+		int end = line.length();
+		if(end - start < 19 || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-'
+				|| (line.charAt(start + 10) != 'T' && line.charAt(start + 10) != 't')
+				|| line.charAt(start + 13) != ':' || line.charAt(start + 16) != ':') {
+			return Long.MIN_VALUE;
+		}
+
+		int year = digitsOf(line, start, 4);
+		int month = digitsOf(line, start + 5, 2);
+		int day = digitsOf(line, start + 8, 2);
+		int hour = digitsOf(line, start + 11, 2);
+		int minute = digitsOf(line, start + 14, 2);
+		int second = digitsOf(line, start + 17, 2);
+		if(year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+				|| minute < 0 || minute > 59 || second < 0 || second > 60) {
+			return Long.MIN_VALUE;
+		}
+
+		int i = start + 19;
+		long millis = 0;
+		if(i < end && line.charAt(i) == '.') {
+			int scale = 100;
+			for(i++; i < end && line.charAt(i) >= '0' && line.charAt(i) <= '9'; i++) {
+				millis += (line.charAt(i) - '0') * scale;
+				scale /= 10;
+			}
+		}
+
+		long offsetMinutes = 0;
+		if(i < end) {
+			char zone = line.charAt(i);
+
+			if(zone == 'Z' || zone == 'z') {
+				i++;
+			} else if((zone == '+' || zone == '-') && end - i >= 5) {
+				boolean colon = line.charAt(i + 3) == ':';
+				if(colon && end - i < 6) {
+					return Long.MIN_VALUE;
+				}
+
+				int hours = digitsOf(line, i + 1, 2);
+				int minutes = digitsOf(line, colon ? i + 4 : i + 3, 2);
+				if(hours < 0 || minutes < 0) {
+					return Long.MIN_VALUE;
+				}
+
+				offsetMinutes = (zone == '-' ? -1 : 1) * (hours * 60L + minutes);
+				i += colon ? 6 : 5;
+			}
+		}
+
+		if(i != end) {
+			return Long.MIN_VALUE;
+		}
+
+		//Days since the epoch of the (proleptic Gregorian) civil date
+		int y = (month <= 2) ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		long days = era * 146097 + dayOfEra - 719468;
+
+		long seconds = days * 86400 + hour * 3600L + minute * 60L + second - offsetMinutes * 60;
+		return seconds * 1000 + millis;
+	}
+
+	/**
+	 * digitsOf() parses a fixed number of decimal digits, or returns -1.
+	 */
+	private static int digitsOf(String line, int start, int count) {
+		int value = 0;
+
+		for(int i = start; i < start + count; i++) {
+			char c = line.charAt(i);
+			if(c < '0' || c > '9') {
+				return -1;
+			}
+
+			value = value * 10 + (c - '0');
+		}
+
+		return value;
+	}
+
 	/**
 	 * getTargetDuration() Returns the target duration contained in a line of content
 	 *
@@ -321,7 +556,7 @@ public class ValidationUtils {
 			if(isTargetDuration(line)) {
 				duration = getDuration(line);
 				if(duration >= 0.0) {
-					logger.trace("Target duration with duration of " + duration + " was found!");
+					logger.trace("Target duration with duration of {} was found!", duration);
 					break;
 				}
 			}
@@ -368,8 +603,6 @@ public class ValidationUtils {
 	 * @return whether or not a line of content contains a bandwidth attribute
 	 */
 	public static boolean hasBandwidthAttribute(String line) {
-		logger.debug("in>> hasBandwidthAttribute()");
-
 		boolean hasBandwidth = false;
 
 		ArrayList<String> attributes = getAttributeList(line);
@@ -382,7 +615,6 @@ public class ValidationUtils {
 			}
 		}
 
-		logger.debug("<<out hasBandwidthAttribute()");
 		return hasBandwidth;
 	}
 	
@@ -410,6 +642,14 @@ public class ValidationUtils {
 		mediaPlaylistTags.add("EXT-X-ENDLIST");
 		mediaPlaylistTags.add("EXT-X-PLAYLIST-TYPE");
 		mediaPlaylistTags.add("EXT-X-I-FRAMES-ONLY");
+
+		//Low-Latency Media Playlist tags
+		mediaPlaylistTags.add("EXT-X-PART-INF");
+		mediaPlaylistTags.add("EXT-X-SERVER-CONTROL");
+		mediaPlaylistTags.add("EXT-X-PART");
+		mediaPlaylistTags.add("EXT-X-PRELOAD-HINT");
+		mediaPlaylistTags.add("EXT-X-RENDITION-REPORT");
+		mediaPlaylistTags.add("EXT-X-SKIP");
 		
 		//Master Playlist tags
 		masterPlaylistTags.add("EXTM3U");
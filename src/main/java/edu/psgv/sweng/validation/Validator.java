@@ -1,32 +1,163 @@
 package edu.psgv.sweng.validation;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import edu.psgv.sweng.playlist.MasterPlaylist;
 import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.playlist.PlaylistType;
 
-public abstract class Validator {
+/**
+ * Validator is the base of the validation rules.  A Validator is visited by playlists
+ * 	and by default validates the whole document: a rule that only applies to one type
+ * 	of playlist overrides getPlaylistTypes() and only that type's validate method.
+ * 	Rules that only need some lines subscribe to them instead (see ValidationRule)
+ * 	and report from onLine(); their validate methods then run them on their own.
+ * 	A Validator is shared by every playlist and thread, so it keeps no state of a
+ * 	validation.
+ *
+ * @author Ryan McDonald
+ */
+public abstract class Validator implements ValidationRule {
 	/* LOGGER */
 	private static final Logger logger = LogManager.getLogger();
-	
+
+	/* Both types of playlist */
+	private static final Set<PlaylistType> ALL_PLAYLISTS =
+			Collections.unmodifiableSet(EnumSet.of(PlaylistType.MEDIA, PlaylistType.MASTER));
+
+	/* Runs this rule on it's own; created on first use */
+	private volatile RuleEngine alone;
+
 	/**
-	 * validateMediaPlaylist() must be implemented to validate a Media Playlist.
+	 * validateMediaPlaylist() validates a Media Playlist.  Rules that subscribe to lines
+	 * 	are run on their own; otherwise there is nothing to validate.
+	 *
 	 * @param playlist the playlist to validate.
-	 * 
 	 * @return a list of any validation errors.
 	 */
-	public abstract List<String> validateMediaPlaylist(MediaPlaylist playlist);
-	
+	public List<String> validateMediaPlaylist(MediaPlaylist playlist) {
+		if(needsDocument() || !getPlaylistTypes().contains(PlaylistType.MEDIA)) {
+			return new ArrayList<String>();
+		}
+		return validateAlone(playlist);
+	}
+
 	/**
-	 * validateMediaPlaylist() must be implemented to validate a Master Playlist.
+	 * validateMasterPlaylist() validates a Master Playlist.  Rules that subscribe to lines
+	 * 	are run on their own; otherwise there is nothing to validate.
+	 *
 	 * @param playlist the playlist to validate.
-	 * 
 	 * @return a list of any validation errors.
 	 */
-	public abstract List<String> validateMasterPlaylist(MasterPlaylist playlist);
+	public List<String> validateMasterPlaylist(MasterPlaylist playlist) {
+		if(needsDocument() || !getPlaylistTypes().contains(PlaylistType.MASTER)) {
+			return new ArrayList<String>();
+		}
+		return validateAlone(playlist);
+	}
+
+	/**
+	 * validateMediaPlaylist() validates a Media Playlist, adding the errors to a list.
+	 *
+	 * @param playlist the playlist to validate.
+	 * @param errors the list the validation errors are added to.
+	 */
+	public void validateMediaPlaylist(MediaPlaylist playlist, List<String> errors) {
+		List<String> errs = validateMediaPlaylist(playlist);
+
+		if(errs != null) {
+			errors.addAll(errs);
+		}
+	}
+
+	/**
+	 * validateMasterPlaylist() validates a Master Playlist, adding the errors to a list.
+	 *
+	 * @param playlist the playlist to validate.
+	 * @param errors the list the validation errors are added to.
+	 */
+	public void validateMasterPlaylist(MasterPlaylist playlist, List<String> errors) {
+		List<String> errs = validateMasterPlaylist(playlist);
+
+		if(errs != null) {
+			errors.addAll(errs);
+		}
+	}
+
+	/**
+	 * validateAlone() runs this rule on it's own on a playlist, with an engine of just
+	 * 	this rule that is created once.  Rules that report to their RuleContext use it
+	 * 	to return their findings as a list.
+	 *
+	 * @param playlist the playlist to validate.
+	 * @return a list of any validation errors.
+	 */
+	protected final List<String> validateAlone(Playlist playlist) {
+		RuleEngine engine = alone;
+		if(engine == null) {
+			engine = new RuleEngine(Collections.singletonList(this));
+			alone = engine;
+		}
+
+		if(playlist instanceof MediaPlaylist) {
+			return engine.validateMediaPlaylist((MediaPlaylist) playlist);
+		}
+		return engine.validateMasterPlaylist((MasterPlaylist) playlist);
+	}
+
+	/**
+	 * getName() returns the simple name of the Validator's class.
+	 *
+	 * @return the rule's name.
+	 */
+	@Override
+	public String getName() {
+		return getClass().getSimpleName();
+	}
+
+	/**
+	 * getPlaylistTypes() returns MEDIA and MASTER unless overridden.
+	 *
+	 * @return the types of playlists the rule applies to.
+	 */
+	@Override
+	public Set<PlaylistType> getPlaylistTypes() {
+		return ALL_PLAYLISTS;
+	}
+
+	/**
+	 * needsDocument() returns true unless overridden: a Validator validates the whole
+	 * 	document through validateMediaPlaylist() and validateMasterPlaylist().
+	 *
+	 * @return whether validateDocument() should be called.
+	 */
+	@Override
+	public boolean needsDocument() {
+		return true;
+	}
+
+	/**
+	 * validateDocument() reports the errors of validateMediaPlaylist() or
+	 * 	validateMasterPlaylist(), whichever the playlist is.
+	 *
+	 * @param context the context of the playlist being validated.
+	 */
+	@Override
+	public void validateDocument(RuleContext context) {
+		if(context.getPlaylistType() == PlaylistType.MEDIA) {
+			context.reportAll(validateMediaPlaylist((MediaPlaylist) context.getPlaylist()));
+		} else {
+			context.reportAll(validateMasterPlaylist((MasterPlaylist) context.getPlaylist()));
+		}
+	}
 	
 	/**
 	 * buildErrorMessage is a concrete class offered to all Validators for building 
@@ -37,7 +168,7 @@ public abstract class Validator {
 	 * @param errMessage the error message.
 	 * @return a standardized error message as a String.
 	 */
-	protected static String buildErrorMessage(int lineNum, String errLvl , String errMessage) {
+	public static String buildErrorMessage(int lineNum, String errLvl , String errMessage) {
 		logger.debug("in>> buildErrorMessage()");
 
 		StringBuilder err = new StringBuilder();
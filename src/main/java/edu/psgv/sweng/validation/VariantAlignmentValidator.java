@@ -0,0 +1,207 @@
+package edu.psgv.sweng.validation;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.PlaylistType;
+
+/**
+ * VariantAlignmentValidator validates that the variants of a Master Playlist are
+ * 	aligned, so that players can switch between them: the same media sequence
+ * 	numbers, segment counts, discontinuities and durations.
+ *
+ * 	The variants' segments are walked together, aligned by media sequence number,
+ * 	in a single pass over their SegmentTimelines.  Findings are reported on the
+ * 	Master Playlist, at the line of the variant that diverges from the first.
+ *
+ * @author Ryan McDonald
+ */
+public class VariantAlignmentValidator extends Validator {
+	/* LOGGER */
+	private static final Logger logger = LogManager.getLogger();
+
+	/* Difference in seconds up to which the durations of aligned segments are considered equal */
+	private static final double DURATION_TOLERANCE = 0.5;
+
+	/* Container for error messages */
+	private static HashMap<String, String> errMap = new HashMap<>();
+
+	/**
+	 * getPlaylistTypes() returns MASTER: alignment is a property of a Master Playlist's variants.
+	 *
+	 * @return the types of playlists the rule applies to.
+	 */
+	@Override
+	public Set<PlaylistType> getPlaylistTypes() {
+		return EnumSet.of(PlaylistType.MASTER);
+	}
+
+	/**
+	 * validateMasterPlaylist() will validate that the variants of a Master Playlist
+	 * 	are aligned.  Only variants that have already been fetched are compared, so
+	 * 	master-only checks never fetch a variant.
+	 *
+	 * @param playlist the Master Playlist.
+	 * @return a list of errors.
+	 */
+	public List<String> validateMasterPlaylist(MasterPlaylist playlist) {
+		return validateAlone(playlist);
+	}
+
+	/**
+	 * validateDocument() will validate that the fetched variants of the Master Playlist
+	 * 	of a context are aligned.
+	 *
+	 * @param context the context of the playlist being validated.
+	 */
+	@Override
+	public void validateDocument(RuleContext context) {
+		logger.debug("in>> validateDocument()");
+
+		MasterPlaylist playlist = (MasterPlaylist) context.getPlaylist();
+
+		//Timelines of all fetched variants, with the line of each variant in the master
+		List<SegmentTimeline> timelines = new ArrayList<SegmentTimeline>();
+		List<Integer> lines = new ArrayList<Integer>();
+		List<String> names = new ArrayList<String>();
+
+		HashMap<String, Integer> variantLines = getVariantLines(playlist);
+
+		for(MediaPlaylist variant : playlist.getVariants()) {
+			List<String> contents = variant.isLoaded() ? variant.getContents() : null;
+
+			if(contents != null && !contents.isEmpty()) {
+				Integer line = variantLines.get(variant.getStrURL());
+
+				timelines.add(variant.getTimeline());
+				lines.add(line == null ? 0 : line);
+				names.add(line == null ? variant.getStrURL() : playlist.getContents().get(line - 1));
+			}
+		}
+
+		if(timelines.size() < 2) {
+			logger.debug("<<out validateDocument()");
+			return;
+		}
+
+		SegmentTimeline reference = timelines.get(0);
+		int variants = timelines.size();
+
+		//Single pass over the reference's media sequence numbers, comparing every variant at each
+		int[] discontinuities = new int[variants];
+		long[] firstDiscontinuity = new long[variants];
+		int[] durations = new int[variants];
+		long[] firstDuration = new long[variants];
+		double[] divergentDuration = new double[variants];
+
+		for(long msn = reference.getMediaSequence(); msn < reference.getEndMediaSequence(); msn++) {
+			int referenceIndex = (int) (msn - reference.getMediaSequence());
+			boolean referenceDiscontinuity = reference.isDiscontinuity(referenceIndex);
+			double referenceDuration = reference.getDuration(referenceIndex);
+
+			for(int v = 1; v < variants; v++) {
+				SegmentTimeline timeline = timelines.get(v);
+				if(msn < timeline.getMediaSequence() || msn >= timeline.getEndMediaSequence()) {
+					continue;
+				}
+
+				int index = (int) (msn - timeline.getMediaSequence());
+
+				if(timeline.isDiscontinuity(index) != referenceDiscontinuity && discontinuities[v]++ == 0) {
+					firstDiscontinuity[v] = msn;
+				}
+
+				if(diverges(timeline.getDuration(index), referenceDuration, DURATION_TOLERANCE) && durations[v]++ == 0) {
+					firstDuration[v] = msn;
+					divergentDuration[v] = timeline.getDuration(index);
+				}
+			}
+		}
+
+		for(int v = 1; v < variants; v++) {
+			SegmentTimeline timeline = timelines.get(v);
+			int lineNum = lines.get(v);
+			String compared = "'" + names.get(v) + "' and '" + names.get(0) + "'";
+
+			if(timeline.getMediaSequence() != reference.getMediaSequence()) {
+				context.report(lineNum, "MINOR", errMap.get("mediaSequence") + compared
+						+ " (" + timeline.getMediaSequence() + " vs " + reference.getMediaSequence() + ").");
+			}
+
+			if(timeline.getCount() != reference.getCount()) {
+				context.report(lineNum, "MINOR", errMap.get("segmentCount") + compared
+						+ " (" + timeline.getCount() + " vs " + reference.getCount() + ").");
+			}
+
+			if(discontinuities[v] > 0) {
+				context.report(lineNum, "SEVERE", errMap.get("discontinuity") + compared
+						+ " at " + discontinuities[v] + " segment(s), first at media sequence " + firstDiscontinuity[v] + ".");
+			}
+
+			if(durations[v] > 0) {
+				double referenceDuration = reference.getDuration((int) (firstDuration[v] - reference.getMediaSequence()));
+
+				context.report(lineNum, "WARNING", errMap.get("duration") + compared
+						+ " at " + durations[v] + " segment(s), first at media sequence " + firstDuration[v]
+						+ " (" + seconds(divergentDuration[v]) + " vs " + seconds(referenceDuration) + ").");
+			}
+
+			double tolerance = Math.max(reference.getTargetDuration(), DURATION_TOLERANCE);
+			if(diverges(timeline.getTotalDuration(), reference.getTotalDuration(), tolerance)) {
+				context.report(lineNum, "MINOR", errMap.get("totalDuration") + compared
+						+ " (" + seconds(timeline.getTotalDuration()) + " vs " + seconds(reference.getTotalDuration()) + ").");
+			}
+		}
+
+		logger.debug("<<out validateDocument()");
+	}
+
+	/**
+	 * getVariantLines() maps the absolute URL of every variant to the line of it's URI.
+	 */
+	private static HashMap<String, Integer> getVariantLines(MasterPlaylist playlist) {
+		HashMap<String, Integer> variantLines = new HashMap<String, Integer>();
+		List<String> contents = playlist.getContents();
+
+		for(int i = 1; i < contents.size(); i++) {
+			if(ValidationUtils.isURIType(contents.get(i)) && ValidationUtils.isVariantTag(contents.get(i - 1))) {
+				String url = playlist.resolveURL(contents.get(i));
+
+				if(!variantLines.containsKey(url)) {
+					variantLines.put(url, i + 1);
+				}
+			}
+		}
+
+		return variantLines;
+	}
+
+	/**
+	 * diverges() returns whether two durations differ by more than a tolerance.  A duration
+	 * 	that is not known (NaN) diverges from any other.
+	 */
+	private static boolean diverges(double duration, double referenceDuration, double tolerance) {
+		return Double.isNaN(duration) || Double.isNaN(referenceDuration) || Math.abs(duration - referenceDuration) > tolerance;
+	}
+
+	private static String seconds(double value) {
+		return Double.isNaN(value) ? "invalid" : (Math.round(value * 1000) / 1000.0) + "s";
+	}
+
+	//Static block for populating error message map with respective error messages
+	static {
+		errMap.put("mediaSequence", "Variants should start at the same media sequence number: ");
+		errMap.put("segmentCount", "Variants should contain the same number of media segments: ");
+		errMap.put("discontinuity", "Discontinuities are not aligned between variants ");
+		errMap.put("duration", "Segment durations diverge between variants ");
+		errMap.put("totalDuration", "Total durations diverge by more than a target duration between variants ");
+	}
+}
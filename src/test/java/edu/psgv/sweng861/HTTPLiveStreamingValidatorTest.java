@@ -2,23 +2,149 @@ package edu.psgv.sweng861;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.psgv.sweng.HTTPLiveStreamingValidator;
+import edu.psgv.sweng.generator.PlaylistGenerator;
+import edu.psgv.sweng861.origin.TestOrigin;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 public class HTTPLiveStreamingValidatorTest {
 
+	private File dir;
+	private TestOrigin origin;
+
 	@Before
 	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("validator").toFile();
 	}
 
 	@After
 	public void tearDown() throws Exception {
+		if(origin != null) {
+			origin.close();
+		}
+	}
+
+	/**
+	 * validate() runs the validator on the first masters of the origin and returns the
+	 * 	records of it's JSON Lines report.
+	 */
+	private List<String> validate(int masters, String... options) throws Exception {
+		File list = origin.writeList(new File(dir, "list.txt"), masters);
+		File report = new File(dir, "report.jsonl");
+
+		List<String> args = new ArrayList<String>();
+		args.add("--format");
+		args.add("jsonl");
+		args.add("--output");
+		args.add(report.getPath());
+		for(String option : options) {
+			args.add(option);
+		}
+		args.add(list.getPath());
+
+		HTTPLiveStreamingValidator.main(args.toArray(new String[0]));
+
+		return Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+	}
+
+	private static int count(List<String> records, String text) {
+		int count = 0;
+		for(String record : records) {
+			if(record.contains(text)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static int occurrences(String record, String text) {
+		int count = 0;
+		for(int at = record.indexOf(text); at >= 0; at = record.indexOf(text, at + text.length())) {
+			count++;
+		}
+		return count;
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		origin = new TestOrigin(new PlaylistGenerator(1).setSegments(60).setVariants(3).setRenditions(1)
+				.setByteRanges(true).setKeyRotation(10).setDiscontinuityEvery(20)).setLatency(5).start();
+
+		List<String> records = validate(6);
+
+		assertEquals(6, records.size());
+		for(int m = 0; m < 6; m++) {
+			assertTrue(records.get(m).startsWith("{\"seq\":" + m + ",\"url\":\"" + origin.getMasterUrl(m) + "\",\"type\":\"MASTER\",\"valid\":true"));
+			assertEquals(4, occurrences(records.get(m), "\"validated\":true,\"valid\":true"));
+		}
+
+		//Every playlist is fetched once, in the order of the list
+		assertEquals(6 * 5, origin.getTotalRequests());
+		assertEquals(1, origin.getRequests("/master5/a0/audio.m3u8"));
+	}
+
+	@Test
+	public void testBatchFailures() throws Exception {
+		origin = new TestOrigin(new PlaylistGenerator(2).setSegments(30).setVariants(2).setErrorRate(0.05)).start();
+		origin.fail("/master1/master.m3u8", TestOrigin.Fault.NOT_FOUND)
+				.fail("/master2/master.m3u8", TestOrigin.Fault.RESET)
+				.fail("/master3/master.m3u8", TestOrigin.Fault.TOO_MANY_REQUESTS)
+				.fail("/master0/v1/prog.m3u8", TestOrigin.Fault.SERVER_ERROR);
+
+		List<String> records = validate(5);
+
+		assertEquals(5, records.size());
+		assertEquals(3, count(records, "\"type\":\"UNREADABLE\""));
+		assertTrue(records.get(0).contains("\"url\":\"" + origin.getMediaUrl(0, 1) + "\",\"type\":\"MEDIA\",\"role\":\"VARIANT\",\"validated\":true,\"valid\":false,\"errorCount\":1,"
+				+ "\"severity\":{\"FATAL\":1,\"SEVERE\":0,\"MINOR\":0,\"WARNING\":0},\"errors\":[{\"severity\":\"FATAL\",\"line\":1,\"message\":\"Playlist is empty.  Cannot validate.\"}]"));
+
+		//The injected errors are found in the playlists that could be read
+		PlaylistGenerator generator = origin.generator(4);
+		assertTrue(generator.getInjectedErrors(0) + generator.getInjectedErrors(1) > 0);
+		assertTrue(records.get(4).contains("\"valid\":false"));
+	}
+
+	@Test
+	public void testMasterFanOut() throws Exception {
+		int latency = 200;
+		origin = new TestOrigin(new PlaylistGenerator(3).setSegments(100).setVariants(8).setRenditions(2)).setLatency(latency).start();
+
+		long start = System.nanoTime();
+		List<String> records = validate(1, "--executor", "virtual");
+		long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+		assertEquals(1, records.size());
+		assertEquals(10, occurrences(records.get(0), "\"validated\":true,\"valid\":true"));
+
+		//The Media Playlists of the master are fetched side by side, not one after another
+		assertTrue(origin.getMaxInFlight() > 1);
+		assertTrue("Fan-out of 10 playlists took " + elapsedMillis + " ms", elapsedMillis < 10 * latency);
 	}
 
 	@Test
-	public void test() {
-		fail("Not yet implemented");
+	public void testLiveMonitoring() throws Exception {
+		origin = new TestOrigin(new PlaylistGenerator(4).setSegments(6).setTargetDuration(1).setVariants(2)
+				.setDiscontinuityEvery(5).setMediaSequence(1000)).setLive(250).start();
+
+		List<String> records = validate(1, "--live", "--live-duration", "3", "--executor", "virtual");
+
+		//Each Media Playlist is reloaded as it advances, and every reload validates cleanly
+		for(int i = 0; i < 2; i++) {
+			String url = "\"url\":\"" + origin.getMediaUrl(0, i) + "\"";
+
+			assertTrue(count(records, url) >= 2);
+			assertTrue(origin.getRequests("/master0/v" + i + "/prog.m3u8") >= 2);
+		}
+		assertEquals(0, count(records, "\"valid\":false"));
+		assertEquals(1, origin.getRequests("/master0/master.m3u8"));
 	}
 
 }
@@ -0,0 +1,150 @@
+package edu.psgv.sweng861.batch;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.psgv.sweng.HTTPLiveStreamingValidator;
+import edu.psgv.sweng.batch.CheckpointJournal;
+import edu.psgv.sweng.generator.PlaylistGenerator;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng861.origin.TestOrigin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CheckpointJournalTest {
+
+	private File dir;
+	private File file;
+	private TestOrigin origin;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("journal").toFile();
+		file = new File(dir, "list.txt.journal");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if(origin != null) {
+			origin.close();
+		}
+	}
+
+	private void write(File target, String text) throws Exception {
+		Files.write(target.toPath(), text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public final void testTornEntryIgnored() throws Exception {
+		write(file, "0123\thttp://a/1.m3u8\nunreadable\thttp://a/2.m3u8\n4567\thttp://a/3");
+
+		CheckpointJournal journal = new CheckpointJournal(file.getPath());
+		assertTrue(journal.open(true));
+		journal.close();
+
+		assertEquals(2, journal.getCompletedCount());
+		assertTrue(journal.isCompleted("http://a/1.m3u8"));
+		assertTrue(journal.isCompleted("http://a/2.m3u8"));
+		assertFalse(journal.isCompleted("http://a/3"));
+		assertFalse(journal.isCompleted("http://a/3.m3u8"));
+	}
+
+	@Test
+	public final void testTornEntryTerminated() throws Exception {
+		write(file, "0123\thttp://a/1.m3u8\n4567\thttp://a/3");
+
+		CheckpointJournal journal = new CheckpointJournal(file.getPath());
+		journal.open(true);
+		journal.record("http://a/3.m3u8", "89ab");
+		journal.close();
+
+		//The next entry starts on a line of it's own, so it is read back
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals(Arrays.asList("0123\thttp://a/1.m3u8", "4567\thttp://a/3", "89ab\thttp://a/3.m3u8"), lines);
+
+		CheckpointJournal resumed = new CheckpointJournal(file.getPath());
+		resumed.open(true);
+		resumed.close();
+
+		assertEquals(3, resumed.getCompletedCount());
+		assertTrue(resumed.isCompleted("http://a/3.m3u8"));
+	}
+
+	@Test
+	public final void testNotResumedStartsOver() throws Exception {
+		write(file, "0123\thttp://a/1.m3u8\n");
+
+		CheckpointJournal journal = new CheckpointJournal(file.getPath());
+		journal.open(false);
+		journal.close();
+
+		assertEquals(0, journal.getCompletedCount());
+		assertEquals(0, file.length());
+	}
+
+	@Test
+	public final void testResultHash() {
+		List<String> contents = Arrays.asList("#EXTM3U", "#EXT-X-TARGETDURATION:10", "#EXTINF:9.0,", "seg.ts");
+
+		Playlist playlist = new MediaPlaylist("http://a/media.m3u8", contents);
+		playlist.getErrors().add("[MINOR | line 1: one");
+		playlist.getErrors().add("[SEVERE | line 2: two");
+
+		Playlist same = new MediaPlaylist("http://a/media.m3u8", contents);
+		same.getErrors().addAll(playlist.getErrors());
+
+		Playlist reordered = new MediaPlaylist("http://a/media.m3u8", contents);
+		reordered.getErrors().add("[SEVERE | line 2: two");
+		reordered.getErrors().add("[MINOR | line 1: one");
+
+		Playlist moved = new MediaPlaylist("http://b/media.m3u8", contents);
+		moved.getErrors().addAll(playlist.getErrors());
+
+		String hash = CheckpointJournal.resultHash(playlist);
+		assertEquals(16, hash.length());
+		assertEquals(hash, CheckpointJournal.resultHash(playlist));
+		assertEquals(hash, CheckpointJournal.resultHash(same));
+		assertNotEquals(hash, CheckpointJournal.resultHash(reordered));
+		assertNotEquals(hash, CheckpointJournal.resultHash(moved));
+		assertNotEquals(hash, CheckpointJournal.resultHash(new MediaPlaylist("http://a/media.m3u8", contents)));
+	}
+
+	@Test
+	public final void testResume() throws Exception {
+		origin = new TestOrigin(new PlaylistGenerator(5).setSegments(20).setVariants(1)).start();
+		File list = origin.writeList(new File(dir, "list.txt"), 4);
+		File report = new File(dir, "report.jsonl");
+
+		//The first two masters finished; the record of the third was cut off by the crash
+		write(file, "0123\t" + origin.getMasterUrl(0) + "\n4567\t" + origin.getMasterUrl(1) + "\n");
+		write(report, "{\"seq\":0,\"url\":\"" + origin.getMasterUrl(0) + "\"}\n{\"seq\":1,\"url\":\"" + origin.getMasterUrl(1)
+				+ "\"}\n{\"seq\":2,\"url\":\"" + origin.getMasterUrl(2));
+
+		HTTPLiveStreamingValidator.main(new String[] { "--format", "jsonl", "--output", report.getPath(), "--resume", list.getPath() });
+
+		for(int m = 0; m < 4; m++) {
+			assertEquals((m < 2) ? 0 : 1, origin.getRequests("/master" + m + "/master.m3u8"));
+		}
+
+		List<String> records = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+		assertEquals(4, records.size());
+		for(int m = 0; m < 4; m++) {
+			assertTrue(records.get(m).startsWith("{\"seq\":" + m + ",\"url\":\"" + origin.getMasterUrl(m) + "\""));
+			assertTrue(records.get(m).endsWith("}"));
+		}
+
+		//Every master is now in the journal
+		CheckpointJournal journal = new CheckpointJournal(file.getPath());
+		journal.open(true);
+		journal.close();
+		assertEquals(4, journal.getCompletedCount());
+	}
+
+}
@@ -0,0 +1,59 @@
+package edu.psgv.sweng861.batch;
+
+import static org.junit.Assert.*;
+
+import edu.psgv.sweng.batch.ShardSelector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardSelectorTest {
+
+	String[] urls;
+
+	@Before
+	public void setUp() throws Exception {
+		urls = new String[200];
+		for(int i = 0; i < urls.length; i++) {
+			urls[i] = "http://host" + (i % 7) + ".example.com/stream" + i + "/master.m3u8";
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+	}
+
+	@Test
+	public final void testEveryUrlBelongsToExactlyOneShard() {
+		ShardSelector[] shards = new ShardSelector[4];
+		for(int i = 0; i < shards.length; i++) {
+			shards[i] = new ShardSelector(i + 1, shards.length, ShardSelector.Key.URL);
+		}
+
+		for(String url : urls) {
+			int accepted = 0;
+			for(ShardSelector shard : shards) {
+				if(shard.accepts(url)) {
+					accepted++;
+				}
+			}
+
+			assertEquals(1, accepted);
+		}
+	}
+
+	@Test
+	public final void testHostShardKeepsHostTogether() {
+		ShardSelector shard = ShardSelector.parse("2/3", ShardSelector.Key.HOST);
+
+		int expected = shard.shardOf("http://host3.example.com/a.m3u8");
+		assertEquals(expected, shard.shardOf("http://HOST3.example.com/b/c.m3u8?token=1"));
+		assertEquals(expected, shard.shardOf("https://host3.example.com:8443/d.m3u8"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void testParseRejectsShardOutOfRange() {
+		ShardSelector.parse("17/16", ShardSelector.Key.URL);
+	}
+
+}
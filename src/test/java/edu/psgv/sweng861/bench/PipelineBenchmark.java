@@ -0,0 +1,362 @@
+package edu.psgv.sweng861.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.psgv.sweng.HTTPLiveStreamingValidator;
+import edu.psgv.sweng.generator.PlaylistGenerator;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Trace;
+import edu.psgv.sweng.trace.Tracer;
+import edu.psgv.sweng861.origin.TestOrigin;
+
+/**
+ * PipelineBenchmark times whole batch runs of the command line application, from
+ * 	the URL list through the JSON Lines report, against a TestOrigin serving a
+ * 	generated corpus.  The report gives playlists (batch entries) per second, the p50
+ * 	and p99 time from the start of an entry's fetch to the end of it's report, the
+ * 	peak resident set size (VmHWM) and the collections and time spent in GC.
+ *
+ * 	Per-entry times are taken from the root span of each entry's trace.  Warm-up runs
+ * 	come first; the peak RSS is reset after them where the kernel allows it.
+ *
+ * 	Results are compared with a baseline: each metric of the baseline carries the
+ * 	factor it may worsen by before the comparison fails, e.g.
+ * 	"p99Millis": {"value": 40, "tolerance": 1.5}.  Values under 1 count as 1.
+ *
+ * 	Run it from the test classpath with:
+ * 		java edu.psgv.sweng861.bench.PipelineBenchmark [--baseline file] [--write-baseline file] [--masters n] [--tolerance x]
+ */
+public class PipelineBenchmark {
+
+	/* The metrics kept in a baseline; a higher value is only better for the first */
+	private static final List<String> BASELINE_METRICS = Arrays.asList("playlistsPerSecond", "p50Millis", "p99Millis", "peakRssMb", "gcMillis");
+	private static final String HIGHER_IS_BETTER = "playlistsPerSecond";
+
+	public static final double DEFAULT_TOLERANCE = 1.5;
+
+	private static final Pattern METRIC = Pattern.compile("\"(\\w+)\"\\s*:\\s*\\{\\s*\"value\"\\s*:\\s*([-0-9.eE]+)\\s*,\\s*\"tolerance\"\\s*:\\s*([-0-9.eE]+)\\s*\\}");
+
+	private final PlaylistGenerator corpus;
+	private int masters = 200;
+	private int warmups = 2;
+	private long latencyMillis = 1;
+	private boolean concurrent = true;
+
+	/**
+	 * @param corpus the generator of the masters served to the runs.
+	 */
+	public PipelineBenchmark(PlaylistGenerator corpus) {
+		this.corpus = corpus;
+	}
+
+	public PipelineBenchmark setMasters(int masters) {
+		this.masters = masters;
+		return this;
+	}
+
+	public PipelineBenchmark setWarmups(int warmups) {
+		this.warmups = warmups;
+		return this;
+	}
+
+	public PipelineBenchmark setLatency(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+		return this;
+	}
+
+	public PipelineBenchmark setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+		return this;
+	}
+
+	/**
+	 * corpus() returns the generator of the default corpus: masters of 4 variants and an
+	 * 	audio rendition, each with 300 segments, keys, discontinuities and date ranges.
+	 *
+	 * @return the generator of the corpus.
+	 */
+	public static PlaylistGenerator corpus() {
+		return new PlaylistGenerator(1).setSegments(300).setVariants(4).setRenditions(1).setKeyRotation(30)
+				.setDiscontinuityEvery(100).setDateRangeEvery(50).setErrorRate(0.01);
+	}
+
+	/**
+	 * run() runs the warm-ups then the measured batch run.
+	 *
+	 * @return the metrics of the measured run, by name.
+	 * @throws IOException if the URL list or report cannot be written.
+	 */
+	public Map<String, Double> run() throws IOException {
+		File dir = Files.createTempDirectory("bench").toFile();
+
+		try (TestOrigin origin = new TestOrigin(corpus).setLatency(latencyMillis).start()) {
+			File list = origin.writeList(new File(dir, "list.txt"), masters);
+			String[] args = concurrent
+					? new String[] { "--format", "jsonl", "--output", new File(dir, "report.jsonl").getPath(), "--executor", "virtual", list.getPath() }
+					: new String[] { "--format", "jsonl", "--output", new File(dir, "report.jsonl").getPath(), list.getPath() };
+
+			for(int i = 0; i < warmups; i++) {
+				runQuietly(args);
+			}
+
+			System.gc();
+			resetPeakRss();
+			long[] gcBefore = gcTotals();
+
+			final ConcurrentLinkedQueue<Long> entryNanos = new ConcurrentLinkedQueue<Long>();
+			Tracer.enable((Trace trace) -> {
+				for(Span span : trace.getSpans()) {
+					if(span.getParent() == null) {
+						entryNanos.add(span.getEnd() - span.getStart());
+					}
+				}
+			});
+
+			long start = System.nanoTime();
+			try {
+				runQuietly(args);
+			} finally {
+				Tracer.disable();
+			}
+			long elapsed = System.nanoTime() - start;
+			long[] gcAfter = gcTotals();
+
+			List<Long> latencies = new ArrayList<Long>(entryNanos);
+			Collections.sort(latencies);
+
+			Map<String, Double> result = new LinkedHashMap<String, Double>();
+			result.put("playlistsPerSecond", latencies.size() / (elapsed / 1e9));
+			result.put("p50Millis", quantile(latencies, 0.50) / 1e6);
+			result.put("p99Millis", quantile(latencies, 0.99) / 1e6);
+			result.put("peakRssMb", peakRssKb() / 1024.0);
+			result.put("gcCount", (double) (gcAfter[0] - gcBefore[0]));
+			result.put("gcMillis", (double) (gcAfter[1] - gcBefore[1]));
+			result.put("playlists", (double) latencies.size());
+			result.put("requests", (double) origin.getTotalRequests());
+			return result;
+		}
+	}
+
+	/**
+	 * compare() compares the metrics of a run with a baseline.
+	 *
+	 * @param result the metrics of the run.
+	 * @param baseline the baseline's metrics, each a value and tolerance.
+	 * @param tolerance a tolerance used instead of the baseline's, or 0 to use the baseline's.
+	 * @return a description of each metric worse than the baseline allows.
+	 */
+	public static List<String> compare(Map<String, Double> result, Map<String, double[]> baseline, double tolerance) {
+		List<String> regressions = new ArrayList<String>();
+
+		for(Map.Entry<String, double[]> metric : baseline.entrySet()) {
+			Double value = result.get(metric.getKey());
+			if(value == null) {
+				continue;
+			}
+
+			//Values under 1 count as 1, so that a baseline of no GC time allows some
+			double expected = Math.max(1, metric.getValue()[0]);
+			double factor = (tolerance > 0) ? tolerance : metric.getValue()[1];
+			boolean regressed = metric.getKey().equals(HIGHER_IS_BETTER) ? value * factor < expected : value > expected * factor;
+
+			if(regressed) {
+				regressions.add(String.format(Locale.ROOT, "%s: %.2f against a baseline of %.2f (tolerance x%.2f)",
+						metric.getKey(), value, expected, factor));
+			}
+		}
+
+		return regressions;
+	}
+
+	/**
+	 * readBaseline() reads the metrics of a baseline.
+	 *
+	 * @param in the baseline JSON.
+	 * @return each metric's value and tolerance, by name.
+	 * @throws IOException if the baseline cannot be read.
+	 */
+	public static Map<String, double[]> readBaseline(InputStream in) throws IOException {
+		StringBuilder json = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				json.append(line).append('\n');
+			}
+		}
+
+		Map<String, double[]> baseline = new LinkedHashMap<String, double[]>();
+		Matcher matcher = METRIC.matcher(json);
+		while(matcher.find()) {
+			baseline.put(matcher.group(1), new double[] { Double.parseDouble(matcher.group(2)), Double.parseDouble(matcher.group(3)) });
+		}
+
+		return baseline;
+	}
+
+	/**
+	 * writeBaseline() writes the metrics of a run as a baseline.
+	 *
+	 * @param writer the baseline JSON.
+	 * @param result the metrics of the run.
+	 * @param tolerance the tolerance of every metric.
+	 * @throws IOException if the baseline cannot be written.
+	 */
+	public static void writeBaseline(Writer writer, Map<String, Double> result, double tolerance) throws IOException {
+		writer.write("{\n");
+
+		for(int i = 0; i < BASELINE_METRICS.size(); i++) {
+			String name = BASELINE_METRICS.get(i);
+			writer.write(String.format(Locale.ROOT, "\t\"%s\": {\"value\": %.2f, \"tolerance\": %.2f}%s\n",
+					name, result.get(name), tolerance, (i + 1 < BASELINE_METRICS.size()) ? "," : ""));
+		}
+
+		writer.write("}\n");
+	}
+
+	/**
+	 * describe() returns the metrics of a run on a line.
+	 */
+	public static String describe(Map<String, Double> result) {
+		return String.format(Locale.ROOT, "%.0f playlists in %.1f playlists/s, p50 %.2f ms, p99 %.2f ms, peak RSS %.1f MB, GC %.0f collections in %.0f ms",
+				result.get("playlists"), result.get("playlistsPerSecond"), result.get("p50Millis"), result.get("p99Millis"),
+				result.get("peakRssMb"), result.get("gcCount"), result.get("gcMillis"));
+	}
+
+	/**
+	 * runQuietly() runs the application with it's console output discarded.
+	 */
+	private static void runQuietly(String[] args) {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+
+		try {
+			HTTPLiveStreamingValidator.main(args);
+		} finally {
+			System.setOut(out);
+		}
+	}
+
+	private static long quantile(List<Long> sorted, double quantile) {
+		if(sorted.isEmpty()) {
+			return 0;
+		}
+
+		return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(quantile * sorted.size()) - 1));
+	}
+
+	/**
+	 * gcTotals() returns the collections and milliseconds spent collecting of every collector.
+	 */
+	private static long[] gcTotals() {
+		long[] totals = new long[2];
+
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			totals[0] += Math.max(0, gc.getCollectionCount());
+			totals[1] += Math.max(0, gc.getCollectionTime());
+		}
+
+		return totals;
+	}
+
+	/**
+	 * peakRssKb() returns the peak resident set size of the process, or 0 where /proc is not available.
+	 */
+	private static long peakRssKb() {
+		try {
+			for(String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.UTF_8)) {
+				if(line.startsWith("VmHWM:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		} catch(IOException | RuntimeException e) {
+			//Not on Linux
+		}
+
+		return 0;
+	}
+
+	/**
+	 * resetPeakRss() resets the peak resident set size to the current one, where the kernel allows it.
+	 */
+	private static void resetPeakRss() {
+		try (FileOutputStream clear = new FileOutputStream("/proc/self/clear_refs")) {
+			clear.write('5');
+		} catch(IOException e) {
+			//The peak includes the warm-ups
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		String baselinePath = null;
+		String writePath = null;
+		double tolerance = 0;
+		PipelineBenchmark benchmark = new PipelineBenchmark(corpus());
+
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("--baseline") && i + 1 < args.length) {
+				baselinePath = args[++i];
+			} else if(args[i].equals("--write-baseline") && i + 1 < args.length) {
+				writePath = args[++i];
+			} else if(args[i].equals("--masters") && i + 1 < args.length) {
+				benchmark.setMasters(Integer.parseInt(args[++i]));
+			} else if(args[i].equals("--tolerance") && i + 1 < args.length) {
+				tolerance = Double.parseDouble(args[++i]);
+			} else {
+				System.err.println("Unknown option '" + args[i] + "'.");
+				System.exit(2);
+			}
+		}
+
+		Map<String, Double> result = benchmark.run();
+		System.err.println(describe(result));
+
+		if(writePath != null) {
+			try (Writer writer = Files.newBufferedWriter(Paths.get(writePath), StandardCharsets.UTF_8)) {
+				writeBaseline(writer, result, (tolerance > 0) ? tolerance : DEFAULT_TOLERANCE);
+			}
+		}
+
+		if(baselinePath != null) {
+			List<String> regressions;
+			try (InputStream in = Files.newInputStream(Paths.get(baselinePath))) {
+				regressions = compare(result, readBaseline(in), tolerance);
+			}
+
+			for(String regression : regressions) {
+				System.err.println("REGRESSION " + regression);
+			}
+			System.exit(regressions.isEmpty() ? 0 : 1);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package edu.psgv.sweng861.bench;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class PipelineBenchmarkTest {
+
+	private static final String BASELINE = "/bench-baseline.json";
+
+	@Test
+	public final void testCompare() throws Exception {
+		Map<String, Double> result = new LinkedHashMap<String, Double>();
+		result.put("playlistsPerSecond", 100.0);
+		result.put("p50Millis", 10.0);
+		result.put("p99Millis", 50.0);
+		result.put("peakRssMb", 200.0);
+		result.put("gcMillis", 0.0);
+
+		StringWriter baseline = new StringWriter();
+		PipelineBenchmark.writeBaseline(baseline, result, 1.5);
+		Map<String, double[]> metrics = PipelineBenchmark.readBaseline(new ByteArrayInputStream(baseline.toString().getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(5, metrics.size());
+		assertArrayEquals(new double[] { 50.0, 1.5 }, metrics.get("p99Millis"), 0.0);
+		assertEquals(Collections.emptyList(), PipelineBenchmark.compare(result, metrics, 0));
+
+		//Slower, within the tolerance and beyond it
+		result.put("playlistsPerSecond", 70.0);
+		result.put("p99Millis", 74.0);
+		result.put("gcMillis", 1.4);
+		assertEquals(Collections.emptyList(), PipelineBenchmark.compare(result, metrics, 0));
+
+		result.put("playlistsPerSecond", 60.0);
+		result.put("p99Millis", 80.0);
+		List<String> regressions = PipelineBenchmark.compare(result, metrics, 0);
+		assertEquals(2, regressions.size());
+		assertTrue(regressions.get(0).startsWith("playlistsPerSecond: 60.00"));
+		assertTrue(regressions.get(1).startsWith("p99Millis: 80.00"));
+
+		assertEquals(Collections.emptyList(), PipelineBenchmark.compare(result, metrics, 2));
+	}
+
+	/**
+	 * Runs the benchmark against the stored baseline when run with -Dbench=true; the
+	 * 	tolerance of every metric can be overridden with -Dbench.tolerance=<factor>.
+	 */
+	@Test
+	public final void testAgainstBaseline() throws Exception {
+		Assume.assumeTrue(Boolean.getBoolean("bench"));
+
+		Map<String, Double> result = new PipelineBenchmark(PipelineBenchmark.corpus()).run();
+		System.err.println(PipelineBenchmark.describe(result));
+
+		List<String> regressions;
+		try (InputStream in = PipelineBenchmarkTest.class.getResourceAsStream(BASELINE)) {
+			regressions = PipelineBenchmark.compare(result, PipelineBenchmark.readBaseline(in), Double.parseDouble(System.getProperty("bench.tolerance", "0")));
+		}
+
+		assertEquals(Collections.emptyList(), regressions);
+	}
+
+}
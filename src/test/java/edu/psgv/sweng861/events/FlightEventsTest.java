@@ -0,0 +1,81 @@
+package edu.psgv.sweng861.events;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.psgv.sweng.events.FlightEvents;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.playlist.PlaylistFactory;
+import edu.psgv.sweng.validation.RuleEngine;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+public class FlightEventsTest {
+
+	List<String> media = Arrays.asList("#EXTM3U", "#EXT-X-TARGETDURATION:10", "#EXT-X-TARGETDURATION:10",
+			"#EXTINF:9.0,", "#EXT-X-ALLOW-CACHE:NO", "seg1.ts", "  ", "#EXT-X-ENDLIST");
+
+	@Test
+	public final void testRecordedEvents() throws Exception {
+		String url = "http://example.com/events.m3u8";
+		Path file = Files.createTempFile("events", ".jfr");
+
+		List<String> errors;
+		try(Recording recording = new Recording()) {
+			recording.enable("edu.psgv.sweng.Parse");
+			recording.enable("edu.psgv.sweng.Rule");
+			recording.start();
+
+			Playlist playlist = PlaylistFactory.create(url, media);
+			errors = RuleEngine.discover().validateMediaPlaylist((MediaPlaylist) playlist);
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		Map<String, Integer> findings = new HashMap<String, Integer>();
+		int parses = 0;
+		for(RecordedEvent event : RecordingFile.readAllEvents(file)) {
+			if(!url.equals(event.getString("url"))) {
+				continue;
+			}
+
+			if(event.getEventType().getName().equals("edu.psgv.sweng.Parse")) {
+				assertEquals("MEDIA", event.getString("type"));
+				assertEquals(media.size(), event.getInt("lines"));
+				parses++;
+			} else {
+				assertEquals(media.size(), event.getInt("lines"));
+				findings.put(event.getString("rule"), event.getInt("findings"));
+			}
+		}
+		Files.delete(file);
+
+		assertEquals(1, parses);
+		assertEquals(Integer.valueOf(1), findings.get("URISequenceValidator"));
+		assertEquals(Integer.valueOf(3), findings.get("TagContextValidator"));
+		assertTrue(findings.containsKey("MediaSegmentTimeValidator"));
+
+		int total = 0;
+		for(int count : findings.values()) {
+			total += count;
+		}
+		assertEquals(errors.size(), total);
+	}
+
+	@Test
+	public final void testDisabledByDefault() {
+		assertNull(FlightEvents.beginFetch("http://example.com/disabled.m3u8"));
+		assertNull(FlightEvents.beginRule("http://example.com/disabled.m3u8", "FirstTagValidator", true));
+	}
+
+}
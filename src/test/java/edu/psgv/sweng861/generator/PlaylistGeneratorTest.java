@@ -0,0 +1,89 @@
+package edu.psgv.sweng861.generator;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import edu.psgv.sweng.generator.PlaylistGenerator;
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.playlist.PlaylistFactory;
+import edu.psgv.sweng.validation.RuleEngine;
+import edu.psgv.sweng.validation.Validator;
+import org.junit.Test;
+
+public class PlaylistGeneratorTest {
+
+	private PlaylistGenerator everything(long seed) {
+		return new PlaylistGenerator(seed).setSegments(120).setVariants(6).setRenditions(2).setByteRanges(true)
+				.setKeyRotation(10).setDiscontinuityEvery(40).setDateRangeEvery(25);
+	}
+
+	@Test
+	public final void testSeeded() {
+		assertEquals(everything(7).media(3), everything(7).media(3));
+		assertEquals(everything(7).master(), everything(7).master());
+		assertNotEquals(everything(7).media(3), everything(8).media(3));
+	}
+
+	@Test
+	public final void testGeneratedPlaylistsAreValid() throws Exception {
+		File dir = Files.createTempDirectory("generated").toFile();
+		File masterFile = everything(11).writeTo(dir);
+
+		List<String> lines = Files.readAllLines(masterFile.toPath(), StandardCharsets.UTF_8);
+		Playlist master = PlaylistFactory.create("file://" + masterFile.getAbsolutePath(), lines);
+		assertTrue(master instanceof MasterPlaylist);
+
+		master.acceptAll(Collections.<Validator>singletonList(RuleEngine.discover()));
+
+		assertEquals(Collections.emptyList(), master.getErrors());
+		assertEquals(8, ((MasterPlaylist) master).getChildren().size());
+		for(MediaPlaylist child : ((MasterPlaylist) master).getChildren()) {
+			assertEquals(child.getStrURL(), Collections.emptyList(), child.getErrors());
+			assertTrue(child.getContents().size() > 3 * 120);
+		}
+	}
+
+	@Test
+	public final void testInjectedErrors() {
+		PlaylistGenerator generator = everything(3).setErrorRate(0.1);
+		RuleEngine engine = RuleEngine.discover();
+
+		int injected = generator.getInjectedErrors(1);
+		assertTrue(injected > 0);
+
+		MediaPlaylist media = (MediaPlaylist) PlaylistFactory.create("http://example.com/v1/prog.m3u8", generator.media(1));
+		assertTrue(engine.validateMediaPlaylist(media).size() >= injected);
+
+		generator = new PlaylistGenerator(3).setVariants(40).setErrorRate(0.2);
+		MasterPlaylist master = (MasterPlaylist) PlaylistFactory.create("http://example.com/master.m3u8", generator.master());
+		assertEquals(generator.getInjectedMasterErrors(), engine.validateMasterPlaylist(master).size());
+		assertTrue(generator.getInjectedMasterErrors() > 0);
+	}
+
+	@Test
+	public final void testLiveWindowSlides() {
+		PlaylistGenerator generator = new PlaylistGenerator(5).setLive(true).setSegments(6).setDiscontinuityEvery(4);
+
+		List<String> first = generator.setMediaSequence(100).media(0);
+		List<String> next = generator.setMediaSequence(101).media(0);
+
+		assertFalse(first.contains("#EXT-X-ENDLIST"));
+		assertTrue(first.contains("#EXT-X-MEDIA-SEQUENCE:100"));
+		assertTrue(first.contains("#EXT-X-DISCONTINUITY-SEQUENCE:24"));
+		assertTrue(next.contains("#EXT-X-DISCONTINUITY-SEQUENCE:25"));
+
+		//The segments still in the window keep their durations
+		assertEquals(first.get(first.indexOf("seg101.ts") - 1), next.get(next.indexOf("seg101.ts") - 1));
+		assertEquals(first.get(first.indexOf("seg105.ts") - 1), next.get(next.indexOf("seg105.ts") - 1));
+		assertTrue(next.contains("seg106.ts"));
+		assertFalse(next.contains("seg100.ts"));
+	}
+
+}
@@ -0,0 +1,126 @@
+package edu.psgv.sweng861.io;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.psgv.sweng.generator.PlaylistGenerator;
+import edu.psgv.sweng.io.FetchExecutor;
+import edu.psgv.sweng861.origin.TestOrigin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FetchExecutorTest {
+
+	private static final int HOSTS = 3;
+	private static final int MAX_FETCHES = 4;
+	private static final int MAX_PER_HOST = 2;
+
+	private TestOrigin origin;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final AtomicInteger[] hostInFlight = new AtomicInteger[HOSTS];
+	private final AtomicInteger[] hostMaxInFlight = new AtomicInteger[HOSTS];
+
+	@Before
+	public void setUp() throws Exception {
+		origin = new TestOrigin(new PlaylistGenerator(6).setSegments(10)).setLatency(100).start();
+
+		for(int h = 0; h < HOSTS; h++) {
+			hostInFlight[h] = new AtomicInteger();
+			hostMaxInFlight[h] = new AtomicInteger();
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FetchExecutor.configure(false, FetchExecutor.DEFAULT_MAX_CONCURRENCY, FetchExecutor.DEFAULT_MAX_PER_HOST);
+		origin.close();
+	}
+
+	/**
+	 * fetch() fetches a playlist of the slow origin as if it were on one of several
+	 * 	hosts, counting the fetches in flight overall and to that host.
+	 */
+	private Integer fetch(final int m) throws Exception {
+		final int h = m % HOSTS;
+
+		return FetchExecutor.fetch("http://host" + h + ".example.com/master" + m + ".m3u8", () -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			hostMaxInFlight[h].accumulateAndGet(hostInFlight[h].incrementAndGet(), Math::max);
+			try (InputStream in = new URL(origin.getMasterUrl(m)).openStream()) {
+				int length = 0;
+				while(in.read() >= 0) {
+					length++;
+				}
+				return length;
+			} finally {
+				hostInFlight[h].decrementAndGet();
+				inFlight.decrementAndGet();
+			}
+		});
+	}
+
+	@Test
+	public void testPermits() throws Exception {
+		FetchExecutor.configure(true, MAX_FETCHES, MAX_PER_HOST);
+
+		List<Future<Integer>> fetches = new ArrayList<Future<Integer>>();
+		for(int m = 0; m < 24; m++) {
+			final int master = m;
+			fetches.add(FetchExecutor.submit(() -> fetch(master)));
+		}
+		for(Future<Integer> fetch : fetches) {
+			assertTrue(fetch.get() > 0);
+		}
+
+		//The caps are reached but never exceeded, overall and per host
+		assertEquals(MAX_FETCHES, maxInFlight.get());
+		assertTrue(origin.getMaxInFlight() <= MAX_FETCHES);
+		for(int h = 0; h < HOSTS; h++) {
+			assertEquals(MAX_PER_HOST, hostMaxInFlight[h].get());
+		}
+
+		//Once nothing is in flight the permits of the hosts are let go
+		assertEquals(0, FetchExecutor.getInFlight());
+		assertEquals(0, FetchExecutor.getWaiting());
+		assertEquals(0, FetchExecutor.getHostCount());
+	}
+
+	@Test
+	public void testSequential() throws Exception {
+		FetchExecutor.configure(false, MAX_FETCHES, MAX_PER_HOST);
+
+		for(int m = 0; m < 3; m++) {
+			assertTrue(FetchExecutor.submit(() -> fetch(1)).get() > 0);
+		}
+
+		assertEquals(1, maxInFlight.get());
+		assertEquals(0, FetchExecutor.getHostCount());
+	}
+
+	@Test
+	public void testStartOnOwnThread() throws Exception {
+		FetchExecutor.configure(false, MAX_FETCHES, MAX_PER_HOST);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		//Sequential or not, a started task does not run inline
+		Future<String> task = FetchExecutor.start(() -> {
+			release.await();
+			return Thread.currentThread().getName();
+		});
+		assertFalse(task.isDone());
+
+		release.countDown();
+		assertNotEquals(Thread.currentThread().getName(), task.get(10, TimeUnit.SECONDS));
+	}
+
+}
@@ -2,24 +2,114 @@ package edu.psgv.sweng861.io;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.psgv.sweng.generator.PlaylistGenerator;
 import edu.psgv.sweng.io.HLSUtilities;
+import edu.psgv.sweng.validation.ClassifiedLines;
+import edu.psgv.sweng.validation.LineType;
+import edu.psgv.sweng861.origin.TestOrigin;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 public class HLSUtilitiesTest {
 
+	private TestOrigin origin;
+
 	@Before
 	public void setUp() throws Exception {
+		origin = new TestOrigin(new PlaylistGenerator(42).setSegments(50).setVariants(2)).start();
 	}
 
 	@After
 	public void tearDown() throws Exception {
+		origin.close();
 	}
 
 	@Test
 	public final void testGetUrlContents() {
-		fail("Not yet implemented"); // TODO
+		PlaylistGenerator generator = origin.generator(0);
+
+		assertEquals(generator.master(), HLSUtilities.getUrlContents(origin.getMasterUrl(0)));
+		assertEquals(generator.media(1), HLSUtilities.getUrlContents(origin.getMediaUrl(0, 1)));
+
+		//Served compressed or not, the lines are the same
+		origin.setCompression(false).setLatency(50).setBandwidth(4096);
+		long start = System.nanoTime();
+		assertEquals(generator.media(1), HLSUtilities.getUrlContents(origin.getMediaUrl(0, 1)));
+		assertTrue(System.nanoTime() - start >= 50000000L);
+	}
+
+	@Test
+	public final void testGetUrlContentsFailures() {
+		origin.fail("/master0/master.m3u8", TestOrigin.Fault.NOT_FOUND)
+				.fail("/master1/master.m3u8", TestOrigin.Fault.SERVER_ERROR)
+				.fail("/master2/master.m3u8", TestOrigin.Fault.TOO_MANY_REQUESTS)
+				.fail("/master3/master.m3u8", TestOrigin.Fault.RESET);
+
+		for(int m = 0; m < 4; m++) {
+			assertNull(HLSUtilities.getUrlContents(origin.getMasterUrl(m)));
+		}
+		assertNull(HLSUtilities.getUrlContents(origin.getUrl("/master4/missing.m3u8")));
+		assertNotNull(HLSUtilities.getUrlContents(origin.getMasterUrl(4)));
+		assertEquals(4, origin.getFaults());
+	}
+
+	@Test
+	public final void testConditionalRequest() throws Exception {
+		HttpURLConnection connection = HLSUtilities.getURLConnection(origin.getMediaUrl(0, 0));
+		assertEquals(200, connection.getResponseCode());
+		assertEquals("gzip", connection.getContentEncoding());
+		String etag = connection.getHeaderField("ETag");
+		connection.disconnect();
+
+		connection = HLSUtilities.getURLConnection(origin.getMediaUrl(0, 0));
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(304, connection.getResponseCode());
+		connection.disconnect();
+
+		assertEquals(1, origin.getNotModified());
+	}
+
+	@Test
+	public final void testReadLines() throws Exception {
+		byte[] body = "#EXTM3U\r\n#EXTINF:4,caf\u00e9\nseg1.ts\r\rlast".getBytes(StandardCharsets.UTF_8);
+		List<String> expected = Arrays.asList("#EXTM3U", "#EXTINF:4,caf\u00e9", "seg1.ts", "", "last");
+		ClassifiedLines lines = new ClassifiedLines();
+
+		HLSUtilities.readLines(new ByteArrayInputStream(body), lines);
+		assertEquals(expected, lines);
+
+		//Lines are classified as they are read, but for tags that are not plain ASCII
+		assertEquals(LineType.TAG_TYPE, lines.getType(0));
+		assertEquals(7, lines.getNameEnd(0));
+		assertNull(lines.getType(1));
+		assertEquals(LineType.URI_TYPE, lines.getType(2));
+		assertEquals(LineType.BLANK_TYPE, lines.getType(3));
+
+		//A byte at a time, so '\r\n' and the bytes of '\u00e9' are split across reads
+		lines.clear();
+		HLSUtilities.readLines(new TrickleInputStream(body), lines);
+		assertEquals(expected, lines);
+	}
+
+	@Test
+	public final void testReadLinesLongerThanChunk() throws Exception {
+		String longLine = String.join("", Collections.nCopies(3000, "\u00e9ab"));
+		byte[] body = ("#EXTM3U\n" + longLine + "\r\n" + longLine).getBytes(StandardCharsets.UTF_8);
+		ClassifiedLines lines = new ClassifiedLines();
+
+		HLSUtilities.readLines(new ByteArrayInputStream(body), lines);
+
+		assertEquals(Arrays.asList("#EXTM3U", longLine, longLine), lines);
 	}
 
 	@Test
@@ -34,4 +124,17 @@ public class HLSUtilitiesTest {
 		assertEquals(expectedURL, actualURL);
 	}
 
+	/* Returns at most one byte per read */
+	private static class TrickleInputStream extends FilterInputStream {
+
+		TrickleInputStream(byte[] bytes) {
+			super(new ByteArrayInputStream(bytes));
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, 1));
+		}
+	}
+
 }
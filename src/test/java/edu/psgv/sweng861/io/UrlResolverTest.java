@@ -0,0 +1,39 @@
+package edu.psgv.sweng861.io;
+
+import static org.junit.Assert.*;
+
+import edu.psgv.sweng.io.UrlResolver;
+import org.junit.Test;
+
+public class UrlResolverTest {
+
+	private static final String MASTER = "http://example.com/hls/sintel/master.m3u8?token=abc";
+
+	@Test
+	public final void testRelativePath() {
+		UrlResolver resolver = new UrlResolver(MASTER);
+
+		assertEquals("http://example.com/hls/sintel/ts/640x360.m3u8", resolver.resolve("ts/640x360.m3u8"));
+		assertEquals("http://example.com/hls/sintel/seg1.ts?part=2", resolver.resolve("seg1.ts?part=2"));
+	}
+
+	@Test
+	public final void testDotSegmentsAndAbsolutePaths() {
+		UrlResolver resolver = new UrlResolver(MASTER);
+
+		assertEquals("http://example.com/hls/audio/en.m3u8", resolver.resolve("../audio/en.m3u8"));
+		assertEquals("http://example.com/hls/sintel/keys/k1", resolver.resolve("./keys/k1"));
+		assertEquals("http://example.com/other/v.m3u8", resolver.resolve("/other/v.m3u8"));
+		assertEquals("http://cdn.example.com/v.m3u8", resolver.resolve("//cdn.example.com/v.m3u8"));
+		assertEquals("skd://key-server/k1", resolver.resolve("skd://key-server/k1"));
+		assertEquals("http://example.com/hls/sintel/master.m3u8?other", resolver.resolve("?other"));
+	}
+
+	@Test
+	public final void testFileURLs() {
+		assertEquals("file:///tmp/hls/low/index.m3u8", new UrlResolver("file:///tmp/hls/master.m3u8").resolve("low/index.m3u8"));
+		assertEquals("file:///tmp/audio/en.m3u8", new UrlResolver("file:///tmp/hls/master.m3u8").resolve("../audio/en.m3u8"));
+		assertEquals("file://src/test/resources/ts/a.m3u8", new UrlResolver("file://src/test/resources/master.m3u8").resolve("ts/a.m3u8"));
+	}
+
+}
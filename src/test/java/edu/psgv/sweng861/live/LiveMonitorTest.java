@@ -0,0 +1,106 @@
+package edu.psgv.sweng861.live;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.psgv.sweng.live.LiveMonitor;
+import edu.psgv.sweng.live.PlaylistWindow;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import org.junit.Test;
+
+public class LiveMonitorTest {
+
+	@Test
+	public final void testBlockingRequestForNextPart() {
+		PlaylistWindow window = PlaylistWindow.parse(Arrays.asList(
+				"#EXTM3U",
+				"#EXT-X-TARGETDURATION:4",
+				"#EXT-X-SERVER-CONTROL:CAN-BLOCK-RELOAD=YES,PART-HOLD-BACK=3.0",
+				"#EXT-X-PART-INF:PART-TARGET=1.0",
+				"#EXT-X-MEDIA-SEQUENCE:266",
+				"#EXTINF:4.0,",
+				"fileSequence266.mp4",
+				"#EXT-X-PART:DURATION=1.0,URI=\"filePart267.0.mp4\"",
+				"#EXT-X-PART:DURATION=1.0,URI=\"filePart267.1.mp4\""));
+
+		assertTrue(window.canBlockReload());
+		assertEquals(267, window.getNextMediaSequence());
+		assertEquals("http://example.com/live.m3u8?_HLS_msn=267&_HLS_part=2", LiveMonitor.blockingRequest("http://example.com/live.m3u8", window));
+	}
+
+	@Test
+	public final void testBlockingRequestWithoutParts() {
+		PlaylistWindow window = PlaylistWindow.parse(Arrays.asList(
+				"#EXTM3U",
+				"#EXT-X-TARGETDURATION:6",
+				"#EXT-X-SERVER-CONTROL:CAN-BLOCK-RELOAD=YES",
+				"#EXT-X-MEDIA-SEQUENCE:10",
+				"#EXTINF:6.0,",
+				"a.ts",
+				"#EXTINF:6.0,",
+				"b.ts"));
+
+		assertFalse(window.hasParts());
+		assertEquals("http://example.com/live.m3u8?token=1&_HLS_msn=12", LiveMonitor.blockingRequest("http://example.com/live.m3u8?token=1", window));
+	}
+
+	@Test
+	public final void testRunMergesDeltasAndChecksFullReloads() {
+		String header = "#EXTM3U\n#EXT-X-VERSION:9\n#EXT-X-TARGETDURATION:4\n#EXT-X-SERVER-CONTROL:CAN-BLOCK-RELOAD=YES,CAN-SKIP-UNTIL=24\n";
+		final List<List<String>> responses = new ArrayList<List<String>>();
+		responses.add(lines(header + "#EXT-X-MEDIA-SEQUENCE:100\n#EXTINF:4.0,\ns100.ts\n#EXTINF:4.0,\ns101.ts\n#EXTINF:4.0,\ns102.ts"));
+		responses.add(lines(header + "#EXT-X-MEDIA-SEQUENCE:101\n#EXT-X-SKIP:SKIPPED-SEGMENTS=2\n#EXTINF:4.0,\ns103.ts"));
+		responses.add(lines(header + "#EXT-X-MEDIA-SEQUENCE:102\n#EXT-X-SKIP:SKIPPED-SEGMENTS=2\n#EXTINF:4.0,\ns104.ts"));
+		//The full reload disagrees with the merged segment 103, and adds 105
+		responses.add(lines(header + "#EXT-X-MEDIA-SEQUENCE:102\n#EXTINF:4.0,\ns102.ts\n#EXTINF:3.9,\ns103.ts\n#EXTINF:4.0,\ns104.ts\n#EXTINF:4.0,\ns105.ts"));
+		responses.add(lines(header + "#EXT-X-MEDIA-SEQUENCE:103\n#EXT-X-SKIP:SKIPPED-SEGMENTS=3\n#EXTINF:4.0,\ns106.ts\n#EXT-X-ENDLIST"));
+
+		final List<String> requests = new ArrayList<String>();
+		final List<MediaPlaylist> validated = new ArrayList<MediaPlaylist>();
+		LiveMonitor monitor = new LiveMonitor("http://example.com/live.m3u8", request -> {
+			requests.add(request);
+			return responses.isEmpty() ? null : responses.remove(0);
+		}, validated::add, 10, 2);
+
+		monitor.run();
+
+		//Delta updates until a full reload is due, then deltas again
+		assertEquals(5, requests.size());
+		assertEquals("http://example.com/live.m3u8", requests.get(0));
+		assertEquals("http://example.com/live.m3u8?_HLS_msn=103&_HLS_skip=YES", requests.get(1));
+		assertEquals("http://example.com/live.m3u8?_HLS_msn=104&_HLS_skip=YES", requests.get(2));
+		assertEquals("http://example.com/live.m3u8?_HLS_msn=105", requests.get(3));
+		assertEquals("http://example.com/live.m3u8?_HLS_msn=106&_HLS_skip=YES", requests.get(4));
+
+		//Each segment is validated once it is new; the mismatching full reload is validated whole
+		assertEquals(5, validated.size());
+		assertEquals(Arrays.asList("s100.ts", "s101.ts", "s102.ts"), uris(validated.get(0)));
+		assertEquals(Arrays.asList("s103.ts"), uris(validated.get(1)));
+		assertEquals(Arrays.asList("s104.ts"), uris(validated.get(2)));
+		assertEquals(Arrays.asList("s102.ts", "s103.ts", "s104.ts", "s105.ts"), uris(validated.get(3)));
+		assertEquals(Collections.singletonList("[SEVERE | line 8: Media segment 103 differs from the playlist merged from delta updates."),
+				validated.get(3).getErrors());
+		assertEquals(Arrays.asList("s106.ts"), uris(validated.get(4)));
+
+		assertTrue(monitor.summary(), monitor.summary().contains("delta_reloads=3 skipped_segments=7 full_reload_checks=1 merge_mismatches=1"));
+	}
+
+	private static List<String> lines(String text) {
+		return Arrays.asList(text.split("\n"));
+	}
+
+	private static List<String> uris(MediaPlaylist playlist) {
+		List<String> uris = new ArrayList<String>();
+		for(String line : playlist.getContents()) {
+			if(line.endsWith(".ts")) {
+				uris.add(line);
+			}
+		}
+		return uris;
+	}
+
+}
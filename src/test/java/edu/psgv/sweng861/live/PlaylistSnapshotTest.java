@@ -0,0 +1,72 @@
+package edu.psgv.sweng861.live;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.psgv.sweng.live.PlaylistSnapshot;
+import org.junit.Test;
+
+public class PlaylistSnapshotTest {
+
+	private static final List<String> FULL = Arrays.asList(
+			"#EXTM3U",
+			"#EXT-X-TARGETDURATION:4",
+			"#EXT-X-SERVER-CONTROL:CAN-SKIP-UNTIL=24",
+			"#EXT-X-MEDIA-SEQUENCE:100",
+			"#EXTINF:4.0,",
+			"s100.ts",
+			"#EXTINF:4.0,",
+			"s101.ts",
+			"#EXTINF:4.0,",
+			"s102.ts");
+
+	@Test
+	public final void testApplyDelta() {
+		PlaylistSnapshot delta = PlaylistSnapshot.parse(Arrays.asList(
+				"#EXTM3U",
+				"#EXT-X-TARGETDURATION:4",
+				"#EXT-X-SERVER-CONTROL:CAN-SKIP-UNTIL=24",
+				"#EXT-X-MEDIA-SEQUENCE:101",
+				"#EXT-X-SKIP:SKIPPED-SEGMENTS=2",
+				"#EXTINF:4.0,",
+				"s103.ts"));
+
+		PlaylistSnapshot merged = PlaylistSnapshot.parse(FULL).applyDelta(delta);
+
+		assertNotNull(merged);
+		assertEquals(101, merged.getMediaSequence());
+		assertEquals(104, merged.getNextMediaSequence());
+		assertEquals(Arrays.asList("#EXTINF:4.0,", "s102.ts"), merged.getSegment(102));
+		assertEquals(Arrays.asList("#EXTM3U", "#EXT-X-TARGETDURATION:4", "#EXT-X-SERVER-CONTROL:CAN-SKIP-UNTIL=24",
+				"#EXT-X-MEDIA-SEQUENCE:103", "#EXTINF:4.0,", "s103.ts"), merged.regionFrom(103));
+	}
+
+	@Test
+	public final void testApplyDeltaNotHeld() {
+		PlaylistSnapshot delta = PlaylistSnapshot.parse(Arrays.asList(
+				"#EXTM3U",
+				"#EXT-X-MEDIA-SEQUENCE:99",
+				"#EXT-X-SKIP:SKIPPED-SEGMENTS=2",
+				"#EXTINF:4.0,",
+				"s101.ts"));
+
+		assertNull(PlaylistSnapshot.parse(FULL).applyDelta(delta));
+	}
+
+	@Test
+	public final void testFindMismatch() {
+		PlaylistSnapshot reload = PlaylistSnapshot.parse(Arrays.asList(
+				"#EXTM3U",
+				"#EXT-X-MEDIA-SEQUENCE:101",
+				"#EXTINF:4.0,",
+				"s101.ts",
+				"#EXTINF:3.9,",
+				"s102.ts"));
+
+		assertEquals(-1, PlaylistSnapshot.parse(FULL).findMismatch(PlaylistSnapshot.parse(FULL)));
+		assertEquals(102, PlaylistSnapshot.parse(FULL).findMismatch(reload));
+	}
+
+}
@@ -0,0 +1,92 @@
+package edu.psgv.sweng861.metrics;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.psgv.sweng.metrics.Counter;
+import edu.psgv.sweng.metrics.LatencyHistogram;
+import edu.psgv.sweng.metrics.Metrics;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public final void testQuantiles() {
+		LatencyHistogram histogram = Metrics.histogram("test_quantiles_seconds");
+
+		assertEquals(0, histogram.getValueAtQuantile(0.5));
+
+		for(long value = 1; value <= 100000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assertEquals(100000, histogram.getCount());
+		assertEquals(100000000L, histogram.getMax());
+		assertEquals(50000500.0, histogram.getMean(), 0.001);
+
+		double[] quantiles = { 0.01, 0.5, 0.9, 0.99, 0.999 };
+		for(double quantile : quantiles) {
+			double expected = quantile * 100000000L;
+			long actual = histogram.getValueAtQuantile(quantile);
+
+			assertTrue("p" + quantile + " was " + actual, Math.abs(actual - expected) <= expected / 32 + 1000);
+		}
+		assertEquals(100000000L, histogram.getValueAtQuantile(1.0));
+	}
+
+	@Test
+	public final void testSmallAndLargeValues() {
+		LatencyHistogram histogram = Metrics.histogram("test_range_seconds");
+
+		histogram.record(-5);
+		histogram.record(7);
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(0, histogram.getValueAtQuantile(0.1));
+		assertEquals(7, histogram.getValueAtQuantile(0.5));
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtQuantile(1.0));
+	}
+
+	@Test
+	public final void testConcurrentRecording() throws Exception {
+		final LatencyHistogram histogram = Metrics.histogram("test_concurrent_seconds");
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for(int t = 0; t < 4; t++) {
+			Thread thread = new Thread(() -> {
+				for(int i = 0; i < 10000; i++) {
+					histogram.record(i);
+					Metrics.counter("test_concurrent_total", "thread", "any").increment();
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(40000, histogram.getCount());
+		assertEquals(40000, Metrics.counter("test_concurrent_total", "thread", "any").get());
+	}
+
+	@Test
+	public final void testRegistry() {
+		Counter counter = Metrics.counter("test_registry_total", "host", "a\"b");
+
+		assertSame(counter, Metrics.counter("test_registry_total", "host", "a\"b"));
+		assertNotSame(counter, Metrics.counter("test_registry_total", "host", "c"));
+		assertEquals("test_registry_total{host=\"a\\\"b\"}", counter.getKey());
+		assertTrue(Metrics.dump().contains("test_registry_total{host=\"c\"} 0\n"));
+
+		try {
+			Metrics.histogram("test_registry_total", "host", "c");
+			fail("A counter should not be returned as a histogram.");
+		} catch(IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+}
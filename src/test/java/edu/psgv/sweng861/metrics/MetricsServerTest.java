@@ -0,0 +1,70 @@
+package edu.psgv.sweng861.metrics;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import edu.psgv.sweng.metrics.Metrics;
+import edu.psgv.sweng.metrics.MetricsServer;
+import edu.psgv.sweng.metrics.PrometheusFormat;
+import org.junit.After;
+import org.junit.Test;
+
+public class MetricsServerTest {
+
+	@After
+	public final void tearDown() {
+		MetricsServer.stop();
+	}
+
+	@Test
+	public final void testFormat() {
+		Metrics.counter("test_format_total", "rule", "A").add(3);
+		Metrics.counter("test_format_total", "rule", "B").increment();
+		Metrics.gauge("test_format_ratio", () -> Double.NaN);
+		Metrics.histogram("test_format_seconds", "host", "h").record(2000000000L);
+
+		String text = PrometheusFormat.format();
+
+		assertEquals(text.indexOf("# TYPE test_format_total counter\n"), text.lastIndexOf("# TYPE test_format_total "));
+		assertTrue(text.contains("test_format_total{rule=\"A\"} 3\n"));
+		assertTrue(text.contains("test_format_total{rule=\"B\"} 1\n"));
+		assertTrue(text.contains("# TYPE test_format_ratio gauge\ntest_format_ratio NaN\n"));
+		assertTrue(text.contains("# TYPE test_format_seconds summary\n"));
+		assertTrue(text.contains("test_format_seconds{host=\"h\",quantile=\"0.5\"} 2\n"));
+		assertTrue(text.contains("test_format_seconds_sum{host=\"h\"} 2\n"));
+		assertTrue(text.contains("test_format_seconds_count{host=\"h\"} 1\n"));
+	}
+
+	@Test
+	public final void testScrape() throws Exception {
+		Metrics.counter("test_scrape_total").increment();
+		assertTrue(MetricsServer.start(0));
+		assertTrue(MetricsServer.getPort() > 0);
+
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + MetricsServer.getPort() + MetricsServer.PATH).openConnection();
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(PrometheusFormat.CONTENT_TYPE, connection.getContentType());
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try(InputStream in = connection.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			for(int read; (read = in.read(buffer)) != -1; ) {
+				body.write(buffer, 0, read);
+			}
+		}
+		assertTrue(new String(body.toByteArray(), StandardCharsets.UTF_8).contains("test_scrape_total 1\n"));
+
+		connection = (HttpURLConnection) new URL("http://127.0.0.1:" + MetricsServer.getPort() + MetricsServer.PATH).openConnection();
+		connection.setRequestMethod("POST");
+		assertEquals(405, connection.getResponseCode());
+
+		MetricsServer.stop();
+		assertEquals(-1, MetricsServer.getPort());
+	}
+
+}
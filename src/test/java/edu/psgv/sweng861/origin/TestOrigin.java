@@ -0,0 +1,434 @@
+package edu.psgv.sweng861.origin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import edu.psgv.sweng.generator.PlaylistGenerator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * TestOrigin is an HTTP origin on the loopback interface serving the playlists of a
+ * 	PlaylistGenerator, for end-to-end tests of the validator that need no network.
+ * 	Master 'k' is served at '/master<k>/master.m3u8' from a copy of the generator
+ * 	seeded with seed + k, it's Media Playlists next to it, and any '.ts' or '.bin'
+ * 	path as a segment or key of filler bytes.
+ *
+ * 	Responses can be delayed and throttled, and faults injected: a path can always
+ * 	fail, or a share of all playlist requests can fail, decided from the path and
+ * 	how often it was requested so that runs are repeatable.  Every response carries
+ * 	an 'ETag' and is answered with 304 when it matches 'If-None-Match'; playlists are
+ * 	gzip compressed when the client accepts it.  Live playlists advance their window
+ * 	by a segment every given interval.
+ */
+public class TestOrigin implements Closeable {
+
+	public enum Fault {
+		NOT_FOUND(404), SERVER_ERROR(500), TOO_MANY_REQUESTS(429), RESET(0);
+
+		private final int status;
+
+		private Fault(int status) {
+			this.status = status;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+	}
+
+	private static final String PLAYLIST_TYPE = "application/vnd.apple.mpegurl";
+
+	private final PlaylistGenerator generator;
+	private final Map<String, byte[]> staticBodies = new ConcurrentHashMap<String, byte[]>();
+	private final Map<String, byte[]> gzipBodies = new ConcurrentHashMap<String, byte[]>();
+	private final Map<String, Fault> pathFaults = new ConcurrentHashMap<String, Fault>();
+	private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<String, AtomicInteger>();
+	private final AtomicInteger totalRequests = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+	private final AtomicInteger faults = new AtomicInteger();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	private volatile long latencyMillis = 0;
+	private volatile long bytesPerSecond = 0;
+	private volatile boolean compression = true;
+	private volatile double faultRate = 0;
+	private volatile Fault[] rateFaults = Fault.values();
+	private volatile long advanceMillis = 0;
+	private volatile int segmentBytes = 16 * 1024;
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private long startNanos;
+
+	/**
+	 * @param generator the generator of the served playlists; it's seed and media
+	 * 	sequence are those of master 0 and the start of a live window.
+	 */
+	public TestOrigin(PlaylistGenerator generator) {
+		this.generator = generator;
+	}
+
+	/**
+	 * @param latencyMillis how long every response waits before it's headers are sent.
+	 */
+	public TestOrigin setLatency(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+		return this;
+	}
+
+	/**
+	 * @param bytesPerSecond the rate response bodies are written at, or 0 for unthrottled.
+	 */
+	public TestOrigin setBandwidth(long bytesPerSecond) {
+		this.bytesPerSecond = bytesPerSecond;
+		return this;
+	}
+
+	public TestOrigin setCompression(boolean compression) {
+		this.compression = compression;
+		return this;
+	}
+
+	/**
+	 * @param faultRate the share of playlist requests failing with one of the faults.
+	 * @param faults the faults to pick from; every kind if none are given.
+	 */
+	public TestOrigin setFaultRate(double faultRate, Fault... faults) {
+		this.faultRate = faultRate;
+		this.rateFaults = (faults.length > 0) ? faults : Fault.values();
+		return this;
+	}
+
+	/**
+	 * @param path the path that fails on every request.
+	 * @param fault how it fails.
+	 */
+	public TestOrigin fail(String path, Fault fault) {
+		pathFaults.put(path, fault);
+		return this;
+	}
+
+	/**
+	 * @param advanceMillis serve live playlists whose window advances by a segment this
+	 * 	often, or 0 for playlists that have ended.
+	 */
+	public TestOrigin setLive(long advanceMillis) {
+		this.advanceMillis = advanceMillis;
+		return this;
+	}
+
+	public TestOrigin setSegmentBytes(int segmentBytes) {
+		this.segmentBytes = segmentBytes;
+		return this;
+	}
+
+	/**
+	 * start() starts serving on an ephemeral port of the loopback interface.
+	 *
+	 * @return this origin.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public TestOrigin start() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "test-origin");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		server.setExecutor(executor);
+		server.createContext("/", this::handle);
+		startNanos = System.nanoTime();
+		server.start();
+		return this;
+	}
+
+	@Override
+	public void close() {
+		if(server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	public String getUrl(String path) {
+		return "http://127.0.0.1:" + getPort() + path;
+	}
+
+	public String getMasterUrl(int master) {
+		return getUrl("/master" + master + "/master.m3u8");
+	}
+
+	public String getMediaUrl(int master, int index) {
+		return getUrl("/master" + master + "/" + generator.getMediaUri(index));
+	}
+
+	/**
+	 * writeList() writes a batch list of the URLs of the first masters.
+	 *
+	 * @param file the list to write.
+	 * @param masters the number of masters to list.
+	 * @return the list.
+	 * @throws IOException if the list cannot be written.
+	 */
+	public File writeList(File file, int masters) throws IOException {
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			for(int m = 0; m < masters; m++) {
+				writer.println(getMasterUrl(m));
+			}
+		}
+
+		return file;
+	}
+
+	/**
+	 * generator() returns the generator of a master's playlists, with the window of a
+	 * 	live playlist advanced for the time since the origin started.
+	 *
+	 * @param master the number of the master.
+	 * @return the master's generator.
+	 */
+	public PlaylistGenerator generator(int master) {
+		PlaylistGenerator copy = generator.copy(generator.getSeed() + master);
+
+		if(advanceMillis > 0) {
+			long advanced = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) / advanceMillis;
+			copy.setLive(true).setMediaSequence(generator.getMediaSequence() + advanced);
+		}
+
+		return copy;
+	}
+
+	public int getRequests(String path) {
+		AtomicInteger count = requests.get(path);
+		return (count == null) ? 0 : count.get();
+	}
+
+	public int getTotalRequests() {
+		return totalRequests.get();
+	}
+
+	public int getNotModified() {
+		return notModified.get();
+	}
+
+	public int getFaults() {
+		return faults.get();
+	}
+
+	/**
+	 * getMaxInFlight() returns the most requests that were being answered at once.
+	 *
+	 * @return the peak number of concurrent requests.
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight.get();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		try {
+			String path = exchange.getRequestURI().getPath();
+			int count = requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+			totalRequests.incrementAndGet();
+
+			if(latencyMillis > 0) {
+				Thread.sleep(latencyMillis);
+			}
+
+			boolean playlist = path.endsWith(".m3u8");
+			Fault fault = pathFaults.get(path);
+			if(fault == null && playlist && faultRate > 0 && chance(path, count) < faultRate) {
+				fault = rateFaults[(int) ((path.hashCode() & 0x7fffffffL) + count) % rateFaults.length];
+			}
+
+			if(fault != null) {
+				faults.incrementAndGet();
+				if(fault == Fault.RESET) {
+					//Drop the connection without a response
+					return;
+				}
+				if(fault == Fault.TOO_MANY_REQUESTS) {
+					exchange.getResponseHeaders().set("Retry-After", "1");
+				}
+				exchange.sendResponseHeaders(fault.getStatus(), -1);
+				return;
+			}
+
+			byte[] body = playlist ? playlist(path) : filler(path);
+			if(body == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+
+			String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+			boolean gzip = playlist && compression && accept != null && accept.contains("gzip");
+
+			//Each encoding of a body is a representation of it's own
+			String etag = etag(body, gzip);
+			exchange.getResponseHeaders().set("ETag", etag);
+			if(etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+
+			if(gzip) {
+				final byte[] plain = body;
+				body = isStatic(path) ? gzipBodies.computeIfAbsent(path, p -> gzip(plain)) : gzip(plain);
+				exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", playlist ? PLAYLIST_TYPE : "application/octet-stream");
+			exchange.sendResponseHeaders(200, body.length);
+			write(exchange.getResponseBody(), body);
+
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			exchange.close();
+			inFlight.decrementAndGet();
+		}
+	}
+
+	/**
+	 * playlist() returns the body of a master or Media Playlist, or null if there is none at the path.
+	 */
+	private byte[] playlist(String path) {
+		byte[] body = staticBodies.get(path);
+		if(body != null) {
+			return body;
+		}
+
+		int slash = path.indexOf('/', 1);
+		if(!path.startsWith("/master") || slash < 0) {
+			return null;
+		}
+
+		int master;
+		try {
+			master = Integer.parseInt(path.substring("/master".length(), slash));
+		} catch(NumberFormatException e) {
+			return null;
+		}
+
+		PlaylistGenerator playlists = generator(master);
+		String uri = path.substring(slash + 1);
+		List<String> lines = null;
+
+		if(uri.equals("master.m3u8")) {
+			lines = playlists.master();
+		} else {
+			for(int i = 0; i < playlists.getMediaPlaylistCount() && lines == null; i++) {
+				if(uri.equals(playlists.getMediaUri(i))) {
+					lines = playlists.media(i);
+				}
+			}
+		}
+
+		if(lines == null) {
+			return null;
+		}
+
+		body = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+
+		if(isStatic(path)) {
+			staticBodies.put(path, body);
+		}
+
+		return body;
+	}
+
+	/**
+	 * filler() returns the body of a segment or key.
+	 */
+	private byte[] filler(String path) {
+		if(!path.endsWith(".ts") && !path.endsWith(".bin")) {
+			return null;
+		}
+
+		byte[] body = new byte[path.endsWith(".bin") ? 16 : segmentBytes];
+		for(int i = 0; i < body.length; i++) {
+			body[i] = (byte) (path.hashCode() + i);
+		}
+
+		return body;
+	}
+
+	/**
+	 * write() writes a body, in slices of a tenth of a second when throttled.
+	 */
+	private void write(OutputStream out, byte[] body) throws IOException, InterruptedException {
+		if(bytesPerSecond <= 0) {
+			out.write(body);
+			return;
+		}
+
+		int slice = (int) Math.max(1, bytesPerSecond / 10);
+		for(int offset = 0; offset < body.length; offset += slice) {
+			out.write(body, offset, Math.min(slice, body.length - offset));
+			out.flush();
+			Thread.sleep(100);
+		}
+	}
+
+	/**
+	 * chance() returns a number in [0, 1) decided by a path and how often it was requested.
+	 */
+	private double chance(String path, int count) {
+		long z = generator.getSeed() * 0x9E3779B97F4A7C15L + path.hashCode() * 0xBF58476D1CE4E5B9L + count;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	private static String etag(byte[] body, boolean gzip) {
+		CRC32 crc = new CRC32();
+		crc.update(body, 0, body.length);
+		return "\"" + Long.toHexString(crc.getValue()) + "-" + body.length + (gzip ? "-gzip" : "") + "\"";
+	}
+
+	/**
+	 * isStatic() returns whether the body at a path never changes; only the windows of
+	 * 	live Media Playlists do.
+	 */
+	private boolean isStatic(String path) {
+		return advanceMillis == 0 || path.endsWith("/master.m3u8");
+	}
+
+	private static byte[] gzip(byte[] body) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(body);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,55 @@
+package edu.psgv.sweng861.report;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.report.CsvReportSink;
+import edu.psgv.sweng.report.ReportFormat;
+import edu.psgv.sweng.report.ReportSink;
+import edu.psgv.sweng.report.ReportSinkFactory;
+import org.junit.Test;
+
+public class CsvReportSinkTest {
+
+	private static final String HEADER = "url,parent_url,type,role,valid,error_count,fatal,severe,minor,warning,errors";
+
+	@Test
+	public void testQuoting() {
+		Playlist playlist = new MediaPlaylist("http://example.com/a,b.m3u8", Arrays.asList("#EXTM3U", "seg.ts"));
+		playlist.getErrors().add("[MINOR | line 1: one, \"two\"");
+		playlist.getErrors().add("[WARNING | line 2: three\nfour");
+
+		StringWriter out = new StringWriter();
+		CsvReportSink sink = new CsvReportSink(out, false, true);
+		sink.reportPlaylist(0, playlist);
+
+		String nl = System.lineSeparator();
+		assertEquals(HEADER + nl
+				+ "\"http://example.com/a,b.m3u8\",,MEDIA,VARIANT,false,2,0,0,1,1,"
+				+ "\"[MINOR | line 1: one, \"\"two\"\"; [WARNING | line 2: three\nfour\"" + nl, out.toString());
+	}
+
+	@Test
+	public void testNoHeaderWhenAppending() throws Exception {
+		File report = File.createTempFile("report", ".csv");
+		report.deleteOnExit();
+
+		for(int run = 0; run < 2; run++) {
+			ReportSink sink = ReportSinkFactory.create(ReportFormat.CSV, report.getPath(), run > 0);
+			sink.reportUnreadable(run, "file" + run + ".m3u8");
+			sink.close();
+		}
+
+		List<String> rows = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+		assertEquals(Arrays.asList(HEADER, "file0.m3u8,,UNREADABLE,,false,0,0,0,0,0,", "file1.m3u8,,UNREADABLE,,false,0,0,0,0,0,"), rows);
+	}
+
+}
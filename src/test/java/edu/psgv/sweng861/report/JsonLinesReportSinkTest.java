@@ -0,0 +1,42 @@
+package edu.psgv.sweng861.report;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.report.JsonLinesReportSink;
+import org.junit.Test;
+
+public class JsonLinesReportSinkTest {
+
+	@Test
+	public void testEscaping() {
+		Playlist playlist = new MediaPlaylist("http://example.com/a\"b\\c.m3u8", Arrays.asList("#EXTM3U", "seg.ts"));
+		playlist.getErrors().add("[SEVERE | line 2: say \"hi\" to C:\\temp\tnow\r\nor\u0001later");
+
+		StringWriter out = new StringWriter();
+		JsonLinesReportSink sink = new JsonLinesReportSink(out, false);
+		sink.reportPlaylist(3, playlist);
+
+		String record = out.toString();
+		assertTrue(record.endsWith("}" + System.lineSeparator()));
+		assertEquals(1, record.split("\n").length);
+		assertTrue(record.startsWith("{\"seq\":3,\"url\":\"http://example.com/a\\\"b\\\\c.m3u8\",\"type\":\"MEDIA\""));
+		assertTrue(record.contains("\"errors\":[{\"severity\":\"SEVERE\",\"line\":2,"
+				+ "\"message\":\"say \\\"hi\\\" to C:\\\\temp\\tnow\\r\\nor\\u0001later\"}]"));
+		assertTrue(record.contains("\"severity\":{\"FATAL\":0,\"SEVERE\":1,\"MINOR\":0,\"WARNING\":0}"));
+	}
+
+	@Test
+	public void testUnreadable() {
+		StringWriter out = new StringWriter();
+		new JsonLinesReportSink(out, false).reportUnreadable(0, "missing\u001f.m3u8");
+
+		assertEquals("{\"seq\":0,\"url\":\"missing\\u001f.m3u8\",\"type\":\"UNREADABLE\",\"valid\":false}" + System.lineSeparator(),
+				out.toString());
+	}
+
+}
@@ -0,0 +1,72 @@
+package edu.psgv.sweng861.report;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.playlist.PlaylistFactory;
+import edu.psgv.sweng.report.ReportFormat;
+import edu.psgv.sweng.report.ReportSink;
+import edu.psgv.sweng.report.ReportSinkFactory;
+import edu.psgv.sweng.report.SummaryReportSink;
+import org.junit.Test;
+
+public class SummaryReportSinkTest {
+
+	@Test
+	public void testSeverityCounts() {
+		Playlist master = PlaylistFactory.create("http://example.com/master.m3u8", Arrays.asList("#EXTM3U",
+				"#EXT-X-STREAM-INF:BANDWIDTH=1000", "low.m3u8", "#EXT-X-STREAM-INF:BANDWIDTH=2000", "high.m3u8"));
+		assertTrue(master instanceof MasterPlaylist);
+		master.getErrors().add("[SEVERE | line 2: master");
+		((MasterPlaylist) master).getVariants().get(0).getErrors().add("[FATAL | line 1: variant");
+		((MasterPlaylist) master).getVariants().get(1).getErrors().add("[WARNING | line 3: variant");
+
+		Playlist media = new MediaPlaylist("http://example.com/media.m3u8", Arrays.asList("#EXTM3U", "seg.ts"));
+		media.getErrors().add("[MINOR | line 2: media");
+		media.getErrors().add("[MINOR | line 3: media");
+
+		Playlist valid = new MediaPlaylist("http://example.com/valid.m3u8", Arrays.asList("#EXTM3U", "seg.ts"));
+
+		StringWriter out = new StringWriter();
+		SummaryReportSink sink = new SummaryReportSink(out, false);
+		sink.reportPlaylist(0, master);
+		sink.reportPlaylist(1, media);
+		sink.reportPlaylist(2, valid);
+		sink.reportUnreadable(3, "gone.m3u8");
+		sink.close();
+
+		String[] lines = out.toString().split(System.lineSeparator());
+		assertEquals(5, lines.length);
+		assertEquals("INVALID MASTER variants=2 errors=3 fatal=1 severe=1 minor=0 warning=1  http://example.com/master.m3u8", lines[0]);
+		assertEquals("INVALID MEDIA  variants=0 errors=2 fatal=0 severe=0 minor=2 warning=0  http://example.com/media.m3u8", lines[1]);
+		assertEquals("VALID   MEDIA  variants=0 errors=0 fatal=0 severe=0 minor=0 warning=0  http://example.com/valid.m3u8", lines[2]);
+		assertEquals("UNREADABLE gone.m3u8", lines[3]);
+		assertEquals("TOTAL playlists=4 valid=1 invalid=2 unreadable=1 fatal=1 severe=1 minor=2 warning=1", lines[4]);
+	}
+
+	@Test
+	public void testAppendStartsOver() throws Exception {
+		File report = File.createTempFile("report", ".txt");
+		report.deleteOnExit();
+		Files.write(report.toPath(), "UNREADABLE old.m3u8\nTOTAL playlists=1 valid=0 inv".getBytes(StandardCharsets.UTF_8));
+
+		ReportSink sink = ReportSinkFactory.create(ReportFormat.SUMMARY, report.getPath(), true);
+		sink.reportUnreadable(0, "new.m3u8");
+		sink.close();
+
+		List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+		assertEquals(2, lines.size());
+		assertEquals("UNREADABLE new.m3u8", lines.get(0));
+		assertTrue(lines.get(1).startsWith("TOTAL playlists=1 valid=0 invalid=0 unreadable=1"));
+	}
+
+}
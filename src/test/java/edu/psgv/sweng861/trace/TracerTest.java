@@ -0,0 +1,93 @@
+package edu.psgv.sweng861.trace;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import edu.psgv.sweng.io.FetchExecutor;
+import edu.psgv.sweng.report.TraceWriter;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Trace;
+import edu.psgv.sweng.trace.Tracer;
+import org.junit.After;
+import org.junit.Test;
+
+public class TracerTest {
+
+	@After
+	public final void tearDown() {
+		Tracer.disable();
+		FetchExecutor.configure(false, FetchExecutor.DEFAULT_MAX_CONCURRENCY, FetchExecutor.DEFAULT_MAX_PER_HOST);
+	}
+
+	@Test
+	public final void testDisabled() {
+		assertNull(Tracer.startTrace(0, "http://example.com/master.m3u8"));
+		assertNull(Tracer.start("fetch", "http://example.com/master.m3u8"));
+	}
+
+	@Test
+	public final void testSpanTreeAcrossThreads() throws Exception {
+		final List<Trace> traces = new ArrayList<Trace>();
+		Tracer.enable(traces::add);
+		FetchExecutor.configure(true, 4, 4);
+
+		Span root = Tracer.startTrace(7, "http://example.com/master.m3u8");
+		assertNotNull(root);
+
+		Span prefetch = Tracer.start("prefetch", null);
+		Future<Long> fetch = FetchExecutor.submit(() -> {
+			Span span = Tracer.start("fetch", "http://example.com/v1.m3u8");
+			span.end();
+			return span.getThreadId();
+		});
+		long fetchThread = fetch.get();
+		prefetch.end();
+
+		assertTrue(traces.isEmpty());
+		root.end();
+		assertEquals(1, traces.size());
+
+		Map<String, Span> spans = new HashMap<String, Span>();
+		for(Span span : traces.get(0).getSpans()) {
+			spans.put(span.getName(), span);
+		}
+
+		assertEquals(7, traces.get(0).getSeq());
+		assertSame(root, spans.get("playlist"));
+		assertSame(spans.get("prefetch"), spans.get("fetch").getParent());
+		assertSame(root, spans.get("prefetch").getParent());
+		assertNotEquals(root.getThreadId(), fetchThread);
+		assertTrue(spans.get("fetch").getStart() >= spans.get("prefetch").getStart());
+		assertTrue(spans.get("fetch").getEnd() <= spans.get("prefetch").getEnd());
+
+		//No span is current once the trace has ended, on this thread or the ones work is handed to
+		assertNull(Tracer.start("after", null));
+		assertNull(FetchExecutor.submit(() -> Tracer.start("orphan", null)).get());
+	}
+
+	@Test
+	public final void testChromeTraceFormat() {
+		StringWriter out = new StringWriter();
+		TraceWriter writer = new TraceWriter(out);
+		Tracer.enable(writer);
+
+		Span root = Tracer.startTrace(3, "http://example.com/\"quoted\".m3u8");
+		Tracer.start("report", null).setArg("findings", 2).end();
+		root.end();
+		writer.close();
+
+		String json = out.toString();
+		assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n"));
+		assertTrue(json.endsWith("\n]}\n"));
+		assertTrue(json.contains("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":3,\"args\":{\"name\":\"http://example.com/\\\"quoted\\\".m3u8\"}}"));
+		assertTrue(json.contains("{\"name\":\"report\",\"cat\":\"hls\",\"ph\":\"X\",\"ts\":"));
+		assertTrue(json.contains("\"args\":{\"id\":2,\"parent\":1,\"findings\":2}}"));
+	}
+
+}
@@ -0,0 +1,80 @@
+package edu.psgv.sweng861.validation;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.psgv.sweng.validation.LineClassifier;
+import edu.psgv.sweng.validation.LineType;
+import org.junit.Test;
+
+public class LineClassifierTest {
+
+	private static final String MEDIA_TAG = "#EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID=\"aud\",NAME=\"English, main\",,URI=\"audio/en.m3u8\"";
+
+	@Test
+	public final void testClassify() {
+		LineClassifier classifier = new LineClassifier();
+
+		assertEquals(LineType.TAG_TYPE, classifier.classify(MEDIA_TAG));
+		assertEquals("EXT-X-MEDIA", MEDIA_TAG.substring(classifier.getNameStart(), classifier.getNameEnd()));
+		assertEquals(MEDIA_TAG.indexOf(':') + 1, classifier.getValueStart());
+		assertTrue(classifier.hasBalancedQuotes());
+
+		List<String> attributes = new ArrayList<String>();
+		for(int i = 0; i < classifier.getAttributeCount(); i++) {
+			attributes.add(MEDIA_TAG.substring(classifier.getAttributeStart(i), classifier.getAttributeEnd(i)));
+		}
+		assertEquals(Arrays.asList("TYPE=AUDIO", "GROUP-ID=\"aud\"", "NAME=\"English, main\"", "URI=\"audio/en.m3u8\""), attributes);
+
+		assertEquals(LineType.TAG_TYPE, classifier.classify("#EXT-X-ENDLIST"));
+		assertEquals(14, classifier.getNameEnd());
+		assertEquals(-1, classifier.getValueStart());
+		assertEquals(0, classifier.getAttributeCount());
+
+		assertEquals(LineType.TAG_TYPE, classifier.classify("#EXT-X-KEY:URI=\"a,b"));
+		assertFalse(classifier.hasBalancedQuotes());
+
+		assertEquals(LineType.BLANK_TYPE, classifier.classify(""));
+		assertEquals(LineType.COMMENT_TYPE, classifier.classify("#EX"));
+		assertEquals(LineType.ERROR_TYPE, classifier.classify(" \t "));
+		assertEquals(LineType.URI_TYPE, classifier.classify(" seg1.ts"));
+		assertEquals(-1, classifier.getNameEnd());
+	}
+
+	@Test
+	public final void testBytesClassifyAsStrings() {
+		String[] lines = { MEDIA_TAG, "#EXTINF:9.009,caf\u00e9", "#EXT-X-ENDLIST", "#EXT-X-KEY:URI=\"a,b", "", "#EX",
+				"# comment \u00e9", " \t ", "\u00a0", "seg1.ts", "\u30bb\u30b0.ts", "#EXT-X-DATERANGE:,,X-A=1,", "#EXT-X-TARGETDURATION:" };
+		LineClassifier chars = new LineClassifier();
+		LineClassifier bytes = new LineClassifier();
+
+		for(String line : lines) {
+			byte[] prefix = "\n\n".getBytes(StandardCharsets.UTF_8);
+			byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+			byte[] buffer = new byte[prefix.length + encoded.length];
+			System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+			System.arraycopy(encoded, 0, buffer, prefix.length, encoded.length);
+
+			assertEquals(line, chars.classify(line), bytes.classify(buffer, prefix.length, buffer.length));
+			assertEquals(line, line.chars().allMatch(c -> c < 0x80), bytes.isAscii());
+			assertEquals(line, chars.getAttributeCount(), bytes.getAttributeCount());
+			assertEquals(line, chars.hasBalancedQuotes(), bytes.hasBalancedQuotes());
+
+			//Offsets agree for ASCII names and values
+			if(bytes.isAscii() && chars.getType() == LineType.TAG_TYPE) {
+				assertEquals(line, chars.getNameStart() + prefix.length, bytes.getNameStart());
+				assertEquals(line, chars.getNameEnd() + prefix.length, bytes.getNameEnd());
+				assertEquals(line, chars.getValueStart() < 0 ? -1 : chars.getValueStart() + prefix.length, bytes.getValueStart());
+				for(int i = 0; i < chars.getAttributeCount(); i++) {
+					assertEquals(line, chars.getAttributeStart(i) + prefix.length, bytes.getAttributeStart(i));
+					assertEquals(line, chars.getAttributeEnd(i) + prefix.length, bytes.getAttributeEnd(i));
+				}
+			}
+		}
+	}
+
+}
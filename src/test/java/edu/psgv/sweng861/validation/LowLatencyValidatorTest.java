@@ -0,0 +1,123 @@
+package edu.psgv.sweng861.validation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.validation.LowLatencyValidator;
+import org.junit.Test;
+
+public class LowLatencyValidatorTest {
+
+	private final LowLatencyValidator validator = new LowLatencyValidator();
+
+	/**
+	 * validate() validates a Media Playlist with a target duration of 4 seconds, made of
+	 * 	the header followed by the given lines.
+	 */
+	private List<String> validate(String... lines) {
+		List<String> contents = new ArrayList<String>(Arrays.asList("#EXTM3U", "#EXT-X-VERSION:9", "#EXT-X-TARGETDURATION:4"));
+		contents.addAll(Arrays.asList(lines));
+
+		return validator.validateMediaPlaylist(new MediaPlaylist("http://example.com/low.m3u8", contents));
+	}
+
+	@Test
+	public void testValid() {
+		assertEquals(Collections.emptyList(), validate(
+				"#EXT-X-SERVER-CONTROL:CAN-BLOCK-RELOAD=YES,HOLD-BACK=12,PART-HOLD-BACK=1.0,CAN-SKIP-UNTIL=24",
+				"#EXT-X-PART-INF:PART-TARGET=0.5",
+				"#EXT-X-PART:DURATION=0.5,URI=\"part1.mp4\",INDEPENDENT=YES",
+				"#EXT-X-PART:DURATION=0.48,URI=\"part2.mp4\"",
+				"#EXTINF:0.98,",
+				"seg1.mp4",
+				"#EXT-X-PRELOAD-HINT:TYPE=PART,URI=\"part3.mp4\""));
+
+		//Playlists without Low-Latency tags have nothing to validate
+		assertEquals(Collections.emptyList(), validate("#EXTINF:4.0,", "seg1.ts", "#EXT-X-ENDLIST"));
+	}
+
+	@Test
+	public void testPartWithoutPartInf() {
+		assertEquals(Collections.singletonList("[FATAL | line 5: Media Playlist containing 'EXT-X-PART' tags must contain an 'EXT-X-PART-INF' tag."),
+				validate("#EXTINF:1.0,", "#EXT-X-PART:DURATION=0.5,URI=\"part1.mp4\"", "#EXT-X-PART:DURATION=0.5,URI=\"part2.mp4\"", "seg1.mp4"));
+	}
+
+	@Test
+	public void testDuplicates() {
+		assertEquals(Arrays.asList(
+				"[FATAL | line 5: Media Playlist must not contain more than one 'EXT-X-PART-INF' tag.",
+				"[FATAL | line 7: Media Playlist must not contain more than one 'EXT-X-SERVER-CONTROL' tag."),
+				validate("#EXT-X-PART-INF:PART-TARGET=0.5",
+						"#EXT-X-PART-INF:PART-TARGET=1.0",
+						"#EXT-X-SERVER-CONTROL:PART-HOLD-BACK=1.5",
+						"#EXT-X-SERVER-CONTROL:PART-HOLD-BACK=1.5"));
+	}
+
+	@Test
+	public void testParts() {
+		assertEquals(Arrays.asList(
+				"[FATAL | line 4: 'EXT-X-PART-INF' must contain a positive 'PART-TARGET' attribute.",
+				"[FATAL | line 5: 'EXT-X-PART' must contain a numeric 'DURATION' attribute."),
+				validate("#EXT-X-PART-INF:PART-TARGET=0", "#EXT-X-PART:DURATION=half,URI=\"part1.mp4\""));
+
+		assertEquals(Arrays.asList(
+				"[SEVERE | line 5: Partial segment duration must not exceed the part target duration of: 0.5.",
+				"[FATAL | line 7: 'EXT-X-PART' must contain a 'URI' attribute."),
+				validate("#EXT-X-PART-INF:PART-TARGET=0.5",
+						"#EXT-X-PART:DURATION=0.51,URI=\"part1.mp4\"",
+						"#EXT-X-PART:DURATION=0.5,URI=\"part2.mp4\"",
+						"#EXT-X-PART:DURATION=0.5"));
+	}
+
+	@Test
+	public void testPartInfAfterParts() {
+		//Parts before 'EXT-X-PART-INF' are checked against it once it is found
+		assertEquals(Arrays.asList(
+				"[SEVERE | line 4: Partial segment duration must not exceed the part target duration of: 0.5.",
+				"[SEVERE | line 6: 'PART-HOLD-BACK' must be at least twice the part target duration."),
+				validate("#EXT-X-PART:DURATION=0.6,URI=\"part1.mp4\"",
+						"#EXT-X-PART:DURATION=0.5,URI=\"part2.mp4\"",
+						"#EXT-X-SERVER-CONTROL:HOLD-BACK=12,PART-HOLD-BACK=0.9",
+						"#EXT-X-PART-INF:PART-TARGET=0.5"));
+
+		//A target duration after the server control still applies to it
+		List<String> contents = Arrays.asList("#EXTM3U", "#EXT-X-SERVER-CONTROL:HOLD-BACK=6", "#EXT-X-TARGETDURATION:4");
+		assertEquals(Collections.singletonList("[SEVERE | line 2: 'HOLD-BACK' must be at least three times the target duration."),
+				validator.validateMediaPlaylist(new MediaPlaylist("http://example.com/low.m3u8", contents)));
+	}
+
+	@Test
+	public void testServerControl() {
+		assertEquals(Arrays.asList(
+				"[SEVERE | line 5: 'HOLD-BACK' must be at least three times the target duration.",
+				"[SEVERE | line 5: 'PART-HOLD-BACK' must be at least twice the part target duration.",
+				"[SEVERE | line 5: 'CAN-SKIP-UNTIL' must be at least six times the target duration."),
+				validate("#EXT-X-PART-INF:PART-TARGET=0.5",
+						"#EXT-X-SERVER-CONTROL:HOLD-BACK=11.9,PART-HOLD-BACK=0.99,CAN-SKIP-UNTIL=23.9"));
+
+		//At exactly the minimums
+		assertEquals(Collections.emptyList(), validate("#EXT-X-PART-INF:PART-TARGET=0.5",
+				"#EXT-X-SERVER-CONTROL:HOLD-BACK=12,PART-HOLD-BACK=1,CAN-SKIP-UNTIL=24"));
+
+		assertEquals(Collections.singletonList("[SEVERE | line 5: 'EXT-X-SERVER-CONTROL' must contain 'PART-HOLD-BACK' when the playlist contains 'EXT-X-PART-INF'."),
+				validate("#EXT-X-PART-INF:PART-TARGET=0.5", "#EXT-X-SERVER-CONTROL:HOLD-BACK=12"));
+	}
+
+	@Test
+	public void testPreloadHint() {
+		assertEquals(Arrays.asList(
+				"[FATAL | line 4: 'EXT-X-PRELOAD-HINT' must contain a 'TYPE' attribute of PART or MAP.",
+				"[FATAL | line 5: 'EXT-X-PRELOAD-HINT' must contain a 'TYPE' attribute of PART or MAP.",
+				"[FATAL | line 6: 'EXT-X-PRELOAD-HINT' must contain a 'URI' attribute."),
+				validate("#EXT-X-PRELOAD-HINT:TYPE=SEGMENT,URI=\"part3.mp4\"",
+						"#EXT-X-PRELOAD-HINT:URI=\"part3.mp4\"",
+						"#EXT-X-PRELOAD-HINT:TYPE=MAP",
+						"#EXT-X-PRELOAD-HINT:TYPE=PART,URI=\"part4.mp4\""));
+	}
+
+}
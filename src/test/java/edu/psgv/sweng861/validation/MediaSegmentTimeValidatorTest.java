@@ -0,0 +1,45 @@
+package edu.psgv.sweng861.validation;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.validation.MediaSegmentTimeValidator;
+import edu.psgv.sweng.validation.SegmentTimeline;
+import org.junit.Test;
+
+public class MediaSegmentTimeValidatorTest {
+
+	private static final String NO_DURATION = "Media Playlist segment tag 'EXTINF' must include a duration time.";
+
+	@Test
+	public final void testBareExtinfReported() {
+		List<String> contents = Arrays.asList("#EXTM3U", "#EXT-X-TARGETDURATION:10", "#EXTINF", "seg1.ts",
+				"#EXTINF:abc,", "seg2.ts", "#EXTINF:4.0,", "seg3.ts", "#EXTINFO:4.0,", "seg4.ts", "#EXT-X-ENDLIST");
+
+		SegmentTimeline timeline = SegmentTimeline.scan(contents);
+		assertEquals(4, timeline.getCount());
+		assertEquals(3, timeline.getDurationLine(0));
+		assertTrue(Double.isNaN(timeline.getDuration(0)));
+		assertEquals(4.0, timeline.getDuration(2), 0.0);
+		assertEquals(0, timeline.getDurationLine(3));
+
+		List<String> errors = new MediaSegmentTimeValidator().validateMediaPlaylist(new MediaPlaylist("http://example.com/media.m3u8", contents));
+
+		assertEquals(Arrays.asList("[FATAL | line 3: " + NO_DURATION, "[FATAL | line 5: " + NO_DURATION), errors);
+	}
+
+	@Test
+	public final void testDurationExceedsTarget() {
+		List<String> contents = Arrays.asList("#EXTM3U", "#EXT-X-TARGETDURATION:4", "#EXTINF:4.4,", "seg1.ts",
+				"#EXTINF:4.5,", "seg2.ts", "#EXT-X-ENDLIST");
+
+		List<String> errors = new MediaSegmentTimeValidator().validateMediaPlaylist(new MediaPlaylist("http://example.com/media.m3u8", contents));
+
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0), errors.get(0).startsWith("[SEVERE | line 5: "));
+	}
+
+}
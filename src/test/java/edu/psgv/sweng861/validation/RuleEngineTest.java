@@ -0,0 +1,265 @@
+package edu.psgv.sweng861.validation;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.psgv.sweng.io.HLSUtilities;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.Playlist;
+import edu.psgv.sweng.playlist.PlaylistFactory;
+import edu.psgv.sweng.playlist.PlaylistType;
+import edu.psgv.sweng.trace.Span;
+import edu.psgv.sweng.trace.Trace;
+import edu.psgv.sweng.trace.Tracer;
+import edu.psgv.sweng.validation.ClassifiedLines;
+import edu.psgv.sweng.validation.LineType;
+import edu.psgv.sweng.validation.RuleContext;
+import edu.psgv.sweng.validation.RuleEngine;
+import edu.psgv.sweng.validation.TagContextValidator;
+import edu.psgv.sweng.validation.URISequenceValidator;
+import edu.psgv.sweng.validation.ValidationRule;
+import org.junit.Test;
+
+public class RuleEngineTest {
+
+	List<String> media = Arrays.asList("#EXTM3U", "#EXT-X-TARGETDURATION:10", "#EXT-X-TARGETDURATION:10",
+			"#EXTINF:9.0,", "#EXT-X-ALLOW-CACHE:NO", "seg1.ts", "  ", "#EXT-X-ENDLIST");
+
+	@Test
+	public final void testDiscover() {
+		List<String> names = new ArrayList<String>();
+		for(ValidationRule rule : RuleEngine.discover().getRules()) {
+			names.add(rule.getName());
+		}
+
+		assertEquals(Arrays.asList("FirstTagValidator", "URISequenceValidator", "MediaSegmentTimeValidator",
+				"TagContextValidator", "LowLatencyValidator", "VariantAlignmentValidator"), names);
+	}
+
+	@Test
+	public final void testFusedScanMatchesRulesRunAlone() {
+		Playlist playlist = PlaylistFactory.create("http://example.com/media.m3u8", media);
+		assertTrue(playlist instanceof MediaPlaylist);
+
+		URISequenceValidator uriSequence = new URISequenceValidator();
+		TagContextValidator tagContext = new TagContextValidator();
+
+		List<String> expected = new ArrayList<String>();
+		expected.addAll(uriSequence.validateMediaPlaylist((MediaPlaylist) playlist));
+		expected.addAll(tagContext.validateMediaPlaylist((MediaPlaylist) playlist));
+
+		List<String> errors = new RuleEngine(Arrays.asList(uriSequence, tagContext)).validateMediaPlaylist((MediaPlaylist) playlist);
+
+		assertEquals(expected, errors);
+		assertEquals(4, errors.size());
+		assertEquals("[FATAL | line 5: Media Playlist must have media segment file on line after 'EXTINF' tag.", errors.get(0));
+		assertEquals("[FATAL | line 3: Media Playlist should not contain more than one 'EXT-X-TARGETDURATION' tag.", errors.get(1));
+	}
+
+	@Test
+	public final void testFindingsAddedToList() {
+		Playlist playlist = PlaylistFactory.create("http://example.com/media.m3u8", media);
+		RuleEngine engine = new RuleEngine(Arrays.asList(new URISequenceValidator(), new TagContextValidator()));
+		List<String> expected = engine.validateMediaPlaylist((MediaPlaylist) playlist);
+
+		//Findings follow those already in the list, grouped by rule, every time the engine is reused
+		List<String> errors = new ArrayList<String>();
+		errors.add("[WARNING | line 1: earlier");
+		engine.validateMediaPlaylist((MediaPlaylist) playlist, errors);
+		engine.validateMediaPlaylist((MediaPlaylist) playlist, errors);
+
+		assertEquals(1 + 2 * expected.size(), errors.size());
+		assertEquals("[WARNING | line 1: earlier", errors.get(0));
+		assertEquals(expected, errors.subList(1, 1 + expected.size()));
+		assertEquals(expected, errors.subList(1 + expected.size(), errors.size()));
+	}
+
+	@Test
+	public final void testOnlySubscribedLinesAreDispatched() {
+		final List<String> seen = new ArrayList<String>();
+
+		ValidationRule rule = new ValidationRule() {
+			public String getName() {
+				return "EndList";
+			}
+
+			public Set<PlaylistType> getPlaylistTypes() {
+				return EnumSet.of(PlaylistType.MEDIA);
+			}
+
+			public Set<String> getTags() {
+				return Collections.singleton("EXT-X-ENDLIST");
+			}
+
+			public void onLine(RuleContext context, int lineNum, String line, LineType type, String tag) {
+				seen.add(lineNum + ":" + tag);
+				context.report(lineNum, "WARNING", "seen");
+			}
+		};
+
+		Playlist playlist = PlaylistFactory.create("http://example.com/media.m3u8", media);
+		List<String> errors = new RuleEngine(Collections.singletonList(rule)).validateMediaPlaylist((MediaPlaylist) playlist);
+
+		assertEquals(Collections.singletonList("8:EXT-X-ENDLIST"), seen);
+		assertEquals(Collections.singletonList("[WARNING | line 8: seen"), errors);
+	}
+
+	@Test
+	public final void testClassifiedLinesNotClassifiedAgain() throws Exception {
+		final List<String> seen = new ArrayList<String>();
+
+		ValidationRule rule = new ValidationRule() {
+			public String getName() {
+				return "Everything";
+			}
+
+			public Set<PlaylistType> getPlaylistTypes() {
+				return EnumSet.of(PlaylistType.MEDIA);
+			}
+
+			public Set<LineType> getLineTypes() {
+				return EnumSet.allOf(LineType.class);
+			}
+
+			public void onLine(RuleContext context, int lineNum, String line, LineType type, String tag) {
+				seen.add(lineNum + ":" + type + ":" + tag);
+			}
+		};
+		RuleEngine engine = new RuleEngine(Collections.singletonList(rule));
+
+		//Read and classified on bytes, the lines are dispatched as their strings would be
+		String text = "#EXTM3U\n#EXT-X-TARGETDURATION:10\n\n#EXT-\u00e9:1\n# caf\u00e9\n \n#EXTINF:9.0,\nseg1.ts";
+		ClassifiedLines classified = new ClassifiedLines();
+		HLSUtilities.readLines(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), classified);
+		assertTrue(classified.isClassified());
+
+		engine.validateMediaPlaylist(new MediaPlaylist("http://example.com/media.m3u8", new ArrayList<String>(classified)));
+		List<String> expected = new ArrayList<String>(seen);
+		seen.clear();
+		engine.validateMediaPlaylist(new MediaPlaylist("http://example.com/media.m3u8", classified));
+
+		assertEquals(expected, seen);
+		assertEquals(Arrays.asList("1:TAG_TYPE:EXTM3U", "2:TAG_TYPE:EXT-X-TARGETDURATION", "3:BLANK_TYPE:null", "4:TAG_TYPE:EXT-\u00e9",
+				"5:COMMENT_TYPE:null", "6:ERROR_TYPE:null", "7:TAG_TYPE:EXTINF", "8:URI_TYPE:null"), seen);
+
+		//The engine takes a classification as it is, until lines are inserted
+		ClassifiedLines lines = new ClassifiedLines();
+		lines.add("#EXTM3U", LineType.TAG_TYPE, 7);
+		lines.add("seg1.ts", LineType.COMMENT_TYPE, -1);
+		seen.clear();
+		engine.validateMediaPlaylist(new MediaPlaylist("http://example.com/media.m3u8", lines));
+		assertEquals(Arrays.asList("1:TAG_TYPE:EXTM3U", "2:COMMENT_TYPE:null"), seen);
+
+		lines.add(1, "#EXT-X-TARGETDURATION:10");
+		assertFalse(lines.isClassified());
+		seen.clear();
+		engine.validateMediaPlaylist(new MediaPlaylist("http://example.com/media.m3u8", lines));
+		assertEquals(Arrays.asList("1:TAG_TYPE:EXTM3U", "2:TAG_TYPE:EXT-X-TARGETDURATION", "3:URI_TYPE:null"), seen);
+	}
+
+	@Test
+	public final void testFailingRulesDoNotDropReport() {
+		ValidationRule throwsOnLine = new ValidationRule() {
+			public String getName() {
+				return "ThrowsOnLine";
+			}
+
+			public Set<PlaylistType> getPlaylistTypes() {
+				return EnumSet.of(PlaylistType.MEDIA);
+			}
+
+			public Set<LineType> getLineTypes() {
+				return EnumSet.of(LineType.URI_TYPE);
+			}
+
+			public void onLine(RuleContext context, int lineNum, String line, LineType type, String tag) {
+				context.report(lineNum, "WARNING", "before failing");
+				throw new IllegalStateException("onLine");
+			}
+		};
+		ValidationRule throwsOnDocument = new ValidationRule() {
+			public String getName() {
+				return "ThrowsOnDocument";
+			}
+
+			public Set<PlaylistType> getPlaylistTypes() {
+				return EnumSet.of(PlaylistType.MEDIA);
+			}
+
+			public boolean needsDocument() {
+				return true;
+			}
+
+			public void validateDocument(RuleContext context) {
+				throw new IllegalStateException("validateDocument");
+			}
+		};
+
+		Playlist playlist = PlaylistFactory.create("http://example.com/media.m3u8", media);
+		List<String> expected = new URISequenceValidator().validateMediaPlaylist((MediaPlaylist) playlist);
+		RuleEngine engine = new RuleEngine(Arrays.asList(throwsOnLine, throwsOnDocument, new URISequenceValidator()));
+
+		//A failed rule keeps what it found before failing, only once per playlist, every time
+		for(int i = 0; i < 2; i++) {
+			List<String> errors = engine.validateMediaPlaylist((MediaPlaylist) playlist);
+
+			assertEquals(1 + expected.size(), errors.size());
+			assertEquals("[WARNING | line 6: before failing", errors.get(0));
+			assertEquals(expected, errors.subList(1, errors.size()));
+		}
+	}
+
+	@Test
+	public final void testSpansEndWhenRuleThrows() {
+		ValidationRule throwsError = new ValidationRule() {
+			public String getName() {
+				return "ThrowsError";
+			}
+
+			public Set<PlaylistType> getPlaylistTypes() {
+				return EnumSet.of(PlaylistType.MEDIA);
+			}
+
+			public boolean needsDocument() {
+				return true;
+			}
+
+			public void validateDocument(RuleContext context) {
+				throw new AssertionError("validateDocument");
+			}
+		};
+		RuleEngine engine = new RuleEngine(Arrays.asList(new URISequenceValidator(), throwsError));
+		Playlist playlist = PlaylistFactory.create("http://example.com/media.m3u8", media);
+
+		List<Trace> traces = new ArrayList<Trace>();
+		Tracer.enable(traces::add);
+		try {
+			Span root = Tracer.startTrace(1, playlist.getStrURL());
+
+			try {
+				engine.validateMediaPlaylist((MediaPlaylist) playlist);
+				fail("Errors are not caught");
+			} catch(AssertionError e) {
+				assertEquals("validateDocument", e.getMessage());
+			}
+
+			//The playlist's span is current again, not the validation's
+			Span next = Tracer.start("next", null);
+			assertSame(root, next.getParent());
+			next.end();
+			root.end();
+			assertEquals(1, traces.size());
+		} finally {
+			Tracer.disable();
+		}
+	}
+
+}
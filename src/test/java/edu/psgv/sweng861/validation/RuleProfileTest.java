@@ -0,0 +1,88 @@
+package edu.psgv.sweng861.validation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.PlaylistFactory;
+import edu.psgv.sweng.validation.FirstTagValidator;
+import edu.psgv.sweng.validation.RuleEngine;
+import edu.psgv.sweng.validation.RuleProfile;
+import edu.psgv.sweng.validation.TagContextValidator;
+import edu.psgv.sweng.validation.ValidationRule;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RuleProfileTest {
+
+	Properties properties;
+	List<ValidationRule> rules;
+
+	@Before
+	public void setUp() throws Exception {
+		properties = new Properties();
+		properties.setProperty("base.FirstTagValidator.severity", "warning");
+		properties.setProperty("strict.extends", "base");
+		properties.setProperty("strict.FirstTagValidator.severity", "FATAL");
+		properties.setProperty("strict.TagContextValidator", "off");
+		properties.setProperty("modern.TagContextValidator.versions", "7-");
+
+		rules = Arrays.<ValidationRule>asList(new FirstTagValidator(), new TagContextValidator());
+	}
+
+	@Test
+	public final void testExtendsAndOverrides() {
+		RuleProfile profile = RuleProfile.fromProperties("strict", properties);
+
+		assertEquals("FATAL", profile.getSeverity(rules.get(0)));
+		assertFalse(profile.isEnabled(rules.get(1)));
+
+		RuleEngine engine = new RuleEngine(rules, profile);
+		assertEquals(Collections.singletonList(rules.get(0)), engine.getRules());
+
+		MediaPlaylist playlist = media("#EXT-X-VERSION:3", "#EXT-X-ALLOW-CACHE:NO");
+		assertEquals(Collections.singletonList("[FATAL | line 1: Playlist file does not contain required M3U tag on line 1.  Caution processing playlist."),
+				engine.validateMediaPlaylist(playlist));
+	}
+
+	@Test
+	public final void testVersionSelection() {
+		RuleEngine engine = new RuleEngine(rules, RuleProfile.fromProperties("modern", properties));
+
+		assertEquals(0, engine.validateMediaPlaylist(media("#EXTM3U", "#EXT-X-VERSION:3", "#EXT-X-ALLOW-CACHE:NO")).size());
+		assertEquals(1, engine.validateMediaPlaylist(media("#EXTM3U", "#EXT-X-VERSION:7", "#EXT-X-ALLOW-CACHE:NO")).size());
+		assertEquals(0, engine.validateMediaPlaylist(media("#EXTM3U", "#EXT-X-ALLOW-CACHE:NO")).size());
+	}
+
+	@Test
+	public final void testInvalidProfiles() {
+		properties.setProperty("bad.FirstTagValidator.severity", "LOUD");
+
+		for(String name : Arrays.asList("unknown", "bad")) {
+			try {
+				RuleProfile.fromProperties(name, properties);
+				fail("Profile '" + name + "' should be rejected.");
+			} catch(IllegalArgumentException e) {
+				//Expected
+			}
+		}
+
+		//Always available
+		assertTrue(RuleProfile.fromProperties(RuleProfile.DEFAULT_PROFILE, properties).isEnabled(rules.get(1)));
+	}
+
+	private static MediaPlaylist media(String... header) {
+		List<String> lines = new ArrayList<String>(Arrays.asList(header));
+		lines.add("#EXT-X-TARGETDURATION:10");
+		lines.add("#EXTINF:9.0,");
+		lines.add("seg1.ts");
+
+		return (MediaPlaylist) PlaylistFactory.create("http://example.com/media.m3u8", lines);
+	}
+
+}
@@ -53,4 +53,36 @@ public class ValidationUtilsTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public final void testGetAttributeValue() {
+		String mediaTag = "#EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID=\"aud\",NAME=\"English, main\",URI=\"audio/en.m3u8\"";
+
+		assertEquals("AUDIO", ValidationUtils.getAttributeValue(mediaTag, "TYPE"));
+		assertEquals("English, main", ValidationUtils.getAttributeValue(mediaTag, "NAME"));
+		assertEquals("audio/en.m3u8", ValidationUtils.getAttributeValue(mediaTag, "URI"));
+		assertNull(ValidationUtils.getAttributeValue(mediaTag, "LANGUAGE"));
+	}
+
+	@Test
+	public final void testParseDecimal() {
+		String extinf = "#EXTINF:9.009,title";
+
+		assertEquals(9.009, ValidationUtils.parseDecimal(extinf, 8, 13), 0.0);
+		assertEquals(10.0, ValidationUtils.parseDecimal("#EXTINF:10,", 8, 10), 0.0);
+		assertEquals(-1.5, ValidationUtils.parseDecimal("-1.5", 0, 4), 0.0);
+		assertEquals(10.0, ValidationUtils.parseDecimal("1e1", 0, 3), 0.0);
+		assertTrue(Double.isNaN(ValidationUtils.parseDecimal("#EXTINF:abc,", 8, 11)));
+		assertTrue(Double.isNaN(ValidationUtils.parseDecimal("#EXTINF:,", 8, 8)));
+	}
+
+	@Test
+	public final void testParseDateTime() {
+		String tag = "#EXT-X-PROGRAM-DATE-TIME:";
+
+		assertEquals(1266562463031L, ValidationUtils.parseDateTime(tag + "2010-02-19T06:54:23.031Z", tag.length()));
+		assertEquals(1266562463031L, ValidationUtils.parseDateTime(tag + "2010-02-19T14:54:23.031+08:00", tag.length()));
+		assertEquals(0L, ValidationUtils.parseDateTime(tag + "1970-01-01T00:00:00Z", tag.length()));
+		assertEquals(Long.MIN_VALUE, ValidationUtils.parseDateTime(tag + "2010-02-19 06:54", tag.length()));
+	}
+
 }
@@ -0,0 +1,156 @@
+package edu.psgv.sweng861.validation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.psgv.sweng.playlist.MasterPlaylist;
+import edu.psgv.sweng.playlist.MediaPlaylist;
+import edu.psgv.sweng.playlist.RenditionType;
+import edu.psgv.sweng.validation.MediaSegmentTimeValidator;
+import edu.psgv.sweng.validation.RuleEngine;
+import edu.psgv.sweng.validation.SegmentTimeline;
+import edu.psgv.sweng.validation.Validator;
+import edu.psgv.sweng.validation.VariantAlignmentValidator;
+import org.junit.Test;
+
+public class VariantAlignmentValidatorTest {
+
+	private static final String BASE = "http://example.com/";
+
+	private final RuleEngine engine = new RuleEngine(Collections.singletonList(new VariantAlignmentValidator()));
+
+	/**
+	 * media() builds a Media Playlist with a target duration of 4 seconds starting at a
+	 * 	media sequence number, with a discontinuity before the segment at an index (or -1).
+	 */
+	private static List<String> media(long mediaSequence, int discontinuity, double... durations) {
+		List<String> contents = new ArrayList<String>(Arrays.asList("#EXTM3U", "#EXT-X-TARGETDURATION:4",
+				"#EXT-X-MEDIA-SEQUENCE:" + mediaSequence));
+
+		for(int i = 0; i < durations.length; i++) {
+			if(i == discontinuity) {
+				contents.add("#EXT-X-DISCONTINUITY");
+			}
+			contents.add("#EXTINF:" + durations[i] + ",");
+			contents.add("seg" + (mediaSequence + i) + ".ts");
+		}
+		contents.add("#EXT-X-ENDLIST");
+
+		return contents;
+	}
+
+	/**
+	 * master() builds a Master Playlist of fetched variants 'v0.m3u8', 'v1.m3u8', ... whose
+	 * 	URIs are on lines 3, 5, ...
+	 */
+	@SafeVarargs
+	private static MasterPlaylist master(List<String>... variants) {
+		List<String> contents = new ArrayList<String>(Collections.singletonList("#EXTM3U"));
+		List<MediaPlaylist> playlists = new ArrayList<MediaPlaylist>();
+
+		for(int v = 0; v < variants.length; v++) {
+			contents.add("#EXT-X-STREAM-INF:BANDWIDTH=" + (v + 1) * 1000);
+			contents.add("v" + v + ".m3u8");
+			playlists.add(new MediaPlaylist(BASE + "v" + v + ".m3u8", variants[v]));
+		}
+
+		return new MasterPlaylist(BASE + "master.m3u8", contents, playlists);
+	}
+
+	@Test
+	public void testAligned() {
+		List<String> variant = media(10, 2, 4.0, 3.9, 3.8, 3.7, 3.6);
+
+		assertEquals(Collections.emptyList(), engine.validateMasterPlaylist(master(variant, variant, variant)));
+		assertEquals(Collections.emptyList(), engine.validateMasterPlaylist(master(variant)));
+	}
+
+	@Test
+	public void testMisaligned() {
+		MasterPlaylist playlist = master(media(10, 2, 4.0, 3.9, 3.8, 3.7, 3.6),
+				//Starts a segment later; it's segments (and discontinuity) are compared by media sequence number
+				media(11, 1, 3.9, 3.8, 2.0, 3.6),
+				//The discontinuity is a segment late
+				media(10, 3, 4.0, 3.9, 3.8, 3.7, 3.6));
+
+		assertEquals(Arrays.asList(
+				"[MINOR | line 5: Variants should start at the same media sequence number: 'v1.m3u8' and 'v0.m3u8' (11 vs 10).",
+				"[MINOR | line 5: Variants should contain the same number of media segments: 'v1.m3u8' and 'v0.m3u8' (4 vs 5).",
+				"[WARNING | line 5: Segment durations diverge between variants 'v1.m3u8' and 'v0.m3u8' at 1 segment(s), first at media sequence 13 (2.0s vs 3.7s).",
+				"[MINOR | line 5: Total durations diverge by more than a target duration between variants 'v1.m3u8' and 'v0.m3u8' (13.3s vs 19.0s).",
+				"[SEVERE | line 7: Discontinuities are not aligned between variants 'v2.m3u8' and 'v0.m3u8' at 2 segment(s), first at media sequence 12."),
+				engine.validateMasterPlaylist(playlist));
+	}
+
+	@Test
+	public void testTolerances() {
+		MasterPlaylist playlist = master(media(0, -1, 4.0, 4.0, 4.0, 4.0),
+				//Every segment differs by exactly the tolerance of half a second
+				media(0, -1, 4.5, 3.5, 4.5, 3.5),
+				//A segment more, so the totals differ by exactly a target duration
+				media(0, -1, 4.0, 4.0, 4.0, 4.0, 4.0),
+				//Segments within the tolerance that add up to more than a target duration
+				media(0, -1, 4.4, 4.4, 4.4, 4.4, 4.4),
+				//Just over the tolerance
+				media(0, -1, 4.0, 4.0, 3.49, 4.0));
+
+		assertEquals(Arrays.asList(
+				"[MINOR | line 7: Variants should contain the same number of media segments: 'v2.m3u8' and 'v0.m3u8' (5 vs 4).",
+				"[MINOR | line 9: Variants should contain the same number of media segments: 'v3.m3u8' and 'v0.m3u8' (5 vs 4).",
+				"[MINOR | line 9: Total durations diverge by more than a target duration between variants 'v3.m3u8' and 'v0.m3u8' (22.0s vs 16.0s).",
+				"[WARNING | line 11: Segment durations diverge between variants 'v4.m3u8' and 'v0.m3u8' at 1 segment(s), first at media sequence 2 (3.49s vs 4.0s)."),
+				engine.validateMasterPlaylist(playlist));
+	}
+
+	@Test
+	public void testInvalidDurationsDiverge() {
+		List<String> broken = media(0, -1, 4.0, 4.0, 4.0);
+		broken.set(5, "#EXTINF:abc,");
+		MasterPlaylist playlist = master(media(0, -1, 4.0, 4.0, 4.0), broken);
+
+		assertEquals(Arrays.asList(
+				"[WARNING | line 5: Segment durations diverge between variants 'v1.m3u8' and 'v0.m3u8' at 1 segment(s), first at media sequence 1 (invalid vs 4.0s).",
+				"[MINOR | line 5: Total durations diverge by more than a target duration between variants 'v1.m3u8' and 'v0.m3u8' (invalid vs 12.0s)."),
+				engine.validateMasterPlaylist(playlist));
+	}
+
+	@Test
+	public void testTimelineScannedOnce() {
+		MasterPlaylist playlist = master(media(0, -1, 4.0, 4.0), media(0, -1, 4.0, 4.0));
+		MediaPlaylist variant = playlist.getVariants().get(1);
+
+		//The segment time rule and the alignment rule share the variant's timeline
+		new MediaSegmentTimeValidator().validateMediaPlaylist(variant);
+		SegmentTimeline timeline = variant.getTimeline();
+		engine.validateMasterPlaylist(playlist);
+
+		assertSame(timeline, variant.getTimeline());
+		assertEquals(2, timeline.getCount());
+	}
+
+	@Test
+	public void testMasterOnlyReportsNothing() {
+		final AtomicInteger fetches = new AtomicInteger();
+		final List<String> misaligned = media(5, 0, 2.0, 9.0);
+
+		List<String> contents = Arrays.asList("#EXTM3U", "#EXT-X-STREAM-INF:BANDWIDTH=1000", "v0.m3u8",
+				"#EXT-X-STREAM-INF:BANDWIDTH=2000", "v1.m3u8");
+		List<MediaPlaylist> variants = Arrays.asList(
+				new MediaPlaylist(BASE + "v0.m3u8", RenditionType.VARIANT, url -> { fetches.incrementAndGet(); return media(0, -1, 4.0); }),
+				new MediaPlaylist(BASE + "v1.m3u8", RenditionType.VARIANT, url -> { fetches.incrementAndGet(); return misaligned; }));
+		MasterPlaylist playlist = new MasterPlaylist(BASE + "master.m3u8", contents, variants);
+
+		//Master-only checks never fetch a variant, so there is nothing to compare
+		playlist.acceptMaster(Collections.<Validator>singletonList(engine));
+
+		assertEquals(Collections.emptyList(), playlist.getErrors());
+		assertEquals(0, fetches.get());
+		assertFalse(variants.get(0).isLoaded());
+	}
+
+}